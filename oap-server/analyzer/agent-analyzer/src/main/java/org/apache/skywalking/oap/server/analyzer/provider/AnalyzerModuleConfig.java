@@ -93,10 +93,17 @@ public class AnalyzerModuleConfig extends ModuleConfig {
      */
     @Setter
     private String meterAnalyzerActiveFiles = Const.EMPTY_STRING;
+    /**
+     * The max number of the label series kept by the MAL counter functions, `increase`, `rate` and `irate`. The least
+     * recently received series are dropped beyond that.
+     */
+    @Setter
+    @Getter
+    private int malCounterWindowMaxSeries = 1_000_000;
 
     /**
      * Sample the trace segment if the segment has span(s) tagged as error status, and ignore the sampleRate
-     * configuration.
+     * configuration. If the sampling is adaptive, the error segments are favoured in the budget instead.
      */
     @Setter
     @Getter
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.analyzer.provider;
 import java.util.List;
 
 import lombok.Getter;
+import org.apache.skywalking.oap.meter.analyzer.dsl.counter.CounterWindow;
 import org.apache.skywalking.oap.server.analyzer.module.AnalyzerModule;
 import org.apache.skywalking.oap.server.analyzer.provider.meter.config.MeterConfig;
 import org.apache.skywalking.oap.server.analyzer.provider.meter.config.MeterConfigs;
@@ -94,6 +95,8 @@ public class AnalyzerModuleProvider extends ModuleProvider {
         moduleConfig.setUninstrumentedGatewaysConfig(uninstrumentedGatewaysConfig);
         moduleConfig.setTraceSamplingPolicyWatcher(traceSamplingPolicyWatcher);
 
+        CounterWindow.INSTANCE.setMaxSeries(moduleConfig.getMalCounterWindowMaxSeries());
+
         segmentParserService = new SegmentParserServiceImpl(getManager(), moduleConfig);
         this.registerServiceImplementation(ISegmentParserService.class, segmentParserService);
 
@@ -21,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.oap.server.analyzer.module.AnalyzerModule;
 import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.sampling.AdaptiveSampler;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.sampling.SamplingPolicy;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.sampling.SamplingPolicySettings;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.sampling.SamplingPolicySettingsReader;
@@ -29,6 +30,8 @@ import org.apache.skywalking.oap.server.library.module.ModuleProvider;
 import org.apache.skywalking.oap.server.library.util.ResourceUtils;
 
 import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Objects.isNull;
@@ -39,6 +42,11 @@ public class TraceSamplingPolicyWatcher extends ConfigChangeWatcher {
     private final AtomicReference<String> settingsString = new AtomicReference<>(null);
     private final AtomicReference<SamplingPolicySettings> samplingPolicySettings = new AtomicReference<>(null);
     private final SamplingPolicySettings defaultSamplingPolicySettings;
+    /**
+     * The adaptive samplers of the services which have a budget, the budget is read from the latest settings in every
+     * decision, so the samplers survive the settings changes.
+     */
+    private final Map<String, AdaptiveSampler> adaptiveSamplers = new ConcurrentHashMap<>();
 
     public TraceSamplingPolicyWatcher(AnalyzerModuleConfig moduleConfig, ModuleProvider provider) {
         super(AnalyzerModule.NAME, provider, "traceSamplingPolicy");
@@ -78,6 +86,39 @@ public class TraceSamplingPolicyWatcher extends ConfigChangeWatcher {
         return shouldSampleService(samplingPolicy, sample, duration);
     }
 
+    /**
+     * Determine whether need to be sampled, including the error segments. If the budget is set in the service's or the
+     * default policy, the segment is sampled by the {@link AdaptiveSampler} of the service, the slow and error
+     * segments are favoured rather than always being sampled. Otherwise, the error segments are always sampled.
+     *
+     * @param service  service's name
+     * @param sample   sample rate of trace segment
+     * @param duration duration of trace segment
+     * @param error    true if the segment is in error, and should be favoured by the sampling
+     */
+    public boolean shouldSample(String service, int sample, int duration, boolean error) {
+        final SamplingPolicySettings settings = this.samplingPolicySettings.get();
+        final SamplingPolicy samplingPolicy = settings.get(service);
+        final SamplingPolicy defaultPolicy = settings.getDefaultPolicy();
+        final Integer budget = samplingPolicy != null && samplingPolicy.getBudget() != null
+            ? samplingPolicy.getBudget() : defaultPolicy.getBudget();
+        if (budget == null) {
+            return error || shouldSample(service, sample, duration);
+        }
+
+        final Integer rate = samplingPolicy != null && samplingPolicy.getRate() != null
+            ? samplingPolicy.getRate() : defaultPolicy.getRate();
+        final Integer slowThreshold = samplingPolicy != null && samplingPolicy.getDuration() != null
+            ? samplingPolicy.getDuration() : defaultPolicy.getDuration();
+        final boolean abnormal = error || (slowThreshold != null && isOverSlowThreshold(duration, slowThreshold));
+
+        AdaptiveSampler sampler = adaptiveSamplers.get(service);
+        if (sampler == null) {
+            sampler = adaptiveSamplers.computeIfAbsent(service, key -> new AdaptiveSampler());
+        }
+        return sampler.shouldSample(sample, abnormal, budget, rate == null ? AdaptiveSampler.MAX_RATE : rate);
+    }
+
     /**
      * When 'duration' is over 'default trace segment's slow threshold' that should be sampled. Or when 'sample' is with
      * in [0,defaultSamplingRate) that also should be sampled.
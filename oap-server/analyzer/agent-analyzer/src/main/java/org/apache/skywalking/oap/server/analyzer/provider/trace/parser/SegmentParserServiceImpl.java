@@ -33,10 +33,17 @@ public class SegmentParserServiceImpl implements ISegmentParserService {
     private final AnalyzerModuleConfig config;
     @Setter
     private SegmentParserListenerManager listenerManager;
+    /**
+     * The analyzers are reused by the threads, as the listeners of the analyzer keep the state of the segment.
+     */
+    private final ThreadLocal<TraceAnalyzer> traceAnalyzer = ThreadLocal.withInitial(this::createTraceAnalyzer);
 
     @Override
     public void send(SegmentObject segment) {
-        final TraceAnalyzer traceAnalyzer = new TraceAnalyzer(moduleManager, listenerManager, config);
-        traceAnalyzer.doAnalysis(segment);
+        traceAnalyzer.get().doAnalysis(segment);
+    }
+
+    private TraceAnalyzer createTraceAnalyzer() {
+        return new TraceAnalyzer(moduleManager, listenerManager, config);
     }
 }
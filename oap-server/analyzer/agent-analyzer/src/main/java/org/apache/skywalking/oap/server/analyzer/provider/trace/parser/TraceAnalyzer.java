@@ -18,15 +18,15 @@
 
 package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
-import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
 import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListenerFactory;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.EntryAnalysisListener;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.ExitAnalysisListener;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.FirstAnalysisListener;
@@ -34,91 +34,129 @@ import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentListener;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 
+/**
+ * TraceAnalyzer notifies the listeners of every span in the segment. The listeners are created once and reused for the
+ * following segments if they support {@link AnalysisListener#reset()}, and are grouped by the analysis points in
+ * advance, so each span is dispatched to its listeners directly.
+ *
+ * A TraceAnalyzer is not thread safe, {@link SegmentParserServiceImpl} keeps one per thread.
+ */
 @Slf4j
-@RequiredArgsConstructor
 public class TraceAnalyzer {
     private final ModuleManager moduleManager;
-    private final SegmentParserListenerManager listenerManager;
     private final AnalyzerModuleConfig config;
-    private List<AnalysisListener> analysisListeners = new ArrayList<>();
+    private final AnalysisListenerFactory[] factories;
+    private final AnalysisListener[] analysisListeners;
+    private final boolean[] reusable;
+
+    private SegmentListener[] segmentListeners;
+    private FirstAnalysisListener[] firstListeners;
+    private EntryAnalysisListener[] entryListeners;
+    private ExitAnalysisListener[] exitListeners;
+    private LocalAnalysisListener[] localListeners;
+
+    public TraceAnalyzer(final ModuleManager moduleManager,
+                         final SegmentParserListenerManager listenerManager,
+                         final AnalyzerModuleConfig config) {
+        this.moduleManager = moduleManager;
+        this.config = config;
+        this.factories = listenerManager.getSpanListenerFactories().toArray(new AnalysisListenerFactory[0]);
+        this.analysisListeners = new AnalysisListener[factories.length];
+        this.reusable = new boolean[factories.length];
+    }
 
     public void doAnalysis(SegmentObject segmentObject) {
-        if (segmentObject.getSpansList().size() == 0) {
+        final int spansCount = segmentObject.getSpansCount();
+        if (spansCount == 0) {
             return;
         }
 
         createSpanListeners();
 
-        notifySegmentListener(segmentObject);
-
-        segmentObject.getSpansList().forEach(spanObject -> {
-            if (spanObject.getSpanId() == 0) {
-                notifyFirstListener(spanObject, segmentObject);
+        try {
+            for (final SegmentListener listener : segmentListeners) {
+                listener.parseSegment(segmentObject);
             }
 
-            if (SpanType.Exit.equals(spanObject.getSpanType())) {
-                notifyExitListener(spanObject, segmentObject);
-            } else if (SpanType.Entry.equals(spanObject.getSpanType())) {
-                notifyEntryListener(spanObject, segmentObject);
-            } else if (SpanType.Local.equals(spanObject.getSpanType())) {
-                notifyLocalListener(spanObject, segmentObject);
-            } else {
-                log.error("span type value was unexpected, span type name: {}", spanObject.getSpanType()
-                                                                                          .name());
+            for (int i = 0; i < spansCount; i++) {
+                final SpanObject spanObject = segmentObject.getSpans(i);
+                if (spanObject.getSpanId() == 0) {
+                    for (final FirstAnalysisListener listener : firstListeners) {
+                        listener.parseFirst(spanObject, segmentObject);
+                    }
+                }
+
+                switch (spanObject.getSpanType()) {
+                    case Exit:
+                        for (final ExitAnalysisListener listener : exitListeners) {
+                            listener.parseExit(spanObject, segmentObject);
+                        }
+                        break;
+                    case Entry:
+                        for (final EntryAnalysisListener listener : entryListeners) {
+                            listener.parseEntry(spanObject, segmentObject);
+                        }
+                        break;
+                    case Local:
+                        for (final LocalAnalysisListener listener : localListeners) {
+                            listener.parseLocal(spanObject, segmentObject);
+                        }
+                        break;
+                    default:
+                        log.error("span type value was unexpected, span type name: {}", spanObject.getSpanType()
+                                                                                                  .name());
+                }
             }
-        });
 
-        notifyListenerToBuild();
+            notifyListenerToBuild();
+        } finally {
+            resetSpanListeners();
+        }
     }
 
     private void notifyListenerToBuild() {
-        analysisListeners.forEach(AnalysisListener::build);
-    }
-
-    private void notifyExitListener(SpanObject span, SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.Exit)) {
-                ((ExitAnalysisListener) listener).parseExit(span, segmentObject);
-            }
-        });
+        for (final AnalysisListener listener : analysisListeners) {
+            listener.build();
+        }
     }
 
-    private void notifyEntryListener(SpanObject span, SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.Entry)) {
-                ((EntryAnalysisListener) listener).parseEntry(span, segmentObject);
+    /**
+     * Create the listeners which are not reusable or not created yet, and regroup the listeners by the points if any
+     * listener is created.
+     */
+    private void createSpanListeners() {
+        boolean created = false;
+        for (int i = 0; i < factories.length; i++) {
+            if (!reusable[i]) {
+                analysisListeners[i] = factories[i].create(moduleManager, config);
+                created = true;
             }
-        });
-    }
+        }
+        if (!created) {
+            return;
+        }
 
-    private void notifyLocalListener(SpanObject span, SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.Local)) {
-                ((LocalAnalysisListener) listener).parseLocal(span, segmentObject);
-            }
-        });
+        segmentListeners = listenersOf(AnalysisListener.Point.Segment, SegmentListener.class);
+        firstListeners = listenersOf(AnalysisListener.Point.First, FirstAnalysisListener.class);
+        entryListeners = listenersOf(AnalysisListener.Point.Entry, EntryAnalysisListener.class);
+        exitListeners = listenersOf(AnalysisListener.Point.Exit, ExitAnalysisListener.class);
+        localListeners = listenersOf(AnalysisListener.Point.Local, LocalAnalysisListener.class);
     }
 
-    private void notifyFirstListener(SpanObject span, SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.First)) {
-                ((FirstAnalysisListener) listener).parseFirst(span, segmentObject);
-            }
-        });
+    private void resetSpanListeners() {
+        for (int i = 0; i < analysisListeners.length; i++) {
+            reusable[i] = analysisListeners[i].reset();
+        }
     }
 
-    private void notifySegmentListener(SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.Segment)) {
-                ((SegmentListener) listener).parseSegment(segmentObject);
+    @SuppressWarnings("unchecked")
+    private <T> T[] listenersOf(final AnalysisListener.Point point, final Class<T> type) {
+        final List<T> listeners = new ArrayList<>(analysisListeners.length);
+        for (final AnalysisListener listener : analysisListeners) {
+            if (listener.containsPoint(point)) {
+                listeners.add((T) listener);
             }
-        });
-    }
-
-    private void createSpanListeners() {
-        listenerManager.getSpanListenerFactories()
-                       .forEach(
-                           spanListenerFactory -> analysisListeners.add(
-                               spanListenerFactory.create(moduleManager, config)));
+        }
+        return listeners.toArray((T[]) Array.newInstance(type, listeners.size()));
     }
 }
@@ -33,6 +33,16 @@ public interface AnalysisListener {
      */
     boolean containsPoint(Point point);
 
+    /**
+     * Clear the state of the analyzed segment after {@link #build()}, so that this listener could be reused for the
+     * next segment. The points of a listener must not change after the reset.
+     *
+     * @return false, if the listener can't be reused, then a new one is created by the factory for the next segment.
+     */
+    default boolean reset() {
+        return false;
+    }
+
     /**
      * Analysis point when the analysis core traverses the segment
      */
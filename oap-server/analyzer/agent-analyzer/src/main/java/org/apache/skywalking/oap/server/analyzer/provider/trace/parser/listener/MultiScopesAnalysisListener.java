@@ -334,6 +334,15 @@ public class MultiScopesAnalysisListener implements EntryAnalysisListener, ExitA
         });
     }
 
+    @Override
+    public boolean reset() {
+        entrySourceBuilders.clear();
+        exitSourceBuilders.clear();
+        dbSlowStatementBuilders.clear();
+        logicEndpointBuilders.clear();
+        return true;
+    }
+
     /**
      * Logic endpoint could be represent through an entry span or local span. It has special meaning from API
      * perspective. But it is an actual RPC call.
@@ -48,12 +48,11 @@ import org.apache.skywalking.oap.server.library.util.BooleanUtils;
 public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnalysisListener, SegmentListener {
     private final SourceReceiver sourceReceiver;
     private final TraceSegmentSampler sampler;
-    private final boolean forceSampleErrorSegment;
     private final NamingControl namingControl;
     private final List<String> searchableTagKeys;
     private final SegmentStatusAnalyzer segmentStatusAnalyzer;
 
-    private final Segment segment = new Segment();
+    private Segment segment = new Segment();
     private SAMPLE_STATUS sampleStatus = SAMPLE_STATUS.UNKNOWN;
     private String serviceName = Const.EMPTY_STRING;
     private String serviceId = Const.EMPTY_STRING;
@@ -122,7 +121,8 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
     @Override
     public void parseSegment(SegmentObject segmentObject) {
         segment.setTraceId(segmentObject.getTraceId());
-        segmentObject.getSpansList().forEach(span -> {
+        for (int i = 0; i < segmentObject.getSpansCount(); i++) {
+            final SpanObject span = segmentObject.getSpans(i);
             if (startTimestamp == 0 || startTimestamp > span.getStartTime()) {
                 startTimestamp = span.getStartTime();
             }
@@ -131,14 +131,12 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
             }
             isError = isError || segmentStatusAnalyzer.isError(span);
             appendSearchableTags(span);
-        });
+        }
         final long accurateDuration = endTimestamp - startTimestamp;
         duration = accurateDuration > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) accurateDuration;
 
         if (sampleStatus.equals(SAMPLE_STATUS.UNKNOWN) || sampleStatus.equals(SAMPLE_STATUS.IGNORE)) {
-            if (sampler.shouldSample(segmentObject, duration)) {
-                sampleStatus = SAMPLE_STATUS.SAMPLED;
-            } else if (isError && forceSampleErrorSegment) {
+            if (sampler.shouldSample(segmentObject, duration, isError)) {
                 sampleStatus = SAMPLE_STATUS.SAMPLED;
             } else {
                 sampleStatus = SAMPLE_STATUS.IGNORE;
@@ -175,6 +173,24 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         sourceReceiver.receive(segment);
     }
 
+    /**
+     * The segment has been sent to the source receiver, so a new one is created rather than being cleared.
+     */
+    @Override
+    public boolean reset() {
+        segment = new Segment();
+        sampleStatus = SAMPLE_STATUS.UNKNOWN;
+        serviceName = Const.EMPTY_STRING;
+        serviceId = Const.EMPTY_STRING;
+        endpointId = Const.EMPTY_STRING;
+        endpointName = Const.EMPTY_STRING;
+        startTimestamp = 0;
+        endTimestamp = 0;
+        duration = 0;
+        isError = false;
+        return true;
+    }
+
     private enum SAMPLE_STATUS {
         UNKNOWN, SAMPLED, IGNORE
     }
@@ -182,7 +198,6 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
     public static class Factory implements AnalysisListenerFactory {
         private final SourceReceiver sourceReceiver;
         private final TraceSegmentSampler sampler;
-        private final boolean forceSampleErrorSegment;
         private final NamingControl namingControl;
         private final List<String> searchTagKeys;
         private final SegmentStatusAnalyzer segmentStatusAnalyzer;
@@ -193,8 +208,8 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
                                                              .provider()
                                                              .getService(ConfigService.class);
             this.searchTagKeys = Arrays.asList(configService.getSearchableTracesTags().split(Const.COMMA));
-            this.sampler = new TraceSegmentSampler(config.getTraceSamplingPolicyWatcher());
-            this.forceSampleErrorSegment = config.isForceSampleErrorSegment();
+            this.sampler = new TraceSegmentSampler(
+                config.getTraceSamplingPolicyWatcher(), config.isForceSampleErrorSegment());
             this.namingControl = moduleManager.find(CoreModule.NAME)
                                               .provider()
                                               .getService(NamingControl.class);
@@ -207,7 +222,6 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
             return new SegmentAnalysisListener(
                 sourceReceiver,
                 sampler,
-                forceSampleErrorSegment,
                 namingControl,
                 searchTagKeys,
                 segmentStatusAnalyzer
@@ -29,11 +29,16 @@ import org.apache.skywalking.oap.server.analyzer.provider.trace.TraceSamplingPol
 @RequiredArgsConstructor
 public class TraceSegmentSampler {
     private final TraceSamplingPolicyWatcher traceSamplingPolicyWatcher;
+    /**
+     * Sample the error segments, or favour them if the sampling is adaptive.
+     */
+    private final boolean forceSampleErrorSegment;
 
-    public boolean shouldSample(SegmentObject segmentObject, int duration) {
+    public boolean shouldSample(SegmentObject segmentObject, int duration, boolean isError) {
         int sample = Math.abs(segmentObject.getTraceId().hashCode()) % 10000;
         String serviceName = segmentObject.getService();
-        return traceSamplingPolicyWatcher.shouldSample(serviceName, sample, duration);
+        return traceSamplingPolicyWatcher.shouldSample(
+            serviceName, sample, duration, isError && forceSampleErrorSegment);
     }
 
 }
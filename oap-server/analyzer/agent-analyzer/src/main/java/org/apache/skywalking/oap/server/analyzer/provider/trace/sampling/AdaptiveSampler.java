@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.sampling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import lombok.Getter;
+
+/**
+ * AdaptiveSampler keeps the persisted segments of one service around the budget of the {@link SamplingPolicy}, by
+ * adjusting the sampling rate from the throughput of the service observed in the last windows.
+ *
+ * <p>The slow and error segments are kept with {@link #ABNORMAL_RATE_FACTOR} times of the rate, and they are counted
+ * as many times when estimating the throughput, so that the abnormal segments are favoured in the budget rather than
+ * exceeding it. The sample of a segment is hashed from its trace ID, so the segments of a trace are kept or ignored
+ * together, unless the services of the trace have different rates.
+ */
+public class AdaptiveSampler {
+    public static final int ABNORMAL_RATE_FACTOR = 10;
+    public static final int MAX_RATE = 10000;
+    static final long WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    /**
+     * The weight of the latest window in the estimated throughput.
+     */
+    private static final double SMOOTHING = 0.5;
+
+    private final LongSupplier clock;
+    private final LongAdder normalSegments = new LongAdder();
+    private final LongAdder abnormalSegments = new LongAdder();
+    private final AtomicLong windowStart;
+    /**
+     * The estimated throughput of the service, in weighted segments per second, -1 before the first window ends.
+     */
+    private volatile double throughput = -1;
+    /**
+     * The current sampling rate, the precision is 1/10000.
+     */
+    @Getter
+    private volatile double rate = MAX_RATE;
+
+    public AdaptiveSampler() {
+        this(System::currentTimeMillis);
+    }
+
+    AdaptiveSampler(LongSupplier clock) {
+        this.clock = clock;
+        this.windowStart = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * @param sample   sample of the trace segment, in [0, 10000)
+     * @param abnormal true if the segment is slow or in error
+     * @param budget   the persisted segments per second of the service
+     * @param maxRate  the upper bound of the rate of the normal segments
+     * @return true if the segment should be sampled
+     */
+    public boolean shouldSample(int sample, boolean abnormal, int budget, int maxRate) {
+        adjust(budget);
+        (abnormal ? abnormalSegments : normalSegments).increment();
+
+        final double current = rate;
+        if (abnormal) {
+            return sample < current * ABNORMAL_RATE_FACTOR;
+        }
+        return sample < Math.min(current, maxRate);
+    }
+
+    /**
+     * Adjust the rate when the window ends, only one of the concurrent callers does the adjustment.
+     */
+    private void adjust(int budget) {
+        final long now = clock.getAsLong();
+        final long start = windowStart.get();
+        if (now - start < WINDOW_MILLIS || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+
+        final double seconds = (now - start) / 1000.0;
+        final double latest = (normalSegments.sumThenReset()
+            + (double) abnormalSegments.sumThenReset() * ABNORMAL_RATE_FACTOR) / seconds;
+        final double estimated = throughput < 0 ? latest : throughput * (1 - SMOOTHING) + latest * SMOOTHING;
+        throughput = estimated;
+        rate = estimated <= budget ? MAX_RATE : budget * (double) MAX_RATE / estimated;
+    }
+}
@@ -31,4 +31,9 @@ import lombok.ToString;
 public class SamplingPolicy {
     private Integer rate;
     private Integer duration;
+    /**
+     * The persisted segments per second of the service in this OAP node, the sampling rate is adjusted to it by
+     * {@link AdaptiveSampler} and the {@link #rate} becomes the upper bound, NULL means the sampling is not adaptive.
+     */
+    private Integer budget;
 }
\ No newline at end of file
@@ -36,7 +36,7 @@ public class SamplingPolicySettings {
      * The default value is `-1`, which means would not sample slow traces. Unit, millisecond.
      */
     public SamplingPolicySettings() {
-        this.defaultPolicy = new SamplingPolicy(10000, -1);
+        this.defaultPolicy = new SamplingPolicy(10000, -1, null);
         this.services = new ConcurrentHashMap<>();
     }
 
@@ -67,6 +67,9 @@ public class SamplingPolicySettingsReader {
         if (objectMap.get("duration") != null) {
             samplingPolicySettings.getDefaultPolicy().setDuration((Integer) objectMap.get("duration"));
         }
+        if (objectMap.get("budget") != null) {
+            samplingPolicySettings.getDefaultPolicy().setBudget((Integer) objectMap.get("budget"));
+        }
     }
 
     private void readServicesSamplingPolicy(SamplingPolicySettings samplingPolicySettings) {
@@ -82,6 +85,7 @@ public class SamplingPolicySettingsReader {
                 SamplingPolicy samplingPolicy = new SamplingPolicy();
                 samplingPolicy.setRate(service.get("rate") == null ? null : (Integer) service.get("rate"));
                 samplingPolicy.setDuration(service.get("duration") == null ? null : (Integer) service.get("duration"));
+                samplingPolicy.setBudget(service.get("budget") == null ? null : (Integer) service.get("budget"));
                 samplingPolicySettings.add(name, samplingPolicy);
             });
         }
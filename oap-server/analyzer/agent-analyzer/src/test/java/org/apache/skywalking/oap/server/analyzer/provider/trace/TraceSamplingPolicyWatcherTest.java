@@ -330,6 +330,41 @@ public class TraceSamplingPolicyWatcherTest {
 
     }
 
+    @Test
+    public void testServiceBudgetNotify() {
+        TraceSamplingPolicyWatcher watcher = new TraceSamplingPolicyWatcher(moduleConfig, provider);
+
+        // error segments are always sampled without budget
+        Assert.assertFalse(watcher.shouldSample("serverName1", 10000, -1, false));
+        Assert.assertTrue(watcher.shouldSample("serverName1", 10000, -1, true));
+
+        ConfigChangeWatcher.ConfigChangeEvent value1 = new ConfigChangeWatcher.ConfigChangeEvent(
+            "services:\n" +
+                "  - name: serverName1\n" +
+                "    rate: 8000\n" +
+                "    duration: 20000\n" +
+                "    budget: 100", ConfigChangeWatcher.EventType.MODIFY);
+
+        watcher.notify(value1);
+
+        Assert.assertEquals(getSamplingPolicy("serverName1", watcher).getBudget().intValue(), 100);
+        // the adaptive rate starts from the max rate, bounded by serverName1's sampling rate for normal segments
+        Assert.assertTrue(watcher.shouldSample("serverName1", 7999, -1, false));
+        Assert.assertFalse(watcher.shouldSample("serverName1", 8000, -1, false));
+        // slow and error segments use the amplified rate
+        Assert.assertTrue(watcher.shouldSample("serverName1", 9999, 20000, false));
+        Assert.assertTrue(watcher.shouldSample("serverName1", 9999, -1, true));
+
+        ConfigChangeWatcher.ConfigChangeEvent value2 = new ConfigChangeWatcher.ConfigChangeEvent(
+            "", ConfigChangeWatcher.EventType.DELETE);
+
+        watcher.notify(value2);
+
+        Assert.assertNull(getSamplingPolicy("serverName1", watcher));
+        Assert.assertFalse(watcher.shouldSample("serverName1", 10000, -1, false));
+        Assert.assertTrue(watcher.shouldSample("serverName1", 10000, -1, true));
+    }
+
     public static class ServiceMockConfigWatcherRegister extends ConfigWatcherRegister {
 
         public ServiceMockConfigWatcherRegister(long syncPeriod) {
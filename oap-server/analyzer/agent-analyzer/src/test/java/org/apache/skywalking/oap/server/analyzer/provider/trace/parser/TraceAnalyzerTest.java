@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.EntryAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.ExitAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.FirstAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.LocalAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentListener;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TraceAnalyzerTest {
+    private final List<RecordingListener> created = new ArrayList<>();
+    private SegmentObject segment;
+
+    @Before
+    public void prepare() {
+        segment = SegmentObject.newBuilder()
+                               .addSpans(span(0, SpanType.Entry))
+                               .addSpans(span(1, SpanType.Local))
+                               .addSpans(span(2, SpanType.Exit))
+                               .addSpans(span(3, SpanType.Exit))
+                               .build();
+    }
+
+    @Test
+    public void testDispatchAndReuse() {
+        final TraceAnalyzer analyzer = analyzer(true);
+
+        analyzer.doAnalysis(segment);
+        Assert.assertEquals(1, created.size());
+        Assert.assertEquals("segment,first:0,entry:0,local:1,exit:2,exit:3,build", created.get(0).events());
+
+        analyzer.doAnalysis(segment);
+        Assert.assertEquals(1, created.size());
+        Assert.assertEquals("segment,first:0,entry:0,local:1,exit:2,exit:3,build", created.get(0).events());
+    }
+
+    @Test
+    public void testRecreateNonReusableListeners() {
+        final TraceAnalyzer analyzer = analyzer(false);
+
+        analyzer.doAnalysis(segment);
+        analyzer.doAnalysis(segment);
+        Assert.assertEquals(2, created.size());
+        Assert.assertEquals("segment,first:0,entry:0,local:1,exit:2,exit:3,build", created.get(1).events());
+    }
+
+    @Test
+    public void testResetOnFailure() {
+        final TraceAnalyzer analyzer = analyzer(true);
+        final SegmentObject broken = segment.toBuilder().setTraceId("broken").build();
+
+        try {
+            analyzer.doAnalysis(broken);
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+        analyzer.doAnalysis(segment);
+        Assert.assertEquals(1, created.size());
+        Assert.assertEquals("segment,first:0,entry:0,local:1,exit:2,exit:3,build", created.get(0).events());
+    }
+
+    @Test
+    public void testEmptySegment() {
+        final TraceAnalyzer analyzer = analyzer(true);
+
+        analyzer.doAnalysis(SegmentObject.getDefaultInstance());
+        Assert.assertTrue(created.isEmpty());
+    }
+
+    private TraceAnalyzer analyzer(final boolean reusable) {
+        final SegmentParserListenerManager listenerManager = new SegmentParserListenerManager();
+        listenerManager.add((moduleManager, config) -> {
+            final RecordingListener listener = new RecordingListener(reusable);
+            created.add(listener);
+            return listener;
+        });
+        return new TraceAnalyzer(null, listenerManager, new AnalyzerModuleConfig());
+    }
+
+    private static SpanObject span(final int spanId, final SpanType type) {
+        return SpanObject.newBuilder().setSpanId(spanId).setSpanType(type).build();
+    }
+
+    private static class RecordingListener implements SegmentListener, FirstAnalysisListener, EntryAnalysisListener,
+        ExitAnalysisListener, LocalAnalysisListener {
+        private final boolean reusable;
+        private final List<String> events = new ArrayList<>();
+
+        RecordingListener(final boolean reusable) {
+            this.reusable = reusable;
+        }
+
+        String events() {
+            return String.join(",", events);
+        }
+
+        @Override
+        public void parseSegment(final SegmentObject segmentObject) {
+            events.clear();
+            events.add("segment");
+            if ("broken".equals(segmentObject.getTraceId())) {
+                throw new IllegalStateException();
+            }
+        }
+
+        @Override
+        public void parseFirst(final SpanObject span, final SegmentObject segmentObject) {
+            events.add("first:" + span.getSpanId());
+        }
+
+        @Override
+        public void parseEntry(final SpanObject span, final SegmentObject segmentObject) {
+            events.add("entry:" + span.getSpanId());
+        }
+
+        @Override
+        public void parseExit(final SpanObject span, final SegmentObject segmentObject) {
+            events.add("exit:" + span.getSpanId());
+        }
+
+        @Override
+        public void parseLocal(final SpanObject span, final SegmentObject segmentObject) {
+            events.add("local:" + span.getSpanId());
+        }
+
+        @Override
+        public void build() {
+            events.add("build");
+        }
+
+        @Override
+        public boolean containsPoint(final Point point) {
+            return true;
+        }
+
+        @Override
+        public boolean reset() {
+            return reusable;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.sampling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveSamplerTest {
+    private final AtomicLong now = new AtomicLong(1000000L);
+    private AdaptiveSampler sampler;
+
+    @Before
+    public void prepare() {
+        sampler = new AdaptiveSampler(now::get);
+    }
+
+    @Test
+    public void testSampleAllBeforeFirstWindow() {
+        for (int sample = 0; sample < 10000; sample++) {
+            Assert.assertTrue(sampler.shouldSample(sample, false, 10, 10000));
+        }
+    }
+
+    @Test
+    public void testRateFollowsThroughput() {
+        // 1000 segments per second against a budget of 100 segments per second
+        runWindow(1000, 0, 100);
+        Assert.assertEquals(1000, sampler.getRate(), 0.001);
+        Assert.assertEquals(100, runWindow(1000, 0, 100));
+
+        // the traffic doubles, the estimated throughput is smoothed
+        runWindow(2000, 0, 100);
+        Assert.assertEquals(10000.0 * 100 / 1500, sampler.getRate(), 1);
+        runWindow(2000, 0, 100);
+        Assert.assertEquals(10000.0 * 100 / 1750, sampler.getRate(), 1);
+
+        // the traffic is lower than the budget
+        for (int i = 0; i < 10; i++) {
+            runWindow(10, 0, 100);
+        }
+        Assert.assertEquals(AdaptiveSampler.MAX_RATE, sampler.getRate(), 0.001);
+    }
+
+    @Test
+    public void testAbnormalSegmentsAreFavoured() {
+        // 900 normal and 10 abnormal segments per second, weighted as 1000 segments per second
+        runWindow(900, 10, 100);
+        Assert.assertEquals(1000, sampler.getRate(), 0.001);
+
+        for (int sample = 0; sample < 10000; sample++) {
+            Assert.assertEquals(sample < 1000, sampler.shouldSample(sample, false, 100, 10000));
+            Assert.assertEquals(sample < 10000, sampler.shouldSample(sample, true, 100, 10000));
+        }
+    }
+
+    @Test
+    public void testRateIsBoundedByMaxRate() {
+        runWindow(10, 0, 100);
+        Assert.assertEquals(AdaptiveSampler.MAX_RATE, sampler.getRate(), 0.001);
+
+        Assert.assertTrue(sampler.shouldSample(1999, false, 100, 2000));
+        Assert.assertFalse(sampler.shouldSample(2000, false, 100, 2000));
+        Assert.assertTrue(sampler.shouldSample(2000, true, 100, 2000));
+    }
+
+    @Test
+    public void testBudgetChange() {
+        runWindow(1000, 0, 100);
+        Assert.assertEquals(1000, sampler.getRate(), 0.001);
+
+        runWindow(1000, 0, 500);
+        Assert.assertEquals(5000, sampler.getRate(), 5);
+    }
+
+    /**
+     * Report the segments with evenly distributed samples in one window, and return the number of sampled segments.
+     */
+    private int runWindow(int normal, int abnormal, int budget) {
+        int sampled = 0;
+        for (int i = 0; i < normal; i++) {
+            if (sampler.shouldSample(i * 10000 / normal, false, budget, 10000)) {
+                sampled++;
+            }
+        }
+        for (int i = 0; i < abnormal; i++) {
+            if (sampler.shouldSample(i * 10000 / abnormal, true, budget, 10000)) {
+                sampled++;
+            }
+        }
+        now.addAndGet(AdaptiveSampler.WINDOW_MILLIS);
+        // the first segment of the next window adjusts the rate, it is counted in the next window
+        sampler.shouldSample(0, false, budget, 10000);
+        return sampled;
+    }
+}
@@ -38,5 +38,10 @@ public class SamplingPolicySettingsReaderTest {
 
         Assert.assertEquals(settings.get("name2").getRate().intValue(), 2000);
         Assert.assertEquals(settings.get("name2").getDuration().intValue(), 30000);
+        Assert.assertNull(settings.get("name2").getBudget());
+
+        Assert.assertEquals(settings.get("name3").getRate().intValue(), 5000);
+        Assert.assertNull(settings.get("name3").getDuration());
+        Assert.assertEquals(settings.get("name3").getBudget().intValue(), 100);
     }
 }
\ No newline at end of file
@@ -81,7 +81,17 @@ public class Binding extends groovy.lang.Binding {
     }
 
     public Binding parsed(final Matcher parsed) {
+        return parsed(parsed, null);
+    }
+
+    /**
+     * @param parsed     the matcher of a successful match, whose groups are read on demand.
+     * @param groupNames the mapping from the field names to the group names of the matcher, {@code null} means that
+     *                   the field names are the group names.
+     */
+    public Binding parsed(final Matcher parsed, final Map<String, String> groupNames) {
         parsed().matcher = parsed;
+        parsed().groupNames = groupNames;
         return this;
     }
 
@@ -155,6 +165,8 @@ public class Binding extends groovy.lang.Binding {
         @Getter
         private Matcher matcher;
 
+        private Map<String, String> groupNames;
+
         @Getter
         private Map<String, Object> map;
 
@@ -166,7 +178,7 @@ public class Binding extends groovy.lang.Binding {
 
         public Object getAt(final String key) {
             Object result;
-            if (matcher != null && (result = matcher.group(key)) != null) {
+            if (matcher != null && (result = group(key)) != null) {
                 return result;
             }
             if (map != null && (result = map.get(key)) != null) {
@@ -181,6 +193,14 @@ public class Binding extends groovy.lang.Binding {
             return null;
         }
 
+        private String group(final String key) {
+            if (groupNames == null) {
+                return matcher.group(key);
+            }
+            final String group = groupNames.get(key);
+            return group != null ? matcher.group(group) : null;
+        }
+
         @SuppressWarnings("unused")
         public Object propertyMissing(final String name) {
             return getAt(name);
@@ -78,12 +78,19 @@ public class DSL {
                          .add(Array.class)
                          .build());
         cc.addCompilationCustomizers(secureASTCustomizer);
+        final ParserPatternCollector patternCollector = new ParserPatternCollector();
+        cc.addCompilationCustomizers(patternCollector);
         cc.setScriptBaseClass(LALDelegatingScript.class.getName());
 
         final GroovyShell sh = new GroovyShell(cc);
         final DelegatingScript script = (DelegatingScript) sh.parse(dsl);
         final FilterSpec filterSpec = new FilterSpec(moduleManager, config);
         script.setDelegate(filterSpec);
+        try {
+            filterSpec.textParser().precompile(patternCollector.getRegexps(), patternCollector.getGroks());
+        } catch (final IllegalArgumentException e) {
+            throw new ModuleStartException("Failed to compile the parser patterns of LAL script", e);
+        }
 
         return new DSL(script, filterSpec);
     }
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.log.analyzer.dsl;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.Getter;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+
+/**
+ * Collects the constant expressions passed to the {@code regexp} and {@code grok} parsers while compiling the LAL
+ * script, so that they can be compiled once when the script is loaded.
+ */
+class ParserPatternCollector extends CompilationCustomizer {
+    @Getter
+    private final Set<String> regexps = new LinkedHashSet<>();
+
+    @Getter
+    private final Set<String> groks = new LinkedHashSet<>();
+
+    ParserPatternCollector() {
+        super(CompilePhase.CONVERSION);
+    }
+
+    @Override
+    public void call(final SourceUnit source,
+                     final GeneratorContext context,
+                     final ClassNode classNode) {
+        classNode.visitContents(new ClassCodeVisitorSupport() {
+            @Override
+            protected SourceUnit getSourceUnit() {
+                return source;
+            }
+
+            @Override
+            public void visitMethodCallExpression(final MethodCallExpression call) {
+                if (call.isImplicitThis() && call.getArguments() instanceof ArgumentListExpression) {
+                    final ArgumentListExpression args = (ArgumentListExpression) call.getArguments();
+                    if (args.getExpressions().size() == 1) {
+                        collect(call.getMethodAsString(), args.getExpression(0));
+                    }
+                }
+                super.visitMethodCallExpression(call);
+            }
+        });
+    }
+
+    private void collect(final String method, final Expression arg) {
+        if (!(arg instanceof ConstantExpression) || !(((ConstantExpression) arg).getValue() instanceof String)) {
+            return;
+        }
+        final String value = (String) ((ConstantExpression) arg).getValue();
+        if ("regexp".equals(method)) {
+            regexps.add(value);
+        } else if ("grok".equals(method)) {
+            groks.add(value);
+        }
+    }
+}
@@ -187,4 +187,8 @@ public class FilterSpec extends AbstractSpec {
     public void filter(final Closure<?> cl) {
         cl.call();
     }
+
+    public TextParserSpec textParser() {
+        return textParser;
+    }
 }
@@ -18,21 +18,47 @@
 
 package org.apache.skywalking.oap.log.analyzer.dsl.spec.parser;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.skywalking.apm.network.logging.v3.LogData;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.grok.Grok;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.grok.GrokPatterns;
 import org.apache.skywalking.oap.log.analyzer.provider.LogAnalyzerModuleConfig;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 
 public class TextParserSpec extends AbstractParserSpec {
+    /**
+     * The compiled {@code regexp} patterns of the script, keyed by the expressions.
+     */
+    private final Map<String, Pattern> regexps = new ConcurrentHashMap<>();
+
+    /**
+     * The compiled {@code grok} patterns of the script, keyed by the expressions.
+     */
+    private final Map<String, Grok> groks = new ConcurrentHashMap<>();
+
     public TextParserSpec(final ModuleManager moduleManager,
                           final LogAnalyzerModuleConfig moduleConfig) {
         super(moduleManager, moduleConfig);
     }
 
+    /**
+     * Compile the constant expressions found in the script in advance, so that invalid patterns are reported when
+     * loading the script and no pattern is compiled when analyzing the logs.
+     *
+     * @throws IllegalArgumentException if any of the expressions is invalid.
+     */
+    public void precompile(final Collection<String> regexps, final Collection<String> groks) {
+        regexps.forEach(this::compileRegexp);
+        groks.forEach(this::compileGrok);
+    }
+
     @SuppressWarnings("unused")
     public void regexp(final String regexp) {
-        regexp(Pattern.compile(regexp));
+        regexp(compileRegexp(regexp));
     }
 
     public void regexp(final Pattern pattern) {
@@ -49,9 +75,36 @@ public class TextParserSpec extends AbstractParserSpec {
         }
     }
 
+    @SuppressWarnings("unused")
     public boolean grok(final String grok) {
-        // TODO
-        return false;
+        if (BINDING.get().shouldAbort()) {
+            return false;
+        }
+        final Grok compiled = compileGrok(grok);
+        final LogData.Builder log = BINDING.get().log();
+        final Matcher matcher = compiled.matcher(log.getBody().getText().getText());
+        final boolean matched = matcher.find();
+        if (matched) {
+            BINDING.get().parsed(matcher, compiled.getGroupNames());
+        } else if (abortOnFailure()) {
+            BINDING.get().abort();
+        }
+        return matched;
     }
 
+    private Pattern compileRegexp(final String regexp) {
+        final Pattern pattern = regexps.get(regexp);
+        if (pattern != null) {
+            return pattern;
+        }
+        return regexps.computeIfAbsent(regexp, Pattern::compile);
+    }
+
+    private Grok compileGrok(final String grok) {
+        final Grok compiled = groks.get(grok);
+        if (compiled != null) {
+            return compiled;
+        }
+        return groks.computeIfAbsent(grok, GrokPatterns.defaults()::compile);
+    }
 }
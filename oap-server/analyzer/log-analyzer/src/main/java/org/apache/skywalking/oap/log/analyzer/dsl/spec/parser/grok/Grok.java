@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.grok;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.Getter;
+
+/**
+ * A grok expression compiled into a plain {@link Pattern}, the fields of the expression are captured by named groups,
+ * {@link #getGroupNames()} maps the field names to the group names, as not all field names are legal group names in
+ * {@link Pattern}, e.g. {@code response_code}.
+ */
+public class Grok {
+    @Getter
+    private final String expression;
+
+    @Getter
+    private final Pattern pattern;
+
+    @Getter
+    private final Map<String, String> groupNames;
+
+    Grok(final String expression, final Pattern pattern, final Map<String, String> groupNames) {
+        this.expression = expression;
+        this.pattern = pattern;
+        this.groupNames = Collections.unmodifiableMap(groupNames);
+    }
+
+    public Matcher matcher(final CharSequence input) {
+        return pattern.matcher(input);
+    }
+}
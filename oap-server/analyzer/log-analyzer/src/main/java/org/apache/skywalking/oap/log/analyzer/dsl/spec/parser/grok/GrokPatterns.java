@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.grok;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The grok pattern library, which expands grok expressions like {@code %{IP:client} %{WORD:verb}} into plain regular
+ * expressions, so that the matching is done by {@link Pattern} directly and costs the same as a hand-written
+ * {@code regexp}.
+ *
+ * <p>Supported syntax is {@code %{PATTERN}}, {@code %{PATTERN:field}} and {@code %{PATTERN:field:type}}, the type
+ * is accepted for compatibility but the captured values are always strings, use {@code as Integer} etc. in LAL to
+ * convert them.
+ */
+public class GrokPatterns {
+    private static final String DEFAULT_PATTERNS = "grok/patterns";
+
+    private static final Pattern REFERENCE = Pattern.compile("%\\{(\\w+)(?::([^:}]+))?(?::(\\w+))?}");
+
+    private static final Pattern GROUP_NAME = Pattern.compile("[a-zA-Z][a-zA-Z0-9]*");
+
+    private static final GrokPatterns DEFAULT = load(DEFAULT_PATTERNS);
+
+    private final Map<String, String> definitions;
+
+    public GrokPatterns(final Map<String, String> definitions) {
+        this.definitions = new HashMap<>(definitions);
+    }
+
+    /**
+     * @return the built-in pattern library.
+     */
+    public static GrokPatterns defaults() {
+        return DEFAULT;
+    }
+
+    static GrokPatterns load(final String resource) {
+        final Map<String, String> definitions = new HashMap<>();
+        try (InputStream is = GrokPatterns.class.getClassLoader().getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IllegalStateException("Grok patterns not found: " + resource);
+            }
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final int space = line.indexOf(' ');
+                if (space < 0) {
+                    throw new IllegalStateException("Illegal grok pattern definition: " + line);
+                }
+                definitions.put(line.substring(0, space), line.substring(space + 1).trim());
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new GrokPatterns(definitions);
+    }
+
+    /**
+     * Compile the grok expression into a {@link Grok}.
+     *
+     * @throws IllegalArgumentException if the expression references unknown or recursive patterns, defines the same
+     *                                  field twice, or doesn't expand to a valid regular expression.
+     */
+    public Grok compile(final String expression) {
+        final Expansion expansion = new Expansion();
+        final String regexp = expansion.expand(expression);
+        return new Grok(expression, Pattern.compile(regexp), expansion.groupNames);
+    }
+
+    private class Expansion {
+        private final Map<String, String> groupNames = new LinkedHashMap<>();
+
+        private final Set<String> usedGroupNames = new HashSet<>();
+
+        private final Deque<String> expanding = new ArrayDeque<>();
+
+        private int generated;
+
+        String expand(final String expression) {
+            final Matcher matcher = REFERENCE.matcher(expression);
+            final StringBuilder sb = new StringBuilder(expression.length() * 2);
+            int last = 0;
+            while (matcher.find()) {
+                sb.append(expression, last, matcher.start());
+                last = matcher.end();
+
+                final String name = matcher.group(1);
+                final String field = matcher.group(2);
+                final String definition = definitions.get(name);
+                if (definition == null) {
+                    throw new IllegalArgumentException("Unknown grok pattern: " + name);
+                }
+                if (expanding.contains(name)) {
+                    throw new IllegalArgumentException("Recursive grok pattern: " + name + " in " + expanding);
+                }
+                expanding.push(name);
+                final String expanded = expand(definition);
+                expanding.pop();
+
+                if (field == null) {
+                    sb.append("(?:").append(expanded).append(')');
+                } else {
+                    sb.append("(?<").append(groupName(field)).append('>').append(expanded).append(')');
+                }
+            }
+            return sb.append(expression, last, expression.length()).toString();
+        }
+
+        private String groupName(final String field) {
+            if (groupNames.containsKey(field)) {
+                throw new IllegalArgumentException("Duplicate grok field: " + field);
+            }
+            String group = field;
+            if (!GROUP_NAME.matcher(field).matches()) {
+                group = "grok" + generated++;
+            }
+            while (usedGroupNames.contains(group)) {
+                group = "grok" + generated++;
+            }
+            usedGroupNames.add(group);
+            groupNames.put(field, group);
+            return group;
+        }
+    }
+}
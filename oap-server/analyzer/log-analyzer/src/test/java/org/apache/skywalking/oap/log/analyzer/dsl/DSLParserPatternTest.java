@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.log.analyzer.dsl;
+
+import java.util.Map;
+import org.apache.skywalking.apm.network.logging.v3.LogData;
+import org.apache.skywalking.apm.network.logging.v3.LogDataBody;
+import org.apache.skywalking.apm.network.logging.v3.TextLog;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.filter.FilterSpec;
+import org.apache.skywalking.oap.log.analyzer.provider.LogAnalyzerModuleConfig;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.config.ConfigService;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleStartException;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DSLParserPatternTest {
+    final ModuleManager manager = mock(ModuleManager.class);
+
+    @Before
+    public void setup() {
+        Whitebox.setInternalState(manager, "isInPrepareStage", false);
+        when(manager.find(anyString())).thenReturn(mock(ModuleProviderHolder.class));
+        when(manager.find(CoreModule.NAME).provider()).thenReturn(mock(ModuleServiceHolder.class));
+        when(manager.find(CoreModule.NAME).provider().getService(SourceReceiver.class))
+            .thenReturn(mock(SourceReceiver.class));
+        when(manager.find(CoreModule.NAME).provider().getService(ConfigService.class))
+            .thenReturn(mock(ConfigService.class));
+        when(manager.find(CoreModule.NAME)
+                    .provider()
+                    .getService(ConfigService.class)
+                    .getSearchableLogsTags())
+            .thenReturn("");
+    }
+
+    @Test
+    public void testPatternsArePrecompiled() throws ModuleStartException {
+        final DSL dsl = DSL.of(
+            manager, new LogAnalyzerModuleConfig(),
+            "filter {\n" +
+                "  text {\n" +
+                "    abortOnFailure false\n" +
+                "    if (!grok('%{IP:client.ip} %{WORD:http_method}')) {\n" +
+                "      regexp $/(?<status>\\d{3})/$\n" +
+                "    }\n" +
+                "  }\n" +
+                "}"
+        );
+        final FilterSpec filterSpec = Whitebox.getInternalState(dsl, "filterSpec");
+        final Map<String, ?> regexps = Whitebox.getInternalState(filterSpec.textParser(), "regexps");
+        final Map<String, ?> groks = Whitebox.getInternalState(filterSpec.textParser(), "groks");
+        assertTrue(regexps.containsKey("(?<status>\\d{3})"));
+        assertTrue(groks.containsKey("%{IP:client.ip} %{WORD:http_method}"));
+
+        final Binding binding = new Binding().log(
+            LogData.newBuilder().setBody(
+                LogDataBody.newBuilder().setText(TextLog.newBuilder().setText("10.0.0.1 GET 200"))));
+        dsl.bind(binding);
+        dsl.evaluate();
+
+        assertEquals("10.0.0.1", binding.parsed().getAt("client.ip"));
+        assertEquals("GET", binding.parsed().getAt("http_method"));
+    }
+
+    @Test(expected = ModuleStartException.class)
+    public void testInvalidRegexp() throws ModuleStartException {
+        DSL.of(manager, new LogAnalyzerModuleConfig(), "filter { text { regexp '(?<unclosed' } }");
+    }
+
+    @Test(expected = ModuleStartException.class)
+    public void testUnknownGrokPattern() throws ModuleStartException {
+        DSL.of(manager, new LogAnalyzerModuleConfig(), "filter { text { grok '%{NO_SUCH_PATTERN}' } }");
+    }
+}
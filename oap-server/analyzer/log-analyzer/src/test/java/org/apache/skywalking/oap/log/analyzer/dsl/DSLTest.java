@@ -60,6 +60,18 @@ public class DSLTest {
                     "  }" +
                     "}",
                 },
+            new String[] {
+                "grok",
+                "filter {\n" +
+                    "  text {\n" +
+                    "    abortOnFailure false // for test purpose, we want to persist all logs\n" +
+                    "    grok $/%{COMMONAPACHELOG}/$\n" +
+                    "  }\n" +
+                    "  extractor {\n" +
+                    "    tag verb: parsed.verb, status: parsed.response\n" +
+                    "  }\n" +
+                    "}",
+                },
             new String[] {
                 "extractor",
                 "filter {\n" +
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.grok;
+
+import java.util.regex.Matcher;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GrokPatternsTest {
+    private static final String ACCESS_LOG =
+        "127.0.0.1 - frank [10/Oct/2000:13:55:36 -0700] \"GET /apache_pb.gif HTTP/1.0\" 200 2326";
+
+    @Test
+    public void testCommonApacheLog() {
+        final Grok grok = GrokPatterns.defaults().compile("%{COMMONAPACHELOG}");
+        final Matcher matcher = grok.matcher(ACCESS_LOG);
+
+        assertTrue(matcher.find());
+        assertEquals("127.0.0.1", matcher.group(grok.getGroupNames().get("clientip")));
+        assertEquals("frank", matcher.group(grok.getGroupNames().get("auth")));
+        assertEquals("10/Oct/2000:13:55:36 -0700", matcher.group(grok.getGroupNames().get("timestamp")));
+        assertEquals("GET", matcher.group(grok.getGroupNames().get("verb")));
+        assertEquals("/apache_pb.gif", matcher.group(grok.getGroupNames().get("request")));
+        assertEquals("1.0", matcher.group(grok.getGroupNames().get("httpversion")));
+        assertEquals("200", matcher.group(grok.getGroupNames().get("response")));
+        assertEquals("2326", matcher.group(grok.getGroupNames().get("bytes")));
+    }
+
+    @Test
+    public void testIllegalGroupNames() {
+        final Grok grok = GrokPatterns.defaults().compile(
+            "%{IP:client.ip} %{WORD:http_method} %{URIPATHPARAM:path} %{NUMBER:duration:float}");
+        final Matcher matcher = grok.matcher("10.1.2.3 POST /api/users?id=1 0.043");
+
+        assertTrue(matcher.find());
+        assertEquals("10.1.2.3", matcher.group(grok.getGroupNames().get("client.ip")));
+        assertEquals("POST", matcher.group(grok.getGroupNames().get("http_method")));
+        assertEquals("/api/users?id=1", matcher.group(grok.getGroupNames().get("path")));
+        assertEquals("0.043", matcher.group(grok.getGroupNames().get("duration")));
+        assertFalse(grok.matcher("not an access log").find());
+    }
+
+    @Test
+    public void testUnnamedReferencesAreNotCaptured() {
+        final Grok grok = GrokPatterns.defaults().compile("%{TIMESTAMP_ISO8601:time} %{LOGLEVEL:level} %{GREEDYDATA}");
+        final Matcher matcher = grok.matcher("2021-05-01 12:01:02.123 WARN something happened");
+
+        assertTrue(matcher.find());
+        assertEquals(2, matcher.groupCount());
+        assertEquals("2021-05-01 12:01:02.123", matcher.group("time"));
+        assertEquals("WARN", matcher.group("level"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownPattern() {
+        GrokPatterns.defaults().compile("%{NO_SUCH_PATTERN:foo}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateField() {
+        GrokPatterns.defaults().compile("%{WORD:foo} %{WORD:foo}");
+    }
+}
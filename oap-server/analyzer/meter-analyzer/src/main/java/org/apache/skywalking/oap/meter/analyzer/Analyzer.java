@@ -58,7 +58,6 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.PercentileA
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 
-import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.mapping;
@@ -114,10 +113,14 @@ public class Analyzer {
      * @param sampleFamilies input samples.
      */
     public void analyse(final ImmutableMap<String, SampleFamily> sampleFamilies) {
-        Map<String, SampleFamily> input = samples.stream()
-                                                 .map(s -> Tuple.of(s, sampleFamilies.get(s)))
-                                                 .filter(t -> t._2 != null)
-                                                 .collect(toImmutableMap(t -> t._1, t -> t._2));
+        final ImmutableMap.Builder<String, SampleFamily> inputBuilder = ImmutableMap.builder();
+        for (final String sample : samples) {
+            final SampleFamily sampleFamily = sampleFamilies.get(sample);
+            if (sampleFamily != null) {
+                inputBuilder.put(sample, sampleFamily);
+            }
+        }
+        Map<String, SampleFamily> input = inputBuilder.build();
         if (input.size() < 1) {
             if (log.isDebugEnabled()) {
                 log.debug("{} is ignored due to the lack of {}", expression, samples);
@@ -223,6 +226,13 @@ public class Analyzer {
         private final String literal;
     }
 
+    /**
+     * @return the names of the samples referred by the expression.
+     */
+    List<String> getSamples() {
+        return samples;
+    }
+
     private void init(final ExpressionParsingContext ctx) {
         this.samples = ctx.getSamples();
         if (ctx.isHistogram()) {
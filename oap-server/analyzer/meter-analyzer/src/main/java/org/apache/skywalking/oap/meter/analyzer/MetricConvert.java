@@ -22,11 +22,16 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import io.vavr.control.Try;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
+import org.apache.skywalking.oap.meter.analyzer.dsl.counter.CounterWindow;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
 
 import static java.util.stream.Collectors.toList;
@@ -46,8 +51,15 @@ public class MetricConvert {
 
     private final List<Analyzer> analyzers;
 
+    /**
+     * The positions of the analyzers in {@link #analyzers} referring to the sample name, so that only the analyzers
+     * having input samples are run.
+     */
+    private final Map<String, int[]> analyzersBySample;
+
     public MetricConvert(MetricRuleConfig rule, MeterSystem service) {
         Preconditions.checkState(!Strings.isNullOrEmpty(rule.getMetricPrefix()));
+        CounterWindow.INSTANCE.instrument(service.getManager());
         this.analyzers = rule.getMetricsRules().stream().map(
             r -> Analyzer.build(
                 formatMetricName(rule, r.getName()),
@@ -57,6 +69,24 @@ public class MetricConvert {
                 service
             )
         ).collect(toList());
+
+        final Map<String, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < analyzers.size(); i++) {
+            for (final String sample : analyzers.get(i).getSamples()) {
+                index.computeIfAbsent(sample, k -> new ArrayList<>()).add(i);
+            }
+        }
+        this.analyzersBySample = new HashMap<>(index.size());
+        index.forEach((sample, positions) -> analyzersBySample.put(
+            sample, positions.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * @param sampleName the name of the sample.
+     * @return true if any of the rules refers to the sample.
+     */
+    public boolean isInterested(final String sampleName) {
+        return analyzersBySample.containsKey(sampleName);
     }
 
     /**
@@ -69,7 +99,18 @@ public class MetricConvert {
         if (sampleFamilies.size() < 1) {
             return;
         }
-        for (Analyzer each : analyzers) {
+        // run the analyzers having input samples in the order of the rules
+        final BitSet interested = new BitSet(analyzers.size());
+        for (final String sample : sampleFamilies.keySet()) {
+            final int[] positions = analyzersBySample.get(sample);
+            if (positions != null) {
+                for (final int position : positions) {
+                    interested.set(position);
+                }
+            }
+        }
+        for (int i = interested.nextSetBit(0); i >= 0; i = interested.nextSetBit(i + 1)) {
+            final Analyzer each = analyzers.get(i);
             try {
                 each.analyse(sampleFamilies);
             } catch (Throwable t) {
@@ -28,6 +28,7 @@ import java.util.Map;
 import org.apache.skywalking.oap.meter.analyzer.dsl.tagOpt.K8sRetagType;
 import org.apache.skywalking.oap.server.core.analysis.Layer;
 import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.codehaus.groovy.ast.stmt.DoWhileStatement;
 import org.codehaus.groovy.ast.stmt.ForStatement;
 import org.codehaus.groovy.ast.stmt.Statement;
@@ -40,6 +41,11 @@ import org.codehaus.groovy.control.customizers.SecureASTCustomizer;
  * DSL combines methods to parse groovy based DSL expression.
  */
 public final class DSL {
+    /**
+     * Compile the common expressions to the direct calls of {@link SampleFamily} if {@code SW_MAL_COMPILE_EXPRESSIONS}
+     * is set in the system env.
+     */
+    private static final boolean COMPILE_EXPRESSIONS = StringUtil.isNotEmpty(System.getenv("SW_MAL_COMPILE_EXPRESSIONS"));
 
     /**
      * Parse string literal to Expression object, which can be reused.
@@ -48,6 +54,18 @@ public final class DSL {
      * @return Expression object could be executed.
      */
     public static Expression parse(final String expression) {
+        return parse(expression, COMPILE_EXPRESSIONS);
+    }
+
+    /**
+     * Parse string literal to Expression object, which can be reused.
+     *
+     * @param expression string literal represents the DSL expression.
+     * @param compile    compile the expression to the direct calls of {@link SampleFamily} if it's supported by
+     *                   {@link ExpressionCompiler}, otherwise it's run by the script.
+     * @return Expression object could be executed.
+     */
+    public static Expression parse(final String expression, final boolean compile) {
         CompilerConfiguration cc = new CompilerConfiguration();
         cc.setScriptBaseClass(DelegatingScript.class.getName());
         ImportCustomizer icz = new ImportCustomizer();
@@ -78,6 +96,6 @@ public final class DSL {
 
         GroovyShell sh = new GroovyShell(new Binding(), cc);
         DelegatingScript script = (DelegatingScript) sh.parse(expression);
-        return new Expression(expression, script);
+        return new Expression(expression, script, compile ? ExpressionCompiler.compile(expression).orElse(null) : null);
     }
 }
@@ -24,6 +24,7 @@ import groovy.lang.GroovyObjectSupport;
 import groovy.util.DelegatingScript;
 import java.time.Instant;
 import java.util.Map;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -39,14 +40,32 @@ public class Expression {
 
     private final DelegatingScript expression;
 
+    /**
+     * The pipeline compiled by {@link ExpressionCompiler}, which is used instead of the script if present.
+     */
+    private final Function<Map<String, SampleFamily>, SampleFamily> compiled;
+
     private final ThreadLocal<Map<String, SampleFamily>> propertyRepository = new ThreadLocal<>();
 
     public Expression(final String literal, final DelegatingScript expression) {
+        this(literal, expression, null);
+    }
+
+    public Expression(final String literal, final DelegatingScript expression,
+                      final Function<Map<String, SampleFamily>, SampleFamily> compiled) {
         this.literal = literal;
         this.expression = expression;
+        this.compiled = compiled;
         this.empower();
     }
 
+    /**
+     * @return true if the expression is run by the compiled pipeline instead of the script.
+     */
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+
     /**
      * Parse the expression statically.
      *
@@ -73,9 +92,13 @@ public class Expression {
      * @return The result of execution.
      */
     public Result run(final Map<String, SampleFamily> sampleFamilies) {
-        propertyRepository.set(sampleFamilies);
+        // the script collects the parsing context, which is not done by the compiled pipeline
+        final boolean runCompiled = compiled != null && !ExpressionParsingContext.get().isPresent();
+        if (!runCompiled) {
+            propertyRepository.set(sampleFamilies);
+        }
         try {
-            SampleFamily sf = (SampleFamily) expression.run();
+            SampleFamily sf = runCompiled ? compiled.apply(sampleFamilies) : (SampleFamily) expression.run();
             if (sf == SampleFamily.EMPTY) {
                 if (!ExpressionParsingContext.get().isPresent()) {
                     if (log.isDebugEnabled()) {
@@ -89,7 +112,9 @@ public class Expression {
             log.error("failed to run \"{}\"", literal, t);
             return Result.fail(t);
         } finally {
-            propertyRepository.remove();
+            if (!runCompiled) {
+                propertyRepository.remove();
+            }
         }
     }
 
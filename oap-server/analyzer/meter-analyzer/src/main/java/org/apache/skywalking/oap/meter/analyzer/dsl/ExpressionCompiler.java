@@ -0,0 +1,504 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.meter.analyzer.dsl.tagOpt.K8sRetagType;
+import org.apache.skywalking.oap.server.core.analysis.Layer;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.Phases;
+
+/**
+ * ExpressionCompiler compiles the common chains of MAL, i.e. the tag filters, value filters, aggregations, {@code
+ * rate}, {@code increase}, {@code histogram}, {@code histogram_percentile}, the scope functions and the arithmetic
+ * with constants or other sample families, and the closures of {@code tag} only assigning the tags, to the direct calls of {@link SampleFamily}. They don't need the dynamic
+ * dispatch of the Groovy script. The expressions having closures or any other construct are not compiled, and are
+ * still run by the script.
+ */
+@Slf4j
+final class ExpressionCompiler {
+    private static final Map<String, String> OPERATORS = ImmutableMap.of(
+        "plus", "+", "minus", "-", "multiply", "*", "div", "/");
+
+    /**
+     * @param literal the expression.
+     * @return the compiled pipeline, or empty if the expression is not supported.
+     */
+    static Optional<Function<Map<String, SampleFamily>, SampleFamily>> compile(final String literal) {
+        try {
+            final CompilationUnit unit = new CompilationUnit();
+            unit.addSource("MALExpression", literal);
+            unit.compile(Phases.CONVERSION);
+            final ModuleNode module = unit.getAST().getModules().get(0);
+            final BlockStatement block = module.getStatementBlock();
+            if (block.getStatements().size() != 1 || !(block.getStatements().get(0) instanceof ExpressionStatement)) {
+                return Optional.empty();
+            }
+            final Function<Map<String, SampleFamily>, SampleFamily> pipeline =
+                compile(((ExpressionStatement) block.getStatements().get(0)).getExpression());
+            if (pipeline == null && log.isDebugEnabled()) {
+                log.debug("\"{}\" is not compiled, it's run by the script", literal);
+            }
+            return Optional.ofNullable(pipeline);
+        } catch (RuntimeException e) {
+            log.debug("failed to compile \"{}\"", literal, e);
+            return Optional.empty();
+        }
+    }
+
+    private static Function<Map<String, SampleFamily>, SampleFamily> compile(
+        final org.codehaus.groovy.ast.expr.Expression e) {
+        if (e instanceof VariableExpression) {
+            final String name = ((VariableExpression) e).getName();
+            return input -> {
+                final SampleFamily sf = input.get(name);
+                return sf == null ? SampleFamily.EMPTY : sf;
+            };
+        }
+        if (e instanceof MethodCallExpression) {
+            final MethodCallExpression call = (MethodCallExpression) e;
+            if (call.isImplicitThis() || call.isSafe() || call.isSpreadSafe()
+                || !(call.getArguments() instanceof ArgumentListExpression)) {
+                return null;
+            }
+            final List<org.codehaus.groovy.ast.expr.Expression> args =
+                ((ArgumentListExpression) call.getArguments()).getExpressions();
+            final String name = call.getMethodAsString();
+            if (args.size() == 1 && OPERATORS.containsKey(name)) {
+                // the method form of the arithmetic, e.g. a.multiply(100)
+                return binary(OPERATORS.get(name), call.getObjectExpression(), args.get(0));
+            }
+            final Function<Map<String, SampleFamily>, SampleFamily> receiver = compile(call.getObjectExpression());
+            final UnaryOperator<SampleFamily> method = method(name, args);
+            if (receiver == null || method == null) {
+                return null;
+            }
+            return input -> method.apply(receiver.apply(input));
+        }
+        if (e instanceof BinaryExpression) {
+            final BinaryExpression b = (BinaryExpression) e;
+            return binary(b.getOperation().getText(), b.getLeftExpression(), b.getRightExpression());
+        }
+        return null;
+    }
+
+    private static UnaryOperator<SampleFamily> method(final String name,
+                                                     final List<org.codehaus.groovy.ast.expr.Expression> args) {
+        if (name == null) {
+            return null;
+        }
+        switch (name) {
+            case "tagEqual":
+            case "tagNotEqual":
+            case "tagMatch":
+            case "tagNotMatch": {
+                final String[] labels = new String[args.size()];
+                for (int i = 0; i < labels.length; i++) {
+                    labels[i] = string(args.get(i));
+                    if (labels[i] == null) {
+                        return null;
+                    }
+                }
+                switch (name) {
+                    case "tagEqual":
+                        return sf -> sf.tagEqual(labels);
+                    case "tagNotEqual":
+                        return sf -> sf.tagNotEqual(labels);
+                    case "tagMatch":
+                        return sf -> sf.tagMatch(labels);
+                    default:
+                        return sf -> sf.tagNotMatch(labels);
+                }
+            }
+            case "sum":
+            case "avg":
+            case "max":
+            case "min": {
+                if (args.size() > 1) {
+                    return null;
+                }
+                final List<String> by = args.isEmpty() ? null : strings(args.get(0));
+                if (!args.isEmpty() && by == null) {
+                    return null;
+                }
+                switch (name) {
+                    case "sum":
+                        return sf -> sf.sum(by);
+                    case "avg":
+                        return sf -> sf.avg(by);
+                    case "max":
+                        return sf -> sf.max(by);
+                    default:
+                        return sf -> sf.min(by);
+                }
+            }
+            case "rate":
+            case "increase": {
+                final String range = args.size() == 1 ? string(args.get(0)) : null;
+                if (range == null) {
+                    return null;
+                }
+                return "rate".equals(name) ? sf -> sf.rate(range) : sf -> sf.increase(range);
+            }
+            case "irate":
+                return args.isEmpty() ? SampleFamily::irate : null;
+            case "histogram": {
+                if (args.isEmpty()) {
+                    return SampleFamily::histogram;
+                }
+                final String le = args.size() == 1 ? string(args.get(0)) : null;
+                return le == null ? null : sf -> sf.histogram(le);
+            }
+            case "histogram_percentile": {
+                final List<Integer> percentiles = args.size() == 1 ? integers(args.get(0)) : null;
+                return percentiles == null ? null : sf -> sf.histogram_percentile(percentiles);
+            }
+            case "service": {
+                final List<String> keys = args.size() == 2 ? strings(args.get(0)) : null;
+                final Layer layer = args.size() == 2 ? layer(args.get(1)) : null;
+                return keys == null || layer == null ? null : sf -> sf.service(keys, layer);
+            }
+            case "instance":
+            case "endpoint": {
+                final List<String> serviceKeys = args.size() == 3 ? strings(args.get(0)) : null;
+                final List<String> keys = args.size() == 3 ? strings(args.get(1)) : null;
+                final Layer layer = args.size() == 3 ? layer(args.get(2)) : null;
+                if (serviceKeys == null || keys == null || layer == null) {
+                    return null;
+                }
+                return "instance".equals(name) ?
+                    sf -> sf.instance(serviceKeys, keys, layer) : sf -> sf.endpoint(serviceKeys, keys, layer);
+            }
+            case "tag": {
+                final Consumer<Map<String, String>> retagger = args.size() == 1 ? retagger(args.get(0)) : null;
+                return retagger == null ? null : sf -> sf.retag(retagger);
+            }
+            case "serviceRelation": {
+                if (args.size() != 4) {
+                    return null;
+                }
+                final String detectPoint = enumConstant(args.get(0), "DetectPoint");
+                final List<String> sourceKeys = strings(args.get(1));
+                final List<String> destKeys = strings(args.get(2));
+                final Layer layer = layer(args.get(3));
+                if (detectPoint == null || sourceKeys == null || destKeys == null || layer == null) {
+                    return null;
+                }
+                final DetectPoint point = DetectPoint.valueOf(detectPoint);
+                return sf -> sf.serviceRelation(point, sourceKeys, destKeys, layer);
+            }
+            case "retagByK8sMeta": {
+                if (args.size() != 4) {
+                    return null;
+                }
+                final String newLabelName = string(args.get(0));
+                final String type = enumConstant(args.get(1), "K8sRetagType");
+                final String existingLabelName = string(args.get(2));
+                final String namespaceLabelName = string(args.get(3));
+                if (newLabelName == null || type == null || existingLabelName == null || namespaceLabelName == null) {
+                    return null;
+                }
+                final K8sRetagType retagType = K8sRetagType.valueOf(type);
+                return sf -> sf.retagByK8sMeta(newLabelName, retagType, existingLabelName, namespaceLabelName);
+            }
+            case "downsampling": {
+                final DownsamplingType type = args.size() == 1 ? downsamplingType(args.get(0)) : null;
+                return type == null ? null : sf -> sf.downsampling(type);
+            }
+            case "valueEqual":
+            case "valueNotEqual":
+            case "valueGreater":
+            case "valueGreaterEqual":
+            case "valueLess":
+            case "valueLessEqual": {
+                final Number n = args.size() == 1 ? number(args.get(0)) : null;
+                if (n == null) {
+                    return null;
+                }
+                final double v = n.doubleValue();
+                switch (name) {
+                    case "valueEqual":
+                        return sf -> sf.valueEqual(v);
+                    case "valueNotEqual":
+                        return sf -> sf.valueNotEqual(v);
+                    case "valueGreater":
+                        return sf -> sf.valueGreater(v);
+                    case "valueGreaterEqual":
+                        return sf -> sf.valueGreaterEqual(v);
+                    case "valueLess":
+                        return sf -> sf.valueLess(v);
+                    default:
+                        return sf -> sf.valueLessEqual(v);
+                }
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static Function<Map<String, SampleFamily>, SampleFamily> binary(
+        final String op,
+        final org.codehaus.groovy.ast.expr.Expression leftExpression,
+        final org.codehaus.groovy.ast.expr.Expression rightExpression) {
+        final Number rightNumber = number(rightExpression);
+        final Number leftNumber = number(leftExpression);
+        if (leftNumber == null) {
+            final Function<Map<String, SampleFamily>, SampleFamily> left = compile(leftExpression);
+            if (left == null) {
+                return null;
+            }
+            if (rightNumber != null) {
+                switch (op) {
+                    case "+":
+                        return input -> left.apply(input).plus(rightNumber);
+                    case "-":
+                        return input -> left.apply(input).minus(rightNumber);
+                    case "*":
+                        return input -> left.apply(input).multiply(rightNumber);
+                    case "/":
+                        return input -> left.apply(input).div(rightNumber);
+                    default:
+                        return null;
+                }
+            }
+            final Function<Map<String, SampleFamily>, SampleFamily> right = compile(rightExpression);
+            if (right == null) {
+                return null;
+            }
+            switch (op) {
+                case "+":
+                    return input -> left.apply(input).plus(right.apply(input));
+                case "-":
+                    return input -> left.apply(input).minus(right.apply(input));
+                case "*":
+                    return input -> left.apply(input).multiply(right.apply(input));
+                case "/":
+                    return input -> left.apply(input).div(right.apply(input));
+                default:
+                    return null;
+            }
+        }
+        // the number on the left is extended by Expression#extendNumber
+        final Function<Map<String, SampleFamily>, SampleFamily> right = compile(rightExpression);
+        if (right == null) {
+            return null;
+        }
+        switch (op) {
+            case "+":
+                return input -> right.apply(input).plus(leftNumber);
+            case "-":
+                return input -> right.apply(input).minus(leftNumber).negative();
+            case "*":
+                return input -> right.apply(input).multiply(leftNumber);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Compile the closure of {@link SampleFamily#tag(groovy.lang.Closure)} only assigning the tags with the string
+     * constants and the tags, e.g. {@code {tags -> tags.service = 'prefix::' + tags.service}}.
+     */
+    private static Consumer<Map<String, String>> retagger(final org.codehaus.groovy.ast.expr.Expression e) {
+        if (!(e instanceof ClosureExpression) || !(((ClosureExpression) e).getCode() instanceof BlockStatement)) {
+            return null;
+        }
+        final ClosureExpression closure = (ClosureExpression) e;
+        final String param;
+        if (closure.getParameters() == null || closure.getParameters().length == 0) {
+            param = "it";
+        } else if (closure.getParameters().length == 1) {
+            param = closure.getParameters()[0].getName();
+        } else {
+            return null;
+        }
+        final List<Consumer<Map<String, String>>> assignments = new ArrayList<>();
+        for (final Statement statement : ((BlockStatement) closure.getCode()).getStatements()) {
+            if (!(statement instanceof ExpressionStatement)
+                || !(((ExpressionStatement) statement).getExpression() instanceof BinaryExpression)) {
+                return null;
+            }
+            final BinaryExpression assignment = (BinaryExpression) ((ExpressionStatement) statement).getExpression();
+            final String key = tagKey(assignment.getLeftExpression(), param);
+            final Function<Map<String, String>, String> value = tagValue(assignment.getRightExpression(), param);
+            if (!"=".equals(assignment.getOperation().getText()) || key == null || value == null) {
+                return null;
+            }
+            assignments.add(tags -> tags.put(key, value.apply(tags)));
+        }
+        if (assignments.isEmpty()) {
+            return null;
+        }
+        return tags -> assignments.forEach(assignment -> assignment.accept(tags));
+    }
+
+    /**
+     * @return the key of the expression in the form of {@code tags.key}.
+     */
+    private static String tagKey(final org.codehaus.groovy.ast.expr.Expression e, final String param) {
+        if (!(e instanceof PropertyExpression) || ((PropertyExpression) e).isSafe()) {
+            return null;
+        }
+        final org.codehaus.groovy.ast.expr.Expression owner = ((PropertyExpression) e).getObjectExpression();
+        if (!(owner instanceof VariableExpression) || !param.equals(((VariableExpression) owner).getName())) {
+            return null;
+        }
+        return ((PropertyExpression) e).getPropertyAsString();
+    }
+
+    /**
+     * Compile the concatenation of the string constants and the tags.
+     */
+    private static Function<Map<String, String>, String> tagValue(final org.codehaus.groovy.ast.expr.Expression e,
+                                                                  final String param) {
+        final String constant = string(e);
+        if (constant != null) {
+            return tags -> constant;
+        }
+        final String key = tagKey(e, param);
+        if (key != null) {
+            return tags -> tags.get(key);
+        }
+        if (e instanceof BinaryExpression && "+".equals(((BinaryExpression) e).getOperation().getText())) {
+            // the operands are all strings, so it's a concatenation
+            final BinaryExpression b = (BinaryExpression) e;
+            final Function<Map<String, String>, String> left = tagValue(b.getLeftExpression(), param);
+            final Function<Map<String, String>, String> right = tagValue(b.getRightExpression(), param);
+            if (left == null || right == null) {
+                return null;
+            }
+            return tags -> left.apply(tags) + right.apply(tags);
+        }
+        return null;
+    }
+
+    /**
+     * Unwrap the argument in the form of {@code by = [...]}, which is the value assigned.
+     */
+    private static org.codehaus.groovy.ast.expr.Expression value(final org.codehaus.groovy.ast.expr.Expression e) {
+        if (e instanceof BinaryExpression && "=".equals(((BinaryExpression) e).getOperation().getText())) {
+            return ((BinaryExpression) e).getRightExpression();
+        }
+        return e;
+    }
+
+    private static String string(final org.codehaus.groovy.ast.expr.Expression e) {
+        final org.codehaus.groovy.ast.expr.Expression v = value(e);
+        if (v instanceof ConstantExpression && ((ConstantExpression) v).getValue() instanceof String) {
+            return (String) ((ConstantExpression) v).getValue();
+        }
+        return null;
+    }
+
+    private static Number number(final org.codehaus.groovy.ast.expr.Expression e) {
+        if (e instanceof ConstantExpression && ((ConstantExpression) e).getValue() instanceof Number) {
+            return (Number) ((ConstantExpression) e).getValue();
+        }
+        return null;
+    }
+
+    private static List<String> strings(final org.codehaus.groovy.ast.expr.Expression e) {
+        final org.codehaus.groovy.ast.expr.Expression v = value(e);
+        if (!(v instanceof ListExpression)) {
+            return null;
+        }
+        final List<String> result = new ArrayList<>();
+        for (final org.codehaus.groovy.ast.expr.Expression each : ((ListExpression) v).getExpressions()) {
+            final String s = string(each);
+            if (s == null) {
+                return null;
+            }
+            result.add(s);
+        }
+        return result;
+    }
+
+    private static List<Integer> integers(final org.codehaus.groovy.ast.expr.Expression e) {
+        final org.codehaus.groovy.ast.expr.Expression v = value(e);
+        if (!(v instanceof ListExpression)) {
+            return null;
+        }
+        final List<Integer> result = new ArrayList<>();
+        for (final org.codehaus.groovy.ast.expr.Expression each : ((ListExpression) v).getExpressions()) {
+            final Number n = number(each);
+            if (!(n instanceof Integer)) {
+                return null;
+            }
+            result.add((Integer) n);
+        }
+        return result;
+    }
+
+    private static Layer layer(final org.codehaus.groovy.ast.expr.Expression e) {
+        final String name = enumConstant(e, "Layer");
+        return name == null ? null : Layer.valueOf(name);
+    }
+
+    private static DownsamplingType downsamplingType(final org.codehaus.groovy.ast.expr.Expression e) {
+        if (e instanceof VariableExpression) {
+            switch (((VariableExpression) e).getName()) {
+                case "AVG":
+                    return DownsamplingType.AVG;
+                case "SUM":
+                    return DownsamplingType.SUM;
+                case "LATEST":
+                    return DownsamplingType.LATEST;
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the constant name of the expression in the form of {@code Type.CONSTANT}.
+     */
+    private static String enumConstant(final org.codehaus.groovy.ast.expr.Expression e, final String type) {
+        if (!(e instanceof PropertyExpression)) {
+            return null;
+        }
+        final PropertyExpression p = (PropertyExpression) e;
+        final org.codehaus.groovy.ast.expr.Expression owner = p.getObjectExpression();
+        final boolean ownerMatched = owner instanceof VariableExpression && type.equals(((VariableExpression) owner).getName())
+            || owner instanceof ClassExpression && type.equals(owner.getType().getNameWithoutPackage());
+        return ownerMatched ? p.getPropertyAsString() : null;
+    }
+}
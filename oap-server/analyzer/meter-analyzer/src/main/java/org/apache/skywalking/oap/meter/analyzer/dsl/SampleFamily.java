@@ -46,6 +46,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -341,6 +342,25 @@ public class SampleFamily {
         );
     }
 
+    /**
+     * The equivalent of {@link #tag(Closure)} with the closure returning nothing but changing the tags, which is used by
+     * the compiled expressions.
+     */
+    SampleFamily retag(Consumer<Map<String, String>> retagger) {
+        if (this == EMPTY) {
+            return EMPTY;
+        }
+        return SampleFamily.build(
+            this.context,
+            Arrays.stream(samples)
+                  .map(sample -> {
+                      Map<String, String> arg = Maps.newHashMap(sample.labels);
+                      retagger.accept(arg);
+                      return sample.toBuilder().labels(ImmutableMap.copyOf(arg)).build();
+                  }).toArray(Sample[]::new)
+        );
+    }
+
     public SampleFamily filter(Closure<Boolean> filter) {
         if (this == EMPTY) {
             return EMPTY;
@@ -21,66 +21,286 @@ package org.apache.skywalking.oap.meter.analyzer.dsl.counter;
 import com.google.common.collect.ImmutableMap;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
-import lombok.AccessLevel;
-import lombok.EqualsAndHashCode;
-import lombok.RequiredArgsConstructor;
-import lombok.ToString;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * CounterWindow stores a series of counter samples in order to calculate the increase
  * or instant rate of increase.
  *
+ * <p>The series are spread over access ordered shards. A series not seen for {@link #IDLE_WINDOWS} windows, and at
+ * least {@link #MIN_IDLE_MILLIS}, is evicted, so do the least recently seen series of a shard once the shard is full.
+ * Evictions are counted by the {@code meter_counter_window_evicted_series} metric. The max number of series is
+ * {@link #DEFAULT_MAX_SERIES} unless set through {@link #setMaxSeries(int)}.
  */
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-@ToString
-@EqualsAndHashCode
 public class CounterWindow {
+    static final int SHARDS = 64;
+    static final int DEFAULT_MAX_SERIES = 1_000_000;
+    static final int IDLE_WINDOWS = 3;
+    static final long MIN_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
 
-    public static final CounterWindow INSTANCE = new CounterWindow();
+    public static final CounterWindow INSTANCE = new CounterWindow(DEFAULT_MAX_SERIES, System::currentTimeMillis);
 
-    private final Map<ID, Tuple2<Long, Double>> lastElementMap = new ConcurrentHashMap<>();
-    private final Map<ID, Queue<Tuple2<Long, Double>>> windows = new ConcurrentHashMap<>();
+    private final Shard[] shards;
+    private final LongSupplier clock;
+    private volatile int maxSeriesPerShard;
+    private volatile ModuleDefineHolder moduleDefineHolder;
+    private volatile boolean instrumented;
+    private volatile CounterMetrics evictedSeries;
+
+    CounterWindow(int maxSeries, LongSupplier clock) {
+        this.clock = clock;
+        setMaxSeries(maxSeries);
+        shards = new Shard[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Set the max number of series, spread over the shards. A shard over the new limit evicts its least recently seen
+     * series when it receives a new one.
+     */
+    public void setMaxSeries(int maxSeries) {
+        maxSeriesPerShard = Math.max(1, (maxSeries + SHARDS - 1) / SHARDS);
+    }
+
+    /**
+     * Set the modules providing the eviction metric, which is created at the first eviction. Only the first call
+     * takes effect.
+     */
+    public void instrument(ModuleDefineHolder moduleDefineHolder) {
+        if (this.moduleDefineHolder == null) {
+            this.moduleDefineHolder = moduleDefineHolder;
+        }
+    }
 
     public Tuple2<Long, Double> increase(String name, ImmutableMap<String, String> labels, Double value, long windowSize, long now) {
-        ID id = new ID(name, labels);
-        Queue<Tuple2<Long, Double>> window = windows.computeIfAbsent(id, unused -> new PriorityQueue<>());
-        window.offer(Tuple.of(now, value));
-        long waterLevel = now - windowSize;
-        Tuple2<Long, Double> peek = window.peek();
-        if (peek._1 > waterLevel) {
-            return peek;
+        final ID id = new ID(name, labels);
+        final Shard shard = shardOf(id);
+        synchronized (shard) {
+            final Series series = shard.get(id, clock.getAsLong());
+            series.windowSize = Math.max(series.windowSize, windowSize);
+            return series.increase(value, windowSize, now);
         }
+    }
 
-        Tuple2<Long, Double> result = peek;
-        while (peek._1 < waterLevel) {
-            result = window.poll();
-            peek = window.element();
+    public Tuple2<Long, Double> pop(String name, ImmutableMap<String, String> labels, Double value, long now) {
+        final ID id = new ID(name, labels);
+        final Shard shard = shardOf(id);
+        synchronized (shard) {
+            return shard.get(id, clock.getAsLong()).pop(value, now);
         }
+    }
 
-        // Choose the closed slot to the expected timestamp
-        if (waterLevel - result._1 <= peek._1 - waterLevel) {
-            return result;
+    public void reset() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.series.clear();
+            }
         }
+    }
 
-        return peek;
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.series.size();
+            }
+        }
+        return size;
     }
 
-    public Tuple2<Long, Double> pop(String name, ImmutableMap<String, String> labels, Double value, long now) {
-        ID id = new ID(name, labels);
+    private Shard shardOf(ID id) {
+        final int h = id.hashCode();
+        return shards[(h ^ (h >>> 16)) & (SHARDS - 1)];
+    }
 
-        Tuple2<Long, Double> element = Tuple.of(now, value);
-        Tuple2<Long, Double> result = lastElementMap.put(id, element);
-        if (result == null) {
-            return element;
+    private void onEvicted() {
+        final CounterMetrics counter = evictedSeries();
+        if (counter != null) {
+            counter.inc();
         }
-        return result;
     }
 
-    public void reset() {
-        windows.clear();
+    /**
+     * @return the eviction metric, or null if the telemetry isn't available.
+     */
+    private CounterMetrics evictedSeries() {
+        if (instrumented || moduleDefineHolder == null) {
+            return evictedSeries;
+        }
+        synchronized (this) {
+            if (!instrumented) {
+                evictedSeries = createEvictedSeries(moduleDefineHolder);
+                instrumented = true;
+            }
+        }
+        return evictedSeries;
+    }
+
+    private static CounterMetrics createEvictedSeries(ModuleDefineHolder holder) {
+        if (!holder.has(TelemetryModule.NAME)) {
+            return null;
+        }
+        final ModuleProviderHolder telemetry = holder.find(TelemetryModule.NAME);
+        final ModuleServiceHolder provider = telemetry == null ? null : telemetry.provider();
+        final MetricsCreator metricsCreator = provider == null ? null : provider.getService(MetricsCreator.class);
+        if (metricsCreator == null) {
+            return null;
+        }
+        return metricsCreator.createCounter(
+            "meter_counter_window_evicted_series", "The number of counter series evicted from the counter window",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+    }
+
+    private final class Shard {
+        private final LinkedHashMap<ID, Series> series;
+        private long lastSweep;
+
+        private Shard() {
+            series = new LinkedHashMap<ID, Series>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<ID, Series> eldest) {
+                    if (size() > maxSeriesPerShard) {
+                        onEvicted();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private Series get(ID id, long time) {
+            if (time - lastSweep >= SWEEP_INTERVAL_MILLIS) {
+                lastSweep = time;
+                sweep(time);
+            }
+            Series s = series.get(id);
+            if (s == null) {
+                s = new Series();
+                series.put(id, s);
+            }
+            s.lastSeen = time;
+            return s;
+        }
+
+        /**
+         * Walk from the least recently seen series, and stop at the first one seen within {@link #MIN_IDLE_MILLIS},
+         * as all series after it are even more recent.
+         */
+        private void sweep(long time) {
+            final Iterator<Series> it = series.values().iterator();
+            while (it.hasNext()) {
+                final Series s = it.next();
+                final long idle = time - s.lastSeen;
+                if (idle <= MIN_IDLE_MILLIS) {
+                    return;
+                }
+                if (idle > IDLE_WINDOWS * s.windowSize) {
+                    it.remove();
+                    onEvicted();
+                }
+            }
+        }
+    }
+
+    /**
+     * The samples of a series, kept in a ring sorted by timestamp, and the last sample for {@link #pop}.
+     */
+    private static class Series {
+        private long[] timestamps = new long[4];
+        private double[] values = new double[4];
+        private int head;
+        private int size;
+        private long windowSize;
+        private long lastSeen;
+        private boolean hasLast;
+        private long lastTimestamp;
+        private double lastValue;
+
+        private Tuple2<Long, Double> increase(double value, long windowSize, long now) {
+            insert(now, value);
+            final int mask = timestamps.length - 1;
+            final long waterLevel = now - windowSize;
+            if (timestamps[head] > waterLevel) {
+                return Tuple.of(timestamps[head], values[head]);
+            }
+
+            long resultTimestamp = timestamps[head];
+            double resultValue = values[head];
+            while (timestamps[head] < waterLevel && size > 1) {
+                resultTimestamp = timestamps[head];
+                resultValue = values[head];
+                head = (head + 1) & mask;
+                size--;
+            }
+
+            // Choose the closed slot to the expected timestamp
+            if (waterLevel - resultTimestamp <= timestamps[head] - waterLevel) {
+                return Tuple.of(resultTimestamp, resultValue);
+            }
+
+            return Tuple.of(timestamps[head], values[head]);
+        }
+
+        private Tuple2<Long, Double> pop(double value, long now) {
+            final Tuple2<Long, Double> result = hasLast ? Tuple.of(lastTimestamp, lastValue) : Tuple.of(now, value);
+            hasLast = true;
+            lastTimestamp = now;
+            lastValue = value;
+            return result;
+        }
+
+        /**
+         * Insert the sample in order of timestamp then value. Samples mostly arrive in order, so this is an append.
+         */
+        private void insert(long timestamp, double value) {
+            if (size == timestamps.length) {
+                grow();
+            }
+            final int mask = timestamps.length - 1;
+            int pos = size;
+            while (pos > 0) {
+                final int prev = (head + pos - 1) & mask;
+                if (timestamps[prev] < timestamp
+                    || timestamps[prev] == timestamp && Double.compare(values[prev], value) <= 0) {
+                    break;
+                }
+                final int at = (head + pos) & mask;
+                timestamps[at] = timestamps[prev];
+                values[at] = values[prev];
+                pos--;
+            }
+            final int at = (head + pos) & mask;
+            timestamps[at] = timestamp;
+            values[at] = value;
+            size++;
+        }
+
+        private void grow() {
+            final int mask = timestamps.length - 1;
+            final long[] newTimestamps = new long[timestamps.length << 1];
+            final double[] newValues = new double[values.length << 1];
+            for (int i = 0; i < size; i++) {
+                newTimestamps[i] = timestamps[(head + i) & mask];
+                newValues[i] = values[(head + i) & mask];
+            }
+            timestamps = newTimestamps;
+            values = newValues;
+            head = 0;
+        }
     }
 }
@@ -19,16 +19,77 @@
 package org.apache.skywalking.oap.meter.analyzer.dsl.counter;
 
 import com.google.common.collect.ImmutableMap;
-import lombok.EqualsAndHashCode;
-import lombok.RequiredArgsConstructor;
+import java.util.Iterator;
+import java.util.Map;
 import lombok.ToString;
 
-@RequiredArgsConstructor
-@EqualsAndHashCode
-@ToString
+/**
+ * The identity of a counter series. The labels are hashed once into 64 bits, which rejects almost all mismatched
+ * series without comparing the labels.
+ */
+@ToString(exclude = "hash")
 class ID {
 
     private final String name;
 
     private final ImmutableMap<String, String> labels;
+
+    private final long hash;
+
+    ID(final String name, final ImmutableMap<String, String> labels) {
+        this.name = name;
+        this.labels = labels;
+        long h = name.hashCode();
+        for (Map.Entry<String, String> entry : labels.entrySet()) {
+            // Summed to be independent of the label order, same as the map equality.
+            h += mix(((long) entry.getKey().hashCode() << 32) | (entry.getValue().hashCode() & 0xFFFFFFFFL));
+        }
+        this.hash = h;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ID)) {
+            return false;
+        }
+        final ID other = (ID) o;
+        return hash == other.hash && name.equals(other.name) && labelsEqual(labels, other.labels);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Labels of the same series nearly always come in the same order, compare them pairwise before falling back to
+     * the order independent map equality.
+     */
+    private static boolean labelsEqual(ImmutableMap<String, String> a, ImmutableMap<String, String> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        final Iterator<Map.Entry<String, String>> ia = a.entrySet().iterator();
+        final Iterator<Map.Entry<String, String>> ib = b.entrySet().iterator();
+        while (ia.hasNext()) {
+            final Map.Entry<String, String> ea = ia.next();
+            final Map.Entry<String, String> eb = ib.next();
+            if (!ea.getKey().equals(eb.getKey()) || !ea.getValue().equals(eb.getValue())) {
+                return a.equals(b);
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
 }
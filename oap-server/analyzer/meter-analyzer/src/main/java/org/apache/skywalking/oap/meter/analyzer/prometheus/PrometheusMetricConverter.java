@@ -24,7 +24,10 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
@@ -84,19 +87,50 @@ public class PrometheusMetricConverter {
         convert.toMeter(data);
     }
 
+    /**
+     * toMeter transforms the sample families of several targets, which have been converted by {@link
+     * #convertPromMetricToSampleFamily(Stream)} separately, to meter-system metrics.
+     *
+     * @param sampleFamilies sample families of each target.
+     */
+    public void toMeter(Collection<ImmutableMap<String, SampleFamily>> sampleFamilies) {
+        if (sampleFamilies.size() == 1) {
+            convert.toMeter(sampleFamilies.iterator().next());
+            return;
+        }
+        final Map<String, SampleFamily> data = new HashMap<>();
+        sampleFamilies.forEach(families -> families.forEach((name, family) -> data.merge(name, family, this::merge)));
+        convert.toMeter(ImmutableMap.copyOf(data));
+    }
+
     public ImmutableMap<String, SampleFamily> convertPromMetricToSampleFamily(Stream<Metric> metricStream) {
         return metricStream
+            .filter(this::isInterested)
             .peek(metric -> log.debug("Prom metric to be convert to SampleFamily: {}", metric))
             .flatMap(this::convertMetric)
             .filter(t -> t != NIL && t._2.samples.length > 0)
             .peek(t -> log.debug("SampleFamily: {}", t))
-            .collect(toImmutableMap(Tuple2::_1, Tuple2::_2, (a, b) -> {
-                log.debug("merge {} {}", a, b);
-                Sample[] m = new Sample[a.samples.length + b.samples.length];
-                System.arraycopy(a.samples, 0, m, 0, a.samples.length);
-                System.arraycopy(b.samples, 0, m, a.samples.length, b.samples.length);
-                return SampleFamilyBuilder.newBuilder(m).build();
-            }));
+            .collect(toImmutableMap(Tuple2::_1, Tuple2::_2, this::merge));
+    }
+
+    private SampleFamily merge(SampleFamily a, SampleFamily b) {
+        log.debug("merge {} {}", a, b);
+        Sample[] m = new Sample[a.samples.length + b.samples.length];
+        System.arraycopy(a.samples, 0, m, 0, a.samples.length);
+        System.arraycopy(b.samples, 0, m, a.samples.length, b.samples.length);
+        return SampleFamilyBuilder.newBuilder(m).build();
+    }
+
+    /**
+     * Skip the metrics none of the rules refers to, before they are converted.
+     */
+    private boolean isInterested(Metric metric) {
+        final String name = escapedName(metric.getName());
+        if (convert.isInterested(name)) {
+            return true;
+        }
+        return (metric instanceof Histogram || metric instanceof Summary)
+            && (convert.isInterested(name + "_count") || convert.isInterested(name + "_sum"));
     }
 
     private Stream<Tuple2<String, SampleFamily>> convertMetric(Metric metric) {
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.Collection;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.config.NamingControl;
+import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * The compiled expressions should have the same result as the scripts.
+ */
+@RunWith(Parameterized.class)
+public class ExpressionCompilerTest {
+
+    @Parameterized.Parameter
+    public String name;
+
+    @Parameterized.Parameter(1)
+    public String expression;
+
+    @Parameterized.Parameter(2)
+    public boolean compiled;
+
+    @Parameterized.Parameters(name = "{index}: {0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+            {"tag-filter-sum", "http_success_request.tagEqual('idc', 't1').sum(['region'])", true},
+            {"tag-match", "http_success_request.tagMatch('region', 'u.*').tagNotEqual('idc', 't3').sum(['idc'])", true},
+            {"sum-by-assignment", "http_success_request.sum(by = ['region', 'idc'])", true},
+            {"avg-all", "http_success_request.avg([])", true},
+            {"value-filter", "http_success_request.valueGreater(10).max(['idc'])", true},
+            {"arithmetic-constant", "(http_success_request * 100 / 8 - 1).sum(['idc'])", true},
+            {"arithmetic-number-left", "(100 - http_success_request).sum(['idc'])", true},
+            {"arithmetic-families", "(http_success_request + http_error_request).sum(['idc'])", true},
+            {"missing-sample", "absent_request.sum(['idc'])", true},
+            {
+                "instance",
+                "http_success_request.sum(['region', 'idc']).instance(['idc'], ['region'], Layer.GENERAL)",
+                true
+            },
+            {
+                "histogram-service",
+                "latency.sum(['le', 'svc']).histogram().histogram_percentile([50, 99]).service(['svc'], Layer.GENERAL)",
+                true
+            },
+            {
+                "service-relation",
+                "http_success_request.sum(['idc', 'region']).serviceRelation(DetectPoint.CLIENT, ['idc'], ['region'], Layer.MESH_DP)",
+                true
+            },
+            {"downsampling", "http_success_request.sum(['idc']).downsampling(SUM)", true},
+            {"arithmetic-method", "http_success_request.multiply(100).div(http_error_request).sum(['idc'])", true},
+            {
+                "closure-retag",
+                "http_success_request.tag({tags -> tags.idc = 'dc::' + tags.idc + '-' + tags.region}).sum(['idc'])",
+                true
+            },
+            {"closure-retag-it", "http_success_request.tag({it.region = 'eu'; it.idc = it.region}).sum(['idc'])", true},
+            {"closure-tag-condition", "http_success_request.tag({tags -> if (tags.idc == 't1') tags.idc = 'x'}).sum(['idc'])", false},
+            {"closure-filter", "http_success_request.filter({tags -> tags.idc == 't1'}).sum(['idc'])", false},
+            {"number-div-family", "(1 / http_success_request).sum(['idc'])", false},
+        });
+    }
+
+    @BeforeClass
+    public static void init() {
+        MeterEntity.setNamingControl(new NamingControl(512, 512, 512, new EndpointNameGrouping()));
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        MeterEntity.setNamingControl(null);
+    }
+
+    @Test
+    public void test() {
+        final Expression script = DSL.parse(expression, false);
+        final Expression compiledExpression = DSL.parse(expression, true);
+        assertThat(compiledExpression.isCompiled(), is(compiled));
+
+        final ImmutableMap<String, SampleFamily> input = of(
+            "http_success_request", SampleFamilyBuilder.newBuilder(
+                Sample.builder().labels(of("idc", "t1")).value(50).name("http_success_request").build(),
+                Sample.builder().labels(of("idc", "t3", "region", "cn")).value(51).name("http_success_request").build(),
+                Sample.builder().labels(of("idc", "t1", "region", "us")).value(5).name("http_success_request").build()
+            ).build(),
+            "http_error_request", SampleFamilyBuilder.newBuilder(
+                Sample.builder().labels(of("idc", "t1")).value(2).name("http_error_request").build(),
+                Sample.builder().labels(of("idc", "t3", "region", "cn")).value(3).name("http_error_request").build()
+            ).build(),
+            "latency", SampleFamilyBuilder.newBuilder(
+                Sample.builder().labels(of("svc", "a", "le", "50")).value(10).name("latency").build(),
+                Sample.builder().labels(of("svc", "a", "le", "100")).value(30).name("latency").build(),
+                Sample.builder().labels(of("svc", "b", "le", "50")).value(1).name("latency").build(),
+                Sample.builder().labels(of("svc", "b", "le", "100")).value(4).name("latency").build()
+            ).build()
+        );
+        assertThat(compiledExpression.run(input), is(script.run(input)));
+    }
+}
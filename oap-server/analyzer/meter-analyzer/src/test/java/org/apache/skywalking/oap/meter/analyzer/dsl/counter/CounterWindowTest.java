@@ -22,10 +22,23 @@ import com.google.common.collect.Lists;
 import io.vavr.Tuple2;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.junit.Assert;
 import org.junit.Test;
 
 import static java.time.Instant.parse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class CounterWindowTest {
 
@@ -93,4 +106,101 @@ public class CounterWindowTest {
 
         Assert.assertArrayEquals(new double[] {0, 1d, 2d, 3d, 4d, 0d, 1d, 2d}, actuals, 0.d);
     }
+
+    @Test
+    public void testPop() {
+        CounterWindow window = new CounterWindow(CounterWindow.DEFAULT_MAX_SERIES, System::currentTimeMillis);
+        ImmutableMap<String, String> labels = ImmutableMap.of("pod", "a");
+        Assert.assertEquals(new Tuple2<>(1000L, 1d), window.pop("test", labels, 1d, 1000L));
+        Assert.assertEquals(new Tuple2<>(1000L, 1d), window.pop("test", labels, 3d, 2000L));
+        Assert.assertEquals(new Tuple2<>(2000L, 3d), window.pop("test", labels, 6d, 3000L));
+        Assert.assertEquals(new Tuple2<>(4000L, 1d), window.pop("test", ImmutableMap.of("pod", "b"), 1d, 4000L));
+    }
+
+    @Test
+    public void testLabelsInAnyOrder() {
+        CounterWindow window = new CounterWindow(CounterWindow.DEFAULT_MAX_SERIES, System::currentTimeMillis);
+        window.pop("test", ImmutableMap.of("a", "1", "b", "2"), 1d, 1000L);
+        Assert.assertEquals(
+            new Tuple2<>(1000L, 1d), window.pop("test", ImmutableMap.of("b", "2", "a", "1"), 2d, 2000L));
+        window.pop("test", ImmutableMap.of("a", "2", "b", "1"), 1d, 1000L);
+        Assert.assertEquals(2, window.size());
+    }
+
+    @Test
+    public void testIdleEviction() {
+        AtomicLong clock = new AtomicLong(0);
+        CounterWindow window = new CounterWindow(CounterWindow.DEFAULT_MAX_SERIES, clock::get);
+        long windowSize = Duration.ofMinutes(10).toMillis();
+        for (int i = 0; i < 100; i++) {
+            window.increase("test", ImmutableMap.of("pod", "pod-" + i), 1d, windowSize, 0);
+            window.pop("test", ImmutableMap.of("pod", "pop-" + i), 1d, 0);
+        }
+        Assert.assertEquals(200, window.size());
+
+        // Touch all shards, the popped series are idle longer than the min idle, the increased ones are not.
+        clock.set(CounterWindow.MIN_IDLE_MILLIS + 1);
+        touch(window, "a", clock.get());
+        Assert.assertEquals(2100, window.size());
+
+        clock.set(CounterWindow.IDLE_WINDOWS * windowSize + CounterWindow.MIN_IDLE_MILLIS + 1);
+        touch(window, "b", clock.get());
+        Assert.assertEquals(2000, window.size());
+    }
+
+    private static void touch(CounterWindow window, String prefix, long now) {
+        for (int i = 0; i < 2000; i++) {
+            window.pop("test", ImmutableMap.of("pod", prefix + i), 1d, now);
+        }
+    }
+
+    @Test
+    public void testMaxSeries() {
+        CounterWindow window = new CounterWindow(CounterWindow.SHARDS, System::currentTimeMillis);
+        for (int i = 0; i < 10000; i++) {
+            window.pop("test", ImmutableMap.of("pod", "pod-" + i), 1d, i);
+        }
+        Assert.assertTrue(window.size() <= CounterWindow.SHARDS);
+    }
+
+    @Test
+    public void testSetMaxSeries() {
+        CounterWindow window = new CounterWindow(CounterWindow.DEFAULT_MAX_SERIES, System::currentTimeMillis);
+        window.setMaxSeries(CounterWindow.SHARDS);
+        for (int i = 0; i < 10000; i++) {
+            window.pop("test", ImmutableMap.of("pod", "pod-" + i), 1d, i);
+        }
+        Assert.assertTrue(window.size() <= CounterWindow.SHARDS);
+    }
+
+    @Test
+    public void testInstrumentWithoutTelemetry() {
+        CounterWindow window = new CounterWindow(CounterWindow.SHARDS, System::currentTimeMillis);
+        window.instrument(mock(ModuleDefineHolder.class));
+        for (int i = 0; i < 1000; i++) {
+            window.pop("test", ImmutableMap.of("pod", "pod-" + i), 1d, i);
+        }
+        Assert.assertTrue(window.size() <= CounterWindow.SHARDS);
+    }
+
+    @Test
+    public void testInstrumentOnEviction() {
+        ModuleDefineHolder moduleDefineHolder = mock(ModuleDefineHolder.class, RETURNS_DEEP_STUBS);
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        CounterMetrics evictedSeries = mock(CounterMetrics.class);
+        when(moduleDefineHolder.has(TelemetryModule.NAME)).thenReturn(true);
+        when(moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class))
+            .thenReturn(metricsCreator);
+        when(metricsCreator.createCounter(anyString(), anyString(), any(), any())).thenReturn(evictedSeries);
+
+        CounterWindow window = new CounterWindow(CounterWindow.SHARDS, System::currentTimeMillis);
+        window.instrument(moduleDefineHolder);
+        verify(metricsCreator, never()).createCounter(anyString(), anyString(), any(), any());
+
+        for (int i = 0; i < 1000; i++) {
+            window.pop("test", ImmutableMap.of("pod", "pod-" + i), 1d, i);
+        }
+        verify(metricsCreator, times(1)).createCounter(anyString(), anyString(), any(), any());
+        verify(evictedSeries, times(1000 - window.size())).inc();
+    }
 }
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.analyzer.meter;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.meter.analyzer.Analyzer;
+import org.apache.skywalking.oap.meter.analyzer.MetricConvert;
+import org.apache.skywalking.oap.meter.analyzer.MetricRuleConfig;
+import org.apache.skywalking.oap.meter.analyzer.dsl.DSL;
+import org.apache.skywalking.oap.meter.analyzer.dsl.Expression;
+import org.apache.skywalking.oap.meter.analyzer.dsl.Sample;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamilyBuilder;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
+import org.apache.skywalking.oap.server.core.analysis.meter.ScopeType;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableValue;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.avg.AvgFunction;
+import org.apache.skywalking.oap.server.core.config.NamingControl;
+import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
+import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Replay a node-exporter like scrape of 16 hosts, where a few metrics are referred by the VM rules and most of them are
+ * not, through the MAL rules. {@code script} and {@code compiled} run the expressions of all rules as Groovy scripts
+ * and as the pipelines of {@code ExpressionCompiler}. {@code allRules} runs every analyzer as {@code MetricConvert} did
+ * before the samples were indexed, and {@code indexed} runs {@code MetricConvert}, which only runs the analyzers
+ * referring to the scraped samples. The expressions of the analyzers are compiled when {@code
+ * SW_MAL_COMPILE_EXPRESSIONS} is set. The meters are consumed by the blackhole instead of the meter system.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class MeterAnalyzerBenchmark extends AbstractMicrobenchmark {
+    private static final int HOSTS = 16;
+    private static final int UNREFERRED_METRICS = 200;
+    private static final String EXP_SUFFIX = "tag({tags -> tags.host_name = 'vm::' + tags.host_name})"
+        + ".service(['host_name'], Layer.OS_LINUX)";
+
+    private static final List<Rule> RULES = Arrays.asList(
+        new Rule("cpu_total_percentage", "(node_cpu_seconds_total * 100).tagNotEqual('mode', 'idle').sum(['host_name'])"),
+        new Rule("cpu_load1", "(node_load1 * 100).sum(['host_name'])"),
+        new Rule("cpu_load5", "(node_load5 * 100).sum(['host_name'])"),
+        new Rule("cpu_load15", "(node_load15 * 100).sum(['host_name'])"),
+        new Rule("memory_total", "node_memory_MemTotal_bytes.sum(['host_name'])"),
+        new Rule("memory_available", "node_memory_MemAvailable_bytes.sum(['host_name'])"),
+        new Rule(
+            "memory_used",
+            "(node_memory_MemTotal_bytes - node_memory_MemAvailable_bytes).sum(['host_name'])"
+        ),
+        new Rule("filesystem_percentage",
+                 "(100 - ((node_filesystem_avail_bytes * 100) / node_filesystem_size_bytes))"
+                     + ".sum(['mountpoint', 'host_name'])"
+        ),
+        new Rule("disk_read", "node_disk_read_bytes_total.sum(['host_name'])"),
+        new Rule("disk_written", "node_disk_written_bytes_total.sum(['host_name'])"),
+        new Rule("network_receive", "node_network_receive_bytes_total.sum(['host_name'])"),
+        new Rule("network_transmit", "node_network_transmit_bytes_total.sum(['host_name'])"),
+        new Rule("tcp_curr_estab", "node_netstat_Tcp_CurrEstab.sum(['host_name'])"),
+        new Rule("sockets_used", "node_sockstat_sockets_used.sum(['host_name'])"),
+        // the rules of the exporters not deployed in this scrape
+        new Rule("redis_connected_clients", "redis_connected_clients.sum(['host_name'])"),
+        new Rule("redis_memory_used", "redis_memory_used_bytes.sum(['host_name'])"),
+        new Rule("mysql_uptime", "mysql_global_status_uptime.max(['host_name'])"),
+        new Rule("mysql_connections", "mysql_global_status_threads_connected.sum(['host_name'])"),
+        new Rule("postgresql_connections", "pg_stat_database_numbackends.sum(['host_name'])"),
+        new Rule("nginx_requests", "nginx_http_requests_total.sum(['host_name'])")
+    );
+
+    private final ImmutableMap<String, SampleFamily> samples;
+    private final List<Expression> scripts;
+    private final List<Expression> compiled;
+    private final BlackholeMeterSystem meterSystem = new BlackholeMeterSystem();
+    private final List<Analyzer> analyzers;
+    private final MetricConvert metricConvert;
+
+    public MeterAnalyzerBenchmark() {
+        MeterEntity.setNamingControl(new NamingControl(512, 512, 512, new EndpointNameGrouping()));
+
+        final ImmutableMap.Builder<String, SampleFamily> builder = ImmutableMap.builder();
+        final long timestamp = System.currentTimeMillis();
+        RULES.stream()
+             .limit(14)
+             .flatMap(rule -> samplesOf(exp(rule)).stream())
+             .distinct()
+             .forEach(name -> builder.put(name, family(name, timestamp)));
+        for (int i = 0; i < UNREFERRED_METRICS; i++) {
+            final String name = "go_unreferred_metric_" + i;
+            builder.put(name, family(name, timestamp));
+        }
+        samples = builder.build();
+
+        scripts = RULES.stream()
+                       .map(rule -> DSL.parse(exp(rule), false))
+                       .collect(Collectors.toList());
+        compiled = RULES.stream()
+                        .map(rule -> DSL.parse(exp(rule), true))
+                        .collect(Collectors.toList());
+        analyzers = RULES.stream()
+                         .map(rule -> Analyzer.build("meter_vm_" + rule.getName(), null, exp(rule), meterSystem))
+                         .collect(Collectors.toList());
+        metricConvert = new MetricConvert(new Rules(), meterSystem);
+    }
+
+    @Benchmark
+    public void script(Blackhole bh) {
+        for (final Expression expression : scripts) {
+            bh.consume(expression.run(samples));
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole bh) {
+        for (final Expression expression : compiled) {
+            bh.consume(expression.run(samples));
+        }
+    }
+
+    @Benchmark
+    public void allRules(Blackhole bh) {
+        meterSystem.bh = bh;
+        for (final Analyzer analyzer : analyzers) {
+            analyzer.analyse(samples);
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole bh) {
+        meterSystem.bh = bh;
+        metricConvert.toMeter(samples);
+    }
+
+    private static String exp(final Rule rule) {
+        return String.format("(%s).%s", rule.getExp(), EXP_SUFFIX);
+    }
+
+    private static List<String> samplesOf(final String exp) {
+        return DSL.parse(exp).parse().getSamples();
+    }
+
+    private static SampleFamily family(final String name, final long timestamp) {
+        final List<Sample> samples = new ArrayList<>();
+        for (int host = 0; host < HOSTS; host++) {
+            for (int series = 0; series < 4; series++) {
+                samples.add(Sample.builder()
+                                  .name(name)
+                                  .labels(ImmutableMap.of(
+                                      "host_name", "host-" + host,
+                                      "mode", series == 0 ? "idle" : "user",
+                                      "mountpoint", "/data" + series
+                                  ))
+                                  .value(100 + host + series)
+                                  .timestamp(timestamp)
+                                  .build());
+            }
+        }
+        return SampleFamilyBuilder.newBuilder(samples.toArray(new Sample[0])).build();
+    }
+
+    @RequiredArgsConstructor
+    @Getter
+    private static class Rule implements MetricRuleConfig.RuleConfig {
+        private final String name;
+        private final String exp;
+    }
+
+    private static class Rules implements MetricRuleConfig {
+        @Override
+        public String getMetricPrefix() {
+            return "meter_vm";
+        }
+
+        @Override
+        public String getExpSuffix() {
+            return EXP_SUFFIX;
+        }
+
+        @Override
+        public List<? extends RuleConfig> getMetricsRules() {
+            return RULES;
+        }
+
+        @Override
+        public String getFilter() {
+            return null;
+        }
+    }
+
+    /**
+     * Consume the meters by the blackhole, instead of creating the meter classes and streaming them.
+     */
+    private static class BlackholeMeterSystem extends MeterSystem {
+        private Blackhole bh;
+
+        BlackholeMeterSystem() {
+            super(null);
+        }
+
+        @Override
+        public synchronized <T> void create(final String metricsName,
+                                            final String functionName,
+                                            final ScopeType type) {
+        }
+
+        @Override
+        public <T> AcceptableValue<T> buildMetrics(final String metricsName, final Class<T> dataType) {
+            return new BlackholeValue<>();
+        }
+
+        @Override
+        public void doStreamingCalculation(final AcceptableValue acceptableValue) {
+            bh.consume(acceptableValue);
+        }
+    }
+
+    private static class BlackholeValue<T> implements AcceptableValue<T> {
+        @Getter
+        private long timeBucket;
+        private MeterEntity entity;
+        private T value;
+
+        @Override
+        public void accept(final MeterEntity entity, final T value) {
+            this.entity = entity;
+            this.value = value;
+        }
+
+        @Override
+        public AcceptableValue<T> createNew() {
+            return new BlackholeValue<>();
+        }
+
+        @Override
+        public Class<? extends StorageHashMapBuilder> builder() {
+            return AvgFunction.AvgStorageBuilder.class;
+        }
+
+        @Override
+        public void setTimeBucket(final long timeBucket) {
+            this.timeBucket = timeBucket;
+        }
+    }
+}
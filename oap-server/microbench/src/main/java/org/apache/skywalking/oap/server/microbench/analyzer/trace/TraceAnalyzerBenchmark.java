@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.analyzer.trace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.apm.network.common.v3.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.v3.RefType;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentReference;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanLayer;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.DBLatencyThresholdsAndWatcher;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.TraceSamplingPolicyWatcher;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.UninstrumentedGatewaysConfig;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.SegmentParserListenerManager;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.TraceAnalyzer;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListenerFactory;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.EntryAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.ExitAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.FirstAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.LocalAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.MultiScopesAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.NetworkAddressAliasMappingListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.TraceSegmentSampler;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.strategy.SegmentStatusStrategy;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.DispatcherDetectorListener;
+import org.apache.skywalking.oap.server.core.cache.NetworkAddressAliasCache;
+import org.apache.skywalking.oap.server.core.config.NamingControl;
+import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
+import org.apache.skywalking.oap.server.core.source.ISource;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Replay the segments of a typical HTTP service, calling another service, a database and a cache, through the
+ * default trace analysis listeners. {@code legacy} is the analyzer before the listeners were reused, which creates the
+ * listeners for every segment and checks the points of all listeners for every span. {@code perSegment} creates a new
+ * analyzer for every segment, and {@code reused} keeps one analyzer as {@code SegmentParserServiceImpl} does per
+ * thread. The sources are consumed by the blackhole instead of the dispatchers.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class TraceAnalyzerBenchmark extends AbstractMicrobenchmark {
+    private final SegmentObject[] segments = new SegmentObject[] {
+        segment("order-service", "/orders/{id}", 4),
+        segment("order-service", "/orders", 8),
+        segment("product-service", "/products/{id}", 2),
+        segment("product-service", "/products", 16)
+    };
+    private final BlackholeSourceReceiver sourceReceiver = new BlackholeSourceReceiver();
+    private final AnalyzerModuleConfig config = new AnalyzerModuleConfig();
+    private final SegmentParserListenerManager listenerManager = new SegmentParserListenerManager();
+    private final List<AnalysisListenerFactory> factories = new ArrayList<>();
+    private final TraceAnalyzer reused;
+    private int index;
+
+    public TraceAnalyzerBenchmark() {
+        config.setDbLatencyThresholdsAndWatcher(new DBLatencyThresholdsAndWatcher("default:200", null));
+        config.setUninstrumentedGatewaysConfig(new UninstrumentedGatewaysConfig(null));
+        config.setTraceSamplingPolicyWatcher(new TraceSamplingPolicyWatcher(config, null));
+
+        final NamingControl namingControl = new NamingControl(70, 70, 150, new EndpointNameGrouping());
+        final NetworkAddressAliasCache aliasCache = new NetworkAddressAliasCache(new CoreModuleConfig());
+        final TraceSegmentSampler sampler = new TraceSegmentSampler(config.getTraceSamplingPolicyWatcher(), true);
+        factories.add((moduleManager, config) -> new MultiScopesAnalysisListener(
+            sourceReceiver, config, aliasCache, namingControl));
+        factories.add((moduleManager, config) -> new NetworkAddressAliasMappingListener(
+            sourceReceiver, config, namingControl));
+        factories.add((moduleManager, config) -> new SegmentAnalysisListener(
+            sourceReceiver, sampler, namingControl, Arrays.asList("http.method", "status_code"),
+            SegmentStatusStrategy.FROM_SPAN_STATUS.getExceptionAnalyzer()
+        ));
+        factories.forEach(listenerManager::add);
+        reused = new TraceAnalyzer(null, listenerManager, config);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        sourceReceiver.bh = bh;
+        new LegacyTraceAnalyzer(factories, config).doAnalysis(segments[index++ & 3]);
+    }
+
+    @Benchmark
+    public void perSegment(Blackhole bh) {
+        sourceReceiver.bh = bh;
+        new TraceAnalyzer(null, listenerManager, config).doAnalysis(segments[index++ & 3]);
+    }
+
+    @Benchmark
+    public void reused(Blackhole bh) {
+        sourceReceiver.bh = bh;
+        reused.doAnalysis(segments[index++ & 3]);
+    }
+
+    private static SegmentObject segment(String service, String endpoint, int calls) {
+        final long start = 1636512600000L;
+        final SegmentObject.Builder segment = SegmentObject.newBuilder()
+                                                           .setTraceId("trace-" + service + endpoint)
+                                                           .setTraceSegmentId("segment-" + service + endpoint)
+                                                           .setService(service)
+                                                           .setServiceInstance(service + "-instance-1");
+        segment.addSpans(
+            SpanObject.newBuilder()
+                      .setSpanId(0)
+                      .setParentSpanId(-1)
+                      .setSpanType(SpanType.Entry)
+                      .setSpanLayer(SpanLayer.Http)
+                      .setComponentId(1)
+                      .setOperationName("GET:" + endpoint)
+                      .setStartTime(start)
+                      .setEndTime(start + 120)
+                      .addRefs(SegmentReference.newBuilder()
+                                               .setRefType(RefType.CrossProcess)
+                                               .setTraceId("trace-" + service + endpoint)
+                                               .setParentTraceSegmentId("parent-segment")
+                                               .setParentSpanId(1)
+                                               .setParentService("gateway")
+                                               .setParentServiceInstance("gateway-instance-1")
+                                               .setParentEndpoint("/api" + endpoint)
+                                               .setNetworkAddressUsedAtPeer(service + ":8080"))
+                      .addTags(tag("http.method", "GET"))
+                      .addTags(tag("url", "http://" + service + ":8080" + endpoint))
+                      .addTags(tag("status_code", "200")));
+        for (int i = 0; i < calls; i++) {
+            final int spanId = i * 2 + 1;
+            segment.addSpans(
+                SpanObject.newBuilder()
+                          .setSpanId(spanId)
+                          .setParentSpanId(0)
+                          .setSpanType(SpanType.Local)
+                          .setOperationName("OrderRepository.find")
+                          .setStartTime(start + i * 10)
+                          .setEndTime(start + i * 10 + 8));
+            final SpanObject.Builder exit = SpanObject.newBuilder()
+                                                      .setSpanId(spanId + 1)
+                                                      .setParentSpanId(spanId)
+                                                      .setSpanType(SpanType.Exit)
+                                                      .setStartTime(start + i * 10 + 1)
+                                                      .setEndTime(start + i * 10 + 7);
+            switch (i % 3) {
+                case 0:
+                    exit.setSpanLayer(SpanLayer.Database)
+                        .setComponentId(33)
+                        .setPeer("mysql:3306")
+                        .setOperationName("Mysql/JDBI/PreparedStatement/executeQuery")
+                        .addTags(tag("db.type", "sql"))
+                        .addTags(tag("db.instance", "orders"))
+                        .addTags(tag("db.statement", "SELECT * FROM orders WHERE id = ?"));
+                    break;
+                case 1:
+                    exit.setSpanLayer(SpanLayer.Cache)
+                        .setComponentId(30)
+                        .setPeer("redis:6379")
+                        .setOperationName("Jedis/get")
+                        .addTags(tag("db.type", "Redis"))
+                        .addTags(tag("db.statement", "get order"));
+                    break;
+                default:
+                    exit.setSpanLayer(SpanLayer.Http)
+                        .setComponentId(2)
+                        .setPeer("inventory-service:8080")
+                        .setOperationName("/inventory/{id}")
+                        .addTags(tag("http.method", "GET"))
+                        .addTags(tag("url", "http://inventory-service:8080/inventory/1"))
+                        .addTags(tag("status_code", "200"));
+            }
+            segment.addSpans(exit);
+        }
+        return segment.build();
+    }
+
+    private static KeyStringValuePair tag(String key, String value) {
+        return KeyStringValuePair.newBuilder().setKey(key).setValue(value).build();
+    }
+
+    private static class BlackholeSourceReceiver implements SourceReceiver {
+        private Blackhole bh;
+
+        @Override
+        public void receive(ISource source) {
+            bh.consume(source);
+        }
+
+        @Override
+        public DispatcherDetectorListener getDispatcherDetectorListener() {
+            return null;
+        }
+    }
+
+    /**
+     * The TraceAnalyzer before the listeners were reused.
+     */
+    private static class LegacyTraceAnalyzer {
+        private final List<AnalysisListenerFactory> factories;
+        private final AnalyzerModuleConfig config;
+        private final List<AnalysisListener> analysisListeners = new ArrayList<>();
+
+        LegacyTraceAnalyzer(List<AnalysisListenerFactory> factories, AnalyzerModuleConfig config) {
+            this.factories = Collections.unmodifiableList(factories);
+            this.config = config;
+        }
+
+        public void doAnalysis(SegmentObject segmentObject) {
+            if (segmentObject.getSpansList().size() == 0) {
+                return;
+            }
+
+            factories.forEach(factory -> analysisListeners.add(factory.create(null, config)));
+
+            analysisListeners.forEach(listener -> {
+                if (listener.containsPoint(AnalysisListener.Point.Segment)) {
+                    ((SegmentListener) listener).parseSegment(segmentObject);
+                }
+            });
+
+            segmentObject.getSpansList().forEach(spanObject -> {
+                if (spanObject.getSpanId() == 0) {
+                    analysisListeners.forEach(listener -> {
+                        if (listener.containsPoint(AnalysisListener.Point.First)) {
+                            ((FirstAnalysisListener) listener).parseFirst(spanObject, segmentObject);
+                        }
+                    });
+                }
+
+                if (SpanType.Exit.equals(spanObject.getSpanType())) {
+                    analysisListeners.forEach(listener -> {
+                        if (listener.containsPoint(AnalysisListener.Point.Exit)) {
+                            ((ExitAnalysisListener) listener).parseExit(spanObject, segmentObject);
+                        }
+                    });
+                } else if (SpanType.Entry.equals(spanObject.getSpanType())) {
+                    analysisListeners.forEach(listener -> {
+                        if (listener.containsPoint(AnalysisListener.Point.Entry)) {
+                            ((EntryAnalysisListener) listener).parseEntry(spanObject, segmentObject);
+                        }
+                    });
+                } else if (SpanType.Local.equals(spanObject.getSpanType())) {
+                    analysisListeners.forEach(listener -> {
+                        if (listener.containsPoint(AnalysisListener.Point.Local)) {
+                            ((LocalAnalysisListener) listener).parseLocal(spanObject, segmentObject);
+                        }
+                    });
+                }
+            });
+
+            analysisListeners.forEach(AnalysisListener::build);
+        }
+    }
+}
+
+/*
+ * Most of the time is spent in the listeners building the sources, the reused analyzer saves the listener creation
+ * and about 2KB allocation per segment.
+ *
+ * # JMH version: 1.25
+ * # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+ * # Warmup: 5 iterations, 2 s each
+ * # Measurement: 10 iterations, 2 s each
+ * # Threads: 1 thread, will synchronize iterations
+ * # Benchmark mode: Throughput, ops/time
+ *
+ * Benchmark                                               Mode  Cnt      Score       Error   Units
+ * TraceAnalyzerBenchmark.legacy                          thrpt   10  44965.878 ±  5712.082   ops/s
+ * TraceAnalyzerBenchmark.legacy:·gc.alloc.rate.norm      thrpt   10  27556.005 ±     0.238    B/op
+ * TraceAnalyzerBenchmark.perSegment                      thrpt   10  42563.600 ± 11229.736   ops/s
+ * TraceAnalyzerBenchmark.perSegment:·gc.alloc.rate.norm  thrpt   10  28192.000 ±    38.237    B/op
+ * TraceAnalyzerBenchmark.reused                          thrpt   10  49234.015 ±  6181.292   ops/s
+ * TraceAnalyzerBenchmark.reused:·gc.alloc.rate.norm      thrpt   10  25557.983 ±     0.134    B/op
+ */
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Build and analyse the service, instance and endpoint IDs of 1,000 endpoints in 20 services, as the analyzers do for
+ * every span and sample and the queries do for every row. The names are copied for every call, as they are read from
+ * the received data. {@code legacy*} are the encoding without cache and the parsing by regex before.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class IDManagerBenchmark extends AbstractMicrobenchmark {
+    private static final int SERVICES = 20;
+    private static final int ENDPOINTS = 1000;
+
+    private final String[] services = new String[ENDPOINTS];
+    private final String[] instances = new String[ENDPOINTS];
+    private final String[] endpoints = new String[ENDPOINTS];
+    private final String[] endpointIds = new String[ENDPOINTS];
+    private int index;
+
+    public IDManagerBenchmark() {
+        for (int i = 0; i < ENDPOINTS; i++) {
+            services[i] = "business-zone::order-service-" + i % SERVICES;
+            instances[i] = "order-service-" + i % SERVICES + "-7c9f8d6b4-x2x5z@10.0.0." + i % SERVICES;
+            endpoints[i] = "GET:/api/v1/orders/" + i + "/items";
+            endpointIds[i] = IDManager.EndpointID.buildId(IDManager.ServiceID.buildId(services[i], true), endpoints[i]);
+        }
+    }
+
+    @Benchmark
+    public void buildIds(Blackhole bh) {
+        final int i = index++ % ENDPOINTS;
+        final String serviceId = IDManager.ServiceID.buildId(new String(services[i]), true);
+        bh.consume(IDManager.ServiceInstanceID.buildId(serviceId, new String(instances[i])));
+        bh.consume(IDManager.EndpointID.buildId(serviceId, new String(endpoints[i])));
+    }
+
+    @Benchmark
+    public void legacyBuildIds(Blackhole bh) {
+        final int i = index++ % ENDPOINTS;
+        final String serviceId = legacyEncode(new String(services[i])) + Const.SERVICE_ID_CONNECTOR
+            + BooleanUtils.booleanToValue(true);
+        bh.consume(serviceId + Const.ID_CONNECTOR + legacyEncode(new String(instances[i])));
+        bh.consume(serviceId + Const.ID_CONNECTOR + legacyEncode(new String(endpoints[i])));
+    }
+
+    @Benchmark
+    public void analysisIds(Blackhole bh) {
+        final IDManager.EndpointID.EndpointIDDefinition endpoint = IDManager.EndpointID.analysisId(
+            new String(endpointIds[index++ % ENDPOINTS]));
+        bh.consume(endpoint.getEndpointName());
+        bh.consume(IDManager.ServiceID.analysisId(endpoint.getServiceId()));
+    }
+
+    @Benchmark
+    public void legacyAnalysisIds(Blackhole bh) {
+        final String[] endpoint = new String(endpointIds[index++ % ENDPOINTS]).split(Const.ID_PARSER_SPLIT);
+        bh.consume(legacyDecode(endpoint[1]));
+        final String[] service = endpoint[0].split(Const.SERVICE_ID_PARSER_SPLIT);
+        bh.consume(legacyDecode(service[0]));
+        bh.consume(BooleanUtils.valueToBoolean(Integer.parseInt(service[1])));
+    }
+
+    private static String legacyEncode(String text) {
+        return new String(Base64.getEncoder().encode(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    private static String legacyDecode(String base64text) {
+        return new String(Base64.getDecoder().decode(base64text), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis.data;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
+import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The metrics persistent workers are written by the L1/L2 aggregation threads, and read by the persistence timer. The
+ * single stripe cache is the same as the cache before striping, all writers contend for one lock.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class ReadWriteSafeCacheBenchmark extends AbstractMicrobenchmark {
+    private static final String[] IDS = new String[1000];
+
+    static {
+        for (int i = 0; i < IDS.length; i++) {
+            IDS[i] = "202111101010_" + i;
+        }
+    }
+
+    @State(Scope.Group)
+    public static class SingleStripe {
+        private final ReadWriteSafeCache<CountMetricsMocker> cache = new ReadWriteSafeCache<>(
+            new MergableBufferedData<>(), new MergableBufferedData<>());
+    }
+
+    @State(Scope.Group)
+    public static class Striped {
+        private final ReadWriteSafeCache<CountMetricsMocker> cache = new ReadWriteSafeCache<>(
+            MergableBufferedData::new, 4);
+    }
+
+    private static CountMetricsMocker newMetrics() {
+        return new CountMetricsMocker(IDS[ThreadLocalRandom.current().nextInt(IDS.length)]);
+    }
+
+    @Benchmark
+    @Group("singleStripe")
+    @GroupThreads(4)
+    public void singleStripeWrite(SingleStripe state) {
+        state.cache.write(newMetrics());
+    }
+
+    @Benchmark
+    @Group("singleStripe")
+    @GroupThreads(1)
+    public void singleStripeRead(Blackhole bh, SingleStripe state) {
+        bh.consume(state.cache.read());
+    }
+
+    @Benchmark
+    @Group("striped")
+    @GroupThreads(4)
+    public void stripedWrite(Striped state) {
+        state.cache.write(newMetrics());
+    }
+
+    @Benchmark
+    @Group("striped")
+    @GroupThreads(1)
+    public void stripedReadView(Blackhole bh, Striped state) {
+        for (CountMetricsMocker metrics : state.cache.readView()) {
+            bh.consume(metrics);
+        }
+    }
+
+    private static class CountMetricsMocker extends CountMetrics {
+        private final String id;
+
+        private CountMetricsMocker(String id) {
+            this.id = id;
+            combine(1);
+        }
+
+        @Override
+        protected String id0() {
+            return id;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+    }
+
+    /*
+     * # JMH version: 1.21
+     * # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+     * # Warmup: 3 iterations, 2 s each
+     * # Measurement: 5 iterations, 2 s each
+     * # Threads: 5 threads (4 writers, 1 reader per group), will synchronize iterations
+     * # Benchmark mode: Throughput, ops/time
+     *
+     * Benchmark                                                    Mode  Cnt        Score         Error  Units
+     * ReadWriteSafeCacheBenchmark.singleStripe                    thrpt    5  6385591.309 ± 2104889.647  ops/s
+     * ReadWriteSafeCacheBenchmark.singleStripe:singleStripeRead   thrpt    5    34117.692 ±   18939.092  ops/s
+     * ReadWriteSafeCacheBenchmark.singleStripe:singleStripeWrite  thrpt    5  6351473.617 ± 2086915.330  ops/s
+     * ReadWriteSafeCacheBenchmark.striped                         thrpt    5  8435863.519 ± 1546743.018  ops/s
+     * ReadWriteSafeCacheBenchmark.striped:stripedReadView         thrpt    5   238518.682 ±  266543.622  ops/s
+     * ReadWriteSafeCacheBenchmark.striped:stripedWrite            thrpt    5  8197344.837 ± 1552644.746  ops/s
+     *
+     */
+}
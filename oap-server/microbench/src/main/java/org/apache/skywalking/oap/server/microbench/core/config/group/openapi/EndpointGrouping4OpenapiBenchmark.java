@@ -77,6 +77,15 @@ public class EndpointGrouping4OpenapiBenchmark extends AbstractMicrobenchmark {
         }
     }
 
+    @State(Scope.Benchmark)
+    public static class FormatClassPaths10000 {
+        private final EndpointGroupingRule4Openapi rule = new EndpointGroupingRuleReader4Openapi(createTestFile(1999)).read();
+
+        public FormatResult format(String serviceName, String endpointName) {
+            return rule.format(serviceName, endpointName);
+        }
+    }
+
     @Benchmark
     public void formatEndpointNameMatchedPaths20(Blackhole bh, FormatClassPaths20 formatClass) {
         bh.consume(formatClass.format("serviceA", "GET:/products1/123"));
@@ -92,6 +101,11 @@ public class EndpointGrouping4OpenapiBenchmark extends AbstractMicrobenchmark {
         bh.consume(formatClass.format("serviceA", "GET:/products1/123"));
     }
 
+    @Benchmark
+    public void formatEndpointNameMatchedPaths10000(Blackhole bh, FormatClassPaths10000 formatClass) {
+        bh.consume(formatClass.format("serviceA", "GET:/products1/123"));
+    }
+
 }
 
 /*
@@ -136,3 +150,20 @@ EndpointGroupingBenchmark4Openapi.formatEndpointNameMatchedPaths50:·gc.churn.PS
 EndpointGroupingBenchmark4Openapi.formatEndpointNameMatchedPaths50:·gc.count                          thrpt    5     1405.000               counts
 EndpointGroupingBenchmark4Openapi.formatEndpointNameMatchedPaths50:·gc.time                           thrpt    5      841.000                   ms
  */
+
+/*
+* With the rules compiled into the segment trie, the cost is flat over the number of rules.
+*
+# JMH version: 1.21
+# VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+# Warmup: 2 iterations, 1 s each
+# Measurement: 3 iterations, 1 s each
+# Threads: 4 threads, will synchronize iterations
+# Benchmark mode: Throughput, ops/time
+
+Benchmark                                                               Mode  Cnt         Score           Error  Units
+EndpointGrouping4OpenapiBenchmark.formatEndpointNameMatchedPaths10000  thrpt    3  74807825.155 ±  33888013.159  ops/s
+EndpointGrouping4OpenapiBenchmark.formatEndpointNameMatchedPaths20     thrpt    3  80400625.902 ±  97159645.418  ops/s
+EndpointGrouping4OpenapiBenchmark.formatEndpointNameMatchedPaths200    thrpt    3  88926523.169 ± 188176651.522  ops/s
+EndpointGrouping4OpenapiBenchmark.formatEndpointNameMatchedPaths50     thrpt    3  76233105.123 ± 241379159.745  ops/s
+ */
@@ -18,6 +18,11 @@
 
 package org.apache.skywalking.oap.server.microbench.library.datacarrier;
 
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.ParkingWaitStrategy;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.partition.SimpleRollingPartitioner;
 import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
 import org.openjdk.jmh.annotations.Benchmark;
 
@@ -160,6 +165,84 @@ public class LinkedArrayBenchmark extends AbstractMicrobenchmark {
         }
     }
 
+    private static final int L1_BUFFER_SIZE = 10000;
+
+    /**
+     * {@link org.apache.skywalking.oap.server.library.datacarrier.buffer.Buffer}
+     */
+    private final QueueBuffer<SampleData> buffer = newBuffer(BufferStrategy.IF_POSSIBLE, false);
+    /**
+     * {@link org.apache.skywalking.oap.server.library.datacarrier.buffer.ArrayBlockingQueueBuffer}
+     */
+    private final QueueBuffer<SampleData> arrayBlockingQueueBuffer = newBuffer(BufferStrategy.BLOCKING, false);
+    /**
+     * {@link org.apache.skywalking.oap.server.library.datacarrier.buffer.RingBuffer}
+     */
+    private final QueueBuffer<SampleData> ringBuffer = newBuffer(BufferStrategy.BLOCKING, true);
+    private final List<SampleData> consumeList = new ArrayList<>(L1_BUFFER_SIZE);
+    private final SampleData sampleData = new SampleData();
+
+    private static QueueBuffer<SampleData> newBuffer(BufferStrategy strategy, boolean ring) {
+        return new Channels<SampleData>(
+            1, L1_BUFFER_SIZE, new SimpleRollingPartitioner<>(), strategy, ring ? new ParkingWaitStrategy(20) : null
+        ).getBuffer(0);
+    }
+
+    private int produceAndObtain(QueueBuffer<SampleData> queueBuffer, int count) {
+        for (int i = 0; i < count; i++) {
+            queueBuffer.save(sampleData);
+        }
+        queueBuffer.obtain(consumeList);
+        int size = consumeList.size();
+        consumeList.clear();
+        return size;
+    }
+
+    @Benchmark
+    public int testBufferObtainEmpty() {
+        return produceAndObtain(buffer, 0);
+    }
+
+    @Benchmark
+    public int testArrayBlockingQueueBufferObtainEmpty() {
+        return produceAndObtain(arrayBlockingQueueBuffer, 0);
+    }
+
+    @Benchmark
+    public int testRingBufferObtainEmpty() {
+        return produceAndObtain(ringBuffer, 0);
+    }
+
+    @Benchmark
+    public int testBufferProduceAndObtain100() {
+        return produceAndObtain(buffer, 100);
+    }
+
+    @Benchmark
+    public int testArrayBlockingQueueBufferProduceAndObtain100() {
+        return produceAndObtain(arrayBlockingQueueBuffer, 100);
+    }
+
+    @Benchmark
+    public int testRingBufferProduceAndObtain100() {
+        return produceAndObtain(ringBuffer, 100);
+    }
+
+    @Benchmark
+    public int testBufferProduceAndObtain8000() {
+        return produceAndObtain(buffer, 8000);
+    }
+
+    @Benchmark
+    public int testArrayBlockingQueueBufferProduceAndObtain8000() {
+        return produceAndObtain(arrayBlockingQueueBuffer, 8000);
+    }
+
+    @Benchmark
+    public int testRingBufferProduceAndObtain8000() {
+        return produceAndObtain(ringBuffer, 8000);
+    }
+
     /**
      * Test Data
      */
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.log.analyzer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.grok.Grok;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.grok.GrokPatterns;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parse a typical access log with the LAL {@code text} and {@code json} parsers, and read the fields as the extractors
+ * do. {@code regexpCompiledPerLog} is the behaviour before the patterns were compiled when loading the scripts.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class LALParserBenchmark extends AbstractMicrobenchmark {
+    private static final String TEXT_LOG =
+        "10.0.13.42 - frank [10/Oct/2021:13:55:36 -0700] \"GET /api/products/1024?locale=en HTTP/1.1\" 200 2326";
+
+    private static final String JSON_LOG =
+        "{\"clientip\":\"10.0.13.42\",\"ident\":\"-\",\"auth\":\"frank\",\"timestamp\":\"10/Oct/2021:13:55:36 -0700\","
+            + "\"verb\":\"GET\",\"request\":\"/api/products/1024?locale=en\",\"httpversion\":\"1.1\","
+            + "\"response\":200,\"bytes\":2326}";
+
+    private static final String REGEXP =
+        "(?<clientip>\\S+) (?<ident>\\S+) (?<auth>\\S+) \\[(?<timestamp>[^]]+)] \"(?<verb>\\w+) (?<request>\\S+)"
+            + " HTTP/(?<httpversion>[\\d.]+)\" (?<response>\\d{3}) (?<bytes>\\d+|-)";
+
+    private static final String[] FIELDS = {"clientip", "verb", "request", "response", "bytes"};
+
+    private final Pattern regexp = Pattern.compile(REGEXP);
+
+    private final Grok grok = GrokPatterns.defaults().compile("%{COMMONAPACHELOG}");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final TypeReference<Map<String, Object>> parsedType = new TypeReference<Map<String, Object>>() {
+    };
+
+    @Benchmark
+    public void regexpCompiledPerLog(Blackhole bh) {
+        final Matcher matcher = Pattern.compile(REGEXP).matcher(TEXT_LOG);
+        if (matcher.find()) {
+            for (final String field : FIELDS) {
+                bh.consume(matcher.group(field));
+            }
+        }
+    }
+
+    @Benchmark
+    public void regexp(Blackhole bh) {
+        final Matcher matcher = regexp.matcher(TEXT_LOG);
+        if (matcher.find()) {
+            for (final String field : FIELDS) {
+                bh.consume(matcher.group(field));
+            }
+        }
+    }
+
+    @Benchmark
+    public void grok(Blackhole bh) {
+        final Matcher matcher = grok.matcher(TEXT_LOG);
+        if (matcher.find()) {
+            final Map<String, String> groupNames = grok.getGroupNames();
+            for (final String field : FIELDS) {
+                bh.consume(matcher.group(groupNames.get(field)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void json(Blackhole bh) throws IOException {
+        final Map<String, Object> parsed = mapper.readValue(JSON_LOG, parsedType);
+        for (final String field : FIELDS) {
+            bh.consume(parsed.get(field));
+        }
+    }
+}
+
+/*
+ * The grok pattern is slower than the hand-written regexp because the library patterns are stricter, e.g. IPORHOST
+ * tries IPv6, IPv4 and host names in turn, but no pattern is compiled per log any more.
+ *
+ * # JMH version: 1.25
+ * # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+ * # Warmup: 3 iterations, 2 s each
+ * # Measurement: 5 iterations, 2 s each
+ * # Threads: 1 thread, will synchronize iterations
+ * # Benchmark mode: Throughput, ops/time
+ *
+ * Benchmark                                                     Mode  Cnt       Score        Error   Units
+ * LALParserBenchmark.grok                                      thrpt    5  175951.122 ±  54944.514   ops/s
+ * LALParserBenchmark.grok:·gc.alloc.rate.norm                  thrpt    5     952.001 ±      0.001    B/op
+ * LALParserBenchmark.json                                      thrpt    5  634711.951 ± 318889.101   ops/s
+ * LALParserBenchmark.json:·gc.alloc.rate.norm                  thrpt    5    1664.000 ±      0.001    B/op
+ * LALParserBenchmark.regexp                                    thrpt    5  608229.698 ± 319871.387   ops/s
+ * LALParserBenchmark.regexp:·gc.alloc.rate.norm                thrpt    5     520.000 ±      0.001    B/op
+ * LALParserBenchmark.regexpCompiledPerLog                      thrpt    5  149981.590 ±  98162.480   ops/s
+ * LALParserBenchmark.regexpCompiledPerLog:·gc.alloc.rate.norm  thrpt    5    6480.001 ±      0.001    B/op
+ */
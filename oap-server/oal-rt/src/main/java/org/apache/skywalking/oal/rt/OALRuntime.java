@@ -88,8 +88,15 @@ public class OALRuntime implements OALEngine {
     private static final String WITH_METADATA_INTERFACE = "org.apache.skywalking.oap.server.core.analysis.metrics.WithMetadata";
     private static final String DISPATCHER_INTERFACE = "org.apache.skywalking.oap.server.core.analysis.SourceDispatcher";
     private static final String METRICS_STREAM_PROCESSOR = "org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor";
+    private static final String STREAMING_STORAGE_BUILDER_INTERFACE = "org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder";
+    /**
+     * The columns are written through the storage neutral writer, so the template doesn't follow the template path of
+     * the {@link StorageBuilderFactory}.
+     */
+    private static final String STREAMING_METRICS_BUILDER_METHOD_TEMPLATE = "metrics-builder/entity2Columns.ftl";
     private static final String[] METRICS_CLASS_METHODS = {
         "id",
+        "key",
         "hashCode",
         "remoteHashCode",
         "equals",
@@ -335,6 +342,7 @@ public class OALRuntime implements OALEngine {
         CtClass metricsBuilderClass = classPool.makeClass(metricsBuilderClassName(metricsStmt, true));
         try {
             metricsBuilderClass.addInterface(classPool.get(storageBuilderFactory.builderTemplate().getSuperClass()));
+            metricsBuilderClass.addInterface(classPool.get(STREAMING_STORAGE_BUILDER_INTERFACE));
         } catch (NotFoundException e) {
             log.error("Can't find StorageBuilder interface for " + className + ".", e);
             throw new OALCompileException(e.getMessage(), e);
@@ -367,6 +375,14 @@ public class OALRuntime implements OALEngine {
                 throw new OALCompileException(e.getMessage(), e);
             }
         }
+        StringWriter columnsMethodEntity = new StringWriter();
+        try {
+            configuration.getTemplate(STREAMING_METRICS_BUILDER_METHOD_TEMPLATE).process(metricsStmt, columnsMethodEntity);
+            metricsBuilderClass.addMethod(CtNewMethod.make(columnsMethodEntity.toString(), metricsBuilderClass));
+        } catch (Exception e) {
+            log.error("Can't generate method entity2Columns for " + className + ".", e);
+            throw new OALCompileException(e.getMessage(), e);
+        }
 
         try {
             if (SystemUtils.isJavaVersionAtMost(JavaVersion.JAVA_1_8)) {
@@ -0,0 +1,21 @@
+public void entity2Columns(org.apache.skywalking.oap.server.core.storage.StorageData input, org.apache.skywalking.oap.server.core.storage.type.ColumnWriter writer) {
+${metricsClassPackage}${metricsName}Metrics storageData = (${metricsClassPackage}${metricsName}Metrics)input;
+<#list fieldsFromSource as field>
+    <#if field.typeName == "long" || field.typeName == "int" || field.typeName == "double">
+        writer.write("${field.columnName}", storageData.${field.fieldGetter}());
+    <#elseif field.typeName == "float">
+        writer.write("${field.columnName}", (Object)new Float(storageData.${field.fieldGetter}()));
+    <#else>
+        writer.write("${field.columnName}", (Object)storageData.${field.fieldGetter}());
+    </#if>
+</#list>
+<#list persistentFields as field>
+    <#if field.typeName == "long" || field.typeName == "int" || field.typeName == "double">
+        writer.write("${field.columnName}", storageData.${field.fieldGetter}());
+    <#elseif field.typeName == "float">
+        writer.write("${field.columnName}", (Object)new Float(storageData.${field.fieldGetter}()));
+    <#else>
+        writer.write("${field.columnName}", (Object)storageData.${field.fieldGetter}());
+    </#if>
+</#list>
+}
@@ -0,0 +1,13 @@
+protected org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey key0() {
+return org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey.newBuilder(getTimeBucket())
+<#list fieldsFromSource as sourceField>
+    <#if sourceField.isID()>
+        <#if sourceField.getTypeName() == "java.lang.String">
+            .append(${sourceField.fieldName})
+        <#else>
+            .append((long) ${sourceField.fieldName})
+        </#if>
+    </#if>
+</#list>
+.build();
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oal.rt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentMetrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsAggregateWorker;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.oal.rt.OALDefine;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.source.Endpoint;
+import org.apache.skywalking.oap.server.core.source.RequestType;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilderFactory;
+import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Generate the classes of the test OAL script through the runtime, and check what the generated dispatcher sends to
+ * the metrics stream.
+ */
+public class OALRuntimeTest {
+    private static final OALDefine DEFINE = new OALDefine(
+        "oal/dispatcher-test.oal", "org.apache.skywalking.oap.server.core.source") {
+    };
+
+    private static SourceDispatcher<Endpoint> DISPATCHER;
+    private static final List<Metrics> RECEIVED = new ArrayList<>();
+
+    @BeforeClass
+    @SuppressWarnings("unchecked")
+    public static void generate() throws Exception {
+        AnnotationScan scopeScan = new AnnotationScan();
+        scopeScan.registerListener(new DefaultScopeDefine.Listener());
+        scopeScan.scan();
+
+        final OALRuntime runtime = new OALRuntime(DEFINE);
+        runtime.setStorageBuilderFactory(new StorageBuilderFactory.Default());
+        runtime.start(OALRuntimeTest.class.getClassLoader());
+
+        final DataCarrier<Metrics> dataCarrier = mock(DataCarrier.class);
+        when(dataCarrier.produce(any())).then(invocation -> RECEIVED.add(invocation.getArgument(0)));
+        final MetricsAggregateWorker worker = mock(MetricsAggregateWorker.class);
+        Whitebox.setInternalState(worker, "dataCarrier", dataCarrier);
+        final Map<Class<? extends Metrics>, MetricsAggregateWorker> entryWorkers = Whitebox.getInternalState(
+            MetricsStreamProcessor.getInstance(), "entryWorkers");
+        for (Class<?> metricsClass : (List<Class<?>>) Whitebox.getInternalState(runtime, "metricsClasses")) {
+            entryWorkers.put((Class<? extends Metrics>) metricsClass, worker);
+        }
+
+        final List<Class<?>> dispatcherClasses = Whitebox.getInternalState(runtime, "dispatcherClasses");
+        Assert.assertEquals(1, dispatcherClasses.size());
+        DISPATCHER = (SourceDispatcher<Endpoint>) dispatcherClasses.get(0).getDeclaredConstructor().newInstance();
+    }
+
+    @AfterClass
+    public static void reset() {
+        DefaultScopeDefine.reset();
+    }
+
+    @Before
+    public void clear() {
+        RECEIVED.clear();
+    }
+
+    @Test
+    public void testDispatchWithoutFilteredMetrics() {
+        DISPATCHER.dispatch(endpoint(RequestType.HTTP, 50, true, Collections.emptyMap()));
+
+        assertReceived("EndpointCpm", "EndpointRespTime", "EndpointSla");
+        Assert.assertEquals(50, ((LongAvgMetrics) RECEIVED.get(1)).getSummation());
+        Assert.assertEquals(1, ((PercentMetrics) RECEIVED.get(2)).getMatch());
+    }
+
+    @Test
+    public void testDispatchWithAllMetrics() {
+        DISPATCHER.dispatch(
+            endpoint(RequestType.MQ, 2000, false, Collections.singletonMap("transmission.latency", "20")));
+
+        assertReceived(
+            "EndpointCpm", "EndpointRespTime", "EndpointSla", "EndpointMqConsumeCount",
+            "EndpointMqConsumeLatency", "EndpointMqSlowCount", "EndpointErrorCount"
+        );
+        Assert.assertEquals(0, ((PercentMetrics) RECEIVED.get(2)).getMatch());
+        Assert.assertEquals(20, ((LongAvgMetrics) RECEIVED.get(4)).getSummation());
+        Assert.assertEquals(1, ((CountMetrics) RECEIVED.get(5)).getValue());
+    }
+
+    @Test
+    public void testDispatchWithPartOfSharedFilter() {
+        DISPATCHER.dispatch(endpoint(RequestType.MQ, 10, true, Collections.emptyMap()));
+
+        assertReceived("EndpointCpm", "EndpointRespTime", "EndpointSla", "EndpointMqConsumeCount");
+    }
+
+    private static Endpoint endpoint(RequestType type, int latency, boolean status, Map<String, String> tags) {
+        final Endpoint endpoint = new Endpoint();
+        endpoint.setName("/orders");
+        endpoint.setServiceName("order-service");
+        endpoint.setServiceNormal(true);
+        endpoint.setType(type);
+        endpoint.setLatency(latency);
+        endpoint.setStatus(status);
+        endpoint.setOriginalTags(tags);
+        endpoint.setTimeBucket(202610170930L);
+        endpoint.prepare();
+        return endpoint;
+    }
+
+    private static void assertReceived(String... metricsNames) {
+        final List<String> received = new ArrayList<>();
+        for (Metrics metrics : RECEIVED) {
+            received.add(metrics.getClass().getSimpleName());
+        }
+        final List<String> expected = new ArrayList<>();
+        for (String metricsName : metricsNames) {
+            expected.add(metricsName + "Metrics");
+        }
+        Assert.assertEquals(expected, received);
+        for (Metrics metrics : RECEIVED) {
+            Assert.assertEquals(202610170930L, metrics.getTimeBucket());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.alarm.provider;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.library.util.StringUtil;
+
+/**
+ * NameFilter is the compiled form of the include/exclude names, or labels, of an alarm rule. The lists are kept as hash
+ * sets, and the regex results are cached per target, as the same entities report every minute.
+ */
+@Slf4j
+class NameFilter {
+    /**
+     * Cached regex results are dropped all together once reaching this size.
+     */
+    private static final int MAX_CACHED_TARGETS = 10_000;
+
+    private final Set<String> includes;
+    private final Set<String> excludes;
+    private final Pattern includeRegex;
+    private final Pattern excludeRegex;
+    private final Map<String, Boolean> regexResults = new ConcurrentHashMap<>();
+
+    NameFilter(List<String> includes, List<String> excludes, String includeRegex, String excludeRegex) {
+        this.includes = CollectionUtils.isNotEmpty(includes) ? new HashSet<>(includes) : null;
+        this.excludes = CollectionUtils.isNotEmpty(excludes) ? new HashSet<>(excludes) : null;
+        this.includeRegex = StringUtil.isNotEmpty(includeRegex) ? Pattern.compile(includeRegex) : null;
+        this.excludeRegex = StringUtil.isNotEmpty(excludeRegex) ? Pattern.compile(excludeRegex) : null;
+    }
+
+    /**
+     * @return true if the target is included, and not excluded.
+     */
+    boolean test(String target) {
+        if (includes != null && !includes.contains(target)) {
+            if (log.isTraceEnabled()) {
+                log.trace("{} isn't in the including list {}", target, includes);
+            }
+            return false;
+        }
+
+        if (excludes != null && excludes.contains(target)) {
+            if (log.isTraceEnabled()) {
+                log.trace("{} is in the excluding list {}", target, excludes);
+            }
+            return false;
+        }
+
+        if (includeRegex == null && excludeRegex == null) {
+            return true;
+        }
+        Boolean result = regexResults.get(target);
+        if (result == null) {
+            result = testRegex(target);
+            if (regexResults.size() >= MAX_CACHED_TARGETS) {
+                regexResults.clear();
+            }
+            regexResults.put(target, result);
+        }
+        return result;
+    }
+
+    private boolean testRegex(String target) {
+        if (includeRegex != null && !includeRegex.matcher(target).matches()) {
+            if (log.isTraceEnabled()) {
+                log.trace("{} doesn't match the include regex {}", target, includeRegex);
+            }
+            return false;
+        }
+
+        if (excludeRegex != null && excludeRegex.matcher(target).matches()) {
+            if (log.isTraceEnabled()) {
+                log.trace("{} matches the exclude regex {}", target, excludeRegex);
+            }
+            return false;
+        }
+        return true;
+    }
+}
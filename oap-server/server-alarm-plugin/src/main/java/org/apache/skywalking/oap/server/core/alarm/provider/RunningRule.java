@@ -19,20 +19,14 @@
 package org.apache.skywalking.oap.server.core.alarm.provider;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.oap.server.core.alarm.AlarmMessage;
 import org.apache.skywalking.oap.server.core.alarm.MetaInAlarm;
 import org.apache.skywalking.oap.server.core.analysis.manual.searchtag.Tag;
@@ -43,7 +37,6 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledValueHolder
 import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.metrics.MultiIntValuesHolder;
-import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.joda.time.LocalDateTime;
 import org.joda.time.Minutes;
 import org.joda.time.format.DateTimeFormat;
@@ -51,10 +44,19 @@ import org.joda.time.format.DateTimeFormatter;
 
 /**
  * RunningRule represents each rule in running status. Based on the {@link AlarmRule} definition,
+ * <p>
+ * The threshold is evaluated once a value arrives, and the window of each entity only keeps whether the value of each
+ * minute matched. Entities without a matched value don't have a window, and {@link #check()} only visits the windows
+ * reaching the count threshold. Windows are moved to the time of {@link #moveTo(LocalDateTime)} lazily, when they are
+ * visited.
  */
 @Slf4j
 public class RunningRule {
     private static DateTimeFormatter TIME_BUCKET_FORMATTER = DateTimeFormat.forPattern("yyyyMMddHHmm");
+    /**
+     * Every this many checks, all windows are visited to reclaim the ones of the entities stopped reporting.
+     */
+    private static final int RECLAIM_CHECKS = 10;
 
     private final String ruleName;
     private final int period;
@@ -64,18 +66,21 @@ public class RunningRule {
     private final int countThreshold;
     private final int silencePeriod;
     private final Map<MetaInAlarm, Window> windows;
+    /**
+     * The windows of which the match count reaches the count threshold.
+     */
+    private final Set<Window> candidates;
     private volatile MetricsValueType valueType;
-    private final List<String> includeNames;
-    private final List<String> excludeNames;
-    private final Pattern includeNamesRegex;
-    private final Pattern excludeNamesRegex;
-    private final List<String> includeLabels;
-    private final List<String> excludeLabels;
-    private final Pattern includeLabelsRegex;
-    private final Pattern excludeLabelsRegex;
+    private final NameFilter nameFilter;
+    private final NameFilter labelFilter;
     private final AlarmMessageFormatter formatter;
     private final boolean onlyAsCondition;
     private final List<Tag> tags;
+    private volatile LocalDateTime endTime;
+    /**
+     * The number of checks, only changed by the check thread.
+     */
+    private long checkRound;
 
     public RunningRule(AlarmRule alarmRule) {
         metricsName = alarmRule.getMetricsName();
@@ -83,6 +88,7 @@ public class RunningRule {
 
         // Init the empty window for alarming rule.
         windows = new ConcurrentHashMap<>();
+        candidates = ConcurrentHashMap.newKeySet();
 
         period = alarmRule.getPeriod();
 
@@ -92,18 +98,14 @@ public class RunningRule {
         this.countThreshold = alarmRule.getCount();
         this.silencePeriod = alarmRule.getSilencePeriod();
 
-        this.includeNames = alarmRule.getIncludeNames();
-        this.excludeNames = alarmRule.getExcludeNames();
-        this.includeNamesRegex = StringUtil.isNotEmpty(alarmRule.getIncludeNamesRegex()) ?
-            Pattern.compile(alarmRule.getIncludeNamesRegex()) : null;
-        this.excludeNamesRegex = StringUtil.isNotEmpty(alarmRule.getExcludeNamesRegex()) ?
-            Pattern.compile(alarmRule.getExcludeNamesRegex()) : null;
-        this.includeLabels = alarmRule.getIncludeLabels();
-        this.excludeLabels = alarmRule.getExcludeLabels();
-        this.includeLabelsRegex = StringUtil.isNotEmpty(alarmRule.getIncludeLabelsRegex()) ?
-            Pattern.compile(alarmRule.getIncludeLabelsRegex()) : null;
-        this.excludeLabelsRegex = StringUtil.isNotEmpty(alarmRule.getExcludeLabelsRegex()) ?
-            Pattern.compile(alarmRule.getExcludeLabelsRegex()) : null;
+        this.nameFilter = new NameFilter(
+            alarmRule.getIncludeNames(), alarmRule.getExcludeNames(),
+            alarmRule.getIncludeNamesRegex(), alarmRule.getExcludeNamesRegex()
+        );
+        this.labelFilter = new NameFilter(
+            alarmRule.getIncludeLabels(), alarmRule.getExcludeLabels(),
+            alarmRule.getIncludeLabelsRegex(), alarmRule.getExcludeLabelsRegex()
+        );
         this.formatter = new AlarmMessageFormatter(alarmRule.getMessage());
         this.onlyAsCondition = alarmRule.isOnlyAsCondition();
         this.tags = alarmRule.getTags()
@@ -130,7 +132,7 @@ public class RunningRule {
         }
 
         final String metaName = meta.getName();
-        if (!validate(metaName, includeNames, excludeNames, includeNamesRegex, excludeNamesRegex)) {
+        if (!nameFilter.test(metaName)) {
             return;
         }
 
@@ -148,14 +150,7 @@ public class RunningRule {
                 valueType = MetricsValueType.MULTI_INTS;
                 threshold.setType(MetricsValueType.MULTI_INTS);
             } else if (metrics instanceof LabeledValueHolder) {
-                if (((LabeledValueHolder) metrics).getValue().keys().stream()
-                                                  .noneMatch(label -> validate(
-                                                      label,
-                                                      includeLabels,
-                                                      excludeLabels,
-                                                      includeLabelsRegex,
-                                                      excludeLabelsRegex
-                                                  ))) {
+                if (((LabeledValueHolder) metrics).getValue().keys().stream().noneMatch(labelFilter::test)) {
                     return;
                 }
                 valueType = MetricsValueType.LABELED_LONG;
@@ -167,53 +162,17 @@ public class RunningRule {
         }
 
         if (valueType != null) {
-            Window window = windows.computeIfAbsent(meta, ignored -> new Window(period));
-            window.add(metrics);
-        }
-    }
-
-    /**
-     * Validate target whether matching rules which is included list, excludes list, include regular expression or
-     * exclude regular expression.
-     */
-    private boolean validate(String target, List<String> includeList, List<String> excludeList,
-                             Pattern includeRegex, Pattern excludeRegex) {
-        if (CollectionUtils.isNotEmpty(includeList)) {
-            if (!includeList.contains(target)) {
-                if (log.isTraceEnabled()) {
-                    log.trace("{} isn't in the including list {}", target, includeList);
-                }
-                return false;
-            }
-        }
-
-        if (CollectionUtils.isNotEmpty(excludeList)) {
-            if (excludeList.contains(target)) {
-                if (log.isTraceEnabled()) {
-                    log.trace("{} is in the excluding list {}", target, excludeList);
-                }
-                return false;
-            }
-        }
-
-        if (includeRegex != null) {
-            if (!includeRegex.matcher(target).matches()) {
-                if (log.isTraceEnabled()) {
-                    log.trace("{} doesn't match the include regex {}", target, includeRegex);
-                }
-                return false;
+            final boolean matched = isMatch(metrics);
+            Window window = windows.get(meta);
+            if (window == null && !matched && countThreshold > 0) {
+                // Same as a window without any matched value.
+                return;
             }
-        }
-
-        if (excludeRegex != null) {
-            if (excludeRegex.matcher(target).matches()) {
-                if (log.isTraceEnabled()) {
-                    log.trace("{} matches the exclude regex {}", target, excludeRegex);
-                }
-                return false;
+            do {
+                window = windows.computeIfAbsent(meta, Window::new);
             }
+            while (!window.add(metrics.getTimeBucket(), matched));
         }
-        return true;
     }
 
     /**
@@ -222,7 +181,7 @@ public class RunningRule {
      * @param targetTime of moving target
      */
     public void moveTo(LocalDateTime targetTime) {
-        windows.values().forEach(window -> window.moveTo(targetTime));
+        endTime = targetTime;
     }
 
     /**
@@ -230,10 +189,13 @@ public class RunningRule {
      */
     public List<AlarmMessage> check() {
         List<AlarmMessage> alarmMessageList = new ArrayList<>(30);
+        final long round = ++checkRound;
+        final LocalDateTime current = endTime;
 
-        windows.forEach((meta, window) -> {
-            Optional<AlarmMessage> alarmMessageOptional = window.checkAlarm();
+        candidates.forEach(window -> {
+            Optional<AlarmMessage> alarmMessageOptional = window.checkAlarm(current, round);
             if (alarmMessageOptional.isPresent()) {
+                final MetaInAlarm meta = window.meta;
                 AlarmMessage alarmMessage = alarmMessageOptional.get();
                 alarmMessage.setScopeId(meta.getScopeId());
                 alarmMessage.setScope(meta.getScope());
@@ -250,26 +212,93 @@ public class RunningRule {
             }
         });
 
+        if (round % RECLAIM_CHECKS == 0) {
+            windows.values().forEach(window -> window.reclaimIfIdle(current, round));
+        }
+
         return alarmMessageList;
     }
 
+    /**
+     * @return true if the value of the metrics matches the threshold.
+     */
+    private boolean isMatch(Metrics metrics) {
+        switch (valueType) {
+            case LONG:
+                long lvalue = ((LongValueHolder) metrics).getValue();
+                long lexpected = this.threshold.getLongThreshold();
+                return op.test(lexpected, lvalue);
+            case INT:
+                int ivalue = ((IntValueHolder) metrics).getValue();
+                int iexpected = this.threshold.getIntThreshold();
+                return op.test(iexpected, ivalue);
+            case DOUBLE:
+                double dvalue = ((DoubleValueHolder) metrics).getValue();
+                double dexpected = this.threshold.getDoubleThreshold();
+                return op.test(dexpected, dvalue);
+            case MULTI_INTS:
+                int[] ivalueArray = ((MultiIntValuesHolder) metrics).getValues();
+                Integer[] iaexpected = this.threshold.getIntValuesThreshold();
+                if (log.isTraceEnabled()) {
+                    log.trace("Value array is {}, expected array is {}", ivalueArray, iaexpected);
+                }
+                for (int i = 0; i < ivalueArray.length; i++) {
+                    ivalue = ivalueArray[i];
+                    Integer iNullableExpected = 0;
+                    if (iaexpected.length > i) {
+                        iNullableExpected = iaexpected[i];
+                        if (iNullableExpected == null) {
+                            continue;
+                        }
+                    }
+                    if (op.test(iNullableExpected, ivalue)) {
+                        if (log.isTraceEnabled()) {
+                            log.trace("Matched, expected {}, value {}", iNullableExpected, ivalue);
+                        }
+                        return true;
+                    }
+                }
+                return false;
+            case LABELED_LONG:
+                DataTable values = ((LabeledValueHolder) metrics).getValue();
+                long labeledExpected = this.threshold.getLongThreshold();
+                return values.keys().stream().anyMatch(
+                    label -> labelFilter.test(label) && op.test(labeledExpected, values.get(label)));
+            default:
+                return false;
+        }
+    }
+
     /**
      * A metrics window, based on AlarmRule#period. This window slides with time, just keeps the recent N(period)
-     * buckets.
+     * buckets, as a ring of whether the value of each bucket matched the threshold.
      */
     public class Window {
+        private final MetaInAlarm meta;
         private LocalDateTime endTime;
-        private int period;
-        private int silenceCountdown;
-
-        private LinkedList<Metrics> values;
+        private final int period;
+        private final boolean[] matches;
+        /**
+         * The index of the oldest bucket in {@link #matches}.
+         */
+        private int head;
+        private int matchCount;
+        /**
+         * The check round of the last alarm, or -1 if never alarmed.
+         */
+        private long lastAlarmRound;
+        /**
+         * Set once the window is removed, the value should be added to a new window.
+         */
+        private boolean retired;
         private ReentrantLock lock = new ReentrantLock();
 
-        public Window(int period) {
-            this.period = period;
-            // -1 means silence countdown is not running.
-            silenceCountdown = -1;
-            init();
+        public Window(MetaInAlarm meta) {
+            this.meta = meta;
+            this.period = RunningRule.this.period;
+            this.matches = new boolean[period];
+            // -1 means silence is not running.
+            lastAlarmRound = -1;
         }
 
         public void moveTo(LocalDateTime current) {
@@ -282,13 +311,16 @@ public class RunningRule {
                     if (minutes <= 0) {
                         return;
                     }
-                    if (minutes > values.size()) {
+                    if (minutes > period) {
                         // re-init
                         init();
                     } else {
                         for (int i = 0; i < minutes; i++) {
-                            values.removeFirst();
-                            values.addLast(null);
+                            if (matches[head]) {
+                                matches[head] = false;
+                                matchCount--;
+                            }
+                            head = (head + 1) % period;
                         }
                     }
                 }
@@ -297,20 +329,26 @@ public class RunningRule {
                 lock.unlock();
             }
             if (log.isTraceEnabled()) {
-                log.trace("Move window {}", transformValues(values));
+                log.trace("Move window {}", this);
             }
         }
 
-        public void add(Metrics metrics) {
-            long bucket = metrics.getTimeBucket();
-
+        /**
+         * @return false if the window has been reclaimed, nothing is added.
+         */
+        private boolean add(long bucket, boolean matched) {
             LocalDateTime timeBucket = TIME_BUCKET_FORMATTER.parseLocalDateTime(bucket + "");
 
             this.lock.lock();
             try {
+                if (retired) {
+                    return false;
+                }
                 if (this.endTime == null) {
                     init();
                     this.endTime = timeBucket;
+                } else {
+                    align(RunningRule.this.endTime);
                 }
                 int minutes = Minutes.minutesBetween(timeBucket, this.endTime).getMinutes();
                 if (minutes < 0) {
@@ -318,170 +356,103 @@ public class RunningRule {
                     minutes = 0;
                 }
 
-                if (minutes >= values.size()) {
+                if (minutes >= period) {
                     // too old data
                     // also should happen, but maybe if agent/probe mechanism time is not right.
                     if (log.isTraceEnabled()) {
                         log.trace(
-                            "Timebucket is {}, endTime is {} and value size is {}", timeBucket, this.endTime,
-                            values.size()
-                        );
+                            "Timebucket is {}, endTime is {} and value size is {}", timeBucket, this.endTime, period);
                     }
-                    return;
+                    return true;
                 }
 
-                this.values.set(values.size() - minutes - 1, metrics);
+                final int index = (head + period - minutes - 1) % period;
+                if (matches[index] != matched) {
+                    matches[index] = matched;
+                    matchCount += matched ? 1 : -1;
+                }
+                if (matchCount >= countThreshold) {
+                    candidates.add(this);
+                }
             } finally {
                 this.lock.unlock();
             }
             if (log.isTraceEnabled()) {
-                log.trace("Add metric {} to window {}", metrics, transformValues(this.values));
+                log.trace("Add matched {} to window {}", matched, this);
             }
+            return true;
         }
 
-        public Optional<AlarmMessage> checkAlarm() {
-            if (isMatch()) {
-                /*
-                 * When
-                 * 1. Alarm trigger conditions are satisfied.
-                 * 2. Isn't in silence stage, judged by SilenceCountdown(!=0).
-                 */
-                if (silenceCountdown < 1) {
-                    silenceCountdown = silencePeriod;
-                    return Optional.of(new AlarmMessage());
+        private Optional<AlarmMessage> checkAlarm(LocalDateTime current, long round) {
+            lock.lock();
+            try {
+                align(current);
+                if (log.isTraceEnabled()) {
+                    log.trace("Match count is {}, threshold is {}", matchCount, countThreshold);
+                }
+                // Reach the threshold in current bucket.
+                if (matchCount >= countThreshold) {
+                    /*
+                     * When
+                     * 1. Alarm trigger conditions are satisfied.
+                     * 2. Isn't in silence stage, the silence period passed since the last alarm.
+                     */
+                    if (!isSilent(round)) {
+                        lastAlarmRound = round;
+                        return Optional.of(new AlarmMessage());
+                    }
                 } else {
-                    silenceCountdown--;
+                    candidates.remove(this);
+                    reclaimIfIdle(current, round);
                 }
-            } else {
-                silenceCountdown--;
+                return Optional.empty();
+            } finally {
+                lock.unlock();
             }
-            return Optional.empty();
         }
 
-        private boolean isMatch() {
-            int matchCount = 0;
-            for (Metrics metrics : values) {
-                if (metrics == null) {
-                    continue;
-                }
-
-                switch (valueType) {
-                    case LONG:
-                        long lvalue = ((LongValueHolder) metrics).getValue();
-                        long lexpected = RunningRule.this.threshold.getLongThreshold();
-                        if (op.test(lexpected, lvalue)) {
-                            matchCount++;
-                        }
-                        break;
-                    case INT:
-                        int ivalue = ((IntValueHolder) metrics).getValue();
-                        int iexpected = RunningRule.this.threshold.getIntThreshold();
-                        if (op.test(iexpected, ivalue)) {
-                            matchCount++;
-                        }
-                        break;
-                    case DOUBLE:
-                        double dvalue = ((DoubleValueHolder) metrics).getValue();
-                        double dexpected = RunningRule.this.threshold.getDoubleThreshold();
-                        if (op.test(dexpected, dvalue)) {
-                            matchCount++;
-                        }
-                        break;
-                    case MULTI_INTS:
-                        int[] ivalueArray = ((MultiIntValuesHolder) metrics).getValues();
-                        Integer[] iaexpected = RunningRule.this.threshold.getIntValuesThreshold();
-                        if (log.isTraceEnabled()) {
-                            log.trace("Value array is {}, expected array is {}", ivalueArray, iaexpected);
-                        }
-                        for (int i = 0; i < ivalueArray.length; i++) {
-                            ivalue = ivalueArray[i];
-                            Integer iNullableExpected = 0;
-                            if (iaexpected.length > i) {
-                                iNullableExpected = iaexpected[i];
-                                if (iNullableExpected == null) {
-                                    continue;
-                                }
-                            }
-                            if (op.test(iNullableExpected, ivalue)) {
-                                if (log.isTraceEnabled()) {
-                                    log.trace("Matched, expected {}, value {}", iNullableExpected, ivalue);
-                                }
-                                matchCount++;
-                                break;
-                            }
-                        }
-                        break;
-                    case LABELED_LONG:
-                        DataTable values = ((LabeledValueHolder) metrics).getValue();
-                        lexpected = RunningRule.this.threshold.getLongThreshold();
-                        if (values.keys().stream().anyMatch(label ->
-                                                                validate(
-                                                                    label,
-                                                                    RunningRule.this.includeLabels,
-                                                                    RunningRule.this.excludeLabels,
-                                                                    RunningRule.this.includeLabelsRegex,
-                                                                    RunningRule.this.excludeLabelsRegex
-                                                                )
-                                                                    && op.test(lexpected, values.get(label)))) {
-                            matchCount++;
-                        }
-                        break;
+        /**
+         * Remove the window if it's the same as a new one, without matched value, and out of silence.
+         */
+        private void reclaimIfIdle(LocalDateTime current, long round) {
+            lock.lock();
+            try {
+                align(current);
+                if (matchCount == 0 && countThreshold > 0 && !isSilent(round)) {
+                    retired = true;
+                    candidates.remove(this);
+                    windows.remove(meta, this);
                 }
+            } finally {
+                lock.unlock();
             }
+        }
 
-            if (log.isTraceEnabled()) {
-                log.trace("Match count is {}, threshold is {}", matchCount, countThreshold);
+        private boolean isSilent(long round) {
+            return lastAlarmRound >= 0 && round - lastAlarmRound <= silencePeriod;
+        }
+
+        private void align(LocalDateTime current) {
+            if (endTime != null && current != null) {
+                moveTo(current);
             }
-            // Reach the threshold in current bucket.
-            return matchCount >= countThreshold;
         }
 
         private void init() {
-            values = new LinkedList<>();
             for (int i = 0; i < period; i++) {
-                values.add(null);
+                matches[i] = false;
             }
+            head = 0;
+            matchCount = 0;
         }
-    }
 
-    private LinkedList<TraceLogMetric> transformValues(final LinkedList<Metrics> values) {
-        LinkedList<TraceLogMetric> r = new LinkedList<>();
-        values.forEach(m -> {
-            if (m == null) {
-                r.add(null);
-                return;
-            }
-            switch (valueType) {
-                case LONG:
-                    r.add(new TraceLogMetric(m.getTimeBucket(), new Number[] {((LongValueHolder) m).getValue()}));
-                    break;
-                case INT:
-                    r.add(new TraceLogMetric(m.getTimeBucket(), new Number[] {((IntValueHolder) m).getValue()}));
-                    break;
-                case DOUBLE:
-                    r.add(new TraceLogMetric(m.getTimeBucket(), new Number[] {((DoubleValueHolder) m).getValue()}));
-                    break;
-                case MULTI_INTS:
-                    int[] iArr = ((MultiIntValuesHolder) m).getValues();
-                    r.add(new TraceLogMetric(m.getTimeBucket(), Arrays.stream(iArr).boxed().toArray(Number[]::new)));
-                    break;
-                case LABELED_LONG:
-                    DataTable dt = ((LabeledValueHolder) m).getValue();
-                    TraceLogMetric l = new TraceLogMetric(
-                        m.getTimeBucket(), dt.sortedValues(Comparator.naturalOrder())
-                                             .toArray(new Number[0]));
-                    l.labels = dt.sortedKeys(Comparator.naturalOrder()).toArray(new String[0]);
-                    r.add(l);
+        @Override
+        public String toString() {
+            StringBuilder buffer = new StringBuilder("[");
+            for (int i = 0; i < period; i++) {
+                buffer.append(i == 0 ? "" : ", ").append(matches[(head + i) % period]);
             }
-        });
-        return r;
-    }
-
-    @RequiredArgsConstructor
-    @ToString
-    private static class TraceLogMetric {
-        private final long timeBucket;
-        private final Number[] value;
-        private String[] labels;
+            return buffer.append("]").toString();
+        }
     }
 }
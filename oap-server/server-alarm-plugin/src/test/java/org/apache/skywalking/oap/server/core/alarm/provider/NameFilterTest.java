@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.alarm.provider;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NameFilterTest {
+    @Test
+    public void testEmpty() {
+        NameFilter filter = new NameFilter(Collections.emptyList(), null, null, "");
+        assertTrue(filter.test("service_a"));
+    }
+
+    @Test
+    public void testLists() {
+        NameFilter filter = new NameFilter(
+            Arrays.asList("service_a", "service_b"), Collections.singletonList("service_b"), null, null);
+        assertTrue(filter.test("service_a"));
+        assertFalse(filter.test("service_b"));
+        assertFalse(filter.test("service_c"));
+    }
+
+    @Test
+    public void testRegex() {
+        NameFilter filter = new NameFilter(null, null, "service_.*", ".*_test");
+        // Twice, the latter from the cached result.
+        for (int i = 0; i < 2; i++) {
+            assertTrue(filter.test("service_a"));
+            assertFalse(filter.test("service_test"));
+            assertFalse(filter.test("endpoint_a"));
+        }
+    }
+}
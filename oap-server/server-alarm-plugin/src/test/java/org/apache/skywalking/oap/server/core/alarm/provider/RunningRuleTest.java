@@ -74,11 +74,49 @@ public class RunningRuleTest {
         RunningRule.Window window = windows.get(getMetaInAlarm(123));
         LocalDateTime endTime = Whitebox.getInternalState(window, "endTime");
         int period = Whitebox.getInternalState(window, "period");
-        LinkedList<Metrics> metricsBuffer = Whitebox.getInternalState(window, "values");
+        boolean[] matches = Whitebox.getInternalState(window, "matches");
 
         Assert.assertTrue(startTime.equals(endTime));
         Assert.assertEquals(15, period);
-        Assert.assertEquals(15, metricsBuffer.size());
+        Assert.assertEquals(15, matches.length);
+    }
+
+    @Test
+    public void testReclaimWindows() {
+        AlarmRule alarmRule = new AlarmRule();
+        alarmRule.setAlarmRuleName("endpoint_percent_rule");
+        alarmRule.setMetricsName("endpoint_percent");
+        alarmRule.setOp("<");
+        alarmRule.setThreshold("75");
+        alarmRule.setCount(1);
+        alarmRule.setPeriod(5);
+        alarmRule.setSilencePeriod(0);
+        alarmRule.setTags(new HashMap<>());
+        RunningRule runningRule = new RunningRule(alarmRule);
+        Map<MetaInAlarm, RunningRule.Window> windows = Whitebox.getInternalState(runningRule, "windows");
+
+        // Entities without matched value don't have a window.
+        runningRule.in(getMetaInAlarm(123), getMetrics(201808301434L, 80));
+        Assert.assertEquals(0, windows.size());
+
+        runningRule.in(getMetaInAlarm(123), getMetrics(201808301435L, 70));
+        runningRule.in(getMetaInAlarm(223), getMetrics(201808301435L, 70));
+        runningRule.in(getMetaInAlarm(223), getMetrics(201808301436L, 70));
+        Assert.assertEquals(2, windows.size());
+        runningRule.moveTo(TIME_BUCKET_FORMATTER.parseLocalDateTime("201808301436"));
+        Assert.assertEquals(2, runningRule.check().size());
+
+        // 123 stops reporting, its window is reclaimed once its matched value leaves the period.
+        runningRule.moveTo(TIME_BUCKET_FORMATTER.parseLocalDateTime("201808301440"));
+        runningRule.in(getMetaInAlarm(223), getMetrics(201808301440L, 70));
+        Assert.assertEquals(1, runningRule.check().size());
+        Assert.assertEquals(1, windows.size());
+
+        // A matched value overwritten by a not matched one.
+        runningRule.in(getMetaInAlarm(223), getMetrics(201808301440L, 80));
+        runningRule.moveTo(TIME_BUCKET_FORMATTER.parseLocalDateTime("201808301441"));
+        Assert.assertEquals(0, runningRule.check().size());
+        Assert.assertEquals(0, windows.size());
     }
 
     @Test
@@ -59,6 +59,20 @@ public class CoreModuleConfig extends ModuleConfig {
      * The threshold of session time. Unit is ms. Default value is 70s.
      */
     private long storageSessionTimeout = 70_000;
+    /**
+     * Keep the service and instance relations of the recent minutes in memory, and answer the topology queries of them
+     * without the storage. Every OAP node broadcasts the relations it persists, so all nodes keep the whole topology.
+     */
+    private boolean enableTopologyIndex = false;
+    /**
+     * The number of the recent minutes kept by the topology index.
+     */
+    private int topologyIndexRetainedMinutes = 60;
+    /**
+     * Store the percentile and histogram datasets in the compact binary format rather than the text format. The OAP
+     * nodes of the older versions can't read it, so only enable it once all nodes are upgraded.
+     */
+    private boolean enableBinaryHistogram = false;
     private final List<String> downsampling;
     /**
      * The period of doing data persistence. Unit is second.
@@ -88,6 +102,23 @@ public class CoreModuleConfig extends ModuleConfig {
      */
 
     private int remoteTimeout = 20;
+    /**
+     * Compress the batches of the cluster internal communication by gzip, which trades the CPU for the network.
+     */
+    private boolean remoteCompressionEnabled = false;
+    /**
+     * The time to live of the cached results of the metadata queries, in seconds. 0 means no cache.
+     */
+    private int metadataQueryCacheTTL = 10;
+    /**
+     * The max number of the rows cached for the metadata queries.
+     */
+    private long maxSizeOfMetadataQueryCache = 100_000L;
+    /**
+     * The endpoints of the services having no more endpoints than it are indexed in the metadata query cache, and
+     * searched by keyword in memory. 0 means no index.
+     */
+    private int metadataQueryEndpointIndexSize = 0;
     /**
      * The size of network address alias.
      */
@@ -18,6 +18,8 @@
 
 package org.apache.skywalking.oap.server.core.analysis;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import lombok.EqualsAndHashCode;
@@ -31,6 +33,18 @@ import org.apache.skywalking.oap.server.library.util.BooleanUtils;
  * IDManager includes all ID encode/decode functions for service, service instance and endpoint.
  */
 public class IDManager {
+    /**
+     * The IDs are built for every span and sample and analysed for every row of the query results, but from a limited
+     * number of names, so the encoded and decoded names are cached.
+     */
+    private static final int MAX_CACHED_NAMES = 100_000;
+    private static final Cache<String, String> ENCODED_NAMES = CacheBuilder.newBuilder()
+                                                                          .maximumSize(MAX_CACHED_NAMES)
+                                                                          .build();
+    private static final Cache<String, String> DECODED_NAMES = CacheBuilder.newBuilder()
+                                                                          .maximumSize(MAX_CACHED_NAMES)
+                                                                          .build();
+
     /**
      * Service ID related functions.
      */
@@ -48,8 +62,8 @@ public class IDManager {
          * @return service ID object decoded from {@link #buildId(String, boolean)} result
          */
         public static ServiceIDDefinition analysisId(String id) {
-            final String[] strings = id.split(Const.SERVICE_ID_PARSER_SPLIT);
-            if (strings.length != 2) {
+            final String[] strings = split(id, Const.SERVICE_ID_CONNECTOR, 2);
+            if (strings == null) {
                 throw new UnexpectedException("Can't split service id into 2 parts, " + id);
             }
             return new ServiceID.ServiceIDDefinition(
@@ -69,8 +83,8 @@ public class IDManager {
          * @return service relation ID object decoded from {@link #buildRelationId(ServiceRelationDefine)} result
          */
         public static ServiceRelationDefine analysisRelationId(String entityId) {
-            String[] parts = entityId.split(Const.RELATION_ID_PARSER_SPLIT);
-            if (parts.length != 2) {
+            String[] parts = split(entityId, Const.RELATION_ID_CONNECTOR, 2);
+            if (parts == null) {
                 throw new RuntimeException("Illegal Service Relation entity id");
             }
             return new ServiceRelationDefine(parts[0], parts[1]);
@@ -114,8 +128,8 @@ public class IDManager {
          * @return service instance id object decoded from {@link #buildId(String, String)} result
          */
         public static ServiceInstanceID.InstanceIDDefinition analysisId(String id) {
-            final String[] strings = id.split(Const.ID_PARSER_SPLIT);
-            if (strings.length != 2) {
+            final String[] strings = split(id, Const.ID_CONNECTOR, 2);
+            if (strings == null) {
                 throw new UnexpectedException("Can't split instance id into 2 parts, " + id);
             }
             return new ServiceInstanceID.InstanceIDDefinition(
@@ -136,8 +150,8 @@ public class IDManager {
          * result
          */
         public static ServiceInstanceID.ServiceInstanceRelationDefine analysisRelationId(String entityId) {
-            String[] parts = entityId.split(Const.RELATION_ID_PARSER_SPLIT);
-            if (parts.length != 2) {
+            String[] parts = split(entityId, Const.RELATION_ID_CONNECTOR, 2);
+            if (parts == null) {
                 throw new RuntimeException("Illegal Service Instance Relation entity id");
             }
             return new ServiceInstanceID.ServiceInstanceRelationDefine(parts[0], parts[1]);
@@ -186,8 +200,8 @@ public class IDManager {
          * @return Endpoint id object decoded from {@link #buildId(String, String)} result.
          */
         public static EndpointIDDefinition analysisId(String id) {
-            final String[] strings = id.split(Const.ID_PARSER_SPLIT);
-            if (strings.length != 2) {
+            final String[] strings = split(id, Const.ID_CONNECTOR, 2);
+            if (strings == null) {
                 throw new UnexpectedException("Can't split endpoint id into 2 parts, " + id);
             }
             return new EndpointIDDefinition(
@@ -213,8 +227,8 @@ public class IDManager {
          * @return endpoint relation ID object decoded from {@link #buildRelationId(EndpointRelationDefine)} result
          */
         public static EndpointRelationDefine analysisRelationId(String entityId) {
-            String[] parts = entityId.split(Const.RELATION_ID_PARSER_SPLIT);
-            if (parts.length != 4) {
+            String[] parts = split(entityId, Const.RELATION_ID_CONNECTOR, 4);
+            if (parts == null) {
                 throw new UnexpectedException("Illegal endpoint Relation entity id, " + entityId);
             }
             return new EndpointRelationDefine(
@@ -276,7 +290,14 @@ public class IDManager {
      * @return Base64 encoded UTF-8 string
      */
     private static String encode(String text) {
-        return new String(Base64.getEncoder().encode(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        String encoded = ENCODED_NAMES.getIfPresent(text);
+        if (encoded == null) {
+            encoded = new String(
+                Base64.getEncoder().encode(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+            ENCODED_NAMES.put(text, encoded);
+            DECODED_NAMES.put(encoded, text);
+        }
+        return encoded;
     }
 
     /**
@@ -284,6 +305,36 @@ public class IDManager {
      * @return normal literal string
      */
     private static String decode(String base64text) {
-        return new String(Base64.getDecoder().decode(base64text), StandardCharsets.UTF_8);
+        String decoded = DECODED_NAMES.getIfPresent(base64text);
+        if (decoded == null) {
+            decoded = new String(Base64.getDecoder().decode(base64text), StandardCharsets.UTF_8);
+            DECODED_NAMES.put(base64text, decoded);
+        }
+        return decoded;
+    }
+
+    /**
+     * @param id        the id built by the connector
+     * @param connector the connector of the parts, which doesn't appear in the Base64 encoded names
+     * @param size      the expected number of the parts
+     * @return the parts of the id, or null if the id doesn't have the expected number of parts
+     */
+    private static String[] split(String id, String connector, int size) {
+        final String[] parts = new String[size];
+        final char c = connector.charAt(0);
+        int start = 0;
+        for (int i = 0; i < size - 1; i++) {
+            final int end = id.indexOf(c, start);
+            if (end < 0) {
+                return null;
+            }
+            parts[i] = id.substring(start, end);
+            start = end + 1;
+        }
+        if (id.indexOf(c, start) >= 0) {
+            return null;
+        }
+        parts[size - 1] = id.substring(start);
+        return parts;
     }
 }
@@ -26,6 +26,7 @@ import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProces
 import org.apache.skywalking.oap.server.core.analysis.worker.NoneStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.RecordStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
+import org.apache.skywalking.oap.server.core.remote.selector.Selector;
 import org.apache.skywalking.oap.server.core.source.ScopeDeclaration;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 
@@ -59,4 +60,11 @@ public @interface Stream {
      * TopNStreamProcessor} and {@link NoneStreamProcessor} for more details.
      */
     Class<? extends StreamProcessor> processor();
+
+    /**
+     * @return the strategy to route the metrics to the OAP node doing the L2 aggregation. It only works for {@link
+     * MetricsStreamProcessor}.
+     * @since 9.0.0
+     */
+    Selector remoteSelector() default Selector.HashCode;
 }
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.analysis;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.core.remote.selector.Selector;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 
 @RequiredArgsConstructor
@@ -29,9 +30,18 @@ public class StreamDefinition {
     private final int scopeId;
     private final Class<? extends StorageBuilder> builder;
     private final Class<? extends StreamProcessor> processor;
+    private final Selector remoteSelector;
+
+    public StreamDefinition(final String name,
+                            final int scopeId,
+                            final Class<? extends StorageBuilder> builder,
+                            final Class<? extends StreamProcessor> processor) {
+        this(name, scopeId, builder, processor, Selector.HashCode);
+    }
 
     public static StreamDefinition from(Stream stream) {
-        return new StreamDefinition(stream.name(), stream.scopeId(), stream.builder(), stream.processor());
+        return new StreamDefinition(
+            stream.name(), stream.scopeId(), stream.builder(), stream.processor(), stream.remoteSelector());
     }
 
 }
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.analysis.data;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -39,4 +40,19 @@ public interface BufferedData<T> {
      * Read all existing buffered data, and clear the memory.
      */
     List<T> read();
+
+    /**
+     * Iterate the existing buffered data, without clearing the memory.
+     */
+    Iterator<T> iterator();
+
+    /**
+     * @return the number of the existing buffered data.
+     */
+    int size();
+
+    /**
+     * Clear the memory.
+     */
+    void clear();
 }
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.analysis.data;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import org.apache.skywalking.oap.server.core.storage.ComparableStorageData;
@@ -82,4 +83,23 @@ public class LimitedSizeBufferedData<STORAGE_DATA extends ComparableStorageData
             data.clear();
         }
     }
+
+    @Override
+    public Iterator<STORAGE_DATA> iterator() {
+        return data.values().stream().flatMap(List::stream).iterator();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (LinkedList<STORAGE_DATA> storageDataList : data.values()) {
+            size += storageDataList.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        data.clear();
+    }
 }
@@ -19,19 +19,21 @@
 package org.apache.skywalking.oap.server.core.analysis.data;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 
 /**
  * MergableBufferedData is a thread no safe implementation of {@link BufferedData}. {@link Metrics} in this cache would
- * be {@link Metrics#combine(Metrics)} if their {@link Metrics#id()}s are same.
+ * be {@link Metrics#combine(Metrics)} if their {@link Metrics#key()}s are same.
  *
  * Concurrency {@link #accept(Metrics)}s and {@link #read()} while {@link #accept(Metrics)} are both not recommended.
  */
 public class MergableBufferedData<METRICS extends Metrics> implements BufferedData<METRICS> {
-    private Map<String, METRICS> buffer;
+    private Map<MetricsKey, METRICS> buffer;
 
     public MergableBufferedData() {
         buffer = new HashMap<>();
@@ -46,7 +48,7 @@ public class MergableBufferedData<METRICS extends Metrics> implements BufferedDa
      */
     @Override
     public void accept(final METRICS data) {
-        final String id = data.id();
+        final MetricsKey id = data.key();
         final METRICS existed = buffer.get(id);
         if (existed == null) {
             buffer.put(id, data);
@@ -66,4 +68,19 @@ public class MergableBufferedData<METRICS extends Metrics> implements BufferedDa
             buffer.clear();
         }
     }
+
+    @Override
+    public Iterator<METRICS> iterator() {
+        return buffer.values().iterator();
+    }
+
+    @Override
+    public int size() {
+        return buffer.size();
+    }
+
+    @Override
+    public void clear() {
+        buffer.clear();
+    }
 }
@@ -18,25 +18,29 @@
 
 package org.apache.skywalking.oap.server.core.analysis.data;
 
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * ReadWriteSafeCache provides a read/write isolated cache.
+ *
+ * The cache could be striped, every stripe has its own read/write buffers and lock, and the writing thread always
+ * writes into the same stripe, so the lock is hardly contended. The stripes are switched one by one and merged when
+ * reading, no lock covers all stripes.
+ *
+ * There should be only one reading thread at a time.
  */
 public class ReadWriteSafeCache<T> {
+    private final Stripe<T>[] stripes;
+    private final int mask;
     /**
-     * Pointer of read buffer.
-     */
-    private volatile BufferedData<T> readBufferPointer;
-    /**
-     * Pointer of write buffer.
-     */
-    private volatile BufferedData<T> writeBufferPointer;
-    /**
-     * Read/Write lock.
+     * Reused by every {@link #readView()}.
      */
-    private final ReentrantLock lock;
+    private final ReadView readView;
 
     /**
      * Build the Cache through two given buffer instances.
@@ -44,51 +48,160 @@ public class ReadWriteSafeCache<T> {
      * @param buffer1 read/write switchable buffer
      * @param buffer2 read/write switchable buffer. It is the write buffer at the beginning.
      */
+    @SuppressWarnings("unchecked")
     public ReadWriteSafeCache(BufferedData<T> buffer1, BufferedData<T> buffer2) {
-        readBufferPointer = buffer1;
-        writeBufferPointer = buffer2;
-        lock = new ReentrantLock();
+        stripes = new Stripe[] {new Stripe<>(buffer1, buffer2)};
+        mask = 0;
+        readView = new ReadView();
     }
 
     /**
-     * Write the into the {@link #writeBufferPointer} buffer.
+     * Build the striped Cache.
+     *
+     * @param bufferSupplier creates the read/write switchable buffers of every stripe.
+     * @param stripeCount    the number of stripes, rounded up to a power of 2.
+     */
+    @SuppressWarnings("unchecked")
+    public ReadWriteSafeCache(Supplier<BufferedData<T>> bufferSupplier, int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe<>(bufferSupplier.get(), bufferSupplier.get());
+        }
+        mask = size - 1;
+        readView = new ReadView();
+    }
+
+    /**
+     * Write the into the write buffer of the stripe of the current thread.
      *
      * @param data to enqueue.
      */
     public void write(T data) {
-        lock.lock();
+        final Stripe<T> stripe = stripe();
+        stripe.lock.lock();
         try {
-            writeBufferPointer.accept(data);
+            stripe.writeBufferPointer.accept(data);
         } finally {
-            lock.unlock();
+            stripe.lock.unlock();
         }
     }
 
     /**
-     * Write the collection of data into the {@link #writeBufferPointer} buffer.
+     * Write the collection of data into the write buffer of the stripe of the current thread.
      *
      * @param data to enqueue.
      */
     public void write(List<T> data) {
-        lock.lock();
+        final Stripe<T> stripe = stripe();
+        stripe.lock.lock();
         try {
-            data.forEach(writeBufferPointer::accept);
+            data.forEach(stripe.writeBufferPointer::accept);
         } finally {
-            lock.unlock();
+            stripe.lock.unlock();
         }
     }
 
+    /**
+     * Switch the buffers, and read all the data written since the last read.
+     *
+     * @return a new list of the data.
+     */
     public List<T> read() {
-        lock.lock();
-        try {
-            // Switch the read and write pointers, when there is no writing.
-            BufferedData<T> tempPointer = writeBufferPointer;
-            writeBufferPointer = readBufferPointer;
-            readBufferPointer = tempPointer;
-        } finally {
-            lock.unlock();
+        return switchBuffers().read();
+    }
+
+    /**
+     * Switch the buffers, and provide all the data written since the last read, without copying. The returned view is
+     * reused, and stays valid until the next read.
+     *
+     * @return the view of the data.
+     */
+    public Collection<T> readView() {
+        readView.buffer = switchBuffers();
+        return readView;
+    }
+
+    private Stripe<T> stripe() {
+        return stripes[(int) Thread.currentThread().getId() & mask];
+    }
+
+    /**
+     * Switch the buffers of all stripes, and merge the read buffers into one of them.
+     */
+    private BufferedData<T> switchBuffers() {
+        BufferedData<T> merged = null;
+        for (Stripe<T> stripe : stripes) {
+            final BufferedData<T> buffer = stripe.switchBuffers();
+            if (buffer.size() == 0) {
+                continue;
+            }
+            if (merged == null) {
+                merged = buffer;
+                continue;
+            }
+            final Iterator<T> iterator = buffer.iterator();
+            while (iterator.hasNext()) {
+                merged.accept(iterator.next());
+            }
+            buffer.clear();
+        }
+        return merged == null ? stripes[0].readBufferPointer : merged;
+    }
+
+    private static class Stripe<T> {
+        /**
+         * Pointer of read buffer.
+         */
+        private volatile BufferedData<T> readBufferPointer;
+        /**
+         * Pointer of write buffer.
+         */
+        private volatile BufferedData<T> writeBufferPointer;
+        /**
+         * Read/Write lock.
+         */
+        private final ReentrantLock lock;
+
+        private Stripe(BufferedData<T> buffer1, BufferedData<T> buffer2) {
+            readBufferPointer = buffer1;
+            writeBufferPointer = buffer2;
+            lock = new ReentrantLock();
+        }
+
+        /**
+         * @return the read buffer after switching.
+         */
+        private BufferedData<T> switchBuffers() {
+            // Clear the data of the last read, before it becomes the write buffer.
+            readBufferPointer.clear();
+            lock.lock();
+            try {
+                // Switch the read and write pointers, when there is no writing.
+                BufferedData<T> tempPointer = writeBufferPointer;
+                writeBufferPointer = readBufferPointer;
+                readBufferPointer = tempPointer;
+            } finally {
+                lock.unlock();
+            }
+            return readBufferPointer;
+        }
+    }
+
+    private class ReadView extends AbstractCollection<T> {
+        private BufferedData<T> buffer;
+
+        @Override
+        public Iterator<T> iterator() {
+            return buffer.iterator();
+        }
+
+        @Override
+        public int size() {
+            return buffer.size();
         }
-        // Call read method outside of write lock for concurrency read-write.
-        return readBufferPointer.read();
     }
 }
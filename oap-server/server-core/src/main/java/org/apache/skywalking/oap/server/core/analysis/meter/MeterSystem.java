@@ -59,6 +59,7 @@ import org.apache.skywalking.oap.server.library.module.Service;
 @Slf4j
 public class MeterSystem implements Service {
     private static final String METER_CLASS_PACKAGE = "org.apache.skywalking.oap.server.core.analysis.meter.dynamic.";
+    @Getter
     private ModuleManager manager;
     private ClassPool classPool;
     private Map<String, Class<? extends AcceptableValue>> functionRegister = new HashMap<>();
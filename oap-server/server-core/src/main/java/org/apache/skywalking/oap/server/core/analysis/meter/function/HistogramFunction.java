@@ -29,12 +29,14 @@ import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.meter.Meter;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
-import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketHistogram;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
 
 /**
  * Histogram includes data range buckets and the amount matched/grouped in the buckets. This is for original histogram
@@ -53,7 +55,7 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
     @Getter
     @Setter
     @Column(columnName = DATASET, dataType = Column.ValueDataType.HISTOGRAM, storageOnly = true, defaultValue = 0)
-    private DataTable dataset = new DataTable(30);
+    private BucketHistogram dataset = new BucketHistogram(30);
 
     @Override
     public void accept(final MeterEntity entity, final BucketedValues value) {
@@ -68,10 +70,7 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
 
         final long[] values = value.getValues();
         for (int i = 0; i < values.length; i++) {
-            final long bucket = value.getBuckets()[i];
-            String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
-            final long bucketValue = values[i];
-            dataset.valueAccumulation(bucketName, bucketValue);
+            dataset.add(value.getBuckets()[i], values[i]);
         }
     }
 
@@ -79,13 +78,13 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
     public boolean combine(final Metrics metrics) {
         HistogramFunction histogram = (HistogramFunction) metrics;
 
-        if (!dataset.keysEqual(histogram.getDataset())) {
+        if (!dataset.bucketsEqual(histogram.getDataset())) {
             log.warn("Incompatible input [{}}] for current HistogramFunction[{}], entity {}",
                      histogram, this, entityId
             );
             return true;
         }
-        this.dataset.append(histogram.dataset);
+        this.dataset.merge(histogram.dataset);
         return true;
     }
 
@@ -123,7 +122,7 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
+        this.setDataset(new BucketHistogram(remoteData.getDataObjectStrings(0)));
     }
 
     @Override
@@ -143,12 +142,18 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
     }
 
+    @Override
+    protected MetricsKey key0() {
+        return MetricsKey.of(getTimeBucket(), entityId);
+    }
+
     @Override
     public Class<? extends StorageHashMapBuilder> builder() {
         return HistogramFunctionBuilder.class;
     }
 
-    public static class HistogramFunctionBuilder implements StorageHashMapBuilder<HistogramFunction> {
+    public static class HistogramFunctionBuilder implements StorageHashMapBuilder<HistogramFunction>,
+        StreamingStorageBuilder<HistogramFunction> {
 
         @Override
         public HistogramFunction storage2Entity(final Map<String, Object> dbMap) {
@@ -158,7 +163,7 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
                     throw new UnexpectedException("createNew should not be called");
                 }
             };
-            metrics.setDataset(new DataTable((String) dbMap.get(DATASET)));
+            metrics.setDataset(new BucketHistogram((String) dbMap.get(DATASET)));
             metrics.setTimeBucket(((Number) dbMap.get(TIME_BUCKET)).longValue());
             metrics.setEntityId((String) dbMap.get(ENTITY_ID));
             return metrics;
@@ -172,6 +177,13 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
             map.put(ENTITY_ID, storageData.getEntityId());
             return map;
         }
+
+        @Override
+        public void entity2Columns(final HistogramFunction storageData, final ColumnWriter writer) {
+            writer.write(DATASET, storageData.getDataset());
+            writer.write(TIME_BUCKET, storageData.getTimeBucket());
+            writer.write(ENTITY_ID, storageData.getEntityId());
+        }
     }
 
     @Override
@@ -20,7 +20,6 @@ package org.apache.skywalking.oap.server.core.analysis.meter.function;
 
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.IntStream;
@@ -32,15 +31,18 @@ import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.meter.Meter;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketHistogram;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.analysis.metrics.MultiIntValuesHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
 
 /**
  * PercentileFunction is the implementation of {@link PercentileMetrics} in the meter system. The major difference is
@@ -64,7 +66,7 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
     @Getter
     @Setter
     @Column(columnName = DATASET, storageOnly = true)
-    private DataTable dataset = new DataTable(30);
+    private BucketHistogram dataset = new BucketHistogram(30);
     /**
      * Rank
      */
@@ -113,10 +115,7 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
 
         final long[] values = value.getBucketedValues().getValues();
         for (int i = 0; i < values.length; i++) {
-            final long bucket = value.getBucketedValues().getBuckets()[i];
-            String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
-            final long bucketValue = values[i];
-            dataset.valueAccumulation(bucketName, bucketValue);
+            dataset.add(value.getBucketedValues().getBuckets()[i], values[i]);
         }
 
         this.isCalculated = false;
@@ -126,7 +125,7 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
     public boolean combine(final Metrics metrics) {
         PercentileFunction percentile = (PercentileFunction) metrics;
 
-        if (!dataset.keysEqual(percentile.getDataset())) {
+        if (!dataset.bucketsEqual(percentile.getDataset())) {
             log.warn("Incompatible input [{}}] for current PercentileFunction[{}], entity {}",
                      percentile, this, entityId
             );
@@ -147,7 +146,7 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
             }
         }
 
-        this.dataset.append(percentile.dataset);
+        this.dataset.merge(percentile.dataset);
 
         this.isCalculated = false;
         return true;
@@ -156,32 +155,14 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
     @Override
     public void calculate() {
         if (!isCalculated) {
-            long total = dataset.sumOfValues();
-
-            int[] roofs = new int[ranks.size()];
+            final int[] rankArray = new int[ranks.size()];
             for (int i = 0; i < ranks.size(); i++) {
-                roofs[i] = Math.round(total * ranks.get(i) * 1.0f / 100);
+                rankArray[i] = ranks.get(i);
             }
-
-            int count = 0;
-            final List<String> sortedKeys = dataset.sortedKeys(Comparator.comparingInt(Integer::parseInt));
-
-            int loopIndex = 0;
-
-            for (String key : sortedKeys) {
-                final Long value = dataset.get(key);
-
-                count += value;
-                for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
-                    int roof = roofs[rankIdx];
-
-                    if (count >= roof) {
-                        percentileValues.put(String.valueOf(ranks.get(rankIdx)), Long.parseLong(key));
-                        loopIndex++;
-                    } else {
-                        break;
-                    }
-                }
+            final long[] results = new long[rankArray.length];
+            final int resolved = dataset.percentiles(rankArray, results);
+            for (int rankIdx = 0; rankIdx < resolved; rankIdx++) {
+                percentileValues.put(String.valueOf(rankArray[rankIdx]), results[rankIdx]);
             }
         }
     }
@@ -227,7 +208,7 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
+        this.setDataset(new BucketHistogram(remoteData.getDataObjectStrings(0)));
         this.setRanks(new IntList(remoteData.getDataObjectStrings(1)));
         this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(2)));
     }
@@ -251,6 +232,11 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
     }
 
+    @Override
+    protected MetricsKey key0() {
+        return MetricsKey.of(getTimeBucket(), entityId);
+    }
+
     @Override
     public Class<? extends StorageHashMapBuilder> builder() {
         return PercentileFunctionBuilder.class;
@@ -263,7 +249,8 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
         private final int[] ranks;
     }
 
-    public static class PercentileFunctionBuilder implements StorageHashMapBuilder<PercentileFunction> {
+    public static class PercentileFunctionBuilder implements StorageHashMapBuilder<PercentileFunction>,
+        StreamingStorageBuilder<PercentileFunction> {
 
         @Override
         public PercentileFunction storage2Entity(final Map<String, Object> dbMap) {
@@ -273,7 +260,7 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
                     throw new UnexpectedException("createNew should not be called");
                 }
             };
-            metrics.setDataset(new DataTable((String) dbMap.get(DATASET)));
+            metrics.setDataset(new BucketHistogram((String) dbMap.get(DATASET)));
             metrics.setRanks(new IntList((String) dbMap.get(RANKS)));
             metrics.setPercentileValues(new DataTable((String) dbMap.get(VALUE)));
             metrics.setTimeBucket(((Number) dbMap.get(TIME_BUCKET)).longValue());
@@ -291,6 +278,15 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
             map.put(ENTITY_ID, storageData.getEntityId());
             return map;
         }
+
+        @Override
+        public void entity2Columns(final PercentileFunction storageData, final ColumnWriter writer) {
+            writer.write(DATASET, storageData.getDataset());
+            writer.write(RANKS, storageData.getRanks());
+            writer.write(VALUE, storageData.getPercentileValues());
+            writer.write(TIME_BUCKET, storageData.getTimeBucket());
+            writer.write(ENTITY_ID, storageData.getEntityId());
+        }
     }
 
     @Override
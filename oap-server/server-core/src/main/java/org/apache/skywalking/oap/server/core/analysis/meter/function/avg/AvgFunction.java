@@ -33,13 +33,16 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableV
 import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFunction;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.ConstOne;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Entrance;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.SourceFrom;
 import org.apache.skywalking.oap.server.core.query.sql.Function;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
 
 @MeterFunction(functionName = "avg")
 @ToString
@@ -153,6 +156,11 @@ public abstract class AvgFunction extends Meter implements AcceptableValue<Long>
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
     }
 
+    @Override
+    protected MetricsKey key0() {
+        return MetricsKey.of(getTimeBucket(), entityId);
+    }
+
     @Override
     public void accept(final MeterEntity entity, final Long value) {
         this.entityId = entity.id();
@@ -166,7 +174,8 @@ public abstract class AvgFunction extends Meter implements AcceptableValue<Long>
         return AvgStorageBuilder.class;
     }
 
-    public static class AvgStorageBuilder implements StorageHashMapBuilder<AvgFunction> {
+    public static class AvgStorageBuilder implements StorageHashMapBuilder<AvgFunction>,
+        StreamingStorageBuilder<AvgFunction> {
         @Override
         public AvgFunction storage2Entity(final Map<String, Object> dbMap) {
             AvgFunction metrics = new AvgFunction() {
@@ -195,6 +204,16 @@ public abstract class AvgFunction extends Meter implements AcceptableValue<Long>
             map.put(ENTITY_ID, storageData.getEntityId());
             return map;
         }
+
+        @Override
+        public void entity2Columns(final AvgFunction storageData, final ColumnWriter writer) {
+            writer.write(SUMMATION, storageData.getSummation());
+            writer.write(VALUE, storageData.getValue());
+            writer.write(COUNT, storageData.getCount());
+            writer.write(TIME_BUCKET, storageData.getTimeBucket());
+            writer.write(InstanceTraffic.SERVICE_ID, storageData.getServiceId());
+            writer.write(ENTITY_ID, storageData.getEntityId());
+        }
     }
 
     @Override
@@ -34,10 +34,13 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.BucketedVal
 import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFunction;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.query.type.Bucket;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
 
 /**
  * AvgHistogram intends to aggregate raw values over the interval (minute, hour or day). When users query a value
@@ -172,12 +175,18 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
     }
 
+    @Override
+    protected MetricsKey key0() {
+        return MetricsKey.of(getTimeBucket(), entityId);
+    }
+
     @Override
     public Class<? extends AvgHistogramFunctionBuilder> builder() {
         return AvgHistogramFunctionBuilder.class;
     }
 
-    public static class AvgHistogramFunctionBuilder implements StorageHashMapBuilder<AvgHistogramFunction> {
+    public static class AvgHistogramFunctionBuilder implements StorageHashMapBuilder<AvgHistogramFunction>,
+        StreamingStorageBuilder<AvgHistogramFunction> {
 
         @Override
         public AvgHistogramFunction storage2Entity(final Map<String, Object> dbMap) {
@@ -205,6 +214,15 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
             map.put(ENTITY_ID, storageData.getEntityId());
             return map;
         }
+
+        @Override
+        public void entity2Columns(final AvgHistogramFunction storageData, final ColumnWriter writer) {
+            writer.write(DATASET, storageData.getDataset());
+            writer.write(COUNT, storageData.getCount());
+            writer.write(SUMMATION, storageData.getSummation());
+            writer.write(TIME_BUCKET, storageData.getTimeBucket());
+            writer.write(ENTITY_ID, storageData.getEntityId());
+        }
     }
 
     @Override
@@ -42,11 +42,14 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.PercentileA
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.analysis.metrics.MultiIntValuesHolder;
 import org.apache.skywalking.oap.server.core.query.type.Bucket;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
 
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.mapping;
@@ -323,12 +326,18 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
     }
 
+    @Override
+    protected MetricsKey key0() {
+        return MetricsKey.of(getTimeBucket(), entityId);
+    }
+
     @Override
     public Class<? extends AvgPercentileFunctionBuilder> builder() {
         return AvgPercentileFunctionBuilder.class;
     }
 
-    public static class AvgPercentileFunctionBuilder implements StorageHashMapBuilder<AvgHistogramPercentileFunction> {
+    public static class AvgPercentileFunctionBuilder implements StorageHashMapBuilder<AvgHistogramPercentileFunction>,
+        StreamingStorageBuilder<AvgHistogramPercentileFunction> {
 
         @Override
         public AvgHistogramPercentileFunction storage2Entity(final Map<String, Object> dbMap) {
@@ -360,6 +369,17 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
             map.put(ENTITY_ID, storageData.getEntityId());
             return map;
         }
+
+        @Override
+        public void entity2Columns(final AvgHistogramPercentileFunction storageData, final ColumnWriter writer) {
+            writer.write(SUMMATION, storageData.getSummation());
+            writer.write(COUNT, storageData.getCount());
+            writer.write(DATASET, storageData.getDataset());
+            writer.write(RANKS, storageData.getRanks());
+            writer.write(VALUE, storageData.getPercentileValues());
+            writer.write(TIME_BUCKET, storageData.getTimeBucket());
+            writer.write(ENTITY_ID, storageData.getEntityId());
+        }
     }
 
     @Override
@@ -35,9 +35,12 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFuncti
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
 
 @MeterFunction(functionName = "avgLabeled")
 @ToString
@@ -155,6 +158,11 @@ public abstract class AvgLabeledFunction extends Meter implements AcceptableValu
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
     }
 
+    @Override
+    protected MetricsKey key0() {
+        return MetricsKey.of(getTimeBucket(), entityId);
+    }
+
     @Override
     public void accept(final MeterEntity entity, final DataTable value) {
         this.entityId = entity.id();
@@ -170,7 +178,8 @@ public abstract class AvgLabeledFunction extends Meter implements AcceptableValu
         return AvgLabeledStorageBuilder.class;
     }
 
-    public static class AvgLabeledStorageBuilder implements StorageHashMapBuilder<AvgLabeledFunction> {
+    public static class AvgLabeledStorageBuilder implements StorageHashMapBuilder<AvgLabeledFunction>,
+        StreamingStorageBuilder<AvgLabeledFunction> {
         @Override
         public AvgLabeledFunction storage2Entity(final Map<String, Object> dbMap) {
             AvgLabeledFunction metrics = new AvgLabeledFunction() {
@@ -199,6 +208,16 @@ public abstract class AvgLabeledFunction extends Meter implements AcceptableValu
             map.put(ENTITY_ID, storageData.getEntityId());
             return map;
         }
+
+        @Override
+        public void entity2Columns(final AvgLabeledFunction storageData, final ColumnWriter writer) {
+            writer.write(SUMMATION, storageData.getSummation());
+            writer.write(VALUE, storageData.getValue());
+            writer.write(COUNT, storageData.getCount());
+            writer.write(TIME_BUCKET, storageData.getTimeBucket());
+            writer.write(InstanceTraffic.SERVICE_ID, storageData.getServiceId());
+            writer.write(ENTITY_ID, storageData.getEntityId());
+        }
     }
 
     @Override
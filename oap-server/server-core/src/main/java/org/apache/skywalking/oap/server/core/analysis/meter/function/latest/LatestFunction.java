@@ -33,12 +33,15 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableV
 import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFunction;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Entrance;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.SourceFrom;
 import org.apache.skywalking.oap.server.core.query.sql.Function;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
 
 @MeterFunction(functionName = "latest")
 @ToString
@@ -134,12 +137,18 @@ public abstract class LatestFunction extends Meter implements AcceptableValue<Lo
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
     }
 
+    @Override
+    protected MetricsKey key0() {
+        return MetricsKey.of(getTimeBucket(), entityId);
+    }
+
     @Override
     public Class<? extends LastestStorageBuilder> builder() {
         return LatestFunction.LastestStorageBuilder.class;
     }
 
-    public static class LastestStorageBuilder implements StorageHashMapBuilder<LatestFunction> {
+    public static class LastestStorageBuilder implements StorageHashMapBuilder<LatestFunction>,
+        StreamingStorageBuilder<LatestFunction> {
         @Override
         public LatestFunction storage2Entity(final Map<String, Object> dbMap) {
             LatestFunction metrics = new LatestFunction() {
@@ -164,6 +173,14 @@ public abstract class LatestFunction extends Meter implements AcceptableValue<Lo
             map.put(ENTITY_ID, storageData.getEntityId());
             return map;
         }
+
+        @Override
+        public void entity2Columns(final LatestFunction storageData, final ColumnWriter writer) {
+            writer.write(VALUE, storageData.getValue());
+            writer.write(TIME_BUCKET, storageData.getTimeBucket());
+            writer.write(InstanceTraffic.SERVICE_ID, storageData.getServiceId());
+            writer.write(ENTITY_ID, storageData.getEntityId());
+        }
     }
 
     @Override
@@ -33,12 +33,15 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableV
 import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFunction;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Entrance;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.SourceFrom;
 import org.apache.skywalking.oap.server.core.query.sql.Function;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
 
 @ToString
 @MeterFunction(functionName = "sum")
@@ -128,6 +131,11 @@ public abstract class SumFunction extends Meter implements AcceptableValue<Long>
         return getTimeBucket() + Const.ID_CONNECTOR + getEntityId();
     }
 
+    @Override
+    protected MetricsKey key0() {
+        return MetricsKey.of(getTimeBucket(), getEntityId());
+    }
+
     @Override
     public void accept(final MeterEntity entity, final Long value) {
         setEntityId(entity.id());
@@ -140,7 +148,8 @@ public abstract class SumFunction extends Meter implements AcceptableValue<Long>
         return SumStorageBuilder.class;
     }
 
-    public static class SumStorageBuilder implements StorageHashMapBuilder<SumFunction> {
+    public static class SumStorageBuilder implements StorageHashMapBuilder<SumFunction>,
+        StreamingStorageBuilder<SumFunction> {
         @Override
         public SumFunction storage2Entity(final Map<String, Object> dbMap) {
             final SumFunction metrics = new SumFunction() {
@@ -165,6 +174,14 @@ public abstract class SumFunction extends Meter implements AcceptableValue<Long>
             map.put(ENTITY_ID, storageData.getEntityId());
             return map;
         }
+
+        @Override
+        public void entity2Columns(final SumFunction storageData, final ColumnWriter writer) {
+            writer.write(VALUE, storageData.getValue());
+            writer.write(TIME_BUCKET, storageData.getTimeBucket());
+            writer.write(InstanceTraffic.SERVICE_ID, storageData.getServiceId());
+            writer.write(ENTITY_ID, storageData.getEntityId());
+        }
     }
 
     @Override
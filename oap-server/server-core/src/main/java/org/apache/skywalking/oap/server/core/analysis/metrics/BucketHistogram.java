@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Arrays;
+import java.util.Base64;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * BucketHistogram is a mergeable histogram, counting the values by their buckets. The buckets and counts are kept in
+ * two sorted primitive arrays, so accumulating, merging and calculating the percentiles don't box, parse or sort
+ * anything, which is the replacement of {@link DataTable} for the percentile datasets.
+ * <p>
+ * It is stored in the text format of {@link DataTable}, `bucket,count|bucket,count`, which the OAP nodes of the older
+ * versions can read, during a rolling upgrade or after a rollback. Once {@link #setBinaryFormat(boolean)} is enabled,
+ * it is stored as {@link #BINARY_PREFIX} followed by the Base64 of the varint encoded buckets(delta) and counts. Both
+ * formats are always readable. {@link Long#MIN_VALUE} is the bucket without the minimal value, {@link
+ * Bucket#INFINITE_NEGATIVE} in the text format.
+ */
+public class BucketHistogram implements StorageDataComplexObject<BucketHistogram> {
+    /**
+     * Not any char of the {@link DataTable} text format or Base64.
+     */
+    public static final String BINARY_PREFIX = "#";
+
+    private static volatile boolean BINARY_FORMAT = false;
+
+    private long[] buckets;
+    private long[] counts;
+    private int size;
+
+    public BucketHistogram() {
+        this(16);
+    }
+
+    public BucketHistogram(int initialCapacity) {
+        buckets = new long[Math.max(initialCapacity, 1)];
+        counts = new long[buckets.length];
+    }
+
+    public BucketHistogram(String data) {
+        this();
+        toObject(data);
+    }
+
+    /**
+     * Store the histograms in the binary format. Only enable it when all OAP nodes read the binary format, as the older
+     * versions drop the histograms they can't parse.
+     */
+    public static void setBinaryFormat(boolean binaryFormat) {
+        BINARY_FORMAT = binaryFormat;
+    }
+
+    /**
+     * Increase the count of the bucket by 1.
+     */
+    public void increment(long bucket) {
+        add(bucket, 1L);
+    }
+
+    /**
+     * Increase the count of the bucket by the given count.
+     */
+    public void add(long bucket, long count) {
+        int index = Arrays.binarySearch(buckets, 0, size, bucket);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, bucket);
+        }
+        counts[index] += count;
+    }
+
+    /**
+     * @return the count of the bucket, 0 if the bucket doesn't exist.
+     */
+    public long get(long bucket) {
+        final int index = Arrays.binarySearch(buckets, 0, size, bucket);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    public boolean hasBucket(long bucket) {
+        return Arrays.binarySearch(buckets, 0, size, bucket) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean hasData() {
+        return size > 0;
+    }
+
+    /**
+     * @return the bucket at the index, in ascending order.
+     */
+    public long bucketAt(int index) {
+        return buckets[index];
+    }
+
+    public long countAt(int index) {
+        return counts[index];
+    }
+
+    /**
+     * @return the sum of all counts.
+     */
+    public long sumOfCounts() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    public boolean bucketsEqual(BucketHistogram that) {
+        if (this.size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (this.buckets[i] != that.buckets[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the buckets of the percentiles, i.e. the first bucket where the accumulated count reaches {@code total *
+     * rank / 100}.
+     *
+     * @param ranks   resolved in the given order, a rank is not checked until the previous one is resolved.
+     * @param results to hold the bucket of every rank, in the same order.
+     * @return the number of the ranks resolved, the later ranks are not reached if it is less than the ranks.
+     */
+    public int percentiles(int[] ranks, long[] results) {
+        final long total = sumOfCounts();
+        int resolved = 0;
+        long count = 0;
+        for (int i = 0; i < size && resolved < ranks.length; i++) {
+            count += counts[i];
+            while (resolved < ranks.length && count >= Math.round(total * ranks[resolved] * 1.0f / 100)) {
+                results[resolved++] = buckets[i];
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Merge the counts of the given histogram into this one, in one pass of the two sorted arrays.
+     */
+    public BucketHistogram merge(BucketHistogram that) {
+        if (that.size == 0) {
+            return this;
+        }
+        if (bucketsContain(that)) {
+            for (int i = 0, j = 0; j < that.size; i++) {
+                if (buckets[i] == that.buckets[j]) {
+                    counts[i] += that.counts[j++];
+                }
+            }
+            return this;
+        }
+
+        final long[] mergedBuckets = new long[size + that.size];
+        final long[] mergedCounts = new long[mergedBuckets.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size || j < that.size) {
+            if (j == that.size || (i < size && buckets[i] < that.buckets[j])) {
+                mergedBuckets[k] = buckets[i];
+                mergedCounts[k++] = counts[i++];
+            } else if (i == size || that.buckets[j] < buckets[i]) {
+                mergedBuckets[k] = that.buckets[j];
+                mergedCounts[k++] = that.counts[j++];
+            } else {
+                mergedBuckets[k] = buckets[i];
+                mergedCounts[k++] = counts[i++] + that.counts[j++];
+            }
+        }
+        buckets = mergedBuckets;
+        counts = mergedCounts;
+        size = k;
+        return this;
+    }
+
+    /**
+     * @return the {@link DataTable} of the same data, for the readers of the text format.
+     */
+    public DataTable toDataTable() {
+        final DataTable dataTable = new DataTable(size);
+        for (int i = 0; i < size; i++) {
+            dataTable.put(bucketName(buckets[i]), counts[i]);
+        }
+        return dataTable;
+    }
+
+    @Override
+    public String toStorageData() {
+        if (!BINARY_FORMAT) {
+            final StringBuilder builder = new StringBuilder(size * 8);
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    builder.append(Const.ARRAY_SPLIT);
+                }
+                builder.append(bucketName(buckets[i])).append(Const.KEY_VALUE_SPLIT).append(counts[i]);
+            }
+            return builder.toString();
+        }
+        final byte[] bytes = new byte[5 + size * 20];
+        int position = writeVarLong(bytes, 0, size);
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            // The deltas of the sorted buckets are positive except the first one, unsigned overflow is fine.
+            position = writeVarLong(bytes, position, buckets[i] - previous);
+            previous = buckets[i];
+        }
+        for (int i = 0; i < size; i++) {
+            position = writeVarLong(bytes, position, counts[i]);
+        }
+        return BINARY_PREFIX + Base64.getEncoder().encodeToString(Arrays.copyOf(bytes, position));
+    }
+
+    @Override
+    public void toObject(String data) {
+        size = 0;
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+        if (data.startsWith(BINARY_PREFIX)) {
+            fromBinary(Base64.getDecoder().decode(data.substring(BINARY_PREFIX.length())));
+            return;
+        }
+        for (String keyValue : data.split(Const.ARRAY_PARSER_SPLIT)) {
+            final String[] keyValuePair = keyValue.split(Const.KEY_VALUE_SPLIT);
+            if (keyValuePair.length == 2) {
+                final long bucket = Bucket.INFINITE_NEGATIVE.equals(keyValuePair[0])
+                    ? Long.MIN_VALUE : Long.parseLong(keyValuePair[0]);
+                add(bucket, Long.parseLong(keyValuePair[1]));
+            }
+        }
+    }
+
+    @Override
+    public void copyFrom(BucketHistogram source) {
+        this.merge(source);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BucketHistogram)) {
+            return false;
+        }
+        final BucketHistogram that = (BucketHistogram) o;
+        if (!bucketsEqual(that)) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (counts[i] != that.counts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Long.hashCode(buckets[i]);
+            result = 31 * result + Long.hashCode(counts[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("BucketHistogram{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(bucketName(buckets[i])).append('=').append(counts[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+    private boolean bucketsContain(BucketHistogram that) {
+        if (that.size > size) {
+            return false;
+        }
+        for (int i = 0, j = 0; j < that.size; i++) {
+            if (i == size || buckets[i] > that.buckets[j]) {
+                return false;
+            }
+            if (buckets[i] == that.buckets[j]) {
+                j++;
+            }
+        }
+        return true;
+    }
+
+    private void insert(int index, long bucket) {
+        if (size == buckets.length) {
+            buckets = Arrays.copyOf(buckets, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(buckets, index, buckets, index + 1, size - index);
+        System.arraycopy(counts, index, counts, index + 1, size - index);
+        buckets[index] = bucket;
+        counts[index] = 0;
+        size++;
+    }
+
+    private void fromBinary(byte[] bytes) {
+        final int[] position = {0};
+        final int length = (int) readVarLong(bytes, position);
+        buckets = new long[Math.max(length, 1)];
+        counts = new long[buckets.length];
+        long previous = 0;
+        for (int i = 0; i < length; i++) {
+            previous += readVarLong(bytes, position);
+            buckets[i] = previous;
+        }
+        for (int i = 0; i < length; i++) {
+            counts[i] = readVarLong(bytes, position);
+        }
+        size = length;
+    }
+
+    private static String bucketName(long bucket) {
+        return bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
+    }
+
+    private static int writeVarLong(byte[] bytes, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            final byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -153,4 +153,25 @@ public abstract class Metrics extends StreamData implements StorageData, HavingD
     }
 
     protected abstract String id0();
+
+    private volatile MetricsKey key;
+
+    /**
+     * @return the in-memory identity of this metrics, used to merge the metrics with the same ID and time bucket. The
+     * String {@link #id()} is not built for this.
+     */
+    public MetricsKey key() {
+        if (key == null) {
+            key = key0();
+        }
+        return key;
+    }
+
+    /**
+     * The OAL and MAL metrics hash their ID fields directly. The default implementation hashes the {@link #id()}, as the
+     * ID of the other metrics, such as the traffic ones, may not include the time bucket.
+     */
+    protected MetricsKey key0() {
+        return MetricsKey.of(0, id());
+    }
 }
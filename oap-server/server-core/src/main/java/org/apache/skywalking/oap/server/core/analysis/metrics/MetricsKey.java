@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import lombok.Getter;
+
+/**
+ * MetricsKey is the in-memory identity of {@link Metrics}, including the time bucket and a 128-bit hash of the entity
+ * ID fields. It is the key of the merge maps in the aggregation and persistence workers, which is cheaper to build,
+ * hash and compare than the String {@link Metrics#id()}. The String ID is still built, lazily, when the storage needs
+ * it.
+ * <p>
+ * Two metrics with the same key are treated as the same one, so the hash is wide enough to make the collision
+ * practically impossible.
+ */
+@Getter
+public final class MetricsKey {
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+    /**
+     * Mixed in between the fields, to make `("a", "bc")` and `("ab", "c")` different.
+     */
+    private static final int FIELD_SEPARATOR = 0x10000;
+    /**
+     * Mixed in for a null String field, which is out of the char range.
+     */
+    private static final int NULL_VALUE = 0x10001;
+
+    private final long timeBucket;
+    private final long high;
+    private final long low;
+
+    private MetricsKey(final long timeBucket, final long high, final long low) {
+        this.timeBucket = timeBucket;
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * @return the key of the metrics which has only one ID field, such as the `entity_id`.
+     */
+    public static MetricsKey of(final long timeBucket, final String entityId) {
+        return newBuilder(timeBucket).append(entityId).build();
+    }
+
+    public static Builder newBuilder(final long timeBucket) {
+        return new Builder(timeBucket);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricsKey)) {
+            return false;
+        }
+        final MetricsKey key = (MetricsKey) o;
+        return low == key.low && high == key.high && timeBucket == key.timeBucket;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32)) * 31 + (int) timeBucket;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsKey{" + timeBucket + ", " + Long.toHexString(high) + Long.toHexString(low) + '}';
+    }
+
+    /**
+     * Hash the ID fields in order. Nothing is allocated except the builder itself.
+     */
+    public static final class Builder {
+        private final long timeBucket;
+        private long high = SEED_HIGH;
+        private long low = SEED_LOW;
+        private long length;
+
+        private Builder(final long timeBucket) {
+            this.timeBucket = timeBucket;
+        }
+
+        public Builder append(final String value) {
+            if (value == null) {
+                mix(NULL_VALUE);
+            } else {
+                for (int i = 0; i < value.length(); i++) {
+                    mix(value.charAt(i));
+                }
+            }
+            mix(FIELD_SEPARATOR);
+            return this;
+        }
+
+        public Builder append(final long value) {
+            mix((int) (value >>> 32));
+            mix((int) value);
+            mix(FIELD_SEPARATOR);
+            return this;
+        }
+
+        public Builder append(final int value) {
+            return append((long) value);
+        }
+
+        public MetricsKey build() {
+            long h = high ^ length;
+            long l = low ^ length;
+            h += l;
+            l += h;
+            h = fmix64(h);
+            l = fmix64(l);
+            h += l;
+            l += h;
+            return new MetricsKey(timeBucket, h, l);
+        }
+
+        private void mix(final int value) {
+            low = (low ^ value) * FNV_PRIME;
+            high = Long.rotateLeft(high ^ (value * C1), 31) * C2;
+            length++;
+        }
+
+        /**
+         * The finalization mix of MurmurHash3.
+         */
+        private static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xFF51AFD7ED558CCDL;
+            k ^= k >>> 33;
+            k *= 0xC4CEB9FE1A85EC53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
@@ -19,7 +19,6 @@
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
 import java.util.Comparator;
-import java.util.List;
 import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
@@ -58,13 +57,13 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
     @Getter
     @Setter
     @Column(columnName = DATASET, storageOnly = true)
-    private DataTable dataset;
+    private BucketHistogram dataset;
 
     private boolean isCalculated;
 
     public PercentileMetrics() {
         percentileValues = new DataTable(RANKS.length);
-        dataset = new DataTable(30);
+        dataset = new BucketHistogram(30);
     }
 
     @Entrance
@@ -72,8 +71,7 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
         this.isCalculated = false;
         this.precision = precision;
 
-        String index = String.valueOf(value / precision);
-        dataset.valueAccumulation(index, 1L);
+        dataset.increment(value / precision);
     }
 
     @Override
@@ -81,38 +79,17 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
         this.isCalculated = false;
 
         PercentileMetrics percentileMetrics = (PercentileMetrics) metrics;
-        this.dataset.append(percentileMetrics.dataset);
+        this.dataset.merge(percentileMetrics.dataset);
         return true;
     }
 
     @Override
     public final void calculate() {
         if (!isCalculated) {
-            long total = dataset.sumOfValues();
-
-            int[] roofs = new int[RANKS.length];
-            for (int i = 0; i < RANKS.length; i++) {
-                roofs[i] = Math.round(total * RANKS[i] * 1.0f / 100);
-            }
-
-            int count = 0;
-            final List<String> sortedKeys = dataset.sortedKeys(Comparator.comparingInt(Integer::parseInt));
-
-            int loopIndex = 0;
-            for (String key : sortedKeys) {
-                final Long value = dataset.get(key);
-
-                count += value;
-                for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
-                    int roof = roofs[rankIdx];
-
-                    if (count >= roof) {
-                        percentileValues.put(String.valueOf(rankIdx), Long.parseLong(key) * precision);
-                        loopIndex++;
-                    } else {
-                        break;
-                    }
-                }
+            final long[] results = new long[RANKS.length];
+            final int resolved = dataset.percentiles(RANKS, results);
+            for (int rankIdx = 0; rankIdx < resolved; rankIdx++) {
+                percentileValues.put(String.valueOf(rankIdx), results[rankIdx] * precision);
             }
         }
     }
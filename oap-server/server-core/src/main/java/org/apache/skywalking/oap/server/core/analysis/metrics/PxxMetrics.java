@@ -18,8 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
-import java.util.Comparator;
-import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Arg;
@@ -52,14 +50,14 @@ public abstract class PxxMetrics extends Metrics implements IntValueHolder {
     @Getter
     @Setter
     @Column(columnName = DETAIL_GROUP, storageOnly = true)
-    private DataTable detailGroup;
+    private BucketHistogram detailGroup;
 
-    private final int percentileRank;
+    private final int[] percentileRank;
     private boolean isCalculated;
 
     public PxxMetrics(int percentileRank) {
-        this.percentileRank = percentileRank;
-        detailGroup = new DataTable(30);
+        this.percentileRank = new int[] {percentileRank};
+        detailGroup = new BucketHistogram(30);
     }
 
     @Entrance
@@ -67,14 +65,7 @@ public abstract class PxxMetrics extends Metrics implements IntValueHolder {
         this.isCalculated = false;
         this.precision = precision;
 
-        String index = String.valueOf(value / precision);
-        Long element = detailGroup.get(index);
-        if (element == null) {
-            element = 1L;
-        } else {
-            element++;
-        }
-        detailGroup.put(index, element);
+        detailGroup.increment(value / precision);
     }
 
     @Override
@@ -82,7 +73,7 @@ public abstract class PxxMetrics extends Metrics implements IntValueHolder {
         this.isCalculated = false;
 
         PxxMetrics pxxMetrics = (PxxMetrics) metrics;
-        this.detailGroup.append(pxxMetrics.detailGroup);
+        this.detailGroup.merge(pxxMetrics.detailGroup);
         return true;
     }
 
@@ -90,19 +81,9 @@ public abstract class PxxMetrics extends Metrics implements IntValueHolder {
     public final void calculate() {
 
         if (!isCalculated) {
-            long total = detailGroup.sumOfValues();
-            int roof = Math.round(total * percentileRank * 1.0f / 100);
-
-            long count = 0;
-            final List<String> sortedKeys = detailGroup.sortedKeys(Comparator.comparingInt(Integer::parseInt));
-
-            for (String index : sortedKeys) {
-                final Long value = detailGroup.get(index);
-                count += value;
-                if (count >= roof) {
-                    this.value = Integer.parseInt(index) * precision;
-                    return;
-                }
+            final long[] result = new long[1];
+            if (detailGroup.percentiles(percentileRank, result) > 0) {
+                this.value = (int) result[0] * precision;
             }
         }
     }
@@ -19,19 +19,24 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
 import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
@@ -56,12 +61,22 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
      * The counter of MetricsPersistentWorker instance, to calculate session timeout offset.
      */
     private static long SESSION_TIMEOUT_OFFSITE_COUNTER = 0;
+    /**
+     * A round is prepared in parallel chunks, only when it has more than this number of chunks.
+     */
+    private static final int PARALLEL_CHUNKS = 2;
+    /**
+     * The stripes of the cache. The L2 aggregation threads write into their own stripes, rather than contend one lock.
+     */
+    private static final int WRITE_STRIPES = 4;
 
+    @Getter
     private final Model model;
-    private final Map<Metrics, Metrics> context;
+    private final Map<MetricsKey, Metrics> context;
     private final IMetricsDAO metricsDAO;
     private final Optional<AbstractWorker<Metrics>> nextAlarmWorker;
     private final Optional<AbstractWorker<ExportEvent>> nextExportWorker;
+    private final Optional<AbstractWorker<Metrics>> nextTopologyWorker;
     private final DataCarrier<Metrics> dataCarrier;
     private final Optional<MetricsTransWorker> transWorker;
     private final boolean enableDatabaseSession;
@@ -91,15 +106,17 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
 
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
                             AbstractWorker<Metrics> nextAlarmWorker, AbstractWorker<ExportEvent> nextExportWorker,
-                            MetricsTransWorker transWorker, boolean enableDatabaseSession, boolean supportUpdate,
+                            AbstractWorker<Metrics> nextTopologyWorker, MetricsTransWorker transWorker,
+                            boolean enableDatabaseSession, boolean supportUpdate,
                             long storageSessionTimeout, int metricsDataTTL) {
-        super(moduleDefineHolder, new ReadWriteSafeCache<>(new MergableBufferedData(), new MergableBufferedData()));
+        super(moduleDefineHolder, new ReadWriteSafeCache<>(MergableBufferedData::new, WRITE_STRIPES));
         this.model = model;
-        this.context = new HashMap<>(100);
+        this.context = new ConcurrentHashMap<>(100);
         this.enableDatabaseSession = enableDatabaseSession;
         this.metricsDAO = metricsDAO;
         this.nextAlarmWorker = Optional.ofNullable(nextAlarmWorker);
         this.nextExportWorker = Optional.ofNullable(nextExportWorker);
+        this.nextTopologyWorker = Optional.ofNullable(nextTopologyWorker);
         this.transWorker = Optional.ofNullable(transWorker);
         this.supportUpdate = supportUpdate;
         this.sessionTimeout = storageSessionTimeout;
@@ -150,7 +167,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
                             long storageSessionTimeout,
                             int metricsDataTTL) {
         this(moduleDefineHolder, model, metricsDAO,
-             null, null, null,
+             null, null, null, null,
              enableDatabaseSession, supportUpdate, storageSessionTimeout, metricsDataTTL
         );
 
@@ -182,7 +199,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
             return Collections.emptyList();
         }
 
-        final List<Metrics> lastCollection = getCache().read();
+        final Collection<Metrics> lastCollection = getCache().readView();
 
         long start = System.currentTimeMillis();
         if (lastCollection.size() == 0) {
@@ -194,9 +211,46 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
          */
         int maxBatchGetSize = 2000;
         final int batchSize = Math.min(maxBatchGetSize, lastCollection.size());
+        final Executor chunkExecutor = getChunkExecutor();
+        final List<PrepareRequest> prepareRequests;
+        /*
+         * Prepare the chunks of a large round in parallel. The context is shared by the chunks, which is only safe
+         * when the session is enabled, otherwise every chunk clears the context.
+         */
+        if (enableDatabaseSession && chunkExecutor != null && lastCollection.size() > batchSize * PARALLEL_CHUNKS) {
+            final List<CompletableFuture<List<PrepareRequest>>> chunks = new ArrayList<>();
+            List<Metrics> chunk = new ArrayList<>(batchSize);
+            for (Metrics data : lastCollection) {
+                chunk.add(data);
+                if (chunk.size() == batchSize) {
+                    final List<Metrics> fullChunk = chunk;
+                    chunks.add(CompletableFuture.supplyAsync(() -> prepareChunk(fullChunk, batchSize), chunkExecutor));
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                final List<Metrics> lastChunk = chunk;
+                chunks.add(CompletableFuture.supplyAsync(() -> prepareChunk(lastChunk, batchSize), chunkExecutor));
+            }
+            prepareRequests = new ArrayList<>(lastCollection.size());
+            chunks.forEach(future -> prepareRequests.addAll(future.join()));
+        } else {
+            prepareRequests = prepareChunk(lastCollection, batchSize);
+        }
+
+        if (prepareRequests.size() > 0) {
+            log.debug(
+                "prepare batch requests for model {}, took time: {}, size: {}", model.getName(),
+                System.currentTimeMillis() - start, prepareRequests.size()
+            );
+        }
+        return prepareRequests;
+    }
+
+    private List<PrepareRequest> prepareChunk(Collection<Metrics> chunk, int batchSize) {
         List<Metrics> metricsList = new ArrayList<>();
-        List<PrepareRequest> prepareRequests = new ArrayList<>(lastCollection.size());
-        for (Metrics data : lastCollection) {
+        List<PrepareRequest> prepareRequests = new ArrayList<>(chunk.size());
+        for (Metrics data : chunk) {
             transWorker.ifPresent(metricsTransWorker -> metricsTransWorker.in(data));
 
             metricsList.add(data);
@@ -209,13 +263,6 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         if (metricsList.size() > 0) {
             flushDataToStorage(metricsList, prepareRequests);
         }
-
-        if (prepareRequests.size() > 0) {
-            log.debug(
-                "prepare batch requests for model {}, took time: {}, size: {}", model.getName(),
-                System.currentTimeMillis() - start, prepareRequests.size()
-            );
-        }
         return prepareRequests;
     }
 
@@ -226,7 +273,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
 
             long timestamp = System.currentTimeMillis();
             for (Metrics metrics : metricsList) {
-                Metrics cachedMetrics = context.get(metrics);
+                Metrics cachedMetrics = context.get(metrics.key());
                 if (cachedMetrics != null) {
                     /*
                      * If the metrics is not supportUpdate, defined through MetricsExtension#supportUpdate,
@@ -278,6 +325,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
 
     private void nextWorker(Metrics metrics) {
         nextAlarmWorker.ifPresent(nextAlarmWorker -> nextAlarmWorker.in(metrics));
+        nextTopologyWorker.ifPresent(nextTopologyWorker -> nextTopologyWorker.in(metrics));
         nextExportWorker.ifPresent(
             nextExportWorker -> nextExportWorker.in(new ExportEvent(metrics, ExportEvent.EventType.TOTAL)));
     }
@@ -291,7 +339,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
             List<Metrics> notInCacheMetrics =
                 metrics.stream()
                        .filter(m -> {
-                           final Metrics cachedValue = context.get(m);
+                           final Metrics cachedValue = context.get(m.key());
                            // Not cached or session disabled, the metric could be tagged `not in cache`.
                            if (cachedValue == null || !enableDatabaseSession) {
                                return true;
@@ -306,7 +354,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
 
                                if (metricsDAO.isExpiredCache(model, cachedValue, currentTimeMillis, metricsDataTTL)) {
                                    // The expired metrics should be removed from the context and tagged `not in cache` directly.
-                                   context.remove(m);
+                                   context.remove(m.key());
                                    return true;
                                }
                            }
@@ -323,7 +371,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
                 // Clear the cache only after results from DB are returned successfully.
                 context.clear();
             }
-            dbMetrics.forEach(m -> context.put(m, m));
+            dbMetrics.forEach(m -> context.put(m.key(), m));
         } catch (final Exception e) {
             log.error("Failed to load metrics for merging", e);
         }
@@ -347,7 +395,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
     /**
      * Metrics queue processor, merge the received metrics if existing one with same ID(s) and time bucket.
      *
-     * ID is declared through {@link Object#hashCode()} and {@link Object#equals(Object)} as usual.
+     * ID is declared through {@link Metrics#key()}.
      */
     private class PersistentConsumer implements IConsumer<Metrics> {
         @Override
@@ -33,17 +33,19 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 public class MetricsRemoteWorker extends AbstractWorker<Metrics> {
     private final RemoteSenderService remoteSender;
     private final String remoteReceiverWorkerName;
+    private final Selector selector;
 
-    MetricsRemoteWorker(ModuleDefineHolder moduleDefineHolder, String remoteReceiverWorkerName) {
+    MetricsRemoteWorker(ModuleDefineHolder moduleDefineHolder, String remoteReceiverWorkerName, Selector selector) {
         super(moduleDefineHolder);
         this.remoteSender = moduleDefineHolder.find(CoreModule.NAME).provider().getService(RemoteSenderService.class);
         this.remoteReceiverWorkerName = remoteReceiverWorkerName;
+        this.selector = selector;
     }
 
     @Override
     public final void in(Metrics metrics) {
         try {
-            remoteSender.send(remoteReceiverWorkerName, metrics, Selector.HashCode);
+            remoteSender.send(remoteReceiverWorkerName, metrics, selector);
         } catch (Throwable e) {
             log.error(e.getMessage(), e);
         }
@@ -34,6 +34,7 @@ import org.apache.skywalking.oap.server.core.analysis.StreamDefinition;
 import org.apache.skywalking.oap.server.core.analysis.StreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.config.DownSamplingConfigService;
+import org.apache.skywalking.oap.server.core.query.TopologyIndex;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilderFactory;
 import org.apache.skywalking.oap.server.core.storage.StorageDAO;
@@ -92,6 +93,11 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
      */
     @Setter
     private int metricsDataTTL = 3;
+    /**
+     * Hold and forward the topology index to the persistent workers of the relation metrics. Null if it is disabled.
+     */
+    @Setter
+    private TopologyIndex topologyIndex;
 
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
@@ -184,7 +190,7 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
             false
         );
         MetricsPersistentWorker minutePersistentWorker = minutePersistentWorker(
-            moduleDefineHolder, metricsDAO, model, transWorker, supportUpdate);
+            moduleDefineHolder, metricsDAO, model, transWorker, supportUpdate, metricsClass);
 
         String remoteReceiverWorkerName = stream.getName() + "_rec";
         IWorkerInstanceSetter workerInstanceSetter = moduleDefineHolder.find(CoreModule.NAME)
@@ -192,7 +198,8 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
                                                                        .getService(IWorkerInstanceSetter.class);
         workerInstanceSetter.put(remoteReceiverWorkerName, minutePersistentWorker, metricsClass);
 
-        MetricsRemoteWorker remoteWorker = new MetricsRemoteWorker(moduleDefineHolder, remoteReceiverWorkerName);
+        MetricsRemoteWorker remoteWorker = new MetricsRemoteWorker(
+            moduleDefineHolder, remoteReceiverWorkerName, stream.getRemoteSelector());
         MetricsAggregateWorker aggregateWorker = new MetricsAggregateWorker(
             moduleDefineHolder, remoteWorker, stream.getName(), l1FlushPeriod);
 
@@ -203,12 +210,25 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
                                                            IMetricsDAO metricsDAO,
                                                            Model model,
                                                            MetricsTransWorker transWorker,
-                                                           boolean supportUpdate) {
+                                                           boolean supportUpdate,
+                                                           Class<? extends Metrics> metricsClass) {
         AlarmNotifyWorker alarmNotifyWorker = new AlarmNotifyWorker(moduleDefineHolder);
         ExportWorker exportWorker = new ExportWorker(moduleDefineHolder);
+        TopologyIndexRemoteWorker topologyIndexRemoteWorker = null;
+        if (topologyIndex != null && TopologyIndex.isIndexed(metricsClass)) {
+            // The relations are persisted by the nodes their entity IDs are routed to, every node indexes them all.
+            String topologyIndexWorkerName = model.getName() + "_topology_index";
+            moduleDefineHolder.find(CoreModule.NAME)
+                              .provider()
+                              .getService(IWorkerInstanceSetter.class)
+                              .put(topologyIndexWorkerName, new TopologyIndexWorker(moduleDefineHolder, topologyIndex),
+                                   metricsClass
+                              );
+            topologyIndexRemoteWorker = new TopologyIndexRemoteWorker(moduleDefineHolder, topologyIndexWorkerName);
+        }
 
         MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(
-            moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker,
+            moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, topologyIndexRemoteWorker, transWorker,
             enableDatabaseSession, supportUpdate, storageSessionTimeout, metricsDataTTL
         );
         persistentWorkers.add(minutePersistentWorker);
@@ -19,11 +19,14 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
@@ -38,6 +41,13 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 public abstract class PersistenceWorker<INPUT extends StorageData> extends AbstractWorker<INPUT> {
     @Getter(AccessLevel.PROTECTED)
     private final ReadWriteSafeCache<INPUT> cache;
+    /**
+     * Set by the {@link org.apache.skywalking.oap.server.core.storage.PersistenceTimer}, to prepare the chunks of a
+     * large round in parallel. Null means preparing in the caller thread only.
+     */
+    @Getter(AccessLevel.PROTECTED)
+    @Setter
+    private volatile Executor chunkExecutor;
 
     PersistenceWorker(ModuleDefineHolder moduleDefineHolder, ReadWriteSafeCache<INPUT> cache) {
         super(moduleDefineHolder);
@@ -62,4 +72,9 @@ public abstract class PersistenceWorker<INPUT extends StorageData> extends Abstr
      * implementations.
      */
     public abstract List<PrepareRequest> buildBatchRequests();
+
+    /**
+     * @return the model persisted by this worker.
+     */
+    public abstract Model getModel();
 }
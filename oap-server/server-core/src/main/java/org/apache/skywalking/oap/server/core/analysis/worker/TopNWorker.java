@@ -19,9 +19,11 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
@@ -39,6 +41,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 @Slf4j
 public class TopNWorker extends PersistenceWorker<TopN> {
     private final IRecordDAO recordDAO;
+    @Getter
     private final Model model;
     private final DataCarrier<TopN> dataCarrier;
     private long reportPeriod;
@@ -71,7 +74,7 @@ public class TopNWorker extends PersistenceWorker<TopN> {
         }
         lastReportTimestamp = now;
 
-        final List<TopN> lastCollection = getCache().read();
+        final Collection<TopN> lastCollection = getCache().readView();
 
         List<PrepareRequest> prepareRequests = new ArrayList<>(lastCollection.size());
         lastCollection.forEach(record -> {
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.query.type.Endpoint;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * The read-through cache of the metadata queries. The results are cached by the query and its arguments for the TTL,
+ * and the concurrent lookups of the same missing key share one storage query. The size is the number of the cached
+ * rows, rather than the queries.
+ *
+ * The cached results are shared by the callers, so the loaders should return the unmodifiable collections.
+ */
+public class MetadataQueryCache {
+    private final ModuleDefineHolder moduleDefineHolder;
+    private final int endpointIndexSize;
+    private final Cache<List<Object>, Object> cache;
+    private final Map<String, CounterMetrics> hitCounters = new ConcurrentHashMap<>();
+    private final Map<String, CounterMetrics> missCounters = new ConcurrentHashMap<>();
+    private MetricsCreator metricsCreator;
+
+    /**
+     * @param ttl               the time to live of the results in seconds, 0 means no cache.
+     * @param maxSize           the max number of the cached rows.
+     * @param endpointIndexSize index the endpoints of the services having no more endpoints than it, 0 means no
+     *                          index.
+     */
+    public MetadataQueryCache(ModuleDefineHolder moduleDefineHolder, int ttl, long maxSize, int endpointIndexSize) {
+        this.moduleDefineHolder = moduleDefineHolder;
+        this.endpointIndexSize = endpointIndexSize;
+        if (ttl > 0) {
+            cache = CacheBuilder.newBuilder()
+                                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                                .maximumWeight(maxSize)
+                                .weigher((List<Object> key, Object value) -> {
+                                    if (value instanceof Collection) {
+                                        return Math.max(1, ((Collection<?>) value).size());
+                                    }
+                                    return 1;
+                                })
+                                .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    /**
+     * @param query the name of the query, which is the first part of the key.
+     * @param args  the arguments of the query, which are the rest parts of the key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, Loader<T> loader, Object... args) throws IOException {
+        if (cache == null) {
+            return loader.load();
+        }
+        final Object[] key = new Object[args.length + 1];
+        key[0] = query;
+        System.arraycopy(args, 0, key, 1, args.length);
+        final List<Object> cacheKey = Arrays.asList(key);
+
+        T value = (T) cache.getIfPresent(cacheKey);
+        if (value != null) {
+            counter(hitCounters, "metadata_query_cache_hit_count", "The hits of the metadata query cache", query).inc();
+            return value;
+        }
+        counter(missCounters, "metadata_query_cache_miss_count", "The misses of the metadata query cache", query).inc();
+        try {
+            return (T) cache.get(cacheKey, loader::load);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Find the endpoints in the index of the service, which is all the endpoints of the service, when the service has
+     * no more endpoints than the index size. The keyword matches the endpoint names containing it, as the LIKE
+     * condition of the JDBC storages.
+     *
+     * @param indexLoader loads all the endpoints of the service, by the given limit.
+     * @param loader      loads the endpoints from the storage, when the service can't be indexed.
+     */
+    public List<Endpoint> findEndpoint(String keyword, String serviceId, int limit,
+                                       EndpointIndexLoader indexLoader,
+                                       Loader<List<Endpoint>> loader) throws IOException {
+        if (cache != null && endpointIndexSize > 0) {
+            // Load one more than the index size, to know whether the endpoints are all loaded.
+            final List<Endpoint> index = get(
+                "findEndpointIndex", () -> indexLoader.load(endpointIndexSize + 1), serviceId);
+            if (index.size() <= endpointIndexSize) {
+                return index.stream()
+                            .filter(endpoint -> keyword == null || endpoint.getName().contains(keyword))
+                            .limit(limit)
+                            .collect(Collectors.toList());
+            }
+        }
+        return get("findEndpoint", loader, keyword, serviceId, limit);
+    }
+
+    private CounterMetrics counter(Map<String, CounterMetrics> counters, String name, String help, String query) {
+        CounterMetrics counter = counters.get(query);
+        if (counter != null) {
+            return counter;
+        }
+        if (Objects.isNull(metricsCreator)) {
+            metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                               .provider()
+                                               .getService(MetricsCreator.class);
+        }
+        return counters.computeIfAbsent(query, key -> metricsCreator.createCounter(
+            name, help, new MetricsTag.Keys("query"), new MetricsTag.Values(query)));
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface EndpointIndexLoader {
+        List<Endpoint> load(int limit) throws IOException;
+    }
+}
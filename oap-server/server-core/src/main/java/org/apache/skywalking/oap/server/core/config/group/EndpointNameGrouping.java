@@ -18,19 +18,52 @@
 
 package org.apache.skywalking.oap.server.core.config.group;
 
-import lombok.Setter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.library.util.StringFormatGroup;
 import org.apache.skywalking.oap.server.core.config.group.openapi.EndpointGroupingRule4Openapi;
 
 @Slf4j
 public class EndpointNameGrouping {
-    @Setter
+    /**
+     * The max number of recently formatted endpoint names to keep. The same endpoint names keep coming from the
+     * agents, so most formats are served from the cache without matching the rules.
+     */
+    private static final int MAX_CACHED_NAMES = 10_000;
+
     private volatile EndpointGroupingRule endpointGroupingRule;
-    @Setter
     private volatile EndpointGroupingRule4Openapi endpointGroupingRule4Openapi;
+    /**
+     * Replaced whenever the rules change. It is read before the rules in {@link #format(String, String)}, so a name
+     * formatted by the stale rules can only end up in the dropped cache.
+     */
+    private volatile Cache<ServiceEndpoint, String> formattedNames = newCache();
+
+    public void setEndpointGroupingRule(final EndpointGroupingRule endpointGroupingRule) {
+        this.endpointGroupingRule = endpointGroupingRule;
+        this.formattedNames = newCache();
+    }
+
+    public void setEndpointGroupingRule4Openapi(final EndpointGroupingRule4Openapi endpointGroupingRule4Openapi) {
+        this.endpointGroupingRule4Openapi = endpointGroupingRule4Openapi;
+        this.formattedNames = newCache();
+    }
 
     public String format(String serviceName, String endpointName) {
+        final Cache<ServiceEndpoint, String> cache = formattedNames;
+        final ServiceEndpoint key = new ServiceEndpoint(serviceName, endpointName);
+        String formattedName = cache.getIfPresent(key);
+        if (formattedName == null) {
+            formattedName = formatByRules(serviceName, endpointName);
+            cache.put(key, formattedName);
+        }
+        return formattedName;
+    }
+
+    private String formatByRules(String serviceName, String endpointName) {
         String formattedName = endpointName;
         if (endpointGroupingRule4Openapi != null) {
             formattedName = formatByOpenapi(serviceName, formattedName);
@@ -71,4 +104,15 @@ public class EndpointNameGrouping {
         }
         return formatResult.getName();
     }
+
+    private static Cache<ServiceEndpoint, String> newCache() {
+        return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_NAMES).build();
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class ServiceEndpoint {
+        private final String serviceName;
+        private final String endpointName;
+    }
 }
@@ -74,15 +74,17 @@ public class EndpointGroupingRule4Openapi {
         }
     }
 
+    /**
+     * The first two segments of the given string, same as joining the first two elements of {@code
+     * string.split("/")}, without splitting the whole string.
+     */
     String getGroupedRulesKey(String string) {
-        String[] ss = string.split("/");
-        if (ss.length == 1) {   //eg. POST:/
-            return ss[0] + "/";
+        final int first = string.indexOf('/');
+        if (first < 0) {   //eg. POST:
+            return string + "/";
         }
-        if (ss.length > 1) {
-            return ss[0] + "/" + ss[1];
-        }
-        return "/";
+        final int second = string.indexOf('/', first + 1);
+        return second < 0 ? string : string.substring(0, second);
     }
 
     static class EndpointGroupingRulesComparator implements Comparator<StringFormatGroup.PatternRule> {
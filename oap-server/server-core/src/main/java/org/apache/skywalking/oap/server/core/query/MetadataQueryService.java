@@ -20,11 +20,13 @@ package org.apache.skywalking.oap.server.core.query;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.cache.MetadataQueryCache;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
 import org.apache.skywalking.oap.server.core.query.type.Endpoint;
 import org.apache.skywalking.oap.server.core.query.type.EndpointInfo;
@@ -37,10 +39,16 @@ import org.apache.skywalking.oap.server.library.module.ModuleManager;
 public class MetadataQueryService implements org.apache.skywalking.oap.server.library.module.Service {
 
     private final ModuleManager moduleManager;
+    private final MetadataQueryCache cache;
     private IMetadataQueryDAO metadataQueryDAO;
 
     public MetadataQueryService(ModuleManager moduleManager) {
+        this(moduleManager, new MetadataQueryCache(moduleManager, 0, 0, 0));
+    }
+
+    public MetadataQueryService(ModuleManager moduleManager, MetadataQueryCache cache) {
         this.moduleManager = moduleManager;
+        this.cache = cache;
     }
 
     private IMetadataQueryDAO getMetadataQueryDAO() {
@@ -51,20 +59,24 @@ public class MetadataQueryService implements org.apache.skywalking.oap.server.li
     }
 
     public Set<String> listLayers() throws IOException {
-        Set<String> layers = new HashSet<>();
-        getMetadataQueryDAO().listServices(null, null).forEach(service -> {
-            layers.addAll(service.getLayers());
+        return cache.get("listLayers", () -> {
+            Set<String> layers = new HashSet<>();
+            getMetadataQueryDAO().listServices(null, null).forEach(service -> {
+                layers.addAll(service.getLayers());
 
+            });
+            return Collections.unmodifiableSet(layers);
         });
-        return layers;
     }
 
     public List<Service> listServices(final String layer, final String group) throws IOException {
-        return this.combineServices(getMetadataQueryDAO().listServices(layer, group));
+        return cache.get(
+            "listServices", () -> this.combineServices(getMetadataQueryDAO().listServices(layer, group)), layer, group);
     }
 
     public Service getService(final String serviceId) throws IOException {
-        final List<Service> services = this.combineServices(getMetadataQueryDAO().getServices(serviceId));
+        final List<Service> services = cache.get(
+            "getService", () -> this.combineServices(getMetadataQueryDAO().getServices(serviceId)), serviceId);
         return services.size() > 0 ? services.get(0) : null;
     }
 
@@ -74,14 +86,26 @@ public class MetadataQueryService implements org.apache.skywalking.oap.server.li
 
     public List<ServiceInstance> listInstances(final long startTimestamp, final long endTimestamp,
                                                      final String serviceId) throws IOException {
-        return getMetadataQueryDAO().listInstances(startTimestamp, endTimestamp, serviceId)
-                                    .stream().distinct().collect(Collectors.toList());
+        return cache.get(
+            "listInstances",
+            () -> Collections.unmodifiableList(
+                getMetadataQueryDAO().listInstances(startTimestamp, endTimestamp, serviceId)
+                                     .stream().distinct().collect(Collectors.toList())),
+            startTimestamp, endTimestamp, serviceId
+        );
     }
 
     public List<Endpoint> findEndpoint(final String keyword, final String serviceId,
                                        final int limit) throws IOException {
-        return getMetadataQueryDAO().findEndpoint(keyword, serviceId, limit)
-                                    .stream().distinct().collect(Collectors.toList());
+        return cache.findEndpoint(
+            keyword, serviceId, limit,
+            indexLimit -> Collections.unmodifiableList(
+                getMetadataQueryDAO().findEndpoint(null, serviceId, indexLimit)
+                                     .stream().distinct().collect(Collectors.toList())),
+            () -> Collections.unmodifiableList(
+                getMetadataQueryDAO().findEndpoint(keyword, serviceId, limit)
+                                     .stream().distinct().collect(Collectors.toList()))
+        );
     }
 
     public EndpointInfo getEndpointInfo(final String endpointId) throws IOException {
@@ -99,7 +123,7 @@ public class MetadataQueryService implements org.apache.skywalking.oap.server.li
     }
 
     private List<Service> combineServices(List<Service> services) {
-        return new ArrayList<>(services.stream()
+        return Collections.unmodifiableList(new ArrayList<>(services.stream()
                                        .peek(service -> {
                                            if (service.getGroup() == null) {
                                                service.setGroup(Const.EMPTY_STRING);
@@ -110,6 +134,6 @@ public class MetadataQueryService implements org.apache.skywalking.oap.server.li
                                                                      s1.getLayers().addAll(s2.getLayers());
                                                                      return s1;
                                                                  }
-                                       )).values());
+                                       )).values()));
     }
 }
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import lombok.EqualsAndHashCode;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.instance.ServiceInstanceRelationClientSideMetrics;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.instance.ServiceInstanceRelationServerSideMetrics;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationClientSideMetrics;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationServerSideMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.query.type.Call;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+
+/**
+ * TopologyIndex keeps the service and service instance relations of the recent minutes in memory, fed by the minute
+ * persistence of the relation metrics. The {@link TopologyQueryService} answers the topology of a recent duration from
+ * it, rather than scanning the relation metrics in the storage.
+ *
+ * The relation metrics are distributed to the OAP nodes by their entity IDs, so every node broadcasts the relations it
+ * persists to all nodes, and the index of every node includes the relations of the whole cluster.
+ */
+public class TopologyIndex {
+    /**
+     * Minute time bucket -> relations in that minute.
+     */
+    private final ConcurrentSkipListMap<Long, MinuteRelations> minutes = new ConcurrentSkipListMap<>();
+    private final int retainedMinutes;
+    /**
+     * The first minute time bucket, since which all relations are indexed. The minute in which the index is created is
+     * partial.
+     */
+    private volatile long since;
+
+    /**
+     * @param retainedMinutes the number of the recent minutes to keep.
+     */
+    public TopologyIndex(int retainedMinutes) {
+        this(retainedMinutes, System.currentTimeMillis());
+    }
+
+    TopologyIndex(int retainedMinutes, long createTime) {
+        this.retainedMinutes = retainedMinutes;
+        this.since = nextMinute(TimeBucket.getMinuteTimeBucket(createTime), 1);
+    }
+
+    /**
+     * @return true if the metrics is one of the relations indexed.
+     */
+    public static boolean isIndexed(Class<? extends Metrics> metricsClass) {
+        return ServiceRelationServerSideMetrics.class.equals(metricsClass)
+            || ServiceRelationClientSideMetrics.class.equals(metricsClass)
+            || ServiceInstanceRelationServerSideMetrics.class.equals(metricsClass)
+            || ServiceInstanceRelationClientSideMetrics.class.equals(metricsClass);
+    }
+
+    /**
+     * Index the minute relation metrics, the other metrics are ignored.
+     */
+    public void index(Metrics metrics) {
+        if (metrics instanceof ServiceRelationServerSideMetrics) {
+            final ServiceRelationServerSideMetrics relation = (ServiceRelationServerSideMetrics) metrics;
+            relationsOf(relation.getTimeBucket()).serviceServerSide.add(new Relation(
+                relation.getEntityId(), relation.getSourceServiceId(), relation.getDestServiceId(),
+                relation.getComponentId()
+            ));
+        } else if (metrics instanceof ServiceRelationClientSideMetrics) {
+            final ServiceRelationClientSideMetrics relation = (ServiceRelationClientSideMetrics) metrics;
+            relationsOf(relation.getTimeBucket()).serviceClientSide.add(new Relation(
+                relation.getEntityId(), relation.getSourceServiceId(), relation.getDestServiceId(),
+                relation.getComponentId()
+            ));
+        } else if (metrics instanceof ServiceInstanceRelationServerSideMetrics) {
+            final ServiceInstanceRelationServerSideMetrics relation = (ServiceInstanceRelationServerSideMetrics) metrics;
+            relationsOf(relation.getTimeBucket()).instanceServerSide.add(new Relation(
+                relation.getEntityId(), relation.getSourceServiceId(), relation.getDestServiceId(),
+                relation.getComponentId()
+            ));
+        } else if (metrics instanceof ServiceInstanceRelationClientSideMetrics) {
+            final ServiceInstanceRelationClientSideMetrics relation = (ServiceInstanceRelationClientSideMetrics) metrics;
+            relationsOf(relation.getTimeBucket()).instanceClientSide.add(new Relation(
+                relation.getEntityId(), relation.getSourceServiceId(), relation.getDestServiceId(),
+                relation.getComponentId()
+            ));
+        }
+    }
+
+    /**
+     * @return true if all relations since the start time bucket are in the index.
+     */
+    public boolean covers(long startTB) {
+        final long startMinute = toMinute(startTB, false);
+        return TimeBucket.isMinuteBucket(startMinute) && startMinute >= since;
+    }
+
+    /**
+     * The same as {@link org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO#loadServiceRelationsDetectedAtServerSide(long,
+     * long, List)} and {@link org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO#loadServiceRelationDetectedAtClientSide(long,
+     * long, List)}.
+     *
+     * @param serviceIds the source or dest service of the relations, all relations if it is empty.
+     */
+    public List<Call.CallDetail> loadServiceRelations(long startTB, long endTB, List<String> serviceIds,
+                                                      DetectPoint detectPoint) {
+        final Set<Relation> relations = new HashSet<>();
+        for (MinuteRelations minute : range(startTB, endTB).values()) {
+            final Set<Relation> sideRelations = detectPoint == DetectPoint.SERVER
+                ? minute.serviceServerSide : minute.serviceClientSide;
+            for (Relation relation : sideRelations) {
+                if (serviceIds.isEmpty()
+                    || serviceIds.contains(relation.sourceServiceId)
+                    || serviceIds.contains(relation.destServiceId)) {
+                    relations.add(relation);
+                }
+            }
+        }
+        final List<Call.CallDetail> calls = new ArrayList<>(relations.size());
+        for (Relation relation : relations) {
+            final Call.CallDetail call = new Call.CallDetail();
+            call.buildFromServiceRelation(relation.entityId, relation.componentId, detectPoint);
+            calls.add(call);
+        }
+        return calls;
+    }
+
+    /**
+     * The same as {@link org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO#loadInstanceRelationDetectedAtServerSide(String,
+     * String, long, long)} and {@link org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO#loadInstanceRelationDetectedAtClientSide(String,
+     * String, long, long)}.
+     */
+    public List<Call.CallDetail> loadInstanceRelations(String clientServiceId, String serverServiceId,
+                                                       long startTB, long endTB, DetectPoint detectPoint) {
+        final Set<Relation> relations = new HashSet<>();
+        for (MinuteRelations minute : range(startTB, endTB).values()) {
+            final Set<Relation> sideRelations = detectPoint == DetectPoint.SERVER
+                ? minute.instanceServerSide : minute.instanceClientSide;
+            for (Relation relation : sideRelations) {
+                if (relation.sourceServiceId.equals(clientServiceId) && relation.destServiceId.equals(serverServiceId)
+                    || relation.sourceServiceId.equals(serverServiceId) && relation.destServiceId.equals(clientServiceId)) {
+                    relations.add(relation);
+                }
+            }
+        }
+        final List<Call.CallDetail> calls = new ArrayList<>(relations.size());
+        for (Relation relation : relations) {
+            final Call.CallDetail call = new Call.CallDetail();
+            call.buildFromInstanceRelation(relation.entityId, relation.componentId, detectPoint);
+            calls.add(call);
+        }
+        return calls;
+    }
+
+    private ConcurrentNavigableMap<Long, MinuteRelations> range(long startTB, long endTB) {
+        return minutes.subMap(toMinute(startTB, false), true, toMinute(endTB, true), true);
+    }
+
+    private MinuteRelations relationsOf(long minuteTB) {
+        MinuteRelations relations = minutes.get(minuteTB);
+        if (relations == null) {
+            relations = new MinuteRelations();
+            final MinuteRelations existing = minutes.putIfAbsent(minuteTB, relations);
+            if (existing != null) {
+                return existing;
+            }
+            retain();
+        }
+        return relations;
+    }
+
+    /**
+     * Remove the minutes out of the retained window, when a new minute begins.
+     */
+    private synchronized void retain() {
+        final long oldest = nextMinute(minutes.lastKey(), 1 - retainedMinutes);
+        minutes.headMap(oldest).clear();
+        if (since < oldest) {
+            since = oldest;
+        }
+    }
+
+    private static long nextMinute(long minuteTB, int minutes) {
+        return TimeBucket.getMinuteTimeBucket(
+            TimeBucket.getTimestamp(minuteTB, DownSampling.Minute) + minutes * 60_000L);
+    }
+
+    /**
+     * @param end true to convert the time bucket to its last minute, otherwise its first minute.
+     */
+    private static long toMinute(long timeBucket, boolean end) {
+        if (TimeBucket.isHourBucket(timeBucket)) {
+            return timeBucket * 100 + (end ? 59 : 0);
+        } else if (TimeBucket.isDayBucket(timeBucket)) {
+            return timeBucket * 10000 + (end ? 2359 : 0);
+        }
+        return timeBucket;
+    }
+
+    private static class MinuteRelations {
+        private final Set<Relation> serviceServerSide = ConcurrentHashMap.newKeySet();
+        private final Set<Relation> serviceClientSide = ConcurrentHashMap.newKeySet();
+        private final Set<Relation> instanceServerSide = ConcurrentHashMap.newKeySet();
+        private final Set<Relation> instanceClientSide = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * The relations are grouped by the entity ID and component ID, the same as the storage queries.
+     */
+    @EqualsAndHashCode(of = {
+        "entityId",
+        "componentId"
+    })
+    private static class Relation {
+        private final String entityId;
+        private final String sourceServiceId;
+        private final String destServiceId;
+        private final int componentId;
+
+        private Relation(String entityId, String sourceServiceId, String destServiceId, int componentId) {
+            this.entityId = entityId;
+            this.sourceServiceId = sourceServiceId;
+            this.destServiceId = destServiceId;
+            this.componentId = componentId;
+        }
+    }
+}
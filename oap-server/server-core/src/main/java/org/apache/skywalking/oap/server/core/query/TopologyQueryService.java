@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.core.query;
 import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -45,11 +46,20 @@ import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 @Slf4j
 public class TopologyQueryService implements Service {
     private final ModuleManager moduleManager;
+    /**
+     * Null if the topology index is disabled.
+     */
+    private final TopologyIndex topologyIndex;
     private ITopologyQueryDAO topologyQueryDAO;
     private IComponentLibraryCatalogService componentLibraryCatalogService;
 
     public TopologyQueryService(ModuleManager moduleManager) {
+        this(moduleManager, null);
+    }
+
+    public TopologyQueryService(ModuleManager moduleManager, TopologyIndex topologyIndex) {
         this.moduleManager = moduleManager;
+        this.topologyIndex = topologyIndex;
     }
 
     private ITopologyQueryDAO getTopologyQueryDAO() {
@@ -68,12 +78,39 @@ public class TopologyQueryService implements Service {
         return componentLibraryCatalogService;
     }
 
+    /**
+     * The index answers the duration, only when it has been running since the start of the duration.
+     */
+    private boolean isIndexed(final long startTB) {
+        return topologyIndex != null && topologyIndex.covers(startTB);
+    }
+
+    private List<Call.CallDetail> loadServiceRelationsDetectedAtServerSide(final long startTB, final long endTB,
+                                                                           final List<String> serviceIds) throws IOException {
+        if (isIndexed(startTB)) {
+            return topologyIndex.loadServiceRelations(startTB, endTB, serviceIds, DetectPoint.SERVER);
+        }
+        return serviceIds.isEmpty()
+            ? getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(startTB, endTB)
+            : getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(startTB, endTB, serviceIds);
+    }
+
+    private List<Call.CallDetail> loadServiceRelationDetectedAtClientSide(final long startTB, final long endTB,
+                                                                          final List<String> serviceIds) throws IOException {
+        if (isIndexed(startTB)) {
+            return topologyIndex.loadServiceRelations(startTB, endTB, serviceIds, DetectPoint.CLIENT);
+        }
+        return serviceIds.isEmpty()
+            ? getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(startTB, endTB)
+            : getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(startTB, endTB, serviceIds);
+    }
+
     public Topology getGlobalTopology(final long startTB,
                                       final long endTB) throws IOException {
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(
-            startTB, endTB);
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(
-            startTB, endTB);
+        List<Call.CallDetail> serviceRelationServerCalls = loadServiceRelationsDetectedAtServerSide(
+            startTB, endTB, Collections.emptyList());
+        List<Call.CallDetail> serviceRelationClientCalls = loadServiceRelationDetectedAtClientSide(
+            startTB, endTB, Collections.emptyList());
 
         ServiceTopologyBuilder builder = new ServiceTopologyBuilder(moduleManager);
         return builder.build(serviceRelationClientCalls, serviceRelationServerCalls);
@@ -81,9 +118,9 @@ public class TopologyQueryService implements Service {
 
     public Topology getServiceTopology(final long startTB, final long endTB,
                                        final List<String> serviceIds) throws IOException {
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(
+        List<Call.CallDetail> serviceRelationClientCalls = loadServiceRelationDetectedAtClientSide(
             startTB, endTB, serviceIds);
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(
+        List<Call.CallDetail> serviceRelationServerCalls = loadServiceRelationsDetectedAtServerSide(
             startTB, endTB, serviceIds);
 
         ServiceTopologyBuilder builder = new ServiceTopologyBuilder(moduleManager);
@@ -104,7 +141,7 @@ public class TopologyQueryService implements Service {
         });
         if (CollectionUtils.isNotEmpty(outScopeSourceServiceIds)) {
             // If exist, query them as the server side to get the target's component.
-            List<Call.CallDetail> sourceCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(
+            List<Call.CallDetail> sourceCalls = loadServiceRelationsDetectedAtServerSide(
                 startTB, endTB, outScopeSourceServiceIds);
             topology.getNodes().forEach(node -> {
                 if (Strings.isNullOrEmpty(node.getType())) {
@@ -125,10 +162,19 @@ public class TopologyQueryService implements Service {
                                                               final String serverServiceId,
                                                               final long startTB,
                                                               final long endTB) throws IOException {
-        List<Call.CallDetail> serviceInstanceRelationClientCalls = getTopologyQueryDAO().loadInstanceRelationDetectedAtClientSide(
-            clientServiceId, serverServiceId, startTB, endTB);
-        List<Call.CallDetail> serviceInstanceRelationServerCalls = getTopologyQueryDAO().loadInstanceRelationDetectedAtServerSide(
-            clientServiceId, serverServiceId, startTB, endTB);
+        final List<Call.CallDetail> serviceInstanceRelationClientCalls;
+        final List<Call.CallDetail> serviceInstanceRelationServerCalls;
+        if (isIndexed(startTB)) {
+            serviceInstanceRelationClientCalls = topologyIndex.loadInstanceRelations(
+                clientServiceId, serverServiceId, startTB, endTB, DetectPoint.CLIENT);
+            serviceInstanceRelationServerCalls = topologyIndex.loadInstanceRelations(
+                clientServiceId, serverServiceId, startTB, endTB, DetectPoint.SERVER);
+        } else {
+            serviceInstanceRelationClientCalls = getTopologyQueryDAO().loadInstanceRelationDetectedAtClientSide(
+                clientServiceId, serverServiceId, startTB, endTB);
+            serviceInstanceRelationServerCalls = getTopologyQueryDAO().loadInstanceRelationDetectedAtServerSide(
+                clientServiceId, serverServiceId, startTB, endTB);
+        }
 
         ServiceInstanceTopologyBuilder builder = new ServiceInstanceTopologyBuilder(moduleManager);
         return builder.build(serviceInstanceRelationClientCalls, serviceInstanceRelationServerCalls);
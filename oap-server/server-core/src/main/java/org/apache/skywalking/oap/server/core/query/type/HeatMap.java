@@ -25,6 +25,7 @@ import java.util.List;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketHistogram;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 
 /**
@@ -45,10 +46,12 @@ public class HeatMap {
      * Build one heatmap value column based on rawdata in the storage and row id.
      *
      * @param id      of the row
-     * @param rawdata literal string, represent a {@link DataTable}
+     * @param rawdata literal string, represent a {@link DataTable} or a {@link BucketHistogram}
      */
     public void buildColumn(String id, String rawdata, int defaultValue) {
-        DataTable dataset = new DataTable(rawdata);
+        DataTable dataset = rawdata != null && rawdata.startsWith(BucketHistogram.BINARY_PREFIX)
+            ? new BucketHistogram(rawdata).toDataTable()
+            : new DataTable(rawdata);
 
         final List<String> sortedKeys = dataset.sortedKeys(new KeyComparator(true));
         if (buckets.isEmpty()) {
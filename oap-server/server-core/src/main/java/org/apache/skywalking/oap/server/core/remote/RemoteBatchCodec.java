@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteCompression;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+
+/**
+ * The codec of the stream data in the {@link RemoteBatch} of the v2 remote protocol. The worker name is sent once per
+ * stream, and the following stream data refer to it by the ID.
+ */
+public class RemoteBatchCodec {
+    /**
+     * The max bytes of the stream data in a batch before the compression, which keeps the batch far under the max
+     * inbound message size of the gRPC server.
+     */
+    public static final int MAX_BATCH_BYTES = 1024 * 1024;
+
+    /**
+     * @return the input of the stream data in the batch.
+     */
+    public static CodedInputStream decode(RemoteBatch batch) throws IOException {
+        if (batch.getCompression() == RemoteCompression.GZIP) {
+            return CodedInputStream.newInstance(new GZIPInputStream(batch.getData().newInput()));
+        }
+        return batch.getData().newCodedInput();
+    }
+
+    /**
+     * The encoder of the batches of a stream, not thread safe.
+     */
+    public static class Encoder {
+        private final boolean compressionEnabled;
+        private final Map<String, Integer> workerIds = new HashMap<>();
+        private RemoteBatch.Builder batch;
+        private ByteString.Output data;
+        private CodedOutputStream output;
+
+        public Encoder(boolean compressionEnabled) {
+            this.compressionEnabled = compressionEnabled;
+            reset();
+        }
+
+        /**
+         * @return true if the batch is full, and should be built to send.
+         */
+        public boolean add(String nextWorkerName, RemoteData remoteData) throws IOException {
+            Integer workerId = workerIds.get(nextWorkerName);
+            if (workerId == null) {
+                workerId = workerIds.size();
+                workerIds.put(nextWorkerName, workerId);
+                batch.addNextWorkerNames(nextWorkerName);
+            }
+            output.writeUInt32NoTag(workerId);
+            output.writeMessageNoTag(remoteData);
+            return output.getTotalBytesWritten() >= MAX_BATCH_BYTES;
+        }
+
+        public boolean isEmpty() {
+            return output.getTotalBytesWritten() == 0;
+        }
+
+        /**
+         * Build the batch of the added stream data, and start the next batch of the stream.
+         */
+        public RemoteBatch build() throws IOException {
+            output.flush();
+            ByteString bytes = data.toByteString();
+            if (compressionEnabled) {
+                ByteString.Output compressed = ByteString.newOutput(bytes.size() / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    bytes.writeTo(gzip);
+                }
+                batch.setCompression(RemoteCompression.GZIP);
+                bytes = compressed.toByteString();
+            }
+            RemoteBatch remoteBatch = batch.setData(bytes).build();
+            reset();
+            return remoteBatch;
+        }
+
+        private void reset() {
+            batch = RemoteBatch.newBuilder();
+            data = ByteString.newOutput();
+            output = CodedOutputStream.newInstance(data);
+        }
+    }
+}
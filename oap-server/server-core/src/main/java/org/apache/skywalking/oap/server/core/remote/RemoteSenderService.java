@@ -23,6 +23,7 @@ import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.selector.ConsistentHashSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.ForeverFirstSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.RollingSelector;
@@ -38,17 +39,24 @@ import org.slf4j.LoggerFactory;
  */
 public class RemoteSenderService implements Service {
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSenderService.class);
+    private static final int VIRTUAL_NODES = 160;
+    private static final double BOUNDED_LOAD_FACTOR = 0.25;
 
     private final ModuleManager moduleManager;
     private final HashCodeSelector hashCodeSelector;
     private final ForeverFirstSelector foreverFirstSelector;
     private final RollingSelector rollingSelector;
+    private final ConsistentHashSelector consistentHashSelector;
+    private final ConsistentHashSelector boundedLoadConsistentHashSelector;
 
     public RemoteSenderService(ModuleManager moduleManager) {
         this.moduleManager = moduleManager;
         this.hashCodeSelector = new HashCodeSelector();
         this.foreverFirstSelector = new ForeverFirstSelector();
         this.rollingSelector = new RollingSelector();
+        this.consistentHashSelector = new ConsistentHashSelector(moduleManager, VIRTUAL_NODES, 0);
+        this.boundedLoadConsistentHashSelector = new ConsistentHashSelector(
+            moduleManager, VIRTUAL_NODES, BOUNDED_LOAD_FACTOR);
     }
 
     /**
@@ -80,7 +88,34 @@ public class RemoteSenderService implements Service {
             case ForeverFirst:
                 remoteClient = foreverFirstSelector.select(clientList, streamData);
                 break;
+            case ConsistentHash:
+                remoteClient = consistentHashSelector.select(clientList, streamData);
+                break;
+            case BoundedLoadConsistentHash:
+                remoteClient = boundedLoadConsistentHashSelector.select(clientList, streamData);
+                break;
         }
         remoteClient.push(nextWorkName, streamData);
     }
+
+    /**
+     * Send data to all OAP nodes, including this one.
+     *
+     * @param nextWorkName points to the worker to process the data when {@link RemoteServiceHandler} received.
+     * @param streamData   data to be sent
+     */
+    public void broadcast(String nextWorkName, StreamData streamData) {
+        RemoteClientManager clientManager = moduleManager.find(CoreModule.NAME)
+                                                         .provider()
+                                                         .getService(RemoteClientManager.class);
+        List<RemoteClient> clientList = clientManager.getRemoteClient();
+        if (clientList.size() == 0) {
+            LOGGER.warn(
+                "There is no available remote server for now, ignore the streaming data until the cluster metadata initialized.");
+            return;
+        }
+        for (RemoteClient remoteClient : clientList) {
+            remoteClient.push(nextWorkName, streamData);
+        }
+    }
 }
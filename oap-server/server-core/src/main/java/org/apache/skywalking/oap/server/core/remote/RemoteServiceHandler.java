@@ -18,11 +18,16 @@
 
 package org.apache.skywalking.oap.server.core.remote;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
 import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
@@ -97,45 +102,57 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
      */
     @Override
     public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
-        if (Objects.isNull(workerInstanceGetter)) {
-            synchronized (RemoteServiceHandler.class) {
-                if (Objects.isNull(workerInstanceGetter)) {
-                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
-                                                             .provider()
-                                                             .getService(IWorkerInstanceGetter.class);
-                }
-            }
-        }
+        initWorkerInstanceGetter();
 
         return new StreamObserver<RemoteMessage>() {
             @Override
             public void onNext(RemoteMessage message) {
-                remoteInCounter.inc();
-                HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
+                String nextWorkerName = message.getNextWorkerName();
+                handle(nextWorkerName, workerInstanceGetter.get(nextWorkerName), message.getRemoteData());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                LOGGER.error(throwable.getMessage(), throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onNext(Empty.newBuilder().build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * gRPC handler of the v2 protocol. The next workers are resolved once per stream, by the IDs of the worker names.
+     */
+    @Override
+    public StreamObserver<RemoteBatch> callBatch(StreamObserver<Empty> responseObserver) {
+        initWorkerInstanceGetter();
+
+        return new StreamObserver<RemoteBatch>() {
+            private final List<String> nextWorkerNames = new ArrayList<>();
+            private final List<RemoteHandleWorker> handleWorkers = new ArrayList<>();
+
+            @Override
+            public void onNext(RemoteBatch batch) {
+                for (String nextWorkerName : batch.getNextWorkerNamesList()) {
+                    nextWorkerNames.add(nextWorkerName);
+                    handleWorkers.add(workerInstanceGetter.get(nextWorkerName));
+                }
+
                 try {
-                    String nextWorkerName = message.getNextWorkerName();
-                    RemoteData remoteData = message.getRemoteData();
-
-                    try {
-                        RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
-                        if (handleWorker != null) {
-                            AbstractWorker nextWorker = handleWorker.getWorker();
-                            StreamData streamData = handleWorker.getStreamDataClass().newInstance();
-                            streamData.deserialize(remoteData);
-                            nextWorker.in(streamData);
-                        } else {
-                            remoteInTargetNotFoundCounter.inc();
-                            LOGGER.warn(
-                                "Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
-                                nextWorkerName
-                            );
-                        }
-                    } catch (Throwable t) {
-                        remoteInErrorCounter.inc();
-                        LOGGER.error(t.getMessage(), t);
+                    CodedInputStream input = RemoteBatchCodec.decode(batch);
+                    while (!input.isAtEnd()) {
+                        int workerId = input.readUInt32();
+                        RemoteData remoteData = input.readMessage(
+                            RemoteData.parser(), ExtensionRegistryLite.getEmptyRegistry());
+                        handle(nextWorkerNames.get(workerId), handleWorkers.get(workerId), remoteData);
                     }
-                } finally {
-                    timer.finish();
+                } catch (Throwable t) {
+                    remoteInErrorCounter.inc();
+                    LOGGER.error(t.getMessage(), t);
                 }
             }
 
@@ -151,4 +168,40 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
             }
         };
     }
+
+    private void initWorkerInstanceGetter() {
+        if (Objects.isNull(workerInstanceGetter)) {
+            synchronized (RemoteServiceHandler.class) {
+                if (Objects.isNull(workerInstanceGetter)) {
+                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
+                                                             .provider()
+                                                             .getService(IWorkerInstanceGetter.class);
+                }
+            }
+        }
+    }
+
+    private void handle(String nextWorkerName, RemoteHandleWorker handleWorker, RemoteData remoteData) {
+        remoteInCounter.inc();
+        HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
+        try {
+            if (handleWorker != null) {
+                AbstractWorker nextWorker = handleWorker.getWorker();
+                StreamData streamData = handleWorker.getStreamDataFactory().newInstance();
+                streamData.deserialize(remoteData);
+                nextWorker.in(streamData);
+            } else {
+                remoteInTargetNotFoundCounter.inc();
+                LOGGER.warn(
+                    "Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
+                    nextWorkerName
+                );
+            }
+        } catch (Throwable t) {
+            remoteInErrorCounter.inc();
+            LOGGER.error(t.getMessage(), t);
+        } finally {
+            timer.finish();
+        }
+    }
 }
@@ -18,19 +18,27 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import io.netty.handler.ssl.SslContext;
+import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.remote.RemoteBatchCodec;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
@@ -43,6 +51,12 @@ import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 /**
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
  * buffering the message and sending the message by batch.
+ *
+ * The messages are sent in the v2 protocol, {@link RemoteBatch}, unless the server doesn't support it, such as an OAP
+ * server of the previous version in the rolling upgrade. Until a v2 stream completes, the client waits for the result
+ * of every batch, and resends the messages of the batch in the v1 protocol once the server answers UNIMPLEMENTED, then
+ * keeps using the v1 protocol. The protocol is probed again every time the channel gets ready, as the server could be
+ * upgraded, or rolled back, in place while the client is disconnected.
  */
 @Slf4j
 public class GRPCRemoteClient implements RemoteClient {
@@ -57,6 +71,9 @@ public class GRPCRemoteClient implements RemoteClient {
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
     private int remoteTimeout;
+    private final boolean compressionEnabled;
+    private volatile boolean batchUnsupported;
+    private volatile boolean batchSupported;
 
     public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
                             final Address address,
@@ -64,12 +81,23 @@ public class GRPCRemoteClient implements RemoteClient {
                             final int bufferSize,
                             final int remoteTimeout,
                             final SslContext sslContext) {
+        this(moduleDefineHolder, address, channelSize, bufferSize, remoteTimeout, sslContext, false);
+    }
+
+    public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
+                            final Address address,
+                            final int channelSize,
+                            final int bufferSize,
+                            final int remoteTimeout,
+                            final SslContext sslContext,
+                            final boolean compressionEnabled) {
 
         this.address = address;
         this.channelSize = channelSize;
         this.bufferSize = bufferSize;
         this.remoteTimeout = remoteTimeout;
         this.sslContext = sslContext;
+        this.compressionEnabled = compressionEnabled;
 
         remoteOutCounter = moduleDefineHolder.find(TelemetryModule.NAME)
                                              .provider()
@@ -97,6 +125,7 @@ public class GRPCRemoteClient implements RemoteClient {
     public void connect() {
         if (!isConnect) {
             this.getClient().connect();
+            this.watchChannel(getChannel(), null);
             this.getDataCarrier().consume(new RemoteMessageConsumer(), 1);
             this.isConnect = true;
         }
@@ -111,6 +140,26 @@ public class GRPCRemoteClient implements RemoteClient {
         return getClient().getChannel();
     }
 
+    /**
+     * Watch the state of the channel, and forget the protocol supported by the server every time the channel gets
+     * ready, so the next batch probes it again.
+     *
+     * @param previous the state of the channel when the last watch was set up, null at first.
+     */
+    private void watchChannel(final ManagedChannel channel, final ConnectivityState previous) {
+        final ConnectivityState state = channel.getState(false);
+        if (state == ConnectivityState.READY && previous != ConnectivityState.READY) {
+            if (batchUnsupported) {
+                log.info("Remote server [{}] is reconnected, probe the v2 protocol again.", address);
+            }
+            batchUnsupported = false;
+            batchSupported = false;
+        }
+        if (state != ConnectivityState.SHUTDOWN) {
+            channel.notifyWhenStateChanged(state, () -> watchChannel(channel, state));
+        }
+    }
+
     GRPCClient getClient() {
         if (Objects.isNull(client)) {
             synchronized (GRPCRemoteClient.class) {
@@ -160,18 +209,71 @@ public class GRPCRemoteClient implements RemoteClient {
         @Override
         public void consume(List<RemoteMessage> remoteMessages) {
             try {
-                StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-                for (RemoteMessage remoteMessage : remoteMessages) {
-                    remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+                if (batchUnsupported) {
+                    consumeInSingle(remoteMessages, true);
+                } else {
+                    consumeInBatch(remoteMessages);
                 }
-                streamObserver.onCompleted();
             } catch (Throwable t) {
                 remoteOutErrorCounter.inc();
                 log.error(t.getMessage(), t);
             }
         }
 
+        /**
+         * Send the messages in the v1 protocol.
+         *
+         * @param counted true to count the messages, false if they are resent and counted already.
+         */
+        private void consumeInSingle(List<RemoteMessage> remoteMessages, boolean counted) {
+            StreamObserver<RemoteMessage> streamObserver = createStreamObserver(
+                RemoteServiceGrpc.RemoteServiceStub::call, code -> {
+                });
+            for (RemoteMessage remoteMessage : remoteMessages) {
+                if (counted) {
+                    remoteOutCounter.inc();
+                }
+                streamObserver.onNext(remoteMessage);
+            }
+            streamObserver.onCompleted();
+        }
+
+        /**
+         * Send the messages in the v2 protocol. Until the server is known to support it, wait for the result, and
+         * resend the messages in the v1 protocol if it doesn't.
+         */
+        private void consumeInBatch(List<RemoteMessage> remoteMessages) throws IOException, InterruptedException {
+            final int size = remoteMessages.size();
+            final CountDownLatch probe = batchSupported ? null : new CountDownLatch(1);
+            StreamObserver<RemoteBatch> streamObserver = createStreamObserver(
+                RemoteServiceGrpc.RemoteServiceStub::callBatch, code -> {
+                    if (code == Status.Code.OK) {
+                        batchSupported = true;
+                    }
+                    if (probe != null) {
+                        probe.countDown();
+                    } else if (code == Status.Code.UNIMPLEMENTED) {
+                        // The server was replaced by one not supporting the v2 protocol, the messages are lost.
+                        remoteOutErrorCounter.inc(size);
+                    }
+                });
+            RemoteBatchCodec.Encoder encoder = new RemoteBatchCodec.Encoder(compressionEnabled);
+            for (RemoteMessage remoteMessage : remoteMessages) {
+                remoteOutCounter.inc();
+                if (encoder.add(remoteMessage.getNextWorkerName(), remoteMessage.getRemoteData())) {
+                    streamObserver.onNext(encoder.build());
+                }
+            }
+            if (!encoder.isEmpty()) {
+                streamObserver.onNext(encoder.build());
+            }
+            streamObserver.onCompleted();
+
+            if (probe != null && probe.await(remoteTimeout, TimeUnit.SECONDS) && batchUnsupported) {
+                consumeInSingle(remoteMessages, false);
+            }
+        }
+
         @Override
         public void onError(List<RemoteMessage> remoteMessages, Throwable t) {
             log.error(t.getMessage(), t);
@@ -186,9 +288,13 @@ public class GRPCRemoteClient implements RemoteClient {
      * Create a gRPC stream observer to sending stream data, one stream observer could send multiple stream data by a
      * single consume. The max number of concurrency allowed at the same time is 10.
      *
+     * @param call       the call of the protocol in the stub.
+     * @param onFinished called with the status code when the stream is finished.
      * @return stream observer
      */
-    private StreamObserver<RemoteMessage> createStreamObserver() {
+    private <T> StreamObserver<T> createStreamObserver(
+        BiFunction<RemoteServiceGrpc.RemoteServiceStub, StreamObserver<Empty>, StreamObserver<T>> call,
+        Consumer<Status.Code> onFinished) {
         int sleepTotalMillis = 0;
         int sleepMillis = 10;
 
@@ -212,24 +318,37 @@ public class GRPCRemoteClient implements RemoteClient {
             }
         }
 
-        final StreamObserver<RemoteMessage> remoteMessageStreamObserver
-            = getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS)
-                       .call(new StreamObserver<Empty>() {
-                           @Override
-                           public void onNext(Empty empty) {
-                           }
-
-                           @Override
-                           public void onError(Throwable throwable) {
-                               concurrentStreamObserverNumber.addAndGet(-1);
-                               log.error(throwable.getMessage(), throwable);
-                           }
-
-                           @Override
-                           public void onCompleted() {
-                               concurrentStreamObserverNumber.addAndGet(-1);
-                           }
-                       });
+        final StreamObserver<Empty> responseObserver = new StreamObserver<Empty>() {
+            @Override
+            public void onNext(Empty empty) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                concurrentStreamObserverNumber.addAndGet(-1);
+                final Status.Code code = Status.fromThrowable(throwable).getCode();
+                if (code == Status.Code.UNIMPLEMENTED) {
+                    if (!batchUnsupported) {
+                        batchUnsupported = true;
+                        log.warn("Remote server [{}] doesn't support the v2 protocol, fall back to the v1 protocol.",
+                                 address
+                        );
+                    }
+                    onFinished.accept(code);
+                    return;
+                }
+                log.error(throwable.getMessage(), throwable);
+                onFinished.accept(code);
+            }
+
+            @Override
+            public void onCompleted() {
+                concurrentStreamObserverNumber.addAndGet(-1);
+                onFinished.accept(Status.Code.OK);
+            }
+        };
+        final StreamObserver<T> remoteMessageStreamObserver = call.apply(
+            getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS), responseObserver);
         concurrentStreamObserverNumber.incrementAndGet();
         return remoteMessageStreamObserver;
     }
@@ -62,21 +62,38 @@ public class RemoteClientManager implements Service {
     private volatile List<RemoteClient> usingClients;
     private GaugeMetrics gauge;
     private int remoteTimeout;
+    private boolean remoteCompressionEnabled;
 
     /**
      * Initial the manager for all remote communication clients.
      *
-     * @param moduleDefineHolder for looking up other modules
-     * @param remoteTimeout      for cluster internal communication, in second unit.
-     * @param trustedCAFile      SslContext to verify server certificates.
+     * @param moduleDefineHolder       for looking up other modules
+     * @param remoteTimeout            for cluster internal communication, in second unit.
+     * @param trustedCAFile            SslContext to verify server certificates.
+     * @param remoteCompressionEnabled compress the batches of cluster internal communication.
      */
     public RemoteClientManager(ModuleDefineHolder moduleDefineHolder,
                                int remoteTimeout,
-                               String trustedCAFile) {
-        this(moduleDefineHolder, remoteTimeout);
+                               String trustedCAFile,
+                               boolean remoteCompressionEnabled) {
+        this(moduleDefineHolder, remoteTimeout, remoteCompressionEnabled);
         sslContext = DynamicSslContext.forClient(trustedCAFile);
     }
 
+    /**
+     * Initial the manager for all remote communication clients.
+     *
+     * @param moduleDefineHolder       for looking up other modules
+     * @param remoteTimeout            for cluster internal communication, in second unit.
+     * @param remoteCompressionEnabled compress the batches of cluster internal communication.
+     */
+    public RemoteClientManager(final ModuleDefineHolder moduleDefineHolder,
+                               final int remoteTimeout,
+                               final boolean remoteCompressionEnabled) {
+        this(moduleDefineHolder, remoteTimeout);
+        this.remoteCompressionEnabled = remoteCompressionEnabled;
+    }
+
     /**
      * Initial the manager for all remote communication clients.
      *
@@ -232,7 +249,8 @@ public class RemoteClientManager implements Service {
                         newRemoteClients.add(client);
                     } else {
                         RemoteClient client;
-                        client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext);
+                        client = new GRPCRemoteClient(
+                            moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext, remoteCompressionEnabled);
                         client.connect();
                         newRemoteClients.add(client);
                     }
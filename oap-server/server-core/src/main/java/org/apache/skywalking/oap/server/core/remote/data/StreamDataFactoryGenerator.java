@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.JavaVersion;
+import org.apache.commons.lang3.SystemUtils;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.remote.data.factory.StreamDataFactoryPackageHolder;
+
+/**
+ * Generate the {@link StreamDataFactory} of the stream data class, which creates the instance by the constructor call
+ * in the bytecode, rather than the reflection for every received data.
+ */
+@Slf4j
+public class StreamDataFactoryGenerator {
+    private static final String FACTORY_CLASS_PACKAGE = "org.apache.skywalking.oap.server.core.remote.data.factory.";
+    private static final Map<Class<? extends StreamData>, StreamDataFactory> FACTORIES = new ConcurrentHashMap<>();
+
+    /**
+     * @return the generated factory, or the factory by the reflection when the class can't be created out of its
+     * package, such as the non-public classes.
+     */
+    public static StreamDataFactory generate(Class<? extends StreamData> streamDataClass) {
+        return FACTORIES.computeIfAbsent(streamDataClass, clazz -> {
+            if (Modifier.isPublic(clazz.getModifiers()) && hasPublicConstructor(clazz)) {
+                try {
+                    return generateFactory(clazz);
+                } catch (CannotCompileException | NotFoundException | ReflectiveOperationException | LinkageError e) {
+                    log.warn("Can't generate the factory of {}, create the instance by reflection.", clazz.getName(), e);
+                }
+            }
+            return reflectionFactory(clazz);
+        });
+    }
+
+    private static boolean hasPublicConstructor(Class<? extends StreamData> clazz) {
+        try {
+            return Modifier.isPublic(clazz.getConstructor().getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static StreamDataFactory generateFactory(
+        Class<? extends StreamData> clazz) throws CannotCompileException, NotFoundException, ReflectiveOperationException {
+        ClassPool classPool = ClassPool.getDefault();
+        String className = FACTORY_CLASS_PACKAGE + clazz.getName().replace('.', '_').replace('$', '_') + "Factory";
+        CtClass factoryClass = classPool.makeClass(className);
+        factoryClass.addInterface(classPool.get(StreamDataFactory.class.getName()));
+        factoryClass.addConstructor(CtNewConstructor.defaultConstructor(factoryClass));
+        factoryClass.addMethod(CtNewMethod.make(
+            ""
+                + "public " + StreamData.class.getName() + " newInstance() {"
+                + "    return new " + clazz.getName() + "();"
+                + "}"
+            , factoryClass));
+
+        Class<?> targetClass;
+        if (SystemUtils.isJavaVersionAtMost(JavaVersion.JAVA_1_8)) {
+            targetClass = factoryClass.toClass(clazz.getClassLoader(), null);
+        } else {
+            targetClass = factoryClass.toClass(StreamDataFactoryPackageHolder.class);
+        }
+        factoryClass.detach();
+        return (StreamDataFactory) targetClass.newInstance();
+    }
+
+    private static StreamDataFactory reflectionFactory(Class<? extends StreamData> clazz) {
+        final Constructor<? extends StreamData> constructor;
+        try {
+            constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException | SecurityException e) {
+            return () -> {
+                throw new UnexpectedException("Can't create the instance of " + clazz.getName(), e);
+            };
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new UnexpectedException(e.getMessage(), e);
+            }
+        };
+    }
+}
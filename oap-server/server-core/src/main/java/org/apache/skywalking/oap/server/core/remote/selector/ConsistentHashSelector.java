@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * ConsistentHashSelector routes the stream data by {@link StreamData#remoteHashCode()} on a hash ring, every OAP node
+ * owns several virtual nodes on it. When the cluster scales, only the keys on the arcs of the added or removed nodes
+ * move, rather than almost all of them as {@link HashCodeSelector} does, so the caches of the L2 aggregation workers
+ * keep warm.
+ * <p>
+ * In the bounded-load mode, no node owns more than {@code (1 + loadFactor) / size} of the ring. The arcs exceeding the
+ * bound move to the next nodes clockwise, which evens the load out when the virtual nodes are unbalanced. The ring only
+ * depends on the cluster members, so all OAP nodes route the same key to the same node.
+ * <p>
+ * The share of the ring, i.e. the expected share of keys, changing its owner in every cluster change is reported
+ * through telemetry.
+ */
+@Slf4j
+public class ConsistentHashSelector implements RemoteClientSelector {
+    private static final double RING_SIZE = 0x1p64;
+
+    private final ModuleDefineHolder moduleDefineHolder;
+    private final int virtualNodes;
+    private final double loadFactor;
+    private volatile Ring ring = new Ring(null, new long[0], new RemoteClient[0]);
+    private GaugeMetrics remappedRatio;
+
+    /**
+     * @param virtualNodes the number of virtual nodes of every OAP node on the ring.
+     * @param loadFactor   the load of a node is bounded by {@code (1 + loadFactor)} times the average. No bound if it is
+     *                     not positive.
+     */
+    public ConsistentHashSelector(ModuleDefineHolder moduleDefineHolder, int virtualNodes, double loadFactor) {
+        this.moduleDefineHolder = moduleDefineHolder;
+        this.virtualNodes = virtualNodes;
+        this.loadFactor = loadFactor;
+    }
+
+    @Override
+    public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
+        Ring current = ring;
+        if (current.clients != clients) {
+            current = rebuild(clients);
+        }
+        return current.owner(mix(streamData.remoteHashCode()));
+    }
+
+    /**
+     * The client list of {@link org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager} is immutable
+     * and replaced when the cluster changes, so the ring is rebuilt once for every new list.
+     */
+    private synchronized Ring rebuild(List<RemoteClient> clients) {
+        final Ring previous = ring;
+        if (previous.clients == clients) {
+            return previous;
+        }
+
+        final int size = clients.size();
+        final VirtualNode[] virtualNodeArray = new VirtualNode[size * virtualNodes];
+        for (int i = 0; i < size; i++) {
+            final String address = clients.get(i).getAddress().toString();
+            for (int v = 0; v < virtualNodes; v++) {
+                virtualNodeArray[i * virtualNodes + v] = new VirtualNode(hash(address, v), i);
+            }
+        }
+        // Ties broken by the node order, to be the same in every OAP node.
+        Arrays.sort(virtualNodeArray, Comparator.comparingLong(VirtualNode::getPoint)
+                                                .thenComparingInt(VirtualNode::getNode));
+        final long[] points = new long[virtualNodeArray.length];
+        final int[] nodeOfPoint = new int[virtualNodeArray.length];
+        for (int i = 0; i < virtualNodeArray.length; i++) {
+            points[i] = virtualNodeArray[i].getPoint();
+            nodeOfPoint[i] = virtualNodeArray[i].getNode();
+        }
+
+        if (loadFactor > 0 && size > 1) {
+            bound(points, nodeOfPoint, size);
+        }
+        final RemoteClient[] owners = new RemoteClient[points.length];
+        for (int i = 0; i < points.length; i++) {
+            owners[i] = clients.get(nodeOfPoint[i]);
+        }
+
+        final Ring newRing = new Ring(clients, points, owners);
+        if (previous.points.length > 0) {
+            reportRemappedRatio(previous, newRing);
+        }
+        ring = newRing;
+        return newRing;
+    }
+
+    /**
+     * Walk the arcs clockwise, an arc ending at point i belongs to the owner of point i. Move the arc to the next
+     * node on the ring if its owner has been full.
+     */
+    private void bound(final long[] points, final int[] nodeOfPoint, final int size) {
+        final double capacity = (1 + loadFactor) * RING_SIZE / size;
+        final double[] loads = new double[size];
+        final int[] original = nodeOfPoint.clone();
+        for (int i = 0; i < points.length; i++) {
+            final double length = arcLength(points, i);
+            int candidate = i;
+            while (loads[original[candidate]] + length > capacity) {
+                candidate = (candidate + 1) % points.length;
+                if (candidate == i) {
+                    // No node could hold this arc, keep it where it is.
+                    break;
+                }
+            }
+            nodeOfPoint[i] = original[candidate];
+            loads[original[candidate]] += length;
+        }
+    }
+
+    private void reportRemappedRatio(final Ring previous, final Ring current) {
+        final long[] all = new long[previous.points.length + current.points.length];
+        System.arraycopy(previous.points, 0, all, 0, previous.points.length);
+        System.arraycopy(current.points, 0, all, previous.points.length, current.points.length);
+        Arrays.sort(all);
+
+        double remapped = 0;
+        for (int i = 0; i < all.length; i++) {
+            final RemoteClient before = previous.owner(all[i]);
+            final RemoteClient after = current.owner(all[i]);
+            if (!before.getAddress().equals(after.getAddress())) {
+                remapped += arcLength(all, i);
+            }
+        }
+        final double ratio = remapped / RING_SIZE;
+        log.info("Cluster changed, {} of the keys are remapped by {}.", ratio, this);
+        if (remappedRatio == null) {
+            remappedRatio = moduleDefineHolder.find(TelemetryModule.NAME)
+                                              .provider()
+                                              .getService(MetricsCreator.class)
+                                              .createGauge(
+                                                  "remote_consistent_hash_remapped_ratio",
+                                                  "The share of keys remapped to another OAP node in the last cluster change",
+                                                  new MetricsTag.Keys("bounded"),
+                                                  new MetricsTag.Values(String.valueOf(loadFactor > 0))
+                                              );
+        }
+        remappedRatio.setValue(ratio);
+    }
+
+    /**
+     * @return the length of the arc ending at the point i, from the previous point, exclusive.
+     */
+    private static double arcLength(final long[] points, final int i) {
+        final long start = i == 0 ? points[points.length - 1] : points[i - 1];
+        final long distance = points[i] - start;
+        if (distance == 0) {
+            return points.length == 1 ? RING_SIZE : 0;
+        }
+        // Unsigned, the first arc wraps around the ring.
+        return distance > 0 ? distance : distance + RING_SIZE;
+    }
+
+    private static long hash(final String address, final int virtualNode) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < address.length(); i++) {
+            h = (h ^ address.charAt(i)) * 0x100000001B3L;
+        }
+        h = (h ^ '#') * 0x100000001B3L;
+        h = (h ^ virtualNode) * 0x100000001B3L;
+        return mix(h);
+    }
+
+    /**
+     * The finalization mix of MurmurHash3, spread the int hash code over the whole ring.
+     */
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashSelector{virtualNodes=" + virtualNodes + ", loadFactor=" + loadFactor + '}';
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class VirtualNode {
+        private final long point;
+        private final int node;
+    }
+
+    private static class Ring {
+        private final List<RemoteClient> clients;
+        private final long[] points;
+        private final RemoteClient[] owners;
+
+        private Ring(final List<RemoteClient> clients, final long[] points, final RemoteClient[] owners) {
+            this.clients = clients;
+            this.points = points;
+            this.owners = owners;
+        }
+
+        /**
+         * @return the owner of the first point at or after the hash, clockwise.
+         */
+        private RemoteClient owner(final long hash) {
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) {
+                index = -index - 1;
+                if (index == points.length) {
+                    index = 0;
+                }
+            } else {
+                // Ties of points are sorted by node order, always take the first one.
+                while (index > 0 && points[index - 1] == hash) {
+                    index--;
+                }
+            }
+            return owners[index];
+        }
+    }
+}
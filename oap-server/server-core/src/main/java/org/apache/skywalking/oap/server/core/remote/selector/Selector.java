@@ -19,5 +19,13 @@
 package org.apache.skywalking.oap.server.core.remote.selector;
 
 public enum Selector {
-    HashCode, Rolling, ForeverFirst
+    HashCode, Rolling, ForeverFirst,
+    /**
+     * See {@link ConsistentHashSelector}.
+     */
+    ConsistentHash,
+    /**
+     * {@link ConsistentHashSelector} in the bounded-load mode.
+     */
+    BoundedLoadConsistentHash
 }
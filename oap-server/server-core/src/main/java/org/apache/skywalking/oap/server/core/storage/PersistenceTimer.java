@@ -21,15 +21,19 @@ package org.apache.skywalking.oap.server.core.storage;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.PersistenceWorker;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
@@ -40,16 +44,27 @@ import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
+/**
+ * PersistenceTimer starts a persistence round of every {@link PersistenceWorker} per persistent period. The rounds of
+ * the models run independently, a model whose last round is still running skips the period, rather than delaying the
+ * other models. A round taking longer than the period is reported as overrun.
+ */
 @Slf4j
 public enum PersistenceTimer {
     INSTANCE;
     @VisibleForTesting
     boolean isStarted = false;
     private CounterMetrics errorCounter;
+    private CounterMetrics skippedCounter;
+    private CounterMetrics overrunCounter;
     private HistogramMetrics prepareLatency;
     private HistogramMetrics executeLatency;
     private HistogramMetrics allLatency;
+    private MetricsCreator metricsCreator;
     private ExecutorService prepareExecutorService;
+    private ExecutorService chunkExecutorService;
+    private long persistentPeriodMillis;
+    private final Map<PersistenceWorker<? extends StorageData>, ModelRound> rounds = new ConcurrentHashMap<>();
 
     PersistenceTimer() {
     }
@@ -59,14 +74,24 @@ public enum PersistenceTimer {
         IBatchDAO batchDAO =
             moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
 
-        MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
-                                                     .provider()
-                                                     .getService(MetricsCreator.class);
+        metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                      .provider()
+                                      .getService(MetricsCreator.class);
         errorCounter = metricsCreator.createCounter(
             "persistence_timer_bulk_error_count",
             "Error execution of the prepare stage in persistence timer",
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
         );
+        skippedCounter = metricsCreator.createCounter(
+            "persistence_timer_bulk_skipped_count",
+            "Rounds skipped in persistence timer, as the last round of the model is still running",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        overrunCounter = metricsCreator.createCounter(
+            "persistence_timer_bulk_overrun_count",
+            "Rounds taking longer than the persistent period in persistence timer",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
         prepareLatency = metricsCreator.createHistogramMetric(
             "persistence_timer_bulk_prepare_latency",
             "Latency of the prepare stage in persistence timer",
@@ -82,12 +107,14 @@ public enum PersistenceTimer {
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
         );
 
+        persistentPeriodMillis = TimeUnit.SECONDS.toMillis(moduleConfig.getPersistentPeriod());
         prepareExecutorService = Executors.newFixedThreadPool(moduleConfig.getPrepareThreads());
+        chunkExecutorService = Executors.newFixedThreadPool(moduleConfig.getPrepareThreads());
         if (!isStarted) {
             Executors.newSingleThreadScheduledExecutor()
                      .scheduleWithFixedDelay(
                          new RunnableWithExceptionProtection(
-                             () -> extractDataAndSave(batchDAO).join(),
+                             () -> extractDataAndSave(batchDAO),
                              t -> log.error("Extract data and save failure.", t)
                          ), 5, moduleConfig.getPersistentPeriod(), TimeUnit.SECONDS
                      );
@@ -96,6 +123,11 @@ public enum PersistenceTimer {
         }
     }
 
+    /**
+     * Start a round for every model not in a round.
+     *
+     * @return completes when all the started rounds complete.
+     */
     private CompletableFuture<Void> extractDataAndSave(IBatchDAO batchDAO) {
         if (log.isDebugEnabled()) {
             log.debug("Extract data and save");
@@ -108,34 +140,20 @@ public enum PersistenceTimer {
         workers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
         workers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
 
-        final CompletableFuture<Void> future =
-            CompletableFuture.allOf(workers.stream().map(worker -> {
-                return CompletableFuture.runAsync(() -> {
-                    List<PrepareRequest> innerPrepareRequests;
-                    // Prepare stage
-                    try (HistogramMetrics.Timer ignored = prepareLatency.createTimer()) {
-                        if (log.isDebugEnabled()) {
-                            log.debug(
-                                "extract {} worker data and save",
-                                worker.getClass().getName()
-                            );
-                        }
-
-                        innerPrepareRequests = worker.buildBatchRequests();
-
-                        worker.endOfRound();
-                    }
-
-                    if (CollectionUtils.isEmpty(innerPrepareRequests)) {
-                        return;
-                    }
-
-                    // Execution stage
-                    HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
-                    batchDAO.flush(innerPrepareRequests)
-                            .whenComplete(($1, $2) -> executeLatencyTimer.close());
-                }, prepareExecutorService);
-            }).toArray(CompletableFuture[]::new));
+        final List<CompletableFuture<Void>> started = new ArrayList<>(workers.size());
+        for (PersistenceWorker<? extends StorageData> worker : workers) {
+            final ModelRound round = rounds.computeIfAbsent(worker, ModelRound::new);
+            if (!round.running.compareAndSet(false, true)) {
+                skippedCounter.inc();
+                if (log.isDebugEnabled()) {
+                    log.debug("Skip the round of {}, the last round is still running", round.modelName);
+                }
+                continue;
+            }
+            started.add(round.start(batchDAO));
+        }
+
+        final CompletableFuture<Void> future = CompletableFuture.allOf(started.toArray(new CompletableFuture[0]));
         future.whenComplete((unused, throwable) -> {
             allTimer.close();
             if (log.isDebugEnabled()) {
@@ -144,11 +162,87 @@ public enum PersistenceTimer {
                     System.currentTimeMillis() - startTime
                 );
             }
-            if (throwable != null) {
-                errorCounter.inc();
-                log.error(throwable.getMessage(), throwable);
-            }
         });
         return future;
     }
+
+    /**
+     * The rounds of one model, at most one round at a time.
+     */
+    private class ModelRound {
+        private final PersistenceWorker<? extends StorageData> worker;
+        private final String modelName;
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final HistogramMetrics modelPrepareLatency;
+        private final HistogramMetrics modelExecuteLatency;
+
+        private ModelRound(PersistenceWorker<? extends StorageData> worker) {
+            this.worker = worker;
+            final Model model = worker.getModel();
+            this.modelName = model == null ? worker.getClass().getSimpleName() : model.getName();
+            final String dimensionality = model == null ? "" : model.getDownsampling().getName();
+            final MetricsTag.Keys keys = new MetricsTag.Keys("metricName", "dimensionality");
+            final MetricsTag.Values values = new MetricsTag.Values(modelName, dimensionality);
+            modelPrepareLatency = metricsCreator.createHistogramMetric(
+                "persistence_timer_model_prepare_latency",
+                "Latency of the prepare stage of each model in persistence timer", keys, values
+            );
+            modelExecuteLatency = metricsCreator.createHistogramMetric(
+                "persistence_timer_model_execute_latency",
+                "Latency of the execute stage of each model in persistence timer", keys, values
+            );
+        }
+
+        private CompletableFuture<Void> start(IBatchDAO batchDAO) {
+            final long deadline = System.currentTimeMillis() + persistentPeriodMillis;
+            worker.setChunkExecutor(chunkExecutorService);
+            return CompletableFuture.supplyAsync(this::prepare, prepareExecutorService)
+                                    .thenCompose(prepareRequests -> execute(batchDAO, prepareRequests))
+                                    .whenComplete((unused, throwable) -> {
+                                        running.set(false);
+                                        if (throwable != null) {
+                                            errorCounter.inc();
+                                            log.error(throwable.getMessage(), throwable);
+                                        }
+                                        if (System.currentTimeMillis() > deadline) {
+                                            overrunCounter.inc();
+                                            log.warn(
+                                                "The persistence round of {} takes longer than the persistent period",
+                                                modelName
+                                            );
+                                        }
+                                    });
+        }
+
+        private List<PrepareRequest> prepare() {
+            try (HistogramMetrics.Timer ignored = prepareLatency.createTimer();
+                 HistogramMetrics.Timer ignored2 = modelPrepareLatency.createTimer()) {
+                if (log.isDebugEnabled()) {
+                    log.debug(
+                        "extract {} worker data and save",
+                        worker.getClass().getName()
+                    );
+                }
+
+                final List<PrepareRequest> prepareRequests = worker.buildBatchRequests();
+
+                worker.endOfRound();
+                return prepareRequests;
+            }
+        }
+
+        private CompletableFuture<Void> execute(IBatchDAO batchDAO, List<PrepareRequest> prepareRequests) {
+            if (CollectionUtils.isEmpty(prepareRequests)) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
+            HistogramMetrics.Timer modelExecuteLatencyTimer = modelExecuteLatency.createTimer();
+            return batchDAO.flush(prepareRequests)
+                           .whenComplete(($1, $2) -> {
+                               executeLatencyTimer.close();
+                               modelExecuteLatencyTimer.close();
+                           });
+        }
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage;
+
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
+
+/**
+ * An optional capability of the storage builders, writing the columns of the entity into a {@link ColumnWriter}
+ * without building a map of boxed values. The columns are the same as the ones of {@link
+ * StorageHashMapBuilder#entity2Storage(StorageData)}, which is still the fallback of the storage implementations
+ * when the builder doesn't implement this.
+ *
+ * @param <T> A storage entity implementation.
+ */
+public interface StreamingStorageBuilder<T extends StorageData> {
+
+    void entity2Columns(T storageData, ColumnWriter writer);
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.type;
+
+/**
+ * ColumnWriter receives the columns of a storage entity one by one. The storage implementation writes them into its
+ * native format directly, such as a JSON generator, a prepared statement or a tablet.
+ */
+public interface ColumnWriter {
+    void write(String column, long value);
+
+    void write(String column, int value);
+
+    void write(String column, double value);
+
+    /**
+     * @param value String, byte array, {@link StorageDataComplexObject} or null.
+     */
+    void write(String column, Object value);
+}
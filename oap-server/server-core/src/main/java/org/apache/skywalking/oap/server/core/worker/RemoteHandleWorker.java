@@ -21,10 +21,12 @@ package org.apache.skywalking.oap.server.core.worker;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataFactory;
 
 @AllArgsConstructor
 @Getter
 public class RemoteHandleWorker {
     private AbstractWorker worker;
     private Class<? extends StreamData> streamDataClass;
+    private StreamDataFactory streamDataFactory;
 }
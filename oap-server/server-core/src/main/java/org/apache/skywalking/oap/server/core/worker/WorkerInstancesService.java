@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataFactoryGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,7 +49,8 @@ public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerIns
         if (instances.containsKey(remoteReceiverWorkName)) {
             throw new UnexpectedException("Duplicate worker name:" + remoteReceiverWorkName);
         }
-        instances.put(remoteReceiverWorkName, new RemoteHandleWorker(instance, streamDataClass));
+        instances.put(remoteReceiverWorkName, new RemoteHandleWorker(
+            instance, streamDataClass, StreamDataFactoryGenerator.generate(streamDataClass)));
         LOGGER.debug("Worker {} has been registered as {}", instance.toString(), remoteReceiverWorkName);
     }
 }
@@ -18,6 +18,9 @@
 
 package org.apache.skywalking.oap.server.core.analysis;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -49,4 +52,52 @@ public class IDManagerTest {
         Assert.assertEquals(define, serviceRelationDefine);
     }
 
+    @Test
+    public void testServiceInstanceID() {
+        final String serviceId = IDManager.ServiceID.buildId("Service", true);
+        final IDManager.ServiceInstanceID.InstanceIDDefinition define = IDManager.ServiceInstanceID.analysisId(
+            IDManager.ServiceInstanceID.buildId(serviceId, "instance@10.0.0.1"));
+        Assert.assertEquals(serviceId, define.getServiceId());
+        Assert.assertEquals("instance@10.0.0.1", define.getName());
+    }
+
+    @Test
+    public void testEndpointID() {
+        final String serviceId = IDManager.ServiceID.buildId("Service", false);
+        final IDManager.EndpointID.EndpointIDDefinition define = IDManager.EndpointID.analysisId(
+            IDManager.EndpointID.buildId(serviceId, "GET:/orders/{id}"));
+        Assert.assertEquals(serviceId, define.getServiceId());
+        Assert.assertEquals("GET:/orders/{id}", define.getEndpointName());
+    }
+
+    @Test
+    public void testEndpointRelationID() {
+        IDManager.EndpointID.EndpointRelationDefine define = new IDManager.EndpointID.EndpointRelationDefine(
+            IDManager.ServiceID.buildId("ServiceSource", true),
+            "/source",
+            IDManager.ServiceID.buildId("ServiceDest", true),
+            "/dest"
+        );
+
+        final String relationId = IDManager.EndpointID.buildRelationId(define);
+        Assert.assertEquals(define, IDManager.EndpointID.analysisRelationId(relationId));
+    }
+
+    @Test
+    public void testDecodeNotEncodedName() {
+        final String name = "/orders/\u00e9t\u00e9";
+        final String serviceId = IDManager.ServiceID.buildId("Service", true);
+        final String encoded = Base64.getEncoder().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(name, IDManager.EndpointID.analysisId(serviceId + "_" + encoded).getEndpointName());
+    }
+
+    @Test(expected = UnexpectedException.class)
+    public void testIllegalServiceID() {
+        IDManager.ServiceID.analysisId("U2VydmljZQ==.1.1");
+    }
+
+    @Test(expected = UnexpectedException.class)
+    public void testIllegalEndpointRelationID() {
+        IDManager.EndpointID.analysisRelationId("U2VydmljZQ==.1-L3NvdXJjZQ==-U2VydmljZQ==.1");
+    }
 }
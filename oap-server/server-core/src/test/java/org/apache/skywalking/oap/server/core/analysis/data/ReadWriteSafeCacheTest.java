@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReadWriteSafeCacheTest {
+    @Test
+    public void testMergeStripes() throws InterruptedException {
+        final ReadWriteSafeCache<CountMetricsMocker> cache = new ReadWriteSafeCache<>(MergableBufferedData::new, 4);
+        final int threads = 8;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    cache.write(new CountMetricsMocker("a"));
+                    cache.write(new CountMetricsMocker("b"));
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+
+        final List<CountMetricsMocker> data = cache.read();
+        Assert.assertEquals(2, data.size());
+        for (CountMetricsMocker metrics : data) {
+            Assert.assertEquals(threads * 100, metrics.getValue());
+        }
+        Assert.assertEquals(0, cache.read().size());
+    }
+
+    @Test
+    public void testReadView() {
+        final ReadWriteSafeCache<CountMetricsMocker> cache = new ReadWriteSafeCache<>(
+            new MergableBufferedData<>(), new MergableBufferedData<>());
+        cache.write(new CountMetricsMocker("a"));
+        cache.write(new CountMetricsMocker("a"));
+        cache.write(new CountMetricsMocker("b"));
+
+        final Collection<CountMetricsMocker> view = cache.readView();
+        Assert.assertEquals(2, view.size());
+        final List<String> ids = new ArrayList<>();
+        long sum = 0;
+        for (CountMetricsMocker metrics : view) {
+            ids.add(metrics.id());
+            sum += metrics.getValue();
+        }
+        Assert.assertTrue(ids.contains("a"));
+        Assert.assertTrue(ids.contains("b"));
+        Assert.assertEquals(3, sum);
+
+        cache.write(new CountMetricsMocker("c"));
+        final Collection<CountMetricsMocker> next = cache.readView();
+        Assert.assertEquals(1, next.size());
+        Assert.assertEquals("c", next.iterator().next().id());
+
+        Assert.assertTrue(cache.readView().isEmpty());
+    }
+
+    private static class CountMetricsMocker extends CountMetrics {
+        private final String id;
+
+        private CountMetricsMocker(String id) {
+            this.id = id;
+            combine(1);
+        }
+
+        @Override
+        protected String id0() {
+            return id;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+    }
+}
@@ -19,14 +19,11 @@
 package org.apache.skywalking.oap.server.core.analysis.meter.function;
 
 import java.util.Map;
-import java.util.stream.IntStream;
 import org.apache.skywalking.oap.server.core.analysis.Layer;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
-import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketHistogram;
 import org.apache.skywalking.oap.server.core.config.NamingControl;
 import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
-import org.apache.skywalking.oap.server.core.query.type.HeatMap;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -93,9 +90,10 @@ public class HistogramFunctionTest {
             })
         );
 
-        final int[] results = inst.getDataset().sortedValues(new HeatMap.KeyComparator(true)).stream()
-                                  .flatMapToInt(l -> IntStream.of(l.intValue()))
-                                  .toArray();
+        final int[] results = new int[inst.getDataset().size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = (int) inst.getDataset().countAt(i);
+        }
         Assert.assertArrayEquals(new int[] {
             1,
             6,
@@ -129,7 +127,7 @@ public class HistogramFunctionTest {
             })
         );
 
-        Assert.assertEquals(1L, inst.getDataset().get(Bucket.INFINITE_NEGATIVE).longValue());
+        Assert.assertEquals(1L, inst.getDataset().get(Long.MIN_VALUE));
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -220,7 +218,7 @@ public class HistogramFunctionTest {
 
         // Simulate the storage layer do, convert the datatable to string.
         final Map map = storageBuilder.entity2Storage(inst);
-        map.put(DATASET, ((DataTable) map.get(DATASET)).toStorageData());
+        map.put(DATASET, ((BucketHistogram) map.get(DATASET)).toStorageData());
 
         final HistogramFunction inst2 = (HistogramFunction) storageBuilder.storage2Entity(map);
         Assert.assertEquals(inst, inst2);
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.core.analysis.meter.function;
 import java.util.Map;
 import org.apache.skywalking.oap.server.core.analysis.Layer;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketHistogram;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
 import org.apache.skywalking.oap.server.core.config.NamingControl;
@@ -203,7 +204,7 @@ public class PercentileFunctionTest {
 
         // Simulate the storage layer do, convert the datatable to string.
         final Map map = storageBuilder.entity2Storage(inst);
-        map.put(PercentileFunction.DATASET, ((DataTable) map.get(PercentileFunction.DATASET)).toStorageData());
+        map.put(PercentileFunction.DATASET, ((BucketHistogram) map.get(PercentileFunction.DATASET)).toStorageData());
         map.put(PercentileFunction.VALUE, ((DataTable) map.get(PercentileFunction.VALUE)).toStorageData());
         map.put(PercentileFunction.RANKS, ((IntList) map.get(PercentileFunction.RANKS)).toStorageData());
 
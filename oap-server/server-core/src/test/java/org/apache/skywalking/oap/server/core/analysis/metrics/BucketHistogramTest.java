@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BucketHistogramTest {
+
+    private BucketHistogram histogram;
+
+    @Before
+    public void init() {
+        histogram = new BucketHistogram(2);
+        histogram.add(5, 500L);
+        histogram.add(6, 600L);
+        histogram.add(1, 100L);
+        histogram.add(2, 200L);
+        histogram.add(7, 700L);
+        histogram.increment(Long.MIN_VALUE);
+    }
+
+    @Test
+    public void sorted() {
+        Assert.assertEquals(6, histogram.size());
+        Assert.assertEquals(Long.MIN_VALUE, histogram.bucketAt(0));
+        Assert.assertEquals(1, histogram.bucketAt(1));
+        Assert.assertEquals(7, histogram.bucketAt(5));
+        Assert.assertEquals(2101L, histogram.sumOfCounts());
+        Assert.assertEquals(0L, histogram.get(3));
+    }
+
+    @Test
+    public void storageDataRoundTrip() {
+        final String data = histogram.toStorageData();
+        Assert.assertEquals("infinite-,1|1,100|2,200|5,500|6,600|7,700", data);
+        Assert.assertEquals(histogram.toDataTable(), new DataTable(data));
+        Assert.assertEquals(histogram, new BucketHistogram(data));
+        Assert.assertEquals(new BucketHistogram(), new BucketHistogram(new BucketHistogram().toStorageData()));
+    }
+
+    @Test
+    public void binaryStorageDataRoundTrip() {
+        BucketHistogram.setBinaryFormat(true);
+        try {
+            final String data = histogram.toStorageData();
+            Assert.assertTrue(data.startsWith(BucketHistogram.BINARY_PREFIX));
+            Assert.assertEquals(histogram, new BucketHistogram(data));
+            Assert.assertEquals(new BucketHistogram(), new BucketHistogram(new BucketHistogram().toStorageData()));
+        } finally {
+            BucketHistogram.setBinaryFormat(false);
+        }
+    }
+
+    @Test
+    public void readDataTableFormat() {
+        final BucketHistogram legacy = new BucketHistogram("infinite-,1|1,100|2,200|5,500|6,600|7,700");
+        Assert.assertEquals(histogram, legacy);
+        Assert.assertEquals(legacy.toDataTable(), new DataTable("infinite-,1|1,100|2,200|5,500|6,600|7,700"));
+    }
+
+    @Test
+    public void merge() {
+        final BucketHistogram same = new BucketHistogram();
+        same.add(1, 1L);
+        same.add(7, 1L);
+        histogram.merge(same);
+        Assert.assertEquals(101L, histogram.get(1));
+        Assert.assertEquals(701L, histogram.get(7));
+
+        final BucketHistogram other = new BucketHistogram();
+        other.add(0, 1L);
+        other.add(6, 1L);
+        other.add(100, 1L);
+        histogram.merge(other);
+        Assert.assertEquals(8, histogram.size());
+        Assert.assertEquals(1L, histogram.get(0));
+        Assert.assertEquals(601L, histogram.get(6));
+        Assert.assertEquals(100, histogram.bucketAt(7));
+    }
+
+    @Test
+    public void percentiles() {
+        final BucketHistogram values = new BucketHistogram();
+        for (int i = 1; i <= 100; i++) {
+            values.increment(i);
+        }
+        final long[] results = new long[3];
+        Assert.assertEquals(3, values.percentiles(new int[] {50, 90, 99}, results));
+        Assert.assertArrayEquals(new long[] {50, 90, 99}, results);
+
+        Assert.assertEquals(0, new BucketHistogram().percentiles(new int[] {50}, results));
+    }
+}
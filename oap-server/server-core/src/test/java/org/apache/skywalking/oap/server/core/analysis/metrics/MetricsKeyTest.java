@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsKeyTest {
+    @Test
+    public void testSameFields() {
+        Assert.assertEquals(
+            MetricsKey.of(202201011200L, "c2VydmljZQ==.1"),
+            MetricsKey.of(202201011200L, "c2VydmljZQ==.1")
+        );
+        Assert.assertEquals(
+            MetricsKey.of(202201011200L, "c2VydmljZQ==.1").hashCode(),
+            MetricsKey.of(202201011200L, "c2VydmljZQ==.1").hashCode()
+        );
+    }
+
+    @Test
+    public void testDifferentFields() {
+        Assert.assertNotEquals(MetricsKey.of(202201011200L, "a"), MetricsKey.of(202201011201L, "a"));
+        Assert.assertNotEquals(MetricsKey.of(202201011200L, "a"), MetricsKey.of(202201011200L, "b"));
+        Assert.assertNotEquals(MetricsKey.of(202201011200L, null), MetricsKey.of(202201011200L, ""));
+        Assert.assertNotEquals(
+            MetricsKey.newBuilder(202201011200L).append("a").append("bc").build(),
+            MetricsKey.newBuilder(202201011200L).append("ab").append("c").build()
+        );
+        Assert.assertNotEquals(
+            MetricsKey.newBuilder(202201011200L).append("a").append(1).build(),
+            MetricsKey.newBuilder(202201011200L).append("a").append(2).build()
+        );
+    }
+
+    @Test
+    public void testNoCollision() {
+        Set<MetricsKey> keys = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            keys.add(MetricsKey.of(202201011200L, "service-" + i + ".1"));
+        }
+        Assert.assertEquals(100000, keys.size());
+    }
+}
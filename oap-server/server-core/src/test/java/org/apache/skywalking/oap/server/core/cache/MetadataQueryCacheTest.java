@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.query.type.Endpoint;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetadataQueryCacheTest {
+    private ModuleManagerTesting moduleManager;
+    private AtomicInteger hits;
+    private AtomicInteger misses;
+
+    @Before
+    public void setUp() {
+        hits = new AtomicInteger();
+        misses = new AtomicInteger();
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(eq("metadata_query_cache_hit_count"), any(), any(), any()))
+            .thenReturn(counter(hits));
+        when(metricsCreator.createCounter(eq("metadata_query_cache_miss_count"), any(), any(), any()))
+            .thenReturn(counter(misses));
+
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
+    }
+
+    @Test
+    public void testReadThrough() throws IOException {
+        MetadataQueryCache cache = new MetadataQueryCache(moduleManager, 10, 100, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(
+                Collections.singletonList("a"),
+                cache.get("listServices", () -> {
+                    loads.incrementAndGet();
+                    return Collections.singletonList("a");
+                }, "layer", null)
+            );
+        }
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(2, hits.get());
+        Assert.assertEquals(1, misses.get());
+
+        // The other arguments are the other key.
+        cache.get("listServices", () -> {
+            loads.incrementAndGet();
+            return Collections.emptyList();
+        }, "other", null);
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testNoCache() throws IOException {
+        MetadataQueryCache cache = new MetadataQueryCache(moduleManager, 0, 100, 0);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            cache.get("listLayers", () -> {
+                loads.incrementAndGet();
+                return Collections.emptySet();
+            });
+        }
+        Assert.assertEquals(3, loads.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadFailure() throws IOException {
+        MetadataQueryCache cache = new MetadataQueryCache(moduleManager, 10, 100, 0);
+        cache.get("listLayers", () -> {
+            throw new IOException("storage is down");
+        });
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        MetadataQueryCache cache = new MetadataQueryCache(moduleManager, 10, 100, 0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> cache.get("listInstances", () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return Collections.singletonList("instance");
+                }, 1L, 2L, "service")));
+            }
+            Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // Let the other lookups wait for the loading one.
+            TimeUnit.MILLISECONDS.sleep(200);
+            release.countDown();
+            for (Future<List<String>> future : futures) {
+                Assert.assertEquals(Collections.singletonList("instance"), future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testEndpointIndex() throws IOException {
+        MetadataQueryCache cache = new MetadataQueryCache(moduleManager, 10, 100, 3);
+        AtomicInteger indexLoads = new AtomicInteger();
+        List<Endpoint> endpoints = Arrays.asList(endpoint("/api/users"), endpoint("/api/orders"), endpoint("/health"));
+
+        List<Endpoint> found = cache.findEndpoint("api", "service", 10, limit -> {
+            indexLoads.incrementAndGet();
+            Assert.assertEquals(4, limit);
+            return endpoints;
+        }, () -> {
+            throw new IOException("should be found in the index");
+        });
+        Assert.assertEquals(
+            Arrays.asList("/api/users", "/api/orders"),
+            found.stream().map(Endpoint::getName).collect(Collectors.toList())
+        );
+
+        found = cache.findEndpoint("/", "service", 1, limit -> {
+            indexLoads.incrementAndGet();
+            return endpoints;
+        }, () -> {
+            throw new IOException("should be found in the index");
+        });
+        Assert.assertEquals(1, found.size());
+        Assert.assertEquals(1, indexLoads.get());
+    }
+
+    @Test
+    public void testEndpointIndexOverflow() throws IOException {
+        MetadataQueryCache cache = new MetadataQueryCache(moduleManager, 10, 100, 1);
+        List<Endpoint> endpoints = Arrays.asList(endpoint("/api/users"), endpoint("/api/orders"));
+
+        // Too many endpoints to index, so the keyword is searched in the storage.
+        List<Endpoint> found = cache.findEndpoint(
+            "orders", "service", 10, limit -> endpoints, () -> Collections.singletonList(endpoint("/api/orders")));
+        Assert.assertEquals(1, found.size());
+        Assert.assertEquals("/api/orders", found.get(0).getName());
+    }
+
+    private static Endpoint endpoint(String name) {
+        Endpoint endpoint = new Endpoint();
+        endpoint.setId(name);
+        endpoint.setName(name);
+        return endpoint;
+    }
+
+    private static CounterMetrics counter(AtomicInteger count) {
+        return new CounterMetrics() {
+            @Override
+            public void inc() {
+                count.incrementAndGet();
+            }
+
+            @Override
+            public void inc(double value) {
+                count.addAndGet((int) value);
+            }
+        };
+    }
+}
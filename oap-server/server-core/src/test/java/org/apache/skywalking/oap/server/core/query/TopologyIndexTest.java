@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationClientSideMetrics;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationServerSideMetrics;
+import org.apache.skywalking.oap.server.core.query.type.Call;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopologyIndexTest {
+    private static final String SERVICE_A = IDManager.ServiceID.buildId("A", true);
+    private static final String SERVICE_B = IDManager.ServiceID.buildId("B", true);
+    private static final String SERVICE_C = IDManager.ServiceID.buildId("C", true);
+
+    @Test
+    public void testLoadServiceRelations() {
+        final TopologyIndex index = new TopologyIndex(
+            60, TimeBucket.getTimestamp(202111101010L, DownSampling.Minute) + 30_000);
+        index.index(serverSide(202111101011L, SERVICE_A, SERVICE_B));
+        index.index(serverSide(202111101012L, SERVICE_A, SERVICE_B));
+        index.index(serverSide(202111101012L, SERVICE_B, SERVICE_C));
+        index.index(clientSide(202111101012L, SERVICE_A, SERVICE_B));
+
+        Assert.assertFalse(index.covers(202111101010L));
+        Assert.assertTrue(index.covers(202111101011L));
+        Assert.assertFalse(index.covers(2021111010L));
+
+        List<Call.CallDetail> calls = index.loadServiceRelations(
+            202111101011L, 202111101012L, Collections.emptyList(), DetectPoint.SERVER);
+        Assert.assertEquals(2, calls.size());
+
+        calls = index.loadServiceRelations(
+            202111101011L, 202111101011L, Collections.emptyList(), DetectPoint.SERVER);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(SERVICE_A, calls.get(0).getSource());
+        Assert.assertEquals(SERVICE_B, calls.get(0).getTarget());
+        Assert.assertEquals(DetectPoint.SERVER, calls.get(0).getDetectPoint());
+
+        calls = index.loadServiceRelations(
+            202111101011L, 202111101012L, Arrays.asList(SERVICE_C), DetectPoint.SERVER);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(SERVICE_B, calls.get(0).getSource());
+
+        calls = index.loadServiceRelations(
+            202111101011L, 202111101012L, Collections.emptyList(), DetectPoint.CLIENT);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(DetectPoint.CLIENT, calls.get(0).getDetectPoint());
+    }
+
+    @Test
+    public void testRetain() {
+        final TopologyIndex index = new TopologyIndex(
+            2, TimeBucket.getTimestamp(202111101010L, DownSampling.Minute));
+        index.index(serverSide(202111101011L, SERVICE_A, SERVICE_B));
+        index.index(serverSide(202111101012L, SERVICE_B, SERVICE_C));
+        Assert.assertTrue(index.covers(202111101011L));
+
+        index.index(serverSide(202111101013L, SERVICE_A, SERVICE_C));
+        Assert.assertFalse(index.covers(202111101011L));
+        Assert.assertTrue(index.covers(202111101012L));
+
+        final List<Call.CallDetail> calls = index.loadServiceRelations(
+            202111101011L, 202111101013L, Collections.emptyList(), DetectPoint.SERVER);
+        Assert.assertEquals(2, calls.size());
+    }
+
+    private static ServiceRelationServerSideMetrics serverSide(long timeBucket, String source, String dest) {
+        final ServiceRelationServerSideMetrics metrics = new ServiceRelationServerSideMetrics();
+        metrics.setTimeBucket(timeBucket);
+        metrics.setSourceServiceId(source);
+        metrics.setDestServiceId(dest);
+        metrics.setComponentId(1);
+        metrics.setEntityId(
+            IDManager.ServiceID.buildRelationId(new IDManager.ServiceID.ServiceRelationDefine(source, dest)));
+        return metrics;
+    }
+
+    private static ServiceRelationClientSideMetrics clientSide(long timeBucket, String source, String dest) {
+        final ServiceRelationClientSideMetrics metrics = new ServiceRelationClientSideMetrics();
+        metrics.setTimeBucket(timeBucket);
+        metrics.setSourceServiceId(source);
+        metrics.setDestServiceId(dest);
+        metrics.setComponentId(1);
+        metrics.setEntityId(
+            IDManager.ServiceID.buildRelationId(new IDManager.ServiceID.ServiceRelationDefine(source, dest)));
+        return metrics;
+    }
+}
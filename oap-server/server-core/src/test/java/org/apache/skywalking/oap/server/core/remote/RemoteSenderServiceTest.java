@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.junit.Test;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RemoteSenderServiceTest {
+    @Test
+    public void testBroadcast() {
+        List<RemoteClient> clients = ImmutableList.of(
+            mock(RemoteClient.class), mock(RemoteClient.class), mock(RemoteClient.class));
+        RemoteClientManager clientManager = mock(RemoteClientManager.class);
+        when(clientManager.getRemoteClient()).thenReturn(clients);
+        ModuleManager moduleManager = mock(ModuleManager.class, RETURNS_DEEP_STUBS);
+        when(moduleManager.find(CoreModule.NAME).provider().getService(RemoteClientManager.class))
+            .thenReturn(clientManager);
+
+        StreamData streamData = mock(StreamData.class);
+        new RemoteSenderService(moduleManager).broadcast("test_worker", streamData);
+
+        for (RemoteClient client : clients) {
+            verify(client).push("test_worker", streamData);
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.io.IOException;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
@@ -142,6 +143,97 @@ public class RemoteServiceHandlerTestCase {
         streamObserver.onCompleted();
     }
 
+    @Test
+    public void callBatchTest() throws DuplicateProviderException, ProviderNotFoundException, IOException {
+        final String testWorkerId = "mock-worker";
+
+        ModuleManagerTesting moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting moduleDefine = new ModuleDefineTesting();
+        moduleManager.put(CoreModule.NAME, moduleDefine);
+
+        WorkerInstancesService workerInstancesService = new WorkerInstancesService();
+        moduleDefine.provider().registerServiceImplementation(IWorkerInstanceGetter.class, workerInstancesService);
+        moduleDefine.provider().registerServiceImplementation(IWorkerInstanceSetter.class, workerInstancesService);
+
+        CountingWorker worker = new CountingWorker(moduleManager);
+        workerInstancesService.put(testWorkerId, worker, TestRemoteData.class);
+
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
+            @Override
+            public void inc() {
+
+            }
+
+            @Override
+            public void inc(double value) {
+
+            }
+        });
+        when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(new HistogramMetrics() {
+            @Override
+            public void observe(double value) {
+
+            }
+        });
+
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
+
+        String serverName = InProcessServerBuilder.generateName();
+        gRPCCleanup.register(InProcessServerBuilder.forName(serverName)
+                                                   .directExecutor()
+                                                   .addService(new RemoteServiceHandler(moduleManager))
+                                                   .build()
+                                                   .start());
+
+        RemoteServiceGrpc.RemoteServiceStub remoteServiceStub = RemoteServiceGrpc.newStub(gRPCCleanup.register(InProcessChannelBuilder
+            .forName(serverName)
+            .directExecutor()
+            .build()));
+
+        StreamObserver<RemoteBatch> streamObserver = remoteServiceStub.callBatch(new StreamObserver<Empty>() {
+            @Override
+            public void onNext(Empty empty) {
+
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+
+            }
+
+            @Override
+            public void onCompleted() {
+
+            }
+        });
+
+        RemoteData.Builder remoteData = RemoteData.newBuilder();
+        remoteData.addDataStrings("test1");
+        remoteData.addDataStrings("test2");
+        remoteData.addDataLongs(10);
+        remoteData.addDataLongs(20);
+
+        RemoteBatchCodec.Encoder encoder = new RemoteBatchCodec.Encoder(true);
+        encoder.add(testWorkerId, remoteData.build());
+        encoder.add("not-found-worker", remoteData.build());
+        encoder.add(testWorkerId, remoteData.build());
+        RemoteBatch batch = encoder.build();
+        Assert.assertEquals(2, batch.getNextWorkerNamesCount());
+        streamObserver.onNext(batch);
+
+        // The worker IDs are defined by the previous batch of the stream.
+        encoder.add(testWorkerId, remoteData.build());
+        batch = encoder.build();
+        Assert.assertEquals(0, batch.getNextWorkerNamesCount());
+        streamObserver.onNext(batch);
+        streamObserver.onCompleted();
+
+        Assert.assertEquals(3, worker.count);
+    }
+
     static class TestRemoteData extends StreamData {
 
         private String str1;
@@ -173,6 +265,20 @@ public class RemoteServiceHandlerTestCase {
         }
     }
 
+    static class CountingWorker extends TestWorker {
+        private int count;
+
+        public CountingWorker(ModuleDefineHolder moduleDefineHolder) {
+            super(moduleDefineHolder);
+        }
+
+        @Override
+        public void in(Object o) {
+            super.in(o);
+            count++;
+        }
+    }
+
     static class TestWorker extends AbstractWorker {
 
         public TestWorker(ModuleDefineHolder moduleDefineHolder) {
@@ -18,12 +18,22 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcServerRule;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
@@ -39,6 +49,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.powermock.reflect.Whitebox;
 
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doReturn;
@@ -113,6 +124,169 @@ public class GRPCRemoteClientTestCase {
         TimeUnit.SECONDS.sleep(2);
     }
 
+    @Test
+    public void testFallbackToV1() throws InterruptedException {
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
+            @Override
+            public void inc() {
+
+            }
+
+            @Override
+            public void inc(double value) {
+
+            }
+        });
+
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
+
+        // The server of the previous version, which only supports the v1 protocol.
+        final AtomicInteger received = new AtomicInteger();
+        grpcServerRule.getServiceRegistry().addService(v1Service(received));
+
+        Address address = new Address("not-important", 11, false);
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, 10, null, true));
+        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        remoteClient.connect();
+
+        // The message sent in the v2 protocol is resent in the v1 protocol.
+        remoteClient.push(nextWorkerName, new TestStreamData());
+        TimeUnit.SECONDS.sleep(1);
+        Assert.assertEquals(1, received.get());
+
+        for (int i = 0; i < 3; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+        TimeUnit.SECONDS.sleep(1);
+        Assert.assertEquals(4, received.get());
+    }
+
+    @Test
+    public void testProbeV2AfterReconnect() throws Exception {
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
+            @Override
+            public void inc() {
+
+            }
+
+            @Override
+            public void inc(double value) {
+
+            }
+        });
+
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
+
+        final String serverName = InProcessServerBuilder.generateName();
+        final AtomicInteger received = new AtomicInteger();
+        Server server = InProcessServerBuilder.forName(serverName)
+                                              .directExecutor()
+                                              .addService(v1Service(received))
+                                              .build()
+                                              .start();
+        final ManagedChannel channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+
+        Address address = new Address("not-important", 11, false);
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, 10, null));
+        doReturn(channel).when(remoteClient).getChannel();
+        try {
+            remoteClient.connect();
+
+            remoteClient.push(nextWorkerName, new TestStreamData());
+            TimeUnit.SECONDS.sleep(1);
+            Assert.assertEquals(1, received.get());
+            Assert.assertTrue(Whitebox.getInternalState(remoteClient, "batchUnsupported"));
+
+            // The server is upgraded in place, to the version supporting the v2 protocol.
+            server.shutdownNow().awaitTermination();
+            final AtomicInteger batches = new AtomicInteger();
+            server = InProcessServerBuilder.forName(serverName)
+                                           .directExecutor()
+                                           .addService(v2Service(received, batches))
+                                           .build()
+                                           .start();
+
+            for (int i = 0; i < 20 && batches.get() == 0; i++) {
+                remoteClient.push(nextWorkerName, new TestStreamData());
+                TimeUnit.MILLISECONDS.sleep(200);
+            }
+            Assert.assertTrue(batches.get() > 0);
+            Assert.assertFalse(Whitebox.getInternalState(remoteClient, "batchUnsupported"));
+        } finally {
+            remoteClient.close();
+            channel.shutdownNow();
+            server.shutdownNow();
+        }
+    }
+
+    /**
+     * The remote service of the previous version, which only supports the v1 protocol.
+     */
+    private RemoteServiceGrpc.RemoteServiceImplBase v1Service(final AtomicInteger received) {
+        return new RemoteServiceGrpc.RemoteServiceImplBase() {
+            @Override
+            public StreamObserver<RemoteMessage> call(final StreamObserver<Empty> responseObserver) {
+                return new StreamObserver<RemoteMessage>() {
+                    @Override
+                    public void onNext(final RemoteMessage message) {
+                        Assert.assertEquals(nextWorkerName, message.getNextWorkerName());
+                        received.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(final Throwable throwable) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onNext(Empty.newBuilder().build());
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * The remote service supporting both the v1 and the v2 protocol, counting the v2 batches.
+     */
+    private RemoteServiceGrpc.RemoteServiceImplBase v2Service(final AtomicInteger received,
+                                                              final AtomicInteger batches) {
+        final RemoteServiceGrpc.RemoteServiceImplBase v1 = v1Service(received);
+        return new RemoteServiceGrpc.RemoteServiceImplBase() {
+            @Override
+            public StreamObserver<RemoteMessage> call(final StreamObserver<Empty> responseObserver) {
+                return v1.call(responseObserver);
+            }
+
+            @Override
+            public StreamObserver<RemoteBatch> callBatch(final StreamObserver<Empty> responseObserver) {
+                return new StreamObserver<RemoteBatch>() {
+                    @Override
+                    public void onNext(final RemoteBatch batch) {
+                        batches.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(final Throwable throwable) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onNext(Empty.newBuilder().build());
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        };
+    }
+
     public static class TestStreamData extends StreamData {
 
         private long value;
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StreamDataFactoryGeneratorTest {
+    @Test
+    public void testGenerate() {
+        StreamDataFactory factory = StreamDataFactoryGenerator.generate(PublicStreamData.class);
+        Assert.assertTrue(
+            factory.getClass().getName().startsWith("org.apache.skywalking.oap.server.core.remote.data.factory."));
+        Assert.assertTrue(factory.newInstance() instanceof PublicStreamData);
+        Assert.assertNotSame(factory.newInstance(), factory.newInstance());
+        Assert.assertSame(factory, StreamDataFactoryGenerator.generate(PublicStreamData.class));
+    }
+
+    @Test
+    public void testNonPublicClass() {
+        StreamDataFactory factory = StreamDataFactoryGenerator.generate(PrivateStreamData.class);
+        Assert.assertTrue(factory.newInstance() instanceof PrivateStreamData);
+    }
+
+    public static class PublicStreamData extends StreamData {
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder();
+        }
+    }
+
+    private static class PrivateStreamData extends PublicStreamData {
+    }
+}
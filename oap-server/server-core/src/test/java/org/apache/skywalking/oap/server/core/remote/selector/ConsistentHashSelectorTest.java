@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConsistentHashSelectorTest {
+    private static final int KEYS = 100000;
+
+    private ModuleManagerTesting moduleManager;
+
+    @Before
+    public void setup() {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+    }
+
+    @Test
+    public void testStableAndBalanced() {
+        ConsistentHashSelector selector = new ConsistentHashSelector(moduleManager, 160, 0);
+        List<RemoteClient> clients = clients(3);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int key = 0; key < KEYS; key++) {
+            RemoteClient client = selector.select(clients, data(key));
+            Assert.assertSame(client, selector.select(clients, data(key)));
+            counts.merge(client.getAddress().toString(), 1, Integer::sum);
+        }
+        Assert.assertEquals(3, counts.size());
+        counts.values().forEach(count -> Assert.assertTrue(count > KEYS / 3 * 0.8));
+    }
+
+    @Test
+    public void testScaleOutMovesKeysToNewNodeOnly() {
+        ConsistentHashSelector selector = new ConsistentHashSelector(moduleManager, 160, 0);
+        List<RemoteClient> before = clients(3);
+        List<RemoteClient> after = clients(4);
+
+        Address[] from = new Address[KEYS];
+        for (int key = 0; key < KEYS; key++) {
+            from[key] = selector.select(before, data(key)).getAddress();
+        }
+        int moved = 0;
+        for (int key = 0; key < KEYS; key++) {
+            Address to = selector.select(after, data(key)).getAddress();
+            if (!from[key].equals(to)) {
+                moved++;
+                Assert.assertEquals("10.0.0.3", to.getHost());
+            }
+        }
+        Assert.assertTrue(moved < KEYS * 0.35);
+    }
+
+    @Test
+    public void testBoundedLoad() {
+        ConsistentHashSelector selector = new ConsistentHashSelector(moduleManager, 8, 0.1);
+        List<RemoteClient> clients = clients(5);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int key = 0; key < KEYS; key++) {
+            RemoteClient client = selector.select(clients, data(key));
+            counts.merge(client.getAddress().toString(), 1, Integer::sum);
+        }
+        counts.values().forEach(count -> Assert.assertTrue(count < KEYS / 5 * 1.1 * 1.05));
+    }
+
+    private static List<RemoteClient> clients(int size) {
+        ImmutableList.Builder<RemoteClient> clients = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            RemoteClient client = mock(RemoteClient.class);
+            when(client.getAddress()).thenReturn(new Address("10.0.0." + i, 11800, false));
+            clients.add(client);
+        }
+        return clients.build();
+    }
+
+    private static StreamData data(int hashCode) {
+        return new StreamData() {
+            @Override
+            public int remoteHashCode() {
+                return hashCode;
+            }
+
+            @Override
+            public void deserialize(final RemoteData remoteData) {
+            }
+
+            @Override
+            public RemoteData.Builder serialize() {
+                return null;
+            }
+        };
+    }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Data;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsPersistentWorker;
@@ -87,6 +88,74 @@ public class PersistenceTimerTest {
         Assert.assertEquals(count * workCount * 2, result.size());
     }
 
+    @Test
+    public void testSkipRunningModel() throws Exception {
+        CompletableFuture<Void> slowFlush = new CompletableFuture<>();
+        AtomicInteger slowRounds = new AtomicInteger();
+        AtomicInteger fastRounds = new AtomicInteger();
+        IBatchDAO iBatchDAO = new IBatchDAO() {
+            @Override
+            public void insert(InsertRequest insertRequest) {
+
+            }
+
+            @Override
+            public CompletableFuture<Void> flush(final List<PrepareRequest> prepareRequests) {
+                if (prepareRequests.contains(new MockStorageData("slow"))) {
+                    return slowFlush;
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        MetricsPersistentWorker slowWorker = genCountingWorker("slow", slowRounds);
+        MetricsPersistentWorker fastWorker = genCountingWorker("fast", fastRounds);
+        List<MetricsPersistentWorker> workers = MetricsStreamProcessor.getInstance().getPersistentWorkers();
+        workers.add(slowWorker);
+        workers.add(fastWorker);
+        try {
+            ModuleManager moduleManager = mock(ModuleManager.class);
+            ModuleServiceHolder moduleServiceHolder = mock(ModuleServiceHolder.class);
+            doReturn((ModuleProviderHolder) () -> moduleServiceHolder).when(moduleManager).find(anyString());
+            doReturn(new MetricsCreatorNoop()).when(moduleServiceHolder).getService(MetricsCreator.class);
+            doReturn(iBatchDAO).when(moduleServiceHolder).getService(IBatchDAO.class);
+            PersistenceTimer.INSTANCE.isStarted = true;
+            PersistenceTimer.INSTANCE.start(moduleManager, new CoreModuleConfig());
+
+            CompletableFuture<Void> slowRound = Whitebox.invokeMethod(
+                PersistenceTimer.INSTANCE, "extractDataAndSave", iBatchDAO);
+            // The fast model keeps going, while the slow one is flushing its first round.
+            for (int i = 0; i < 1000 && fastRounds.get() < 3; i++) {
+                CompletableFuture<Void> f = Whitebox.invokeMethod(
+                    PersistenceTimer.INSTANCE, "extractDataAndSave", iBatchDAO);
+                f.join();
+            }
+            Assert.assertTrue(fastRounds.get() >= 3);
+            Assert.assertEquals(1, slowRounds.get());
+            Assert.assertFalse(slowRound.isDone());
+
+            slowFlush.complete(null);
+            slowRound.join();
+            CompletableFuture<Void> f = Whitebox.invokeMethod(
+                PersistenceTimer.INSTANCE, "extractDataAndSave", iBatchDAO);
+            f.join();
+            Assert.assertEquals(2, slowRounds.get());
+        } finally {
+            workers.remove(slowWorker);
+            workers.remove(fastWorker);
+        }
+    }
+
+    private MetricsPersistentWorker genCountingWorker(String id, AtomicInteger rounds) {
+        MetricsPersistentWorker persistenceWorker = mock(MetricsPersistentWorker.class);
+        doAnswer(invocation -> {
+            rounds.incrementAndGet();
+            List<MockStorageData> results = new ArrayList<>(1);
+            results.add(new MockStorageData(id));
+            return results;
+        }).when(persistenceWorker).buildBatchRequests();
+        return persistenceWorker;
+    }
+
     private MetricsPersistentWorker genWorkers(int num, int count) {
         MetricsPersistentWorker persistenceWorker = mock(MetricsPersistentWorker.class);
         doAnswer(invocation -> {
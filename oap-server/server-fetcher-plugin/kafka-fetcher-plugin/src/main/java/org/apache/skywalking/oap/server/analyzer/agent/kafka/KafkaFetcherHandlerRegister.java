@@ -23,11 +23,14 @@ import com.google.common.collect.Lists;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -35,9 +38,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.BytesDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -45,30 +50,41 @@ import org.apache.kafka.common.utils.Bytes;
 import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.oap.server.analyzer.agent.kafka.module.KafkaFetcherConfig;
 import org.apache.skywalking.oap.server.analyzer.agent.kafka.provider.handler.KafkaHandler;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.module.ModuleStartException;
 import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 /**
  * Configuring and initializing a KafkaConsumer client as a dispatcher to delivery Kafka Message to registered handler by topic.
  */
 @Slf4j
 public class KafkaFetcherHandlerRegister implements Runnable {
+    private static final long LAG_UPDATE_INTERVAL = TimeUnit.SECONDS.toMillis(10);
 
     private ImmutableMap.Builder<String, KafkaHandler> builder = ImmutableMap.builder();
     private ImmutableMap<String, KafkaHandler> handlerMap;
 
     private List<TopicPartition> topicPartitions = Lists.newArrayList();
     private KafkaConsumer<String, Bytes> consumer = null;
+    private final ModuleManager moduleManager;
     private final KafkaFetcherConfig config;
     private final boolean isSharding;
     private final Properties properties;
 
     private int threadPoolSize = Runtime.getRuntime().availableProcessors() * 2;
     private int threadPoolQueueSize = 10000;
-    private final ThreadPoolExecutor executor;
+    private final ExecutorService executor;
     private final boolean enableKafkaMessageAutoCommit;
+    /**
+     * Handle the records of every partition in order, available when {@link KafkaFetcherConfig#isEnablePartitionOrderedConsumption()}.
+     */
+    private KafkaPartitionWorkers partitionWorkers;
+    private long lagUpdateTime;
 
-    public KafkaFetcherHandlerRegister(KafkaFetcherConfig config) {
+    public KafkaFetcherHandlerRegister(ModuleManager moduleManager, KafkaFetcherConfig config) {
+        this.moduleManager = moduleManager;
         this.config = config;
 
         properties = new Properties();
@@ -88,15 +104,23 @@ public class KafkaFetcherHandlerRegister implements Runnable {
             threadPoolQueueSize = config.getKafkaHandlerThreadPoolQueueSize();
         }
 
+        if (config.isEnablePartitionOrderedConsumption()) {
+            // the offsets are committed after the records are handled
+            properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        }
         enableKafkaMessageAutoCommit = (boolean) properties.getOrDefault(
             ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
         consumer = new KafkaConsumer<>(properties, new StringDeserializer(), new BytesDeserializer());
-        executor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize,
-                                          60, TimeUnit.SECONDS,
-                                          new ArrayBlockingQueue<>(threadPoolQueueSize),
-                                          new CustomThreadFactory("KafkaConsumer"),
-                                          new ThreadPoolExecutor.CallerRunsPolicy()
-        );
+        if (config.isEnablePartitionOrderedConsumption()) {
+            executor = Executors.newSingleThreadExecutor(new CustomThreadFactory("KafkaConsumer"));
+        } else {
+            executor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize,
+                                              60, TimeUnit.SECONDS,
+                                              new ArrayBlockingQueue<>(threadPoolQueueSize),
+                                              new CustomThreadFactory("KafkaConsumer"),
+                                              new ThreadPoolExecutor.CallerRunsPolicy()
+            );
+        }
     }
 
     public void register(KafkaHandler handler) {
@@ -109,8 +133,31 @@ public class KafkaFetcherHandlerRegister implements Runnable {
 
         createTopicIfNeeded(handlerMap.keySet(), properties);
 
+        if (config.isEnablePartitionOrderedConsumption()) {
+            partitionWorkers = new KafkaPartitionWorkers(
+                threadPoolSize, threadPoolQueueSize,
+                moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
+            );
+        }
+
         if (isSharding) {
             consumer.assign(topicPartitions);
+        } else if (partitionWorkers != null) {
+            consumer.subscribe(handlerMap.keySet(), new ConsumerRebalanceListener() {
+                @Override
+                public void onPartitionsRevoked(final Collection<TopicPartition> partitions) {
+                    try {
+                        consumer.commitSync(partitionWorkers.offsetsToCommit());
+                    } catch (Exception e) {
+                        log.error("Kafka commit offsets of revoked partitions error.", e);
+                    }
+                    partitionWorkers.revoke(partitions);
+                }
+
+                @Override
+                public void onPartitionsAssigned(final Collection<TopicPartition> partitions) {
+                }
+            });
         } else {
             consumer.subscribe(handlerMap.keySet());
         }
@@ -123,7 +170,9 @@ public class KafkaFetcherHandlerRegister implements Runnable {
         while (true) {
             try {
                 ConsumerRecords<String, Bytes> consumerRecords = consumer.poll(Duration.ofMillis(500L));
-                if (!consumerRecords.isEmpty()) {
+                if (partitionWorkers != null) {
+                    handleByPartition(consumerRecords);
+                } else if (!consumerRecords.isEmpty()) {
                     for (final ConsumerRecord<String, Bytes> record : consumerRecords) {
                         executor.submit(() -> handlerMap.get(record.topic()).handle(record));
                     }
@@ -137,6 +186,41 @@ public class KafkaFetcherHandlerRegister implements Runnable {
         }
     }
 
+    /**
+     * Dispatch the records to the partition workers, then commit the handled offsets, and pause the partitions with too
+     * many records not handled, rather than handling them in the poll thread.
+     */
+    private void handleByPartition(ConsumerRecords<String, Bytes> consumerRecords) {
+        for (final TopicPartition partition : consumerRecords.partitions()) {
+            partitionWorkers.dispatch(
+                partition, handlerMap.get(partition.topic()), consumerRecords.records(partition));
+        }
+
+        final Map<TopicPartition, OffsetAndMetadata> offsets = partitionWorkers.offsetsToCommit();
+        if (!offsets.isEmpty()) {
+            consumer.commitAsync(offsets, (committed, e) -> {
+                if (e != null) {
+                    log.error("Kafka commit offsets {} error.", committed, e);
+                }
+            });
+        }
+
+        final List<TopicPartition> toPause = partitionWorkers.partitionsToPause();
+        if (!toPause.isEmpty()) {
+            consumer.pause(toPause);
+        }
+        final List<TopicPartition> toResume = partitionWorkers.partitionsToResume();
+        if (!toResume.isEmpty()) {
+            consumer.resume(toResume);
+        }
+
+        final long now = System.currentTimeMillis();
+        if (now - lagUpdateTime >= LAG_UPDATE_INTERVAL && !partitionWorkers.partitions().isEmpty()) {
+            lagUpdateTime = now;
+            partitionWorkers.updateLag(consumer.endOffsets(partitionWorkers.partitions()));
+        }
+    }
+
     private void createTopicIfNeeded(Collection<String> topics, Properties properties) throws ModuleStartException {
         AdminClient adminClient = AdminClient.create(properties);
         Set<String> missedTopics = adminClient.describeTopics(topics)
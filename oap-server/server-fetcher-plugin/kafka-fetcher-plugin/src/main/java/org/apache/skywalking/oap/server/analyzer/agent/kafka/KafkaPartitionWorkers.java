@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.agent.kafka;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.skywalking.oap.server.analyzer.agent.kafka.provider.handler.KafkaHandler;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * KafkaPartitionWorkers hands the records of every partition to one dedicated worker thread in batches, so the records
+ * of a partition are handled in order. It tracks the offsets which have been handled, to commit, and the records which
+ * are not handled yet, to pause the partition rather than blocking the poll thread.
+ *
+ * <p>{@link #dispatch(TopicPartition, KafkaHandler, List)}, {@link #offsetsToCommit()}, {@link #partitionsToPause()},
+ * {@link #partitionsToResume()}, {@link #updateLag(Map)} and {@link #revoke(Collection)} should be called by the poll
+ * thread only, as the {@link org.apache.kafka.clients.consumer.KafkaConsumer} is not thread safe.
+ */
+@Slf4j
+public class KafkaPartitionWorkers {
+    private final List<BlockingQueue<Batch>> queues;
+    private final ExecutorService executor;
+    private final int maxPendingRecords;
+    private final MetricsCreator metricsCreator;
+    private final Map<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+
+    public KafkaPartitionWorkers(int workerSize, int maxPendingRecords, MetricsCreator metricsCreator) {
+        this.maxPendingRecords = maxPendingRecords;
+        this.metricsCreator = metricsCreator;
+        this.queues = new ArrayList<>(workerSize);
+        this.executor = Executors.newFixedThreadPool(workerSize, new CustomThreadFactory("KafkaPartitionWorker"));
+        for (int i = 0; i < workerSize; i++) {
+            final BlockingQueue<Batch> queue = new LinkedBlockingQueue<>();
+            queues.add(queue);
+            executor.submit(() -> work(queue));
+        }
+    }
+
+    /**
+     * Queue the polled records of the partition to its worker. The worker is picked by the partition, so the records of
+     * a partition revoked and assigned again are queued behind its previous records.
+     */
+    public void dispatch(TopicPartition partition, KafkaHandler handler, List<ConsumerRecord<String, Bytes>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        final PartitionState state = partitions.computeIfAbsent(
+            partition, p -> new PartitionState(p, records.get(0).offset(), Math.floorMod(p.hashCode(), queues.size())));
+        state.pending.addAndGet(records.size());
+        queues.get(state.worker).add(new Batch(state, handler, records));
+    }
+
+    /**
+     * @return the offsets of the partitions whose records have been handled since the last call.
+     */
+    public Map<TopicPartition, OffsetAndMetadata> offsetsToCommit() {
+        final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (final PartitionState state : partitions.values()) {
+            final long handled = state.handledOffset;
+            if (handled > state.committedOffset) {
+                offsets.put(state.partition, new OffsetAndMetadata(handled));
+                state.committedOffset = handled;
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * @return the partitions which have more pending records than the limit, they are marked as paused.
+     */
+    public List<TopicPartition> partitionsToPause() {
+        final List<TopicPartition> result = new ArrayList<>();
+        for (final PartitionState state : partitions.values()) {
+            if (!state.paused && state.pending.get() > maxPendingRecords) {
+                state.paused = true;
+                result.add(state.partition);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the paused partitions which have handled half of the pending records, they are marked as resumed.
+     */
+    public List<TopicPartition> partitionsToResume() {
+        final List<TopicPartition> result = new ArrayList<>();
+        for (final PartitionState state : partitions.values()) {
+            if (state.paused && state.pending.get() <= maxPendingRecords / 2) {
+                state.paused = false;
+                result.add(state.partition);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Update the lag of the partitions, which is the number of records not handled yet.
+     *
+     * @param endOffsets the offsets of the next records to be appended into the partitions.
+     */
+    public void updateLag(Map<TopicPartition, Long> endOffsets) {
+        endOffsets.forEach((partition, endOffset) -> {
+            final PartitionState state = partitions.get(partition);
+            if (state != null) {
+                state.lag.setValue(Math.max(0, endOffset - state.handledOffset));
+            }
+        });
+    }
+
+    /**
+     * Stop handling the queued records of the revoked partitions, the new owners consume from the committed offsets.
+     */
+    public void revoke(Collection<TopicPartition> revoked) {
+        for (final TopicPartition partition : revoked) {
+            final PartitionState state = partitions.remove(partition);
+            if (state != null) {
+                state.revoked = true;
+            }
+        }
+    }
+
+    public List<TopicPartition> partitions() {
+        return new ArrayList<>(partitions.keySet());
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void work(BlockingQueue<Batch> queue) {
+        while (!Thread.currentThread().isInterrupted()) {
+            final Batch batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            final PartitionState state = batch.state;
+            try {
+                if (!state.revoked) {
+                    batch.handler.handle(batch.records);
+                }
+            } catch (Throwable t) {
+                log.error("Kafka handle records of partition {} error.", state.partition, t);
+            } finally {
+                state.handledOffset = batch.records.get(batch.records.size() - 1).offset() + 1;
+                state.pending.addAndGet(-batch.records.size());
+                state.consumed.inc(batch.records.size());
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Batch {
+        private final PartitionState state;
+        private final KafkaHandler handler;
+        private final List<ConsumerRecord<String, Bytes>> records;
+    }
+
+    private class PartitionState {
+        private final TopicPartition partition;
+        private final int worker;
+        private final AtomicLong pending = new AtomicLong();
+        private final GaugeMetrics lag;
+        private final CounterMetrics consumed;
+        /**
+         * The offset of the next record to handle, written by the worker.
+         */
+        private volatile long handledOffset;
+        private volatile boolean revoked;
+        private long committedOffset;
+        private boolean paused;
+
+        private PartitionState(TopicPartition partition, long offset, int worker) {
+            this.partition = partition;
+            this.worker = worker;
+            this.handledOffset = offset;
+            this.committedOffset = offset;
+
+            final MetricsTag.Keys keys = new MetricsTag.Keys("topic", "partition");
+            final MetricsTag.Values values = new MetricsTag.Values(
+                partition.topic(), String.valueOf(partition.partition()));
+            this.lag = metricsCreator.createGauge(
+                "kafka_fetcher_partition_lag",
+                "The number of records not handled yet in the partition",
+                keys, values
+            );
+            this.consumed = metricsCreator.createCounter(
+                "kafka_fetcher_partition_consumed_count",
+                "The number of records handled in the partition",
+                keys, values
+            );
+        }
+    }
+}
@@ -91,6 +91,13 @@ public class KafkaFetcherConfig extends ModuleConfig {
 
     private int kafkaHandlerThreadPoolQueueSize;
 
+    /**
+     * If true, the records of every partition are handled in order by one of the {@link #kafkaHandlerThreadPoolSize}
+     * workers in batches, and only the offsets of handled records are committed. A partition is paused when its records
+     * not handled yet exceed {@link #kafkaHandlerThreadPoolQueueSize}.
+     */
+    private boolean enablePartitionOrderedConsumption = false;
+
     private String namespace = "";
     
     private String mm2SourceAlias = "";
@@ -65,7 +65,7 @@ public class KafkaFetcherProvider extends ModuleProvider {
 
     @Override
     public void prepare() throws ServiceNotProvidedException, ModuleStartException {
-        handlerRegister = new KafkaFetcherHandlerRegister(config);
+        handlerRegister = new KafkaFetcherHandlerRegister(getManager(), config);
     }
 
     @Override
@@ -62,4 +62,13 @@ public interface KafkaHandler {
      */
     void handle(ConsumerRecord<String, Bytes> record);
 
+    /**
+     * Deserialize the records polled from one partition in order, and push them to downstream.
+     */
+    default void handle(List<ConsumerRecord<String, Bytes>> records) {
+        for (final ConsumerRecord<String, Bytes> record : records) {
+            handle(record);
+        }
+    }
+
 }
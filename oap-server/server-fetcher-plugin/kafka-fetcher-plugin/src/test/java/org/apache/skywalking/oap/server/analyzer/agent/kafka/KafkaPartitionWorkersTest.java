@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.agent.kafka;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.skywalking.oap.server.analyzer.agent.kafka.provider.handler.KafkaHandler;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KafkaPartitionWorkersTest {
+    private static final String TOPIC = "skywalking-segments";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+    private final KafkaPartitionWorkers workers = new KafkaPartitionWorkers(2, 4, new MetricsCreatorNoop());
+
+    @After
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void testHandleInOrderAndCommitHandledOffsets() throws Exception {
+        final RecordingHandler handler = new RecordingHandler();
+
+        workers.dispatch(PARTITION_0, handler, records(PARTITION_0, 0, 3));
+        workers.dispatch(PARTITION_1, handler, records(PARTITION_1, 10, 2));
+        workers.dispatch(PARTITION_0, handler, records(PARTITION_0, 3, 2));
+        handler.awaitRecords(7);
+        final Map<TopicPartition, Long> committed = new HashMap<>();
+        while (committed.getOrDefault(PARTITION_0, 0L) < 5 || committed.getOrDefault(PARTITION_1, 0L) < 12) {
+            workers.offsetsToCommit().forEach((partition, offset) -> committed.put(partition, offset.offset()));
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        Assert.assertEquals(3, handler.batches.size());
+        final List<Long> offsets = new ArrayList<>();
+        handler.records.stream().filter(r -> r.partition() == 0).forEach(r -> offsets.add(r.offset()));
+        Assert.assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L), offsets);
+        Assert.assertEquals(5, committed.get(PARTITION_0).longValue());
+        Assert.assertEquals(12, committed.get(PARTITION_1).longValue());
+        // the committed offsets are not returned again
+        Assert.assertTrue(workers.offsetsToCommit().isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void testPauseAndResume() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final RecordingHandler handler = new RecordingHandler() {
+            @Override
+            public void handle(final List<ConsumerRecord<String, Bytes>> records) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.handle(records);
+            }
+        };
+
+        workers.dispatch(PARTITION_0, handler, records(PARTITION_0, 0, 3));
+        Assert.assertTrue(workers.partitionsToPause().isEmpty());
+        workers.dispatch(PARTITION_0, handler, records(PARTITION_0, 3, 3));
+        Assert.assertEquals(Collections.singletonList(PARTITION_0), workers.partitionsToPause());
+        Assert.assertTrue(workers.partitionsToPause().isEmpty());
+        Assert.assertTrue(workers.partitionsToResume().isEmpty());
+        Assert.assertTrue(workers.offsetsToCommit().isEmpty());
+
+        blocked.countDown();
+        handler.awaitRecords(6);
+        awaitCommit(PARTITION_0, 6);
+        Assert.assertEquals(Collections.singletonList(PARTITION_0), workers.partitionsToResume());
+    }
+
+    @Test(timeout = 10000)
+    public void testRevoke() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final RecordingHandler handler = new RecordingHandler() {
+            @Override
+            public void handle(final List<ConsumerRecord<String, Bytes>> records) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.handle(records);
+            }
+        };
+
+        workers.dispatch(PARTITION_0, handler, records(PARTITION_0, 0, 1));
+        workers.dispatch(PARTITION_0, handler, records(PARTITION_0, 1, 1));
+        workers.revoke(Collections.singletonList(PARTITION_0));
+        Assert.assertTrue(workers.partitions().isEmpty());
+
+        blocked.countDown();
+        // the queued records of the revoked partition are dropped
+        final RecordingHandler next = new RecordingHandler();
+        workers.dispatch(PARTITION_0, next, records(PARTITION_0, 1, 1));
+        next.awaitRecords(1);
+        Assert.assertTrue(handler.records.size() <= 1);
+    }
+
+    @Test(timeout = 10000)
+    public void testReassignToSameWorker() throws Exception {
+        final CountDownLatch handling = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final RecordingHandler handler = new RecordingHandler() {
+            @Override
+            public void handle(final List<ConsumerRecord<String, Bytes>> records) {
+                handling.countDown();
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.handle(records);
+            }
+        };
+
+        workers.dispatch(PARTITION_0, handler, records(PARTITION_0, 0, 1));
+        handling.await();
+        workers.revoke(Collections.singletonList(PARTITION_0));
+        final RecordingHandler next = new RecordingHandler();
+        workers.dispatch(PARTITION_0, next, records(PARTITION_0, 0, 1));
+
+        // the records of the reassigned partition wait for the worker still handling its previous records
+        TimeUnit.MILLISECONDS.sleep(200);
+        Assert.assertTrue(next.records.isEmpty());
+        blocked.countDown();
+        next.awaitRecords(1);
+    }
+
+    private void awaitCommit(final TopicPartition partition, final long offset) throws InterruptedException {
+        while (true) {
+            final OffsetAndMetadata committed = workers.offsetsToCommit().get(partition);
+            if (committed != null && committed.offset() == offset) {
+                return;
+            }
+            Assert.assertTrue(committed == null || committed.offset() < offset);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static List<ConsumerRecord<String, Bytes>> records(final TopicPartition partition,
+                                                               final long offset,
+                                                               final int size) {
+        final List<ConsumerRecord<String, Bytes>> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            records.add(new ConsumerRecord<>(
+                partition.topic(), partition.partition(), offset + i, "key", Bytes.wrap(new byte[0])));
+        }
+        return records;
+    }
+
+    private static class RecordingHandler implements KafkaHandler {
+        private final List<List<ConsumerRecord<String, Bytes>>> batches = new CopyOnWriteArrayList<>();
+        private final List<ConsumerRecord<String, Bytes>> records = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void handle(final List<ConsumerRecord<String, Bytes>> records) {
+            batches.add(records);
+            KafkaHandler.super.handle(records);
+        }
+
+        @Override
+        public void handle(final ConsumerRecord<String, Bytes> record) {
+            records.add(record);
+        }
+
+        @Override
+        public String getConsumePartitions() {
+            return "";
+        }
+
+        @Override
+        public String getTopic() {
+            return TOPIC;
+        }
+
+        private void awaitRecords(final int size) throws InterruptedException {
+            while (records.size() < size) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        }
+    }
+}
@@ -21,68 +21,177 @@ package org.apache.skywalking.oap.server.fetcher.prometheus.http;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import java.io.Closeable;
+import java.io.IOException;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import lombok.Builder;
+import java.util.concurrent.TimeoutException;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
 import org.apache.skywalking.oap.server.library.server.ssl.HttpDynamicSslContext;
+import org.apache.skywalking.oap.server.library.util.StringUtil;
 
-@Builder
-public class HttpClient {
+/**
+ * HttpClient requests the targets through keep-alive connections, which are pooled by the target address, and bounded
+ * by {@link #MAX_CONNECTIONS_PER_TARGET}. The response body is read as a stream, the connection only reads more data
+ * from the socket when the body is consumed.
+ */
+public class HttpClient implements Closeable {
+    private static final int MAX_CONNECTIONS_PER_TARGET = 2;
+
+    private final EventLoopGroup group;
+    private final long timeoutMillis;
+    private final AbstractChannelPoolMap<Target, FixedChannelPool> pools;
+
+    /**
+     * @param ioThreads     the number of threads to perform socket I/O.
+     * @param timeoutMillis the timeout to connect, acquire a connection, and wait for the response data.
+     */
+    public HttpClient(int ioThreads, long timeoutMillis) {
+        this.group = new NioEventLoopGroup(ioThreads, new CustomThreadFactory("prometheus-fetcher-io"));
+        this.timeoutMillis = timeoutMillis;
+        this.pools = new AbstractChannelPoolMap<Target, FixedChannelPool>() {
+            @Override
+            protected FixedChannelPool newPool(final Target target) {
+                final Bootstrap bootstrap = new Bootstrap()
+                    .group(group)
+                    .channel(NioSocketChannel.class)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeoutMillis)
+                    .remoteAddress(target.host, target.port);
+                final SslContext sslCtx = target.sslContext();
+                return new FixedChannelPool(bootstrap, new AbstractChannelPoolHandler() {
+                    @Override
+                    public void channelCreated(final Channel ch) {
+                        // read on demand of the response body
+                        ch.config().setAutoRead(false);
+                        ChannelPipeline p = ch.pipeline();
+                        if (sslCtx != null) {
+                            p.addLast(sslCtx.newHandler(ch.alloc(), target.host, target.port));
+                        }
+                        p.addLast(new HttpClientCodec());
+                        p.addLast(new HttpContentDecompressor());
+                        p.addLast(new HttpClientHandler());
+                    }
+                }, ChannelHealthChecker.ACTIVE, FixedChannelPool.AcquireTimeoutAction.FAIL,
+                    timeoutMillis, MAX_CONNECTIONS_PER_TARGET, Integer.MAX_VALUE
+                );
+            }
+        };
+    }
 
-    private final String url;
+    /**
+     * Send a GET request, and wait for the response status.
+     *
+     * @param url        the URL to request.
+     * @param caFilePath the CA file to verify the server in HTTPS, the default trust store is used if it's empty.
+     * @return the response body, which must be closed to return the connection to the pool.
+     * @throws IOException if the connection or the request fails, or the response status is not 200.
+     */
+    public ResponseBody request(String url, String caFilePath) throws IOException {
+        final URI uri = URI.create(url);
+        final boolean ssl = "https".equalsIgnoreCase(uri.getScheme());
+        final String host = uri.getHost() == null ? "127.0.0.1" : uri.getHost();
+        final int port = uri.getPort() > 0 ? uri.getPort() : ssl ? 443 : 80;
+        final FixedChannelPool pool = pools.get(new Target(host, port, ssl, ssl ? caFilePath : null));
 
-    private final String caFilePath;
+        final Future<Channel> acquire = pool.acquire();
+        final Channel channel;
+        try {
+            channel = acquire.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            releaseLater(pool, acquire);
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (TimeoutException e) {
+            releaseLater(pool, acquire);
+            throw new IOException("Failed to connect to " + url, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to connect to " + url, e);
+        }
 
-    public String request() throws URISyntaxException, InterruptedException {
-        URI uri = new URI(url);
-        String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
-        String host = uri.getHost() == null ? "127.0.0.1" : uri.getHost();
-        int port = uri.getPort();
+        final ResponseBody body = new ResponseBody(channel, pool, timeoutMillis);
+        channel.attr(HttpClientHandler.RESPONSE_BODY).set(body);
 
-        // Configure SSL context if necessary.
-        final boolean ssl = "https".equalsIgnoreCase(scheme);
-        final HttpDynamicSslContext sslCtx = ssl ? HttpDynamicSslContext.forClient(caFilePath) : null;
+        String path = StringUtil.isEmpty(uri.getRawPath()) ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        final HttpRequest request = new DefaultFullHttpRequest(
+            HttpVersion.HTTP_1_1, HttpMethod.GET, path, Unpooled.EMPTY_BUFFER);
+        request.headers().set(HttpHeaderNames.HOST, host);
+        request.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.GZIP_DEFLATE);
+        channel.writeAndFlush(request);
 
-        // Configure the client.
-        EventLoopGroup group = new NioEventLoopGroup();
-        BlockingQueue<String> channel = new SynchronousQueue<>();
         try {
-            Bootstrap b = new Bootstrap();
-            b.group(group)
-                .channel(NioSocketChannel.class)
-                .handler(new HttpClientInitializer(sslCtx, channel));
+            body.awaitStatus(url);
+        } catch (IOException e) {
+            body.close();
+            throw e;
+        }
+        return body;
+    }
 
-            // Make the connection attempt.
-            Channel ch = b.connect(host, port).sync().channel();
+    /**
+     * Return the connection to the pool if it's acquired after the request gives up, otherwise it's never released.
+     */
+    private static void releaseLater(final FixedChannelPool pool, final Future<Channel> acquire) {
+        acquire.addListener((FutureListener<Channel>) future -> {
+            if (future.isSuccess()) {
+                pool.release(future.getNow());
+            }
+        });
+    }
 
-            // Prepare the HTTP request.
-            HttpRequest request = new DefaultFullHttpRequest(
-                HttpVersion.HTTP_1_1, HttpMethod.GET, uri.getRawPath(), Unpooled.EMPTY_BUFFER);
-            request.headers().set(HttpHeaderNames.HOST, host);
-            request.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
-            request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.TEXT_PLAIN);
+    @Override
+    public void close() {
+        pools.close();
+        group.shutdownGracefully();
+    }
 
-            // Send the HTTP request.
-            ch.writeAndFlush(request);
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class Target {
+        private final String host;
+        private final int port;
+        private final boolean ssl;
+        private final String caFilePath;
 
-            return Objects.requireNonNull(channel.poll(10, TimeUnit.SECONDS), "Request timeout");
-        } finally {
-            // Shut down executor threads to exit.
-            group.shutdownGracefully();
+        private SslContext sslContext() {
+            if (!ssl) {
+                return null;
+            }
+            if (StringUtil.isEmpty(caFilePath)) {
+                try {
+                    return SslContextBuilder.forClient().build();
+                } catch (IOException e) {
+                    throw new IllegalArgumentException(e);
+                }
+            }
+            return HttpDynamicSslContext.forClient(caFilePath);
         }
     }
-
 }
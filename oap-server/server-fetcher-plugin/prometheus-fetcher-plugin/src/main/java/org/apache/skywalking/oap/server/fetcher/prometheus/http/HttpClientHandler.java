@@ -24,41 +24,47 @@ import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.LastHttpContent;
-import io.netty.util.CharsetUtil;
-import java.util.concurrent.BlockingQueue;
-import lombok.RequiredArgsConstructor;
+import io.netty.util.AttributeKey;
+import java.nio.channels.ClosedChannelException;
 import lombok.extern.slf4j.Slf4j;
 
-@RequiredArgsConstructor
+/**
+ * HttpClientHandler passes the response of the pooled connection to the {@link ResponseBody} of current request.
+ */
 @Slf4j
 public class HttpClientHandler extends SimpleChannelInboundHandler<HttpObject> {
-
-    private final BlockingQueue<String> channel;
-
-    private final StringBuilder buf = new StringBuilder();
+    static final AttributeKey<ResponseBody> RESPONSE_BODY = AttributeKey.valueOf("prometheus-fetcher-response");
 
     @Override
     public void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+        final ResponseBody body = ctx.channel().attr(RESPONSE_BODY).get();
+        if (body == null) {
+            return;
+        }
         if (msg instanceof HttpResponse) {
-            buf.setLength(0);
+            body.onStatus((HttpResponse) msg);
         }
         if (msg instanceof HttpContent) {
-            HttpContent content = (HttpContent) msg;
-            buf.append(content.content().toString(CharsetUtil.UTF_8));
-            if (content instanceof LastHttpContent) {
-                try {
-                    channel.put(buf.toString());
-                } catch (InterruptedException e) {
-                    ctx.fireExceptionCaught(e);
-                }
-                ctx.close();
-            }
+            body.onContent(((HttpContent) msg).content(), msg instanceof LastHttpContent);
         }
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        final ResponseBody body = ctx.channel().attr(RESPONSE_BODY).get();
+        if (body != null) {
+            body.onError(new ClosedChannelException());
+        }
+        super.channelInactive(ctx);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         log.error("HTTP request error", cause);
+        final ResponseBody body = ctx.channel().attr(RESPONSE_BODY).get();
+        if (body != null) {
+            body.onError(cause);
+        }
         ctx.close();
     }
 }
@@ -1,55 +0,0 @@
-/*
- * Licensed to the Apache Software Foundation (ASF) under one or more
- * contributor license agreements.  See the NOTICE file distributed with
- * this work for additional information regarding copyright ownership.
- * The ASF licenses this file to You under the Apache License, Version 2.0
- * (the "License"); you may not use this file except in compliance with
- * the License.  You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- *
- */
-
-package org.apache.skywalking.oap.server.fetcher.prometheus.http;
-
-import io.netty.channel.ChannelInitializer;
-import io.netty.channel.ChannelPipeline;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.http.HttpClientCodec;
-import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.ssl.SslContext;
-import java.util.concurrent.BlockingQueue;
-
-public class HttpClientInitializer extends ChannelInitializer<SocketChannel> {
-
-    private final SslContext sslCtx;
-    private final BlockingQueue<String> channel;
-
-    public HttpClientInitializer(SslContext sslCtx, BlockingQueue<String> channel) {
-        this.sslCtx = sslCtx;
-        this.channel = channel;
-    }
-
-    @Override
-    public void initChannel(SocketChannel ch) {
-        ChannelPipeline p = ch.pipeline();
-
-        // Enable HTTPS if necessary.
-        if (sslCtx != null) {
-            p.addLast(sslCtx.newHandler(ch.alloc()));
-        }
-
-        p.addLast(new HttpClientCodec());
-
-        // Remove the following line if you don't want automatic content decompression.
-        p.addLast(new HttpContentDecompressor());
-
-        p.addLast(new HttpClientHandler(channel));
-    }
-}
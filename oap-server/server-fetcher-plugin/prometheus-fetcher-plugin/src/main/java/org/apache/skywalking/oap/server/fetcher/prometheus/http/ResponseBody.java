@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.fetcher.prometheus.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.util.ReferenceCountUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResponseBody is the streamed body of a response. The I/O thread offers the received chunks, and the reader pulls the
+ * next chunk from the connection once the buffered ones are consumed, so at most one chunk is buffered per request.
+ * The connection is returned to the pool when the body is fully read, otherwise it's closed.
+ */
+public class ResponseBody extends InputStream {
+    private static final Object END = new Object();
+
+    private final Channel channel;
+    private final ChannelPool pool;
+    private final long timeoutMillis;
+    private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+
+    private HttpResponse response;
+    private ByteBuf current;
+    private boolean ended;
+    private boolean closed;
+
+    ResponseBody(final Channel channel, final ChannelPool pool, final long timeoutMillis) {
+        this.channel = channel;
+        this.pool = pool;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    void onStatus(final HttpResponse response) {
+        chunks.offer(response);
+    }
+
+    void onContent(final ByteBuf content, final boolean last) {
+        if (content.isReadable()) {
+            chunks.offer(content.retain());
+        }
+        if (last) {
+            chunks.offer(END);
+        }
+    }
+
+    void onError(final Throwable cause) {
+        chunks.offer(cause);
+    }
+
+    /**
+     * Read the response until the status is received.
+     */
+    void awaitStatus(final String url) throws IOException {
+        while (response == null && fill()) {
+            // the content is buffered until it's read
+        }
+        if (response == null) {
+            throw new IOException("No response from " + url);
+        }
+        if (!HttpResponseStatus.OK.equals(response.status())) {
+            throw new IOException("Unexpected response status " + response.status() + " from " + url);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int n = read(b, 0, 1);
+        return n < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (closed) {
+            throw new IOException("Response body is closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (current == null || !current.isReadable()) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        final int n = Math.min(len, current.readableBytes());
+        current.readBytes(b, off, n);
+        return n;
+    }
+
+    /**
+     * Take the next chunk, and ask the connection for more data if nothing is buffered.
+     *
+     * @return false if the body has ended, the current chunk may be empty if the response status is taken.
+     */
+    private boolean fill() throws IOException {
+        if (ended) {
+            return false;
+        }
+        releaseCurrent();
+        Object chunk = chunks.poll();
+        if (chunk == null) {
+            channel.read();
+            try {
+                chunk = chunks.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (chunk == null) {
+                throw new IOException("Timeout to read the response from " + channel.remoteAddress());
+            }
+        }
+        if (chunk == END) {
+            ended = true;
+            return false;
+        }
+        if (chunk instanceof Throwable) {
+            throw new IOException((Throwable) chunk);
+        }
+        if (chunk instanceof HttpResponse) {
+            response = (HttpResponse) chunk;
+            return true;
+        }
+        current = (ByteBuf) chunk;
+        return true;
+    }
+
+    private void releaseCurrent() {
+        if (current != null) {
+            current.release();
+            current = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        releaseCurrent();
+        Object chunk;
+        while ((chunk = chunks.poll()) != null) {
+            ReferenceCountUtil.release(chunk);
+        }
+        channel.attr(HttpClientHandler.RESPONSE_BODY).set(null);
+        if (ended && response != null && HttpUtil.isKeepAlive(response)) {
+            pool.release(channel);
+        } else {
+            // the pool drops the inactive connection when it's released
+            channel.close().addListener(future -> pool.release(channel));
+        }
+    }
+}
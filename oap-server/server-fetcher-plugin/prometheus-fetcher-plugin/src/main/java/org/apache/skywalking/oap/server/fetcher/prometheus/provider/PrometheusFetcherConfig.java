@@ -31,6 +31,11 @@ public class PrometheusFetcherConfig extends ModuleConfig {
 
     private int maxConvertWorker;
 
+    /**
+     * The max number of targets to be scraped concurrently.
+     */
+    private int maxScrapeWorker;
+
     private String enabledRules;
 
     private final String rulePath = "fetcher-prom-rules";
@@ -45,4 +50,8 @@ public class PrometheusFetcherConfig extends ModuleConfig {
     public int getMaxConvertWorker() {
         return maxConvertWorker <= 0 ? Math.max(1, Runtime.getRuntime().availableProcessors() / 2) : maxConvertWorker;
     }
+
+    public int getMaxScrapeWorker() {
+        return maxScrapeWorker <= 0 ? Math.max(4, Runtime.getRuntime().availableProcessors() * 2) : maxScrapeWorker;
+    }
 }
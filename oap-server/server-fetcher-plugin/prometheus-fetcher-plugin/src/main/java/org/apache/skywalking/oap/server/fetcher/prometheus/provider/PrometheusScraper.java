@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.fetcher.prometheus.provider;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.PrometheusMetricConverter;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Rule;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.StaticConfig;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Target;
+import org.apache.skywalking.oap.server.fetcher.prometheus.http.HttpClient;
+import org.apache.skywalking.oap.server.fetcher.prometheus.http.ResponseBody;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
+import org.apache.skywalking.oap.server.library.util.StringUtil;
+import org.apache.skywalking.oap.server.library.util.prometheus.Parser;
+import org.apache.skywalking.oap.server.library.util.prometheus.Parsers;
+import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Metric;
+import org.apache.skywalking.oap.server.library.util.prometheus.metrics.MetricFamily;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * PrometheusScraper scrapes the targets of the rules concurrently in a bounded worker pool. The response of each
+ * target is parsed and converted to samples while it's being read, the samples of all targets are merged and
+ * converted to meters once per rule, as the rule expressions could aggregate across targets.
+ */
+@Slf4j
+public class PrometheusScraper implements Closeable {
+    private static final MetricsTag.Keys TARGET_TAG_KEYS = new MetricsTag.Keys("rule", "target");
+
+    private final HttpClient client;
+
+    private final ExecutorService workers;
+
+    private final MetricsCreator metricsCreator;
+
+    private final HistogramMetrics latency;
+
+    private final CounterMetrics errorCounter;
+
+    public PrometheusScraper(final int scrapeWorkers, final MetricsCreator metricsCreator) {
+        this.workers = new ThreadPoolExecutor(
+            scrapeWorkers, scrapeWorkers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            new CustomThreadFactory("prometheus-scraper")
+        );
+        this.client = new HttpClient(Math.max(1, scrapeWorkers / 4), TimeUnit.SECONDS.toMillis(10));
+        this.metricsCreator = metricsCreator;
+        this.latency = metricsCreator.createHistogramMetric(
+            "metrics_fetcher_latency", "The process latency of metrics scraping",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        this.errorCounter = metricsCreator.createCounter(
+            "metrics_fetcher_error_count", "The error number of metrics scraping",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+    }
+
+    /**
+     * Create the job to scrape all targets of the rule once.
+     */
+    public Runnable job(final Rule rule, final PrometheusMetricConverter converter) {
+        return new Job(rule, converter);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        client.close();
+    }
+
+    private class Job implements Runnable {
+        private final Rule rule;
+
+        private final PrometheusMetricConverter converter;
+
+        private final long timeoutMillis;
+
+        private final List<TargetScraper> targets = new ArrayList<>();
+
+        private Job(final Rule rule, final PrometheusMetricConverter converter) {
+            this.rule = rule;
+            this.converter = converter;
+            // the targets not responding in time are skipped, so that the next round is not delayed
+            final long intervalMillis = Duration.parse(rule.getFetcherInterval()).toMillis();
+            this.timeoutMillis = StringUtil.isEmpty(rule.getFetcherTimeout()) ? intervalMillis :
+                Math.min(intervalMillis, Duration.parse(rule.getFetcherTimeout()).toMillis());
+            final StaticConfig sc = rule.getStaticConfig();
+            if (Objects.nonNull(sc)) {
+                sc.getTargets().forEach(target -> targets.add(new TargetScraper(rule, sc, target, converter)));
+            }
+        }
+
+        @Override
+        public void run() {
+            if (targets.isEmpty()) {
+                return;
+            }
+            try (HistogramMetrics.Timer ignored = latency.createTimer()) {
+                final long now = System.currentTimeMillis();
+                final List<Future<ImmutableMap<String, SampleFamily>>> futures = new ArrayList<>(targets.size());
+                targets.forEach(target -> futures.add(workers.submit(() -> target.scrape(now))));
+
+                final long deadline = now + timeoutMillis;
+                final List<ImmutableMap<String, SampleFamily>> result = new ArrayList<>(targets.size());
+                for (int i = 0; i < futures.size(); i++) {
+                    final Future<ImmutableMap<String, SampleFamily>> future = futures.get(i);
+                    try {
+                        result.add(future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+                    } catch (ExecutionException | TimeoutException e) {
+                        future.cancel(true);
+                        errorCounter.inc();
+                        log.error("Load metric from {} failed", targets.get(i).url, e);
+                    }
+                }
+                converter.toMeter(result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                errorCounter.inc();
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private class TargetScraper {
+        private final StaticConfig staticConfig;
+
+        private final String instance;
+
+        private final String url;
+
+        private final String caFilePath;
+
+        private final PrometheusMetricConverter converter;
+
+        private final HistogramMetrics duration;
+
+        private final GaugeMetrics staleness;
+
+        private volatile long lastSuccess = System.currentTimeMillis();
+
+        private TargetScraper(final Rule rule, final StaticConfig sc, final Target target,
+                       final PrometheusMetricConverter converter) {
+            this.staticConfig = sc;
+            this.instance = target.getUrl();
+            this.url = URI.create(target.getUrl()).resolve(rule.getMetricsPath()).toString();
+            this.caFilePath = target.getSslCaFilePath();
+            this.converter = converter;
+            final MetricsTag.Values tags = new MetricsTag.Values(rule.getName(), instance);
+            this.duration = metricsCreator.createHistogramMetric(
+                "metrics_fetcher_target_scrape_duration", "The latency of scraping the target",
+                TARGET_TAG_KEYS, tags
+            );
+            this.staleness = metricsCreator.createGauge(
+                "metrics_fetcher_target_staleness", "The seconds since the last successful scraping of the target",
+                TARGET_TAG_KEYS, tags
+            );
+        }
+
+        private ImmutableMap<String, SampleFamily> scrape(final long now) throws IOException {
+            try (HistogramMetrics.Timer ignored = duration.createTimer();
+                 ResponseBody body = client.request(url, caFilePath)) {
+                final ImmutableMap<String, SampleFamily> result =
+                    converter.convertPromMetricToSampleFamily(metrics(Parsers.text(body), now));
+                lastSuccess = System.currentTimeMillis();
+                staleness.setValue(0);
+                return result;
+            } catch (UncheckedIOException e) {
+                staleness.setValue((System.currentTimeMillis() - lastSuccess) / 1000d);
+                throw e.getCause();
+            } catch (IOException | RuntimeException e) {
+                staleness.setValue((System.currentTimeMillis() - lastSuccess) / 1000d);
+                throw e;
+            }
+        }
+
+        /**
+         * The metrics are parsed lazily, while the stream is consumed.
+         */
+        private Stream<Metric> metrics(final Parser parser, final long now) {
+            final AbstractIterator<MetricFamily> families = new AbstractIterator<MetricFamily>() {
+                @Override
+                protected MetricFamily computeNext() {
+                    try {
+                        final MetricFamily mf = parser.parse(now);
+                        return mf == null ? endOfData() : mf;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(families, Spliterator.ORDERED), false)
+                                .flatMap(mf -> mf.getMetrics().stream())
+                                .peek(this::injectLabels);
+        }
+
+        private void injectLabels(final Metric metric) {
+            if (Objects.isNull(staticConfig.getLabels())) {
+                return;
+            }
+            final Map<String, String> extraLabels = Maps.newHashMap(staticConfig.getLabels());
+            extraLabels.put("instance", instance);
+            extraLabels.forEach((key, value) -> {
+                if (metric.getLabels().containsKey(key)) {
+                    metric.getLabels().put("exported_" + key, metric.getLabels().get(key));
+                }
+                metric.getLabels().put(key, value);
+            });
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.fetcher.prometheus.http;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HttpClientTest {
+    private static final String METRICS = "# TYPE foo counter\nfoo{a=\"1\"} 1\nfoo{a=\"2\"} 2\n";
+
+    private HttpServer server;
+
+    private HttpClient client;
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/metrics", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            final String query = exchange.getRequestURI().getRawQuery();
+            final int repeat = query == null ? 1 : Integer.parseInt(query.substring("repeat=".length()));
+            // chunked response
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < repeat; i++) {
+                    out.write(METRICS.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        client = new HttpClient(1, 2000);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testStreamAndReuseConnection() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(METRICS, read(url("/metrics")));
+        }
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testLargeResponseWithQuery() throws IOException {
+        final String body = read(url("/metrics?repeat=10000"));
+        assertEquals(METRICS.length() * 10000, body.length());
+        assertTrue(body.endsWith(METRICS));
+    }
+
+    @Test
+    public void testUnexpectedStatus() throws IOException {
+        try {
+            client.request(url("/missing"), null);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("404"));
+        }
+        // the failed connection is not reused, a new one is created for the next request
+        assertEquals(METRICS, read(url("/metrics")));
+    }
+
+    @Test(timeout = 20000)
+    public void testReleaseConnectionAcquiredAfterInterrupt() throws Exception {
+        // all the connections to the target are in use, so acquiring one stalls
+        final ResponseBody first = client.request(url("/metrics"), null);
+        final ResponseBody second = client.request(url("/metrics"), null);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread scraper = new Thread(() -> {
+            try {
+                client.request(url("/metrics"), null).close();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        scraper.start();
+        TimeUnit.MILLISECONDS.sleep(200);
+        // the scrape is cancelled at the deadline of the rule
+        scraper.interrupt();
+        scraper.join();
+        assertTrue(failure.get() instanceof IOException);
+
+        // the stalled acquisition completes after the request gave up, and its connection is returned to the pool
+        first.close();
+        second.close();
+        try (ResponseBody body1 = client.request(url("/metrics"), null);
+             ResponseBody body2 = client.request(url("/metrics"), null)) {
+            assertNotNull(body1);
+            assertNotNull(body2);
+        }
+    }
+
+    private String url(final String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private String read(final String url) throws IOException {
+        try (ResponseBody body = client.request(url, null);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return reader.lines().map(line -> line + "\n").collect(Collectors.joining());
+        }
+    }
+}
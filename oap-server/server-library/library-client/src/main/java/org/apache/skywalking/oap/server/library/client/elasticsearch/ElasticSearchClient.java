@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.library.client.elasticsearch;
 
+import com.fasterxml.jackson.databind.JsonSerializable;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
@@ -28,6 +29,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
@@ -58,6 +60,12 @@ import org.apache.skywalking.oap.server.library.util.HealthChecker;
 public class ElasticSearchClient implements Client, HealthCheckable {
     public static final String TYPE = "type";
 
+    private static final Map<String, Object> MULTIPLE_INDICES_PARAMS = ImmutableMap.of(
+        "ignore_unavailable", true,
+        "allow_no_indices", true,
+        "expand_wildcards", "open"
+    );
+
     private final String clusterNodes;
 
     private final String protocol;
@@ -252,15 +260,18 @@ public class ElasticSearchClient implements Client, HealthCheckable {
             Arrays.stream(indices.get())
                   .map(indexNameConverter)
                   .toArray(String[]::new);
-        return es.get().search(
-            search,
-            ImmutableMap.of(
-                "ignore_unavailable", true,
-                "allow_no_indices", true,
-                "expand_wildcards", "open"
-            ),
-            indexNames
-        );
+        return es.get().search(search, MULTIPLE_INDICES_PARAMS, indexNames);
+    }
+
+    /**
+     * Search the indices without blocking, the missing indices are ignored as {@link #search(Supplier, Search)}.
+     */
+    public CompletableFuture<SearchResponse> searchAsync(String[] indices, Search search) {
+        final String[] indexNames =
+            Arrays.stream(indices)
+                  .map(indexNameConverter)
+                  .toArray(String[]::new);
+        return es.get().searchAsync(search, MULTIPLE_INDICES_PARAMS, indexNames);
     }
 
     public SearchResponse search(String indexName, Search search) {
@@ -314,6 +325,24 @@ public class ElasticSearchClient implements Client, HealthCheckable {
         return new UpdateRequestWrapper(indexName, TYPE, id, source);
     }
 
+    /**
+     * Prepare an insert request of the document, which writes its fields into the JSON generator by itself.
+     */
+    public IndexRequestWrapper prepareInsert(String indexName, String id,
+                                             JsonSerializable source) {
+        indexName = indexNameConverter.apply(indexName);
+        return new IndexRequestWrapper(indexName, TYPE, id, source);
+    }
+
+    /**
+     * Prepare an update request of the document, which writes its fields into the JSON generator by itself.
+     */
+    public UpdateRequestWrapper prepareUpdate(String indexName, String id,
+                                              JsonSerializable source) {
+        indexName = indexNameConverter.apply(indexName);
+        return new UpdateRequestWrapper(indexName, TYPE, id, source);
+    }
+
     public BulkProcessor createBulkProcessor(int bulkActions,
                                              int flushInterval,
                                              int concurrentRequests) {
@@ -324,6 +353,20 @@ public class ElasticSearchClient implements Client, HealthCheckable {
                             .build(es);
     }
 
+    public BulkProcessor createBulkProcessor(int bulkActions,
+                                             int bulkSizeInMB,
+                                             int flushInterval,
+                                             int concurrentRequests,
+                                             Consumer<BulkProcessor> statusListener) {
+        return BulkProcessor.builder()
+                            .bulkActions(bulkActions)
+                            .bulkSize(bulkSizeInMB * 1024L * 1024L)
+                            .flushInterval(Duration.ofSeconds(flushInterval))
+                            .concurrentRequests(concurrentRequests)
+                            .statusListener(statusListener)
+                            .build(es);
+    }
+
     public String formatIndexName(String indexName) {
         return indexNameConverter.apply(indexName);
     }
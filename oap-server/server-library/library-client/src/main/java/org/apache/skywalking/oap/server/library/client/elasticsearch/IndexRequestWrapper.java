@@ -17,7 +17,6 @@
 
 package org.apache.skywalking.oap.server.library.client.elasticsearch;
 
-import java.util.Map;
 import lombok.Getter;
 import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
@@ -27,7 +26,7 @@ public class IndexRequestWrapper implements InsertRequest {
     private final IndexRequest request;
 
     public IndexRequestWrapper(String index, String type, String id,
-                               Map<String, ?> source) {
+                               Object source) {
         request = IndexRequest.builder()
                               .index(index)
                               .type(type)
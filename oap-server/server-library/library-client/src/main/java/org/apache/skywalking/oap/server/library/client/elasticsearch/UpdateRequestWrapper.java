@@ -17,7 +17,6 @@
 
 package org.apache.skywalking.oap.server.library.client.elasticsearch;
 
-import java.util.Map;
 import lombok.Getter;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 
@@ -26,7 +25,7 @@ public class UpdateRequestWrapper implements UpdateRequest {
     private final org.apache.skywalking.library.elasticsearch.requests.UpdateRequest request;
 
     public UpdateRequestWrapper(String index, String type, String id,
-                                Map<String, Object> source) {
+                                Object source) {
         request = org.apache.skywalking.library.elasticsearch.requests.UpdateRequest.builder()
                                                                                     .index(index)
                                                                                     .type(type)
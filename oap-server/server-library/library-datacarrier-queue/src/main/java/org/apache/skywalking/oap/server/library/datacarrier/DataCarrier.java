@@ -21,6 +21,8 @@ package org.apache.skywalking.oap.server.library.datacarrier;
 import java.util.Properties;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.RingBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.WaitStrategy;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.ConsumeDriver;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.ConsumerPool;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
@@ -49,10 +51,24 @@ public class DataCarrier<T> {
     }
 
     public DataCarrier(String name, String envPrefix, int channelSize, int bufferSize, BufferStrategy strategy) {
+        this(name, envPrefix, channelSize, bufferSize, strategy, null);
+    }
+
+    /**
+     * Create a DataCarrier backed by {@link RingBuffer}s, if the wait strategy is not null. The wait strategy is used
+     * by the blocking producers when the buffer is full, and by the consumer threads created through {@link
+     * DataCarrier#consume} when there is nothing to consume, instead of sleeping for the whole consume cycle.
+     */
+    public DataCarrier(String name,
+                       String envPrefix,
+                       int channelSize,
+                       int bufferSize,
+                       BufferStrategy strategy,
+                       WaitStrategy waitStrategy) {
         this.name = name;
         bufferSize = EnvUtil.getInt(envPrefix + "_BUFFER_SIZE", bufferSize);
         channelSize = EnvUtil.getInt(envPrefix + "_CHANNEL_SIZE", channelSize);
-        channels = new Channels<>(channelSize, bufferSize, new SimpleRollingPartitioner<T>(), strategy);
+        channels = new Channels<>(channelSize, bufferSize, new SimpleRollingPartitioner<T>(), strategy, waitStrategy);
     }
 
     public DataCarrier(int channelSize, int bufferSize, BufferStrategy strategy) {
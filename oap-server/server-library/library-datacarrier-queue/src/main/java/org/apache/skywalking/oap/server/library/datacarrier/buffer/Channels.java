@@ -28,14 +28,29 @@ public class Channels<T> {
     private final QueueBuffer<T>[] bufferChannels;
     private IDataPartitioner<T> dataPartitioner;
     private final BufferStrategy strategy;
+    private final WaitStrategy waitStrategy;
     private final long size;
 
     public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy) {
+        this(channelSize, bufferSize, partitioner, strategy, null);
+    }
+
+    /**
+     * @param waitStrategy if not null, the channels use {@link RingBuffer}s with this wait strategy.
+     */
+    public Channels(int channelSize,
+                    int bufferSize,
+                    IDataPartitioner<T> partitioner,
+                    BufferStrategy strategy,
+                    WaitStrategy waitStrategy) {
         this.dataPartitioner = partitioner;
         this.strategy = strategy;
+        this.waitStrategy = waitStrategy;
         bufferChannels = new QueueBuffer[channelSize];
         for (int i = 0; i < channelSize; i++) {
-            if (BufferStrategy.BLOCKING.equals(strategy)) {
+            if (waitStrategy != null) {
+                bufferChannels[i] = new RingBuffer<>(bufferSize, strategy, waitStrategy);
+            } else if (BufferStrategy.BLOCKING.equals(strategy)) {
                 bufferChannels[i] = new ArrayBlockingQueueBuffer<>(bufferSize, strategy);
             } else {
                 bufferChannels[i] = new Buffer<>(bufferSize, strategy);
@@ -87,6 +102,13 @@ public class Channels<T> {
         return size;
     }
 
+    /**
+     * @return the wait strategy of the {@link RingBuffer}s, or null if the channels use other buffers.
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
     public QueueBuffer<T> getBuffer(int index) {
         return this.bufferChannels[index];
     }
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.buffer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spin, then yield, then park the thread. The park time doubles on every unsuccessful attempt, starting from 1
+ * microsecond, until it reaches the given max park time. This keeps the latency low right after the data stops
+ * flowing, while an idle thread costs almost no CPU.
+ */
+public class ParkingWaitStrategy implements WaitStrategy {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final long maxParkNanos;
+
+    /**
+     * @param maxParkMillis the max time of a single park, usually the consume cycle of the consumer.
+     */
+    public ParkingWaitStrategy(long maxParkMillis) {
+        this.maxParkNanos = Math.max(MIN_PARK_NANOS, TimeUnit.MILLISECONDS.toNanos(maxParkMillis));
+    }
+
+    @Override
+    public void idle(int attempts) {
+        if (attempts <= SPIN_TRIES) {
+            return;
+        }
+        if (attempts <= YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            final int shift = Math.min(attempts - YIELD_TRIES - 1, 62);
+            final long parkNanos = MIN_PARK_NANOS << shift;
+            LockSupport.parkNanos(parkNanos <= 0 || parkNanos > maxParkNanos ? maxParkNanos : parkNanos);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.buffer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free ring queue based on sequences, multiple producers and single consumer.
+ * <p>
+ * The producers claim a sequence from the producer cursor, write the data into the slot of the sequence, then publish
+ * the slot by marking it with the round number of the sequence. The consumer drains the published slots from its own
+ * cursor until the first unpublished one, so {@link #obtain(List)} costs nothing when the buffer is empty, rather than
+ * scanning the whole array as {@link Buffer} does.
+ * <p>
+ * The size of the buffer is rounded up to the power of 2. When the buffer is full, {@link BufferStrategy#IF_POSSIBLE}
+ * drops the data, {@link BufferStrategy#BLOCKING} waits for the consumer through the {@link WaitStrategy}.
+ */
+public class RingBuffer<T> implements QueueBuffer<T> {
+    /**
+     * Keep the two cursors in different cache lines, see {@link org.apache.skywalking.oap.server.library.datacarrier.common.AtomicRangeInteger}
+     */
+    private static final int PRODUCER_OFFSET = 7;
+    private static final int CONSUMER_OFFSET = 23;
+    /**
+     * The largest power of 2 an int array size can be.
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private final Object[] buffer;
+    private final int mask;
+    private final int roundShift;
+    /**
+     * The round number of the latest published sequence in every slot.
+     */
+    private final AtomicIntegerArray published;
+    /**
+     * The last claimed sequence at {@link #PRODUCER_OFFSET}, and the last consumed sequence at {@link
+     * #CONSUMER_OFFSET}.
+     */
+    private final AtomicLongArray cursors;
+    private final WaitStrategy waitStrategy;
+    private BufferStrategy strategy;
+
+    RingBuffer(int bufferSize, BufferStrategy strategy, WaitStrategy waitStrategy) {
+        if (bufferSize > MAX_CAPACITY) {
+            throw new IllegalArgumentException(
+                "The buffer size " + bufferSize + " is larger than the max capacity " + MAX_CAPACITY);
+        }
+        final int capacity = bufferSize <= 1 ? 1 : Integer.highestOneBit(bufferSize - 1) << 1;
+        buffer = new Object[capacity];
+        mask = capacity - 1;
+        roundShift = Integer.numberOfTrailingZeros(capacity);
+        published = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        cursors = new AtomicLongArray(31);
+        cursors.set(PRODUCER_OFFSET, -1);
+        cursors.set(CONSUMER_OFFSET, -1);
+        this.strategy = strategy;
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public void setStrategy(BufferStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public boolean save(T data) {
+        final long sequence;
+        if (BufferStrategy.IF_POSSIBLE.equals(strategy)) {
+            long current;
+            do {
+                current = cursors.get(PRODUCER_OFFSET);
+                if (current + 1 - buffer.length > cursors.get(CONSUMER_OFFSET)) {
+                    return false;
+                }
+            }
+            while (!cursors.compareAndSet(PRODUCER_OFFSET, current, current + 1));
+            sequence = current + 1;
+        } else {
+            sequence = cursors.incrementAndGet(PRODUCER_OFFSET);
+            final long wrapPoint = sequence - buffer.length;
+            int attempts = 0;
+            while (wrapPoint > cursors.get(CONSUMER_OFFSET)) {
+                waitStrategy.idle(attempts < Integer.MAX_VALUE ? ++attempts : attempts);
+            }
+        }
+
+        final int index = (int) sequence & mask;
+        buffer[index] = data;
+        published.lazySet(index, (int) (sequence >>> roundShift));
+        return true;
+    }
+
+    @Override
+    public void obtain(List<T> consumeList) {
+        final long consumed = cursors.get(CONSUMER_OFFSET);
+        final long claimed = cursors.get(PRODUCER_OFFSET);
+        long sequence = consumed + 1;
+        for (; sequence <= claimed; sequence++) {
+            final int index = (int) sequence & mask;
+            if (published.get(index) != (int) (sequence >>> roundShift)) {
+                // The producer has claimed the slot, but not written it yet.
+                break;
+            }
+            consumeList.add((T) buffer[index]);
+            buffer[index] = null;
+        }
+        if (sequence - 1 != consumed) {
+            cursors.set(CONSUMER_OFFSET, sequence - 1);
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return buffer.length;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+}
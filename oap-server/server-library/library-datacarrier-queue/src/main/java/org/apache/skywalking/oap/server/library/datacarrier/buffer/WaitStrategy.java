@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.buffer;
+
+/**
+ * WaitStrategy decides how a thread backs off when it can't make progress on a {@link RingBuffer}, i.e. a producer
+ * waiting for a free slot of a full buffer, or a consumer thread finding nothing to consume.
+ */
+public interface WaitStrategy {
+    /**
+     * Back off once.
+     *
+     * @param attempts the number of consecutive attempts without progress, starting from 1.
+     */
+    void idle(int attempts);
+}
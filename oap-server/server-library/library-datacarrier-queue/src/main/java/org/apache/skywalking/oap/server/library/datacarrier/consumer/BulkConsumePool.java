@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import org.apache.skywalking.oap.server.library.datacarrier.EnvUtil;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.WaitStrategy;
 
 /**
  * BulkConsumePool works for consuming data from multiple channels(DataCarrier instances), with multiple {@link
@@ -35,10 +36,18 @@ public class BulkConsumePool implements ConsumerPool {
     private volatile boolean isStarted = false;
 
     public BulkConsumePool(String name, int size, long consumeCycle) {
+        this(name, size, consumeCycle, null);
+    }
+
+    /**
+     * @param waitStrategy used by the consumer threads when there is nothing to consume. Sleep for the whole consume
+     *                     cycle, if null.
+     */
+    public BulkConsumePool(String name, int size, long consumeCycle, WaitStrategy waitStrategy) {
         size = EnvUtil.getInt(name + "_THREAD", size);
         allConsumers = new ArrayList<MultipleChannelsConsumer>(size);
         for (int i = 0; i < size; i++) {
-            MultipleChannelsConsumer multipleChannelsConsumer = new MultipleChannelsConsumer("DataCarrier." + name + ".BulkConsumePool." + i + ".Thread", consumeCycle);
+            MultipleChannelsConsumer multipleChannelsConsumer = new MultipleChannelsConsumer("DataCarrier." + name + ".BulkConsumePool." + i + ".Thread", consumeCycle, waitStrategy);
             multipleChannelsConsumer.setDaemon(true);
             allConsumers.add(multipleChannelsConsumer);
         }
@@ -99,16 +108,22 @@ public class BulkConsumePool implements ConsumerPool {
         private String name;
         private int size;
         private long consumeCycle;
+        private WaitStrategy waitStrategy;
 
         public Creator(String name, int poolSize, long consumeCycle) {
+            this(name, poolSize, consumeCycle, null);
+        }
+
+        public Creator(String name, int poolSize, long consumeCycle, WaitStrategy waitStrategy) {
             this.name = name;
             this.size = poolSize;
             this.consumeCycle = consumeCycle;
+            this.waitStrategy = waitStrategy;
         }
 
         @Override
         public ConsumerPool call() {
-            return new BulkConsumePool(name, size, consumeCycle);
+            return new BulkConsumePool(name, size, consumeCycle, waitStrategy);
         }
 
         public static int recommendMaxSize() {
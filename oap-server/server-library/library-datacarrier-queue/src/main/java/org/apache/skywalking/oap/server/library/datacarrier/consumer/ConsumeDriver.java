@@ -41,7 +41,7 @@ public class ConsumeDriver<T> implements IDriver {
         for (int i = 0; i < num; i++) {
             consumerThreads[i] = new ConsumerThread(
                 "DataCarrier." + name + ".Consumer." + i + ".Thread", getNewConsumerInstance(consumerClass, properties),
-                consumeCycle
+                consumeCycle, channels.getWaitStrategy()
             );
             consumerThreads[i].setDaemon(true);
         }
@@ -52,7 +52,9 @@ public class ConsumeDriver<T> implements IDriver {
         prototype.init(new Properties());
         for (int i = 0; i < num; i++) {
             consumerThreads[i] = new ConsumerThread(
-                "DataCarrier." + name + ".Consumer." + i + ".Thread", prototype, consumeCycle);
+                "DataCarrier." + name + ".Consumer." + i + ".Thread", prototype, consumeCycle,
+                channels.getWaitStrategy()
+            );
             consumerThreads[i].setDaemon(true);
         }
 
@@ -22,19 +22,29 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.Buffer;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.WaitStrategy;
 
 public class ConsumerThread<T> extends Thread {
     private volatile boolean running;
     private IConsumer<T> consumer;
     private List<DataSource> dataSources;
     private long consumeCycle;
+    private WaitStrategy waitStrategy;
 
     ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle) {
+        this(threadName, consumer, consumeCycle, null);
+    }
+
+    /**
+     * @param waitStrategy to back off when there is nothing to consume. Sleep for the whole consume cycle, if null.
+     */
+    ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle, WaitStrategy waitStrategy) {
         super(threadName);
         this.consumer = consumer;
         running = false;
         dataSources = new ArrayList<DataSource>(1);
         this.consumeCycle = consumeCycle;
+        this.waitStrategy = waitStrategy;
     }
 
     /**
@@ -49,8 +59,13 @@ public class ConsumerThread<T> extends Thread {
         running = true;
 
         final List<T> consumeList = new ArrayList<T>(1500);
+        int idleRounds = 0;
         while (running) {
-            if (!consume(consumeList)) {
+            if (consume(consumeList)) {
+                idleRounds = 0;
+            } else if (waitStrategy != null) {
+                waitStrategy.idle(idleRounds < Integer.MAX_VALUE ? ++idleRounds : idleRounds);
+            } else {
                 try {
                     Thread.sleep(consumeCycle);
                 } catch (InterruptedException e) {
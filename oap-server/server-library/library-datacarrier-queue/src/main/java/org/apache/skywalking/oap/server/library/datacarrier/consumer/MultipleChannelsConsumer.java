@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.WaitStrategy;
 
 /**
  * MultipleChannelsConsumer represent a single consumer thread, but support multiple channels with their {@link
@@ -33,11 +34,20 @@ public class MultipleChannelsConsumer extends Thread {
     @SuppressWarnings("NonAtomicVolatileUpdate")
     private volatile long size;
     private final long consumeCycle;
+    private final WaitStrategy waitStrategy;
 
     public MultipleChannelsConsumer(String threadName, long consumeCycle) {
+        this(threadName, consumeCycle, null);
+    }
+
+    /**
+     * @param waitStrategy to back off when there is nothing to consume. Sleep for the whole consume cycle, if null.
+     */
+    public MultipleChannelsConsumer(String threadName, long consumeCycle, WaitStrategy waitStrategy) {
         super(threadName);
         this.consumeTargets = new ArrayList<Group>();
         this.consumeCycle = consumeCycle;
+        this.waitStrategy = waitStrategy;
     }
 
     @Override
@@ -45,6 +55,7 @@ public class MultipleChannelsConsumer extends Thread {
         running = true;
 
         final List consumeList = new ArrayList(2000);
+        int idleRounds = 0;
         while (running) {
             boolean hasData = false;
             for (Group target : consumeTargets) {
@@ -52,7 +63,11 @@ public class MultipleChannelsConsumer extends Thread {
                 hasData = hasData || consume;
             }
 
-            if (!hasData) {
+            if (hasData) {
+                idleRounds = 0;
+            } else if (waitStrategy != null) {
+                waitStrategy.idle(idleRounds < Integer.MAX_VALUE ? ++idleRounds : idleRounds);
+            } else {
                 try {
                     Thread.sleep(consumeCycle);
                 } catch (InterruptedException e) {
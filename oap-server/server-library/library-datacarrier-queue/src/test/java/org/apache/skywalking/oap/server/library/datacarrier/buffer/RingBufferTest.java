@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.apache.skywalking.oap.server.library.datacarrier.SampleData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RingBufferTest {
+    @Test
+    public void testSizeRoundedUp() {
+        RingBuffer<SampleData> buffer = new RingBuffer<>(100, BufferStrategy.IF_POSSIBLE, new YieldingWaitStrategy());
+        Assert.assertEquals(128, buffer.getBufferSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSizeLargerThanMaxCapacity() {
+        new RingBuffer<SampleData>(RingBuffer.MAX_CAPACITY + 1, BufferStrategy.IF_POSSIBLE, new YieldingWaitStrategy());
+    }
+
+    @Test
+    public void testIfPossibleSave() {
+        RingBuffer<SampleData> buffer = new RingBuffer<>(4, BufferStrategy.IF_POSSIBLE, new YieldingWaitStrategy());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.save(new SampleData().setIntValue(i)));
+        }
+        Assert.assertFalse(buffer.save(new SampleData().setIntValue(4)));
+
+        List<SampleData> result = new ArrayList<>();
+        buffer.obtain(result);
+        Assert.assertEquals(4, result.size());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(i, result.get(i).getIntValue());
+        }
+
+        result.clear();
+        buffer.obtain(result);
+        Assert.assertTrue(result.isEmpty());
+
+        Assert.assertTrue(buffer.save(new SampleData().setIntValue(5)));
+        buffer.obtain(result);
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(5, result.get(0).getIntValue());
+    }
+
+    @Test
+    public void testBlockingSaveFromMultipleProducers() throws InterruptedException {
+        final RingBuffer<SampleData> buffer = new RingBuffer<>(256, BufferStrategy.BLOCKING, new YieldingWaitStrategy());
+        final int producers = 4;
+        final int countPerProducer = 10000;
+        final CountDownLatch latch = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < countPerProducer; i++) {
+                    buffer.save(new SampleData().setIntValue(i));
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        List<SampleData> result = new ArrayList<>();
+        while (result.size() < producers * countPerProducer) {
+            buffer.obtain(result);
+        }
+        latch.await();
+        buffer.obtain(result);
+        Assert.assertEquals(producers * countPerProducer, result.size());
+        long sum = 0;
+        for (SampleData data : result) {
+            sum += data.getIntValue();
+        }
+        Assert.assertEquals((long) producers * countPerProducer * (countPerProducer - 1) / 2, sum);
+    }
+}
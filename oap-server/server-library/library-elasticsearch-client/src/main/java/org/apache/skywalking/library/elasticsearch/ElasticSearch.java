@@ -178,6 +178,10 @@ public final class ElasticSearch implements Closeable {
         return search(search, null, index);
     }
 
+    public CompletableFuture<SearchResponse> searchAsync(Search search, Map<String, ?> params, String... index) {
+        return searchClient.searchAsync(search, params, index);
+    }
+
     @Override
     public void close() {
         endpointGroup.removeListener(healthyEndpointListener);
@@ -17,52 +17,93 @@
 
 package org.apache.skywalking.library.elasticsearch.bulk;
 
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
 import com.linecorp.armeria.common.HttpStatus;
-import com.linecorp.armeria.common.util.Exceptions;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.io.InputStream;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.library.elasticsearch.ElasticSearch;
+import org.apache.skywalking.library.elasticsearch.ElasticSearchVersion;
 import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
 import org.apache.skywalking.library.elasticsearch.requests.UpdateRequest;
-import org.apache.skywalking.library.elasticsearch.requests.factory.RequestFactory;
+import org.apache.skywalking.library.elasticsearch.response.BulkResponse;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * BulkProcessor collects the index and update requests into bulks, and executes a bulk when it reaches
+ * {@code bulkActions} requests or {@code bulkSize} bytes, or every {@code flushInterval}.
+ * <p>
+ * The requests are encoded by the producer threads, in parallel, into pooled buffers, which are composited into the
+ * bulk without copying. At most {@code concurrentRequests} bulks are in flight, the ready bulks beyond that are queued
+ * and sent once a bulk completes. Once {@code concurrentRequests} bulks are queued, the producers wait for a queued bulk
+ * to be sent before adding more requests. The returned futures complete when the requests are persisted.
+ * <p>
+ * The items rejected by a full server, i.e. status 429 or 5xx, are retried in a new bulk with backoff, up to
+ * {@code maxRetries} times. The other failed items fail their own futures only.
+ * <p>
+ * The requests are encoded with the ElasticSearch version of the connected client. The requests added before the
+ * version is known are encoded when their bulk is sent, once the version is resolved.
+ */
 @Slf4j
 public final class BulkProcessor {
-    private final ArrayBlockingQueue<Holder> requests;
+    private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
 
     private final AtomicReference<ElasticSearch> es;
     private final int bulkActions;
-    private final Semaphore semaphore;
+    private final long bulkSize;
+    private final int concurrentRequests;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Consumer<BulkProcessor> statusListener;
+
+    // Guarded by this.
+    private Batch current = new Batch();
+    private final ArrayDeque<Batch> ready = new ArrayDeque<>();
+    private int inFlight;
+
+    private final AtomicInteger pendingActions = new AtomicInteger();
+    private final AtomicLong inFlightBytes = new AtomicLong();
 
     public static BulkProcessorBuilder builder() {
         return new BulkProcessorBuilder();
     }
 
     BulkProcessor(
-        final AtomicReference<ElasticSearch> es, final int bulkActions,
-        final Duration flushInterval, final int concurrentRequests) {
+        final AtomicReference<ElasticSearch> es, final int bulkActions, final long bulkSize,
+        final Duration flushInterval, final int concurrentRequests,
+        final int maxRetries, final Duration retryBackoff, final Consumer<BulkProcessor> statusListener) {
         requireNonNull(flushInterval, "flushInterval");
 
         this.es = requireNonNull(es, "es");
         this.bulkActions = bulkActions;
-        this.semaphore = new Semaphore(concurrentRequests > 0 ? concurrentRequests : 1);
-        this.requests = new ArrayBlockingQueue<>(bulkActions + 1);
+        this.bulkSize = bulkSize;
+        this.concurrentRequests = concurrentRequests > 0 ? concurrentRequests : 1;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = requireNonNull(retryBackoff, "retryBackoff");
+        this.statusListener = requireNonNull(statusListener, "statusListener");
 
-        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+        scheduler = new ScheduledThreadPoolExecutor(
             1, r -> {
             final Thread thread = new Thread(r);
             thread.setName("ElasticSearch BulkProcessor");
@@ -71,8 +112,10 @@ public final class BulkProcessor {
         scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
         scheduler.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
         scheduler.setRemoveOnCancelPolicy(true);
-        scheduler.scheduleWithFixedDelay(
-            this::flush, 0, flushInterval.getSeconds(), TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            flush();
+            reportStatus();
+        }, 0, flushInterval.toMillis(), TimeUnit.MILLISECONDS);
     }
 
     public CompletableFuture<Void> add(IndexRequest request) {
@@ -83,85 +126,310 @@ public final class BulkProcessor {
         return internalAdd(request);
     }
 
-    @SneakyThrows
+    /**
+     * @return the number of requests waiting for a bulk to be sent, including those in the ready bulks.
+     */
+    public int pendingActions() {
+        return pendingActions.get();
+    }
+
+    /**
+     * @return the size of the bulks sent but not completed yet.
+     */
+    public long inFlightBytes() {
+        return inFlightBytes.get();
+    }
+
     private CompletableFuture<Void> internalAdd(Object request) {
         requireNonNull(request, "request");
-        final CompletableFuture<Void> f = new CompletableFuture<>();
-        requests.put(new Holder(f, request));
-        flushIfNeeded();
-        return f;
-    }
 
-    @SneakyThrows
-    private void flushIfNeeded() {
-        if (requests.size() >= bulkActions) {
-            flush();
+        final Item item = new Item(new CompletableFuture<>(), request);
+        final CompletableFuture<ElasticSearchVersion> version = es.get().version();
+        if (version.isDone() && !version.isCompletedExceptionally()) {
+            try {
+                item.encode(version.join());
+            } catch (Exception e) {
+                item.fail(e);
+                return item.future;
+            }
         }
+
+        final Batch full;
+        synchronized (this) {
+            try {
+                while (ready.size() >= concurrentRequests) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                item.fail(e);
+                return item.future;
+            }
+            pendingActions.incrementAndGet();
+            current.add(item);
+            if (!current.isFull()) {
+                return item.future;
+            }
+            full = current;
+            current = new Batch();
+        }
+        dispatch(full);
+        return item.future;
     }
 
     void flush() {
-        if (requests.isEmpty()) {
-            return;
+        final Batch batch;
+        synchronized (this) {
+            if (current.isEmpty()) {
+                return;
+            }
+            batch = current;
+            current = new Batch();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Send the batch if there is a free slot, otherwise queue it, to be sent when an in-flight one completes. The queue
+     * is bounded by the producers waiting in {@link #internalAdd(Object)}, the flushes and retries don't wait.
+     */
+    private void dispatch(final Batch batch) {
+        synchronized (this) {
+            if (inFlight >= concurrentRequests) {
+                ready.add(batch);
+                return;
+            }
+            inFlight++;
         }
+        send(batch);
+    }
+
+    private void sendNext() {
+        final Batch next;
+        synchronized (this) {
+            next = ready.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+            notifyAll();
+        }
+        send(next);
+    }
+
+    private void send(final Batch batch) {
+        log.debug("Executing bulk with {} requests", batch.items.size());
+
+        pendingActions.addAndGet(-batch.items.size());
+
+        es.get().version().thenCompose(version -> execute(version, batch)).whenComplete((ignored, exception) -> {
+            completeInFlight(batch);
+            if (exception != null) {
+                log.error("Failed to execute requests in bulk", exception);
+                batch.items.forEach(it -> it.fail(exception));
+            }
+            sendNext();
+            reportStatus();
+        });
+    }
 
+    private CompletableFuture<Void> execute(final ElasticSearchVersion version, final Batch batch) {
+        batch.encode(version);
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        inFlightBytes.addAndGet(batch.bytes);
+        batch.inFlight = true;
+
+        final CompositeByteBuf content = ALLOCATOR.compositeBuffer(batch.items.size());
+        for (final Item item : batch.items) {
+            content.addComponent(true, item.content.retainedDuplicate());
+        }
         try {
-            semaphore.acquire();
-        } catch (InterruptedException e) {
-            log.error("Interrupted when trying to get semaphore to execute bulk requests", e);
-            return;
+            return es.get().client().execute(version.requestFactory().bulk().bulk(content))
+                     .aggregate()
+                     .thenAccept(response -> {
+                         // Lower the in-flight bytes before the items complete, for the callers reading them then.
+                         completeInFlight(batch);
+                         onResponse(version, batch, response);
+                     });
+        } catch (RuntimeException e) {
+            content.release();
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
         }
+    }
 
-        final List<Holder> batch = new ArrayList<>(requests.size());
-        requests.drainTo(batch);
+    private void reportStatus() {
+        try {
+            statusListener.accept(this);
+        } catch (Exception e) {
+            log.warn("Failed to report the bulk status", e);
+        }
+    }
 
-        final CompletableFuture<Void> flush = doFlush(batch);
-        flush.whenComplete((ignored1, ignored2) -> semaphore.release());
-        flush.join();
+    private void completeInFlight(final Batch batch) {
+        if (batch.inFlight) {
+            batch.inFlight = false;
+            inFlightBytes.addAndGet(-batch.bytes);
+        }
     }
 
-    private CompletableFuture<Void> doFlush(final List<Holder> batch) {
-        log.debug("Executing bulk with {} requests", batch.size());
+    private void onResponse(final ElasticSearchVersion version, final Batch batch,
+                            final AggregatedHttpResponse response) {
+        final HttpStatus status = response.status();
+        if (isRetryable(status.code())) {
+            log.warn("Bulk with {} requests is rejected with status {}, retrying", batch.items.size(), status);
+            retry(batch.items, new RuntimeException(response.contentUtf8()));
+            return;
+        }
+        if (status != HttpStatus.OK) {
+            throw new RuntimeException(response.contentUtf8());
+        }
+
+        final BulkResponse bulkResponse;
+        try (final HttpData content = response.content();
+             final InputStream is = content.toInputStream()) {
+            bulkResponse = version.codec().decode(is, BulkResponse.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to decode the bulk response", e);
+        }
+        if (!bulkResponse.isErrors()) {
+            log.debug("Succeeded to execute {} requests in bulk", batch.items.size());
+            batch.items.forEach(Item::complete);
+            return;
+        }
 
+        final List<Map<String, BulkResponse.Item>> results = bulkResponse.getItems();
+        final List<Item> retries = new ArrayList<>();
+        for (int i = 0; i < batch.items.size(); i++) {
+            final Item item = batch.items.get(i);
+            final BulkResponse.Item result =
+                results != null && i < results.size() ? results.get(i).values().iterator().next() : null;
+            if (result == null) {
+                item.fail(new RuntimeException("No result of the request in bulk response"));
+            } else if (result.getStatus() < 300) {
+                item.complete();
+            } else if (isRetryable(result.getStatus()) && item.attempts < maxRetries) {
+                retries.add(item);
+            } else {
+                item.fail(new RuntimeException("Failed to execute request in bulk: " + result.getError()));
+            }
+        }
+        if (!retries.isEmpty()) {
+            log.warn("{} of {} requests in bulk are rejected, retrying", retries.size(), batch.items.size());
+            retry(retries, null);
+        }
+    }
+
+    private void retry(final List<Item> items, final Exception cause) {
+        final Batch batch = new Batch();
+        int attempts = 0;
+        for (final Item item : items) {
+            if (item.attempts >= maxRetries) {
+                item.fail(cause != null ? cause : new RuntimeException("Too many retries"));
+                continue;
+            }
+            item.attempts++;
+            attempts = Math.max(attempts, item.attempts);
+            batch.add(item);
+        }
         if (batch.isEmpty()) {
-            return CompletableFuture.completedFuture(null);
+            return;
         }
+        scheduler.schedule(() -> {
+            pendingActions.addAndGet(batch.items.size());
+            dispatch(batch);
+        }, retryBackoff.toMillis() * attempts, TimeUnit.MILLISECONDS);
+    }
 
-        final CompletableFuture<Void> future = es.get().version().thenCompose(v -> {
-            try {
-                final RequestFactory rf = v.requestFactory();
-                final List<byte[]> bs = new ArrayList<>();
-                for (final Holder holder : batch) {
-                    bs.add(v.codec().encode(holder.request));
-                    bs.add("\n".getBytes());
-                }
-                final ByteBuf content = Unpooled.wrappedBuffer(bs.toArray(new byte[0][]));
-                return es.get().client().execute(rf.bulk().bulk(content))
-                         .aggregate().thenAccept(response -> {
-                        final HttpStatus status = response.status();
-                        if (status != HttpStatus.OK) {
-                            throw new RuntimeException(response.contentUtf8());
-                        }
-                    });
-            } catch (Exception e) {
-                return Exceptions.throwUnsafely(e);
+    private static boolean isRetryable(final int status) {
+        return status == HttpStatus.TOO_MANY_REQUESTS.code() || status >= 500;
+    }
+
+    private final class Batch {
+        private final List<Item> items = new ArrayList<>();
+        private long bytes;
+        private boolean inFlight;
+
+        private void add(final Item item) {
+            items.add(item);
+            if (item.content != null) {
+                bytes += item.content.readableBytes();
             }
-        });
-        future.whenComplete((ignored, exception) -> {
-            if (exception != null) {
-                batch.stream().map(it -> it.future)
-                     .forEach(it -> it.completeExceptionally(exception));
-                log.error("Failed to execute requests in bulk", exception);
-            } else {
-                log.debug("Succeeded to execute {} requests in bulk", batch.size());
-                batch.stream().map(it -> it.future).forEach(it -> it.complete(null));
+        }
+
+        private boolean isEmpty() {
+            return items.isEmpty();
+        }
+
+        private boolean isFull() {
+            return (bulkActions > 0 && items.size() >= bulkActions) || (bulkSize > 0 && bytes >= bulkSize);
+        }
+
+        /**
+         * Encode the requests added before the version was known, the ones that can't be encoded are failed and removed.
+         */
+        private void encode(final ElasticSearchVersion version) {
+            for (final Iterator<Item> it = items.iterator(); it.hasNext(); ) {
+                final Item item = it.next();
+                if (item.content != null) {
+                    continue;
+                }
+                try {
+                    item.encode(version);
+                    bytes += item.content.readableBytes();
+                } catch (Exception e) {
+                    item.fail(e);
+                    it.remove();
+                }
             }
-        });
-        return future;
+        }
     }
 
     @RequiredArgsConstructor
-    static class Holder {
+    static final class Item {
         private final CompletableFuture<Void> future;
         private final Object request;
+        private ByteBuf content;
+        private int attempts;
+
+        /**
+         * Encode the request, followed by a new line, into a pooled buffer.
+         */
+        private void encode(final ElasticSearchVersion version) throws Exception {
+            final ByteBuf buf = ALLOCATOR.buffer();
+            try (final ByteBufOutputStream out = new ByteBufOutputStream(buf)) {
+                version.codec().encode(request, out);
+                out.write('\n');
+            } catch (Exception e) {
+                buf.release();
+                throw e;
+            }
+            content = buf;
+        }
+
+        private void complete() {
+            if (future.isDone()) {
+                return;
+            }
+            release();
+            future.complete(null);
+        }
+
+        private void fail(final Throwable cause) {
+            if (future.isDone()) {
+                return;
+            }
+            release();
+            future.completeExceptionally(cause);
+        }
+
+        private void release() {
+            if (content != null) {
+                content.release();
+            }
+        }
     }
 }
@@ -19,6 +19,7 @@ package org.apache.skywalking.library.elasticsearch.bulk;
 
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.library.elasticsearch.ElasticSearch;
@@ -30,8 +31,13 @@ import static java.util.Objects.requireNonNull;
 @RequiredArgsConstructor
 public final class BulkProcessorBuilder {
     private int bulkActions = -1;
+    private long bulkSize = -1;
     private Duration flushInterval;
     private int concurrentRequests = 2;
+    private int maxRetries = 3;
+    private Duration retryBackoff = Duration.ofMillis(500);
+    private Consumer<BulkProcessor> statusListener = processor -> {
+    };
 
     public BulkProcessorBuilder bulkActions(int bulkActions) {
         checkArgument(bulkActions > 0, "bulkActions must be positive");
@@ -39,6 +45,12 @@ public final class BulkProcessorBuilder {
         return this;
     }
 
+    public BulkProcessorBuilder bulkSize(long bulkSize) {
+        checkArgument(bulkSize > 0, "bulkSize must be positive");
+        this.bulkSize = bulkSize;
+        return this;
+    }
+
     public BulkProcessorBuilder flushInterval(Duration flushInterval) {
         this.flushInterval = requireNonNull(flushInterval, "flushInterval");
         return this;
@@ -50,8 +62,28 @@ public final class BulkProcessorBuilder {
         return this;
     }
 
+    public BulkProcessorBuilder maxRetries(int maxRetries) {
+        checkArgument(maxRetries >= 0, "maxRetries must be >= 0");
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    public BulkProcessorBuilder retryBackoff(Duration retryBackoff) {
+        this.retryBackoff = requireNonNull(retryBackoff, "retryBackoff");
+        return this;
+    }
+
+    /**
+     * @param statusListener called with the processor when a bulk completes and at every flush interval, to report
+     *                       {@link BulkProcessor#pendingActions()} and {@link BulkProcessor#inFlightBytes()}.
+     */
+    public BulkProcessorBuilder statusListener(Consumer<BulkProcessor> statusListener) {
+        this.statusListener = requireNonNull(statusListener, "statusListener");
+        return this;
+    }
+
     public BulkProcessor build(AtomicReference<ElasticSearch> es) {
         return new BulkProcessor(
-            es, bulkActions, flushInterval, concurrentRequests);
+            es, bulkActions, bulkSize, flushInterval, concurrentRequests, maxRetries, retryBackoff, statusListener);
     }
 }
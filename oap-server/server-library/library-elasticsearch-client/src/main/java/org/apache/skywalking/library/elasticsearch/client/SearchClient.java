@@ -42,6 +42,12 @@ public final class SearchClient {
     public SearchResponse search(Search criteria,
                                  Map<String, ?> params,
                                  String... index) {
+        return searchAsync(criteria, params, index).get();
+    }
+
+    public CompletableFuture<SearchResponse> searchAsync(Search criteria,
+                                                         Map<String, ?> params,
+                                                         String... index) {
         final CompletableFuture<SearchResponse> future =
             version.thenCompose(
                 v -> client.execute(v.requestFactory().search().search(criteria, params, index))
@@ -70,6 +76,6 @@ public final class SearchClient {
                 log.debug("Succeeded to search index {}, {}", index, result);
             }
         });
-        return future.get();
+        return future;
     }
 }
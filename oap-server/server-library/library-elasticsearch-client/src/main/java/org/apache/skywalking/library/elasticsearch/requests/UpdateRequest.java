@@ -17,7 +17,6 @@
 
 package org.apache.skywalking.library.elasticsearch.requests;
 
-import java.util.Map;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -29,5 +28,9 @@ public final class UpdateRequest {
     private final String index;
     private final String type;
     private final String id;
-    private final Map<String, Object> doc;
+    /**
+     * The source of the document, a {@link java.util.Map} or any object serialized by Jackson, such as a {@link
+     * com.fasterxml.jackson.databind.JsonSerializable} writing the fields by itself.
+     */
+    private final Object doc;
 }
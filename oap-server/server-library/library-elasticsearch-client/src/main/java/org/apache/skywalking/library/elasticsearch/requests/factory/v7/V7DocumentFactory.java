@@ -96,7 +96,7 @@ final class V7DocumentFactory implements DocumentFactory {
         final String index = request.getIndex();
         final String type = request.getType();
         final String id = request.getId();
-        final Map<String, ?> doc = request.getDoc();
+        final Object doc = request.getDoc();
 
         checkArgument(!isNullOrEmpty(index), "request.index cannot be null or empty");
         checkArgument(!isNullOrEmpty(type), "request.type cannot be null or empty");
@@ -124,12 +124,13 @@ final class V7DocumentFactory implements DocumentFactory {
         final String index = request.getIndex();
         final String type = request.getType();
         final String id = request.getId();
-        final Map<String, Object> doc = request.getDoc();
+        final Object doc = request.getDoc();
 
         checkArgument(!isNullOrEmpty(index), "index cannot be null or empty");
         checkArgument(!isNullOrEmpty(type), "type cannot be null or empty");
         checkArgument(!isNullOrEmpty(id), "id cannot be null or empty");
-        checkArgument(doc != null && !isEmpty(doc.entrySet()), "doc cannot be null or empty");
+        checkArgument(
+            doc != null && !(doc instanceof Map && ((Map<?, ?>) doc).isEmpty()), "doc cannot be null or empty");
 
         final HttpRequestBuilder builder = HttpRequest.builder();
         if (params != null) {
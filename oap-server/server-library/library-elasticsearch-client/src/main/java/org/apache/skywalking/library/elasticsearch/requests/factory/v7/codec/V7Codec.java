@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import java.io.InputStream;
+import java.io.OutputStream;
 import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
 import org.apache.skywalking.library.elasticsearch.requests.UpdateRequest;
 import org.apache.skywalking.library.elasticsearch.requests.factory.Codec;
@@ -68,6 +69,12 @@ public final class V7Codec implements Codec {
         return MAPPER.writeValueAsBytes(request);
     }
 
+    @Override
+    public void encode(final Object request,
+                       final OutputStream outputStream) throws Exception {
+        MAPPER.writeValue(outputStream, request);
+    }
+
     @Override
     public <T> T decode(final InputStream inputStream,
                         final TypeReference<T> type) throws Exception {
@@ -36,6 +36,7 @@ public final class BoolQuery extends Query {
     private final ImmutableList<Query> mustNot;
     private final ImmutableList<Query> should;
     private final ImmutableList<Query> shouldNot;
+    private final ImmutableList<Query> filter;
 
     static final class BoolQuerySerializer extends JsonSerializer<BoolQuery> {
         static final String NAME = "bool";
@@ -43,6 +44,7 @@ public final class BoolQuery extends Query {
         static final String MUST_NOT = "must_not";
         static final String SHOULD = "should";
         static final String SHOULD_NOT = "should_not";
+        static final String FILTER = "filter";
 
         @Override
         public void serialize(final BoolQuery value, final JsonGenerator gen,
@@ -56,6 +58,7 @@ public final class BoolQuery extends Query {
                     writeArray(gen, MUST_NOT, value.getMustNot());
                     writeArray(gen, SHOULD, value.getShould());
                     writeArray(gen, SHOULD_NOT, value.getShouldNot());
+                    writeArray(gen, FILTER, value.getFilter());
                 }
                 gen.writeEndObject();
             }
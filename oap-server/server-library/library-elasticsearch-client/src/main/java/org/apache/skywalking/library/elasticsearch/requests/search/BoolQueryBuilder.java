@@ -27,6 +27,7 @@ public final class BoolQueryBuilder implements QueryBuilder {
     private ImmutableList.Builder<QueryBuilder> mustNot;
     private ImmutableList.Builder<QueryBuilder> should;
     private ImmutableList.Builder<QueryBuilder> shouldNot;
+    private ImmutableList.Builder<QueryBuilder> filter;
 
     BoolQueryBuilder() {
     }
@@ -55,6 +56,16 @@ public final class BoolQueryBuilder implements QueryBuilder {
         return this;
     }
 
+    /**
+     * Add a clause in filter context, which must match but doesn't contribute to the score, and can be cached by
+     * ElasticSearch.
+     */
+    public BoolQueryBuilder filter(QueryBuilder queryBuilder) {
+        requireNonNull(queryBuilder, "queryBuilder");
+        filter().add(queryBuilder);
+        return this;
+    }
+
     private ImmutableList.Builder<QueryBuilder> must() {
         if (must == null) {
             must = ImmutableList.builder();
@@ -83,6 +94,13 @@ public final class BoolQueryBuilder implements QueryBuilder {
         return shouldNot;
     }
 
+    private ImmutableList.Builder<QueryBuilder> filter() {
+        if (filter == null) {
+            filter = ImmutableList.builder();
+        }
+        return filter;
+    }
+
     @Override
     public Query build() {
         final ImmutableList<Query> must;
@@ -117,6 +135,14 @@ public final class BoolQueryBuilder implements QueryBuilder {
                                       .map(QueryBuilder::build)
                                       .collect(toImmutableList());
         }
-        return new BoolQuery(must, mustNot, should, shouldNot);
+        final ImmutableList<Query> filter;
+        if (this.filter == null) {
+            filter = null;
+        } else {
+            filter = this.filter.build().stream()
+                                .map(QueryBuilder::build)
+                                .collect(toImmutableList());
+        }
+        return new BoolQuery(must, mustNot, should, shouldNot, filter);
     }
 }
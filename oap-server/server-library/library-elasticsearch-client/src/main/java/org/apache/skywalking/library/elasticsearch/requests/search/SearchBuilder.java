@@ -20,6 +20,7 @@ package org.apache.skywalking.library.elasticsearch.requests.search;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.util.List;
 import org.apache.skywalking.library.elasticsearch.requests.search.aggregation.Aggregation;
 import org.apache.skywalking.library.elasticsearch.requests.search.aggregation.AggregationBuilder;
 
@@ -33,6 +34,8 @@ public final class SearchBuilder {
     private QueryBuilder queryBuilder;
     private ImmutableList.Builder<Sort> sort;
     private ImmutableMap.Builder<String, Aggregation> aggregations;
+    private ImmutableList<Object> searchAfter;
+    private Boolean trackTotalHits;
 
     SearchBuilder() {
     }
@@ -58,6 +61,25 @@ public final class SearchBuilder {
         return this;
     }
 
+    /**
+     * Search the hits after the given sort values, which are usually the {@code sort} of the last hit in the previous
+     * page, instead of skipping the hits by {@link #from(Integer)}.
+     */
+    public SearchBuilder searchAfter(List<Object> values) {
+        requireNonNull(values, "values");
+        checkArgument(!values.isEmpty(), "values cannot be empty");
+        this.searchAfter = ImmutableList.copyOf(values);
+        return this;
+    }
+
+    /**
+     * Count the total hits accurately, ElasticSearch 7+ stops counting at 10,000 hits by default.
+     */
+    public SearchBuilder trackTotalHits(Boolean trackTotalHits) {
+        this.trackTotalHits = requireNonNull(trackTotalHits, "trackTotalHits");
+        return this;
+    }
+
     public SearchBuilder query(QueryBuilder queryBuilder) {
         checkState(this.queryBuilder == null, "queryBuilder is already set");
         this.queryBuilder = requireNonNull(queryBuilder, "queryBuilder");
@@ -97,7 +119,7 @@ public final class SearchBuilder {
         }
 
         return new Search(
-            from, size, query, sorts, aggregations
+            from, size, query, sorts, aggregations, searchAfter, trackTotalHits
         );
     }
 
@@ -20,6 +20,7 @@ package org.apache.skywalking.library.elasticsearch.response.search;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
@@ -37,6 +38,11 @@ public final class SearchHit implements Iterable<Map.Entry<String, Object>> {
     private double score;
     @JsonProperty("_source")
     private Map<String, Object> source;
+    /**
+     * The sort values of the hit, used as the cursor of {@code search_after}.
+     */
+    @JsonProperty("sort")
+    private List<Object> sort;
 
     @Override
     public Iterator<Map.Entry<String, Object>> iterator() {
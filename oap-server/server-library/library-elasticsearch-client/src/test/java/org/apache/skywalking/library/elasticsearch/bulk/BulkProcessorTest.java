@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.skywalking.library.elasticsearch.bulk;
+
+import com.google.common.collect.ImmutableMap;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.server.Server;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.skywalking.library.elasticsearch.ElasticSearch;
+import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
+import org.awaitility.Awaitility;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BulkProcessorTest {
+    private static final String SUCCESS = "{\"errors\":false,\"items\":[]}";
+
+    private static final List<String> BULKS = new CopyOnWriteArrayList<>();
+    private static final Queue<String> RESPONSES = new ConcurrentLinkedQueue<>();
+    private static final Queue<HttpStatus> STATUSES = new ConcurrentLinkedQueue<>();
+    private static volatile CompletableFuture<Void> GATE = CompletableFuture.completedFuture(null);
+    private static Server SERVER;
+    private static ElasticSearch ES;
+
+    @BeforeClass
+    public static void setup() {
+        SERVER = Server.builder()
+                       .http(0)
+                       .service("/", (ctx, req) -> HttpResponse.of(
+                           MediaType.JSON, "{\"version\":{\"number\":\"7.10.0\"}}"))
+                       .service("/_cluster/health", (ctx, req) -> HttpResponse.of(HttpStatus.OK))
+                       .service("/_bulk", (ctx, req) -> HttpResponse.from(req.aggregate().thenCombine(GATE, (it, ignored) -> {
+                           BULKS.add(it.contentUtf8());
+                           final HttpStatus status = STATUSES.poll();
+                           if (status != null) {
+                               return HttpResponse.of(status);
+                           }
+                           final String response = RESPONSES.poll();
+                           return HttpResponse.of(MediaType.JSON, response == null ? SUCCESS : response);
+                       })))
+                       .build();
+        SERVER.start().join();
+        ES = ElasticSearch.builder().endpoints("localhost:" + SERVER.activeLocalPort()).build();
+        ES.connect().join();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        ES.close();
+        SERVER.stop().join();
+    }
+
+    @Before
+    public void reset() {
+        BULKS.clear();
+        RESPONSES.clear();
+        STATUSES.clear();
+        GATE = CompletableFuture.completedFuture(null);
+    }
+
+    @Test
+    public void testFlushByActions() {
+        BulkProcessor processor = builder().bulkActions(2).build(new AtomicReference<>(ES));
+        CompletableFuture.allOf(
+            processor.add(request("1")), processor.add(request("2")),
+            processor.add(request("3")), processor.add(request("4"))
+        ).join();
+
+        Assert.assertEquals(2, BULKS.size());
+        Assert.assertEquals(4, BULKS.stream().mapToInt(BulkProcessorTest::actions).sum());
+        Assert.assertEquals(0, processor.pendingActions());
+        Assert.assertEquals(0, processor.inFlightBytes());
+    }
+
+    @Test
+    public void testFlushBySize() {
+        BulkProcessor processor = builder().bulkActions(100).bulkSize(1).build(new AtomicReference<>(ES));
+        CompletableFuture.allOf(processor.add(request("1")), processor.add(request("2"))).join();
+
+        Assert.assertEquals(2, BULKS.size());
+    }
+
+    @Test
+    public void testFlushByTime() {
+        BulkProcessor processor = builder().bulkActions(100)
+                                           .flushInterval(Duration.ofMillis(100))
+                                           .build(new AtomicReference<>(ES));
+        processor.add(request("1")).join();
+
+        Assert.assertEquals(1, BULKS.size());
+    }
+
+    @Test
+    public void testRetryRejectedItems() {
+        RESPONSES.add("{\"errors\":true,\"items\":[{\"index\":{\"status\":201}},{\"index\":{\"status\":429}}]}");
+        BulkProcessor processor = builder().bulkActions(2).build(new AtomicReference<>(ES));
+        CompletableFuture.allOf(processor.add(request("1")), processor.add(request("2"))).join();
+
+        Assert.assertEquals(2, BULKS.size());
+        Assert.assertEquals(1, actions(BULKS.get(1)));
+        Assert.assertTrue(BULKS.get(1).contains("\"_id\":\"2\""));
+    }
+
+    @Test
+    public void testRetryRejectedBulk() {
+        STATUSES.add(HttpStatus.SERVICE_UNAVAILABLE);
+        BulkProcessor processor = builder().bulkActions(2).build(new AtomicReference<>(ES));
+        CompletableFuture.allOf(processor.add(request("1")), processor.add(request("2"))).join();
+
+        Assert.assertEquals(2, BULKS.size());
+        Assert.assertEquals(2, actions(BULKS.get(1)));
+    }
+
+    @Test
+    public void testAddBeforeConnected() {
+        ElasticSearch es = ElasticSearch.builder().endpoints("localhost:" + SERVER.activeLocalPort()).build();
+        try {
+            BulkProcessor processor = builder().bulkActions(2).build(new AtomicReference<>(es));
+            CompletableFuture<Void> first = processor.add(request("1"));
+            CompletableFuture<Void> second = processor.add(request("2"));
+            Assert.assertFalse(first.isDone());
+
+            es.connect().join();
+            CompletableFuture.allOf(first, second).join();
+            Assert.assertEquals(1, BULKS.size());
+            Assert.assertEquals(2, actions(BULKS.get(0)));
+        } finally {
+            es.close();
+        }
+    }
+
+    @Test
+    public void testFailedItems() {
+        RESPONSES.add("{\"errors\":true,\"items\":[{\"index\":{\"status\":201}},"
+                          + "{\"index\":{\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\"}}}]}");
+        BulkProcessor processor = builder().bulkActions(2).build(new AtomicReference<>(ES));
+        CompletableFuture<Void> succeeded = processor.add(request("1"));
+        CompletableFuture<Void> failed = processor.add(request("2"));
+
+        succeeded.join();
+        try {
+            failed.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause().getMessage().contains("mapper_parsing_exception"));
+        } catch (Exception e) {
+            Assert.fail(e.getMessage());
+        }
+        Assert.assertEquals(1, BULKS.size());
+    }
+
+    @Test
+    public void testProducersWaitForQueuedBulks() throws Exception {
+        GATE = new CompletableFuture<>();
+        BulkProcessor processor = builder().bulkActions(1).concurrentRequests(1).build(new AtomicReference<>(ES));
+        CompletableFuture<Void> inFlight = processor.add(request("1"));
+        CompletableFuture<Void> queued = processor.add(request("2"));
+
+        CompletableFuture<CompletableFuture<Void>> waiting = CompletableFuture.supplyAsync(
+            () -> processor.add(request("3")));
+        Thread.sleep(200);
+        Assert.assertFalse(waiting.isDone());
+        Assert.assertEquals(1, processor.pendingActions());
+
+        GATE.complete(null);
+        CompletableFuture.allOf(inFlight, queued, waiting.get(10, TimeUnit.SECONDS)).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(3, BULKS.size());
+    }
+
+    @Test
+    public void testStatusListener() {
+        List<Long> reported = new CopyOnWriteArrayList<>();
+        BulkProcessor processor = builder().bulkActions(2)
+                                           .statusListener(it -> reported.add(it.inFlightBytes()))
+                                           .build(new AtomicReference<>(ES));
+        CompletableFuture.allOf(processor.add(request("1")), processor.add(request("2"))).join();
+
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> reported.size() >= 2);
+        Assert.assertEquals(Long.valueOf(0), reported.get(reported.size() - 1));
+    }
+
+    private static BulkProcessorBuilder builder() {
+        return BulkProcessor.builder()
+                            .flushInterval(Duration.ofHours(1))
+                            .concurrentRequests(2)
+                            .retryBackoff(Duration.ofMillis(10));
+    }
+
+    private static IndexRequest request(String id) {
+        return IndexRequest.builder().index("test").type("type").id(id).doc(ImmutableMap.of("id", id)).build();
+    }
+
+    private static int actions(String bulk) {
+        return bulk.split("\"index\"", -1).length - 1;
+    }
+}
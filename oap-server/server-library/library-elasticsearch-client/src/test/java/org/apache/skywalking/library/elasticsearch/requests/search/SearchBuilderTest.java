@@ -17,6 +17,8 @@
 
 package org.apache.skywalking.library.elasticsearch.requests.search;
 
+import java.util.Arrays;
+import org.apache.skywalking.library.elasticsearch.requests.factory.v7.codec.V7Codec;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -39,6 +41,24 @@ public class SearchBuilderTest {
         assertThat(query.getShouldNot()).hasSize(2);
     }
 
+    @Test
+    public void searchShouldSerializeFilterAndSearchAfter() throws Exception {
+        final Search search = Search.builder()
+                                    .query(Query.bool().filter(Query.term("t", "v")))
+                                    .sort("s", Sort.Order.DESC)
+                                    .searchAfter(Arrays.asList(1L, "a"))
+                                    .trackTotalHits(true)
+                                    .size(10)
+                                    .build();
+
+        assertThat(((BoolQuery) search.getQuery()).getFilter()).hasSize(1);
+        assertThat(new String(V7Codec.INSTANCE.encode(search)))
+            .contains("\"filter\":[{\"term\":{\"t\":\"v\"}}]")
+            .contains("\"search_after\":[1,\"a\"]")
+            .contains("\"track_total_hits\":true")
+            .doesNotContain("\"from\"");
+    }
+
     @Test(expected = IllegalStateException.class)
     public void searchQueryBuilderShouldNotBeSetMultipleTimes() {
         final BoolQueryBuilder queryBuilder = Query.bool();
@@ -20,7 +20,9 @@ package org.apache.skywalking.oap.server.library.util;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -29,10 +31,27 @@ import lombok.ToString;
 /**
  * Group patterns use {@link java.util.regex.Pattern} as core, could group the input strings to matched group or return
  * original string.
+ * <p>
+ * Rules made of '/' separated segments, where every segment is either a literal or the variable {@link #VAR_SEGMENT},
+ * are compiled into a segment trie, so one format costs a walk over the segments of the input rather than a regex
+ * match per rule. Other rules keep the regex matching. Either way the first matched rule in order wins, same as
+ * matching the rules one by one.
  */
 @ToString
 public class StringFormatGroup {
+    /**
+     * The regex of a path variable, as generated for the {@code {var}} placeholders of the OpenAPI definitions.
+     */
+    public static final String VAR_SEGMENT = "([^/]+)";
+    private static final String REGEX_META_CHARS = "\\.[]{}()*+?^$|";
+
     private final List<PatternRule> rules;
+    /**
+     * Built at the first format after the rules changed. Rules are set up by one thread before the group is published,
+     * a concurrent rebuild is harmless as it produces the same index.
+     */
+    @ToString.Exclude
+    private volatile CompiledRules compiled;
 
     public StringFormatGroup() {
         rules = new ArrayList<>();
@@ -52,6 +71,7 @@ public class StringFormatGroup {
         }
         PatternRule rule = new PatternRule(name, ruleRegex);
         rules.add(rule);
+        compiled = null;
     }
 
     /**
@@ -61,16 +81,21 @@ public class StringFormatGroup {
      * @return matched rule name, or original string.
      */
     public FormatResult format(String string) {
-        for (PatternRule rule : rules) {
-            if (rule.getPattern().matcher(string).matches()) {
-                return new FormatResult(true, rule.getName(), string);
-            }
+        CompiledRules compiledRules = compiled;
+        if (compiledRules == null) {
+            compiledRules = new CompiledRules(rules);
+            compiled = compiledRules;
+        }
+        final int index = compiledRules.match(string);
+        if (index < rules.size()) {
+            return new FormatResult(true, rules.get(index).getName(), string);
         }
         return new FormatResult(false, string, string);
     }
 
     public void sortRules(Comparator<? super PatternRule> comparator) {
         rules.sort(comparator);
+        compiled = null;
     }
 
     @Getter
@@ -92,4 +117,120 @@ public class StringFormatGroup {
             pattern = Pattern.compile(ruleRegex);
         }
     }
+
+    /**
+     * The trie of the segment-only rules, plus the remaining rules kept in order for regex matching.
+     */
+    private static class CompiledRules {
+        private final SegmentNode root = new SegmentNode();
+        private final List<IndexedRule> regexRules = new ArrayList<>();
+
+        private CompiledRules(List<PatternRule> rules) {
+            for (int i = 0; i < rules.size(); i++) {
+                final PatternRule rule = rules.get(i);
+                final String[] segments = toSegments(rule.getPattern().pattern());
+                if (segments == null) {
+                    regexRules.add(new IndexedRule(i, rule.getPattern()));
+                } else {
+                    root.add(segments, 0, i);
+                }
+            }
+        }
+
+        /**
+         * @return the index of the first matched rule, or {@link Integer#MAX_VALUE} if none matched.
+         */
+        private int match(String string) {
+            int best = root.match(string, 0, Integer.MAX_VALUE);
+            for (IndexedRule rule : regexRules) {
+                if (rule.index >= best) {
+                    break;
+                }
+                if (rule.pattern.matcher(string).matches()) {
+                    return rule.index;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @return segments of the regex, with {@code null} standing for a variable segment, or {@code null} if the
+         * regex is not made of plain segments only.
+         */
+        private static String[] toSegments(String regex) {
+            final String[] segments = regex.split("/", -1);
+            for (int i = 0; i < segments.length; i++) {
+                final String segment = segments[i];
+                if (VAR_SEGMENT.equals(segment)) {
+                    segments[i] = null;
+                    continue;
+                }
+                for (int c = 0; c < segment.length(); c++) {
+                    if (REGEX_META_CHARS.indexOf(segment.charAt(c)) >= 0) {
+                        return null;
+                    }
+                }
+            }
+            return segments;
+        }
+    }
+
+    private static class SegmentNode {
+        private final Map<String, SegmentNode> literals = new HashMap<>();
+        private SegmentNode variable;
+        /**
+         * The first rule ending at this node.
+         */
+        private int rule = Integer.MAX_VALUE;
+        /**
+         * The first rule ending at this node or below, to stop walking branches that can't win.
+         */
+        private int minRule = Integer.MAX_VALUE;
+
+        private void add(String[] segments, int depth, int index) {
+            minRule = Math.min(minRule, index);
+            if (depth == segments.length) {
+                rule = Math.min(rule, index);
+                return;
+            }
+            final String segment = segments[depth];
+            final SegmentNode child;
+            if (segment == null) {
+                if (variable == null) {
+                    variable = new SegmentNode();
+                }
+                child = variable;
+            } else {
+                child = literals.computeIfAbsent(segment, s -> new SegmentNode());
+            }
+            child.add(segments, depth + 1, index);
+        }
+
+        /**
+         * Match the segment starting at {@code start} against the children of this node.
+         */
+        private int match(String string, int start, int best) {
+            int end = string.indexOf('/', start);
+            final boolean last = end < 0;
+            if (last) {
+                end = string.length();
+            }
+            if (!literals.isEmpty()) {
+                final SegmentNode child = literals.get(string.substring(start, end));
+                if (child != null && child.minRule < best) {
+                    best = last ? Math.min(best, child.rule) : child.match(string, end + 1, best);
+                }
+            }
+            if (variable != null && end > start && variable.minRule < best) {
+                best = last ? Math.min(best, variable.rule) : variable.match(string, end + 1, best);
+            }
+            return best;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class IndexedRule {
+        private final int index;
+        private final Pattern pattern;
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.util;
+
+import java.util.Comparator;
+import java.util.regex.Pattern;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringFormatGroupTest {
+    @Test
+    public void testSegmentRules() {
+        StringFormatGroup group = new StringFormatGroup();
+        group.addRule("GET:/products", "GET:/products");
+        group.addRule("GET:/products/{id}", "GET:/products/([^/]+)");
+        group.addRule("GET:/products/{id}/items/{item}", "GET:/products/([^/]+)/items/([^/]+)");
+
+        assertMatch(group, "GET:/products", "GET:/products");
+        assertMatch(group, "GET:/products/123", "GET:/products/{id}");
+        assertMatch(group, "GET:/products/123/items/abc", "GET:/products/{id}/items/{item}");
+        assertNotMatch(group, "GET:/products/");
+        assertNotMatch(group, "GET:/products/123/items");
+        assertNotMatch(group, "GET:/products/123/items/abc/def");
+        assertNotMatch(group, "POST:/products/123");
+    }
+
+    @Test
+    public void testFirstRuleWins() {
+        StringFormatGroup group = new StringFormatGroup();
+        group.addRule("{var}/bar", "([^/]+)/bar");
+        group.addRule("foo/bar", "foo/bar");
+        group.addRule("foo.*", "foo.*");
+        assertMatch(group, "foo/bar", "{var}/bar");
+
+        group.sortRules(Comparator.comparing(rule -> rule.getName().length()));
+        assertMatch(group, "foo/bar", "foo.*");
+        assertMatch(group, "baz/bar", "{var}/bar");
+    }
+
+    @Test
+    public void testRegexRules() {
+        StringFormatGroup group = new StringFormatGroup();
+        group.addRule("db", "/db/.*");
+        group.addRule("{id}", "/db/([^/]+)");
+        group.addRule("version", "/v[0-9]+/info");
+        assertMatch(group, "/db/users", "db");
+        assertMatch(group, "/v2/info", "version");
+        assertNotMatch(group, "/v2.1/info");
+
+        group.addRule("dot", "/v2.1/info");
+        assertMatch(group, "/v2.1/info", "dot");
+        assertMatch(group, "/v2x1/info", "dot");
+    }
+
+    @Test
+    public void testSameAsRegexMatching() {
+        StringFormatGroup group = new StringFormatGroup();
+        String[] regexes = {
+            "GET:/a/([^/]+)/c",
+            "GET:/a/b/([^/]+)",
+            "GET:/([^/]+)/b/c",
+            "GET:/a/b/c/",
+            "GET:/a//c",
+            "GET:/a/b",
+            "GET:/a/[bc]/d",
+        };
+        for (String regex : regexes) {
+            group.addRule(regex, regex);
+        }
+        String[] names = {
+            "GET:/a/b/c", "GET:/x/b/c", "GET:/a/b/d", "GET:/a/c/d", "GET:/a/b/c/", "GET:/a//c", "GET:/a/b",
+            "GET:/a/b/", "GET:/a", "GET:", "", "/", "GET:/a/b/c/d"
+        };
+        for (String name : names) {
+            String expected = name;
+            for (String regex : regexes) {
+                if (Pattern.compile(regex).matcher(name).matches()) {
+                    expected = regex;
+                    break;
+                }
+            }
+            Assert.assertEquals(name, expected, group.format(name).getName());
+        }
+    }
+
+    private static void assertMatch(StringFormatGroup group, String string, String expectedName) {
+        StringFormatGroup.FormatResult result = group.format(string);
+        Assert.assertTrue(string, result.isMatch());
+        Assert.assertEquals(expectedName, result.getName());
+        Assert.assertEquals(string, result.getReplacedName());
+    }
+
+    private static void assertNotMatch(StringFormatGroup group, String string) {
+        StringFormatGroup.FormatResult result = group.format(string);
+        Assert.assertFalse(string, result.isMatch());
+        Assert.assertEquals(string, result.getName());
+    }
+}
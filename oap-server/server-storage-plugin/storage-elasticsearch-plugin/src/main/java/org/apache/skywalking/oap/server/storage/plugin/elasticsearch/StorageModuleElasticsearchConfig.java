@@ -79,6 +79,12 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
      * @since 8.7.0 This setting affects all traces/logs/metrics/metadata flush policy.
      */
     private int bulkActions = 5000;
+    /**
+     * Execute the bulk once its size reaches this limit, no matter `bulkActions` reached or not. Unit is MB.
+     *
+     * @since 9.0.0
+     */
+    private int bulkSize = 20;
     /**
      * Period of flesh, no matter `bulkActions` reached or not.
      * INT(flushInterval * 2/3) would be used for index refresh period.
@@ -109,6 +115,14 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     private int resultWindowMaxSize = 10000;
     private int metadataQueryMaxSize = 5000;
     private int segmentQueryMaxSize = 200;
+    /**
+     * The number of daily segment indices searched concurrently when querying traces by start time. The indices are
+     * searched from the newest one, and the search stops once the page is filled. Values <= 0 search all indices of
+     * the time range in one request.
+     *
+     * @since 9.0.0
+     */
+    private int segmentQueryIndexConcurrency = 0;
     private int profileTaskQueryMaxSize = 200;
     /**
      * The default analyzer for match query field. {@link org.apache.skywalking.oap.server.core.storage.annotation.Column.AnalyzerType#OAP_ANALYZER}
@@ -28,21 +28,34 @@ import org.apache.skywalking.oap.server.library.client.elasticsearch.IndexReques
 import org.apache.skywalking.oap.server.library.client.elasticsearch.UpdateRequestWrapper;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 @Slf4j
 public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
+    private final ModuleDefineHolder moduleDefineHolder;
     private BulkProcessor bulkProcessor;
     private final int bulkActions;
+    private final int bulkSize;
     private final int flushInterval;
     private final int concurrentRequests;
+    private GaugeMetrics pendingActionsGauge;
+    private GaugeMetrics inFlightBytesGauge;
 
     public BatchProcessEsDAO(ElasticSearchClient client,
+                             ModuleDefineHolder moduleDefineHolder,
                              int bulkActions,
+                             int bulkSize,
                              int flushInterval,
                              int concurrentRequests) {
         super(client);
+        this.moduleDefineHolder = moduleDefineHolder;
         this.bulkActions = bulkActions;
+        this.bulkSize = bulkSize;
         this.flushInterval = flushInterval;
         this.concurrentRequests = concurrentRequests;
     }
@@ -50,7 +63,7 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
     @Override
     public void insert(InsertRequest insertRequest) {
         if (bulkProcessor == null) {
-            this.bulkProcessor = getClient().createBulkProcessor(bulkActions, flushInterval, concurrentRequests);
+            createBulkProcessor();
         }
 
         this.bulkProcessor.add(((IndexRequestWrapper) insertRequest).getRequest());
@@ -59,18 +72,42 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
     @Override
     public CompletableFuture<Void> flush(List<PrepareRequest> prepareRequests) {
         if (bulkProcessor == null) {
-            this.bulkProcessor = getClient().createBulkProcessor(bulkActions, flushInterval, concurrentRequests);
+            createBulkProcessor();
         }
 
         if (CollectionUtils.isNotEmpty(prepareRequests)) {
-            return CompletableFuture.allOf(prepareRequests.stream().map(prepareRequest -> {
+            final CompletableFuture<Void> future = CompletableFuture.allOf(prepareRequests.stream().map(prepareRequest -> {
                 if (prepareRequest instanceof InsertRequest) {
                     return bulkProcessor.add(((IndexRequestWrapper) prepareRequest).getRequest());
                 } else {
                     return bulkProcessor.add(((UpdateRequestWrapper) prepareRequest).getRequest());
                 }
             }).toArray(CompletableFuture[]::new));
+            return future;
         }
         return CompletableFuture.completedFuture(null);
     }
+
+    private void createBulkProcessor() {
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        pendingActionsGauge = metricsCreator.createGauge(
+            "elasticsearch_bulk_pending_actions",
+            "The number of requests waiting for the ElasticSearch bulk to be sent",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        inFlightBytesGauge = metricsCreator.createGauge(
+            "elasticsearch_bulk_in_flight_bytes",
+            "The size of the ElasticSearch bulks sent but not completed yet",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        this.bulkProcessor = getClient().createBulkProcessor(
+            bulkActions, bulkSize, flushInterval, concurrentRequests, this::reportBulkStatus);
+    }
+
+    private void reportBulkStatus(BulkProcessor processor) {
+        pendingActionsGauge.setValue(processor.pendingActions());
+        inFlightBytesGauge.setValue(processor.inFlightBytes());
+    }
 }
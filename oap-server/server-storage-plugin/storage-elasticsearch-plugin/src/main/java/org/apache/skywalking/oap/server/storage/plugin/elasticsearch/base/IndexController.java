@@ -76,6 +76,14 @@ public enum IndexController {
         return columns;
     }
 
+    /**
+     * @return the value of the {@link LogicIndicesRegister#METRIC_TABLE_NAME} column, or null if the model is not the
+     * metric storage mode.
+     */
+    public String getMetricTableColumnValue(Model model) {
+        return isMetricModel(model) ? model.getName() : null;
+    }
+
     public static class LogicIndicesRegister {
 
         /**
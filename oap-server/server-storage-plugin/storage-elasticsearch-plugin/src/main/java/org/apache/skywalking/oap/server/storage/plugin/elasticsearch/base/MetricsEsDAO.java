@@ -30,6 +30,7 @@ import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
@@ -100,22 +101,40 @@ public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
 
     @Override
     public InsertRequest prepareBatchInsert(Model model, Metrics metrics) {
-        Map<String, Object> builder =
-            IndexController.INSTANCE.appendMetricTableColumn(model, storageBuilder.entity2Storage(metrics));
         String modelName = TimeSeriesUtils.writeIndexName(model, metrics.getTimeBucket());
         String id = IndexController.INSTANCE.generateDocId(model, metrics.id());
+        if (storageBuilder instanceof StreamingStorageBuilder) {
+            return getClient().prepareInsert(modelName, id, streamingDocument(model, metrics));
+        }
+        Map<String, Object> builder =
+            IndexController.INSTANCE.appendMetricTableColumn(model, storageBuilder.entity2Storage(metrics));
         return getClient().prepareInsert(modelName, id, builder);
     }
 
     @Override
     public UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) {
-        Map<String, Object> builder =
-            IndexController.INSTANCE.appendMetricTableColumn(model, storageBuilder.entity2Storage(metrics));
         String modelName = TimeSeriesUtils.writeIndexName(model, metrics.getTimeBucket());
         String id = IndexController.INSTANCE.generateDocId(model, metrics.id());
+        if (storageBuilder instanceof StreamingStorageBuilder) {
+            return getClient().prepareUpdate(modelName, id, streamingDocument(model, metrics));
+        }
+        Map<String, Object> builder =
+            IndexController.INSTANCE.appendMetricTableColumn(model, storageBuilder.entity2Storage(metrics));
         return getClient().prepareUpdate(modelName, id, builder);
     }
 
+    /**
+     * Write the columns into the request directly, rather than through the map of {@link
+     * StorageHashMapBuilder#entity2Storage(org.apache.skywalking.oap.server.core.storage.StorageData)}.
+     */
+    @SuppressWarnings("unchecked")
+    private StreamingDocument<Metrics> streamingDocument(Model model, Metrics metrics) {
+        return new StreamingDocument<>(
+            (StreamingStorageBuilder<Metrics>) storageBuilder, metrics,
+            IndexController.INSTANCE.getMetricTableColumnValue(model)
+        );
+    }
+
     @Override
     public boolean isExpiredCache(final Model model,
                                   final Metrics cachedValue,
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.type.ColumnWriter;
+
+/**
+ * StreamingDocument writes the columns of the entity into the JSON generator of the request directly, through the
+ * {@link StreamingStorageBuilder}, instead of building a map of the columns first. The null columns are skipped, as
+ * the codecs of the client don't include the null values of the maps.
+ */
+@RequiredArgsConstructor
+public class StreamingDocument<T extends StorageData> implements JsonSerializable {
+    private final StreamingStorageBuilder<T> builder;
+    private final T entity;
+    /**
+     * The value of the {@link IndexController.LogicIndicesRegister#METRIC_TABLE_NAME} column, null if the model is not
+     * a metric model.
+     */
+    private final String metricTable;
+
+    @Override
+    public void serialize(final JsonGenerator gen, final SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        try {
+            builder.entity2Columns(entity, new JsonColumnWriter(gen, serializers));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (metricTable != null) {
+            gen.writeStringField(IndexController.LogicIndicesRegister.METRIC_TABLE_NAME, metricTable);
+        }
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(final JsonGenerator gen,
+                                  final SerializerProvider serializers,
+                                  final TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @RequiredArgsConstructor
+    private static class JsonColumnWriter implements ColumnWriter {
+        private final JsonGenerator gen;
+        private final SerializerProvider serializers;
+
+        @Override
+        public void write(final String column, final long value) {
+            try {
+                gen.writeNumberField(column, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(final String column, final int value) {
+            try {
+                gen.writeNumberField(column, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(final String column, final double value) {
+            try {
+                gen.writeNumberField(column, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(final String column, final Object value) {
+            if (value == null) {
+                return;
+            }
+            try {
+                serializers.defaultSerializeField(column, value, gen);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
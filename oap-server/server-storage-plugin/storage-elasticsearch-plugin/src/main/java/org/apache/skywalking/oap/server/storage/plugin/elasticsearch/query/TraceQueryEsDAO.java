@@ -21,9 +21,12 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
 import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.library.elasticsearch.requests.search.BoolQueryBuilder;
 import org.apache.skywalking.library.elasticsearch.requests.search.Query;
@@ -32,6 +35,7 @@ import org.apache.skywalking.library.elasticsearch.requests.search.Search;
 import org.apache.skywalking.library.elasticsearch.requests.search.SearchBuilder;
 import org.apache.skywalking.library.elasticsearch.requests.search.Sort;
 import org.apache.skywalking.library.elasticsearch.response.search.SearchHit;
+import org.apache.skywalking.library.elasticsearch.response.search.SearchHits;
 import org.apache.skywalking.library.elasticsearch.response.search.SearchResponse;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
 import org.apache.skywalking.oap.server.core.analysis.manual.searchtag.Tag;
@@ -50,12 +54,22 @@ import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.IndexC
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeRangeIndexNameGenerator;
 
 public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
+    /**
+     * The max number of hits fetched from one index in one request of the partitioned search.
+     */
+    private static final int MAX_FETCH_SIZE = 1000;
 
     private final int segmentQueryMaxSize;
+    private final int segmentQueryIndexConcurrency;
 
     public TraceQueryEsDAO(ElasticSearchClient client, int segmentQueryMaxSize) {
+        this(client, segmentQueryMaxSize, 0);
+    }
+
+    public TraceQueryEsDAO(ElasticSearchClient client, int segmentQueryMaxSize, int segmentQueryIndexConcurrency) {
         super(client);
         this.segmentQueryMaxSize = segmentQueryMaxSize;
+        this.segmentQueryIndexConcurrency = segmentQueryIndexConcurrency;
     }
 
     @Override
@@ -72,10 +86,11 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
                                        TraceState traceState,
                                        QueryOrder queryOrder,
                                        final List<Tag> tags) throws IOException {
+        // All the conditions are in filter context, as the hits are sorted rather than scored.
         final BoolQueryBuilder query = Query.bool();
 
         if (startSecondTB != 0 && endSecondTB != 0) {
-            query.must(Query.range(SegmentRecord.TIME_BUCKET).gte(startSecondTB).lte(endSecondTB));
+            query.filter(Query.range(SegmentRecord.TIME_BUCKET).gte(startSecondTB).lte(endSecondTB));
         }
 
         if (minDuration != 0 || maxDuration != 0) {
@@ -86,28 +101,43 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
             if (maxDuration != 0) {
                 rangeQueryBuilder.lte(maxDuration);
             }
-            query.must(rangeQueryBuilder);
+            query.filter(rangeQueryBuilder);
         }
         if (StringUtil.isNotEmpty(serviceId)) {
-            query.must(Query.term(SegmentRecord.SERVICE_ID, serviceId));
+            query.filter(Query.term(SegmentRecord.SERVICE_ID, serviceId));
         }
         if (StringUtil.isNotEmpty(serviceInstanceId)) {
-            query.must(Query.term(SegmentRecord.SERVICE_INSTANCE_ID, serviceInstanceId));
+            query.filter(Query.term(SegmentRecord.SERVICE_INSTANCE_ID, serviceInstanceId));
         }
         if (!Strings.isNullOrEmpty(endpointId)) {
-            query.must(Query.term(SegmentRecord.ENDPOINT_ID, endpointId));
+            query.filter(Query.term(SegmentRecord.ENDPOINT_ID, endpointId));
         }
         if (!Strings.isNullOrEmpty(traceId)) {
-            query.must(Query.term(SegmentRecord.TRACE_ID, traceId));
+            query.filter(Query.term(SegmentRecord.TRACE_ID, traceId));
         }
         switch (traceState) {
             case ERROR:
-                query.must(Query.match(SegmentRecord.IS_ERROR, BooleanUtils.TRUE));
+                query.filter(Query.term(SegmentRecord.IS_ERROR, BooleanUtils.TRUE));
                 break;
             case SUCCESS:
-                query.must(Query.match(SegmentRecord.IS_ERROR, BooleanUtils.FALSE));
+                query.filter(Query.term(SegmentRecord.IS_ERROR, BooleanUtils.FALSE));
                 break;
         }
+        if (CollectionUtils.isNotEmpty(tags)) {
+            tags.forEach(tag -> query.filter(Query.term(SegmentRecord.TAGS, tag.toString())));
+        }
+
+        final TimeRangeIndexNameGenerator indexNames = new TimeRangeIndexNameGenerator(
+            IndexController.LogicIndicesRegister.getPhysicalTableName(SegmentRecord.INDEX_NAME),
+            startSecondTB,
+            endSecondTB
+        );
+        if (segmentQueryIndexConcurrency > 0 && queryOrder == QueryOrder.BY_START_TIME) {
+            final String[] indices = indexNames.get();
+            if (indices.length > 1) {
+                return searchByPartition(indices, query.build(), limit, from);
+            }
+        }
 
         final SearchBuilder search = Search.builder().query(query);
 
@@ -119,44 +149,126 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
                 search.sort(SegmentRecord.LATENCY, Sort.Order.DESC);
                 break;
         }
-        if (CollectionUtils.isNotEmpty(tags)) {
-            BoolQueryBuilder tagMatchQuery = Query.bool();
-            tags.forEach(tag -> tagMatchQuery.must(Query.term(SegmentRecord.TAGS, tag.toString())));
-            query.must(tagMatchQuery);
-        }
         search.size(limit).from(from);
 
-        final SearchResponse response = getClient().search(
-            new TimeRangeIndexNameGenerator(
-                IndexController.LogicIndicesRegister.getPhysicalTableName(SegmentRecord.INDEX_NAME),
-                startSecondTB,
-                endSecondTB
-            ), search.build());
+        final SearchResponse response = getClient().search(indexNames, search.build());
         final TraceBrief traceBrief = new TraceBrief();
         traceBrief.setTotal(response.getHits().getTotal());
 
         for (SearchHit searchHit : response.getHits().getHits()) {
-            BasicTrace basicTrace = new BasicTrace();
-
-            basicTrace.setSegmentId((String) searchHit.getSource().get(SegmentRecord.SEGMENT_ID));
-            basicTrace.setStart(String.valueOf(searchHit.getSource().get(SegmentRecord.START_TIME)));
-            basicTrace.getEndpointNames().add(
-                IDManager.EndpointID.analysisId(
-                    (String) searchHit.getSource().get(SegmentRecord.ENDPOINT_ID)
-                ).getEndpointName());
-            basicTrace.setDuration(((Number) searchHit.getSource().get(SegmentRecord.LATENCY)).intValue());
-            basicTrace.setError(
-                BooleanUtils.valueToBoolean(
-                    ((Number) searchHit.getSource().get(SegmentRecord.IS_ERROR)).intValue()
-                )
-            );
-            basicTrace.getTraceIds().add((String) searchHit.getSource().get(SegmentRecord.TRACE_ID));
-            traceBrief.getTraces().add(basicTrace);
+            traceBrief.getTraces().add(parseBasicTrace(searchHit));
+        }
+
+        return traceBrief;
+    }
+
+    /**
+     * Search the daily indices from the newest, {@link #segmentQueryIndexConcurrency} indices at a time, as the
+     * segments in a newer index always start later. The hits before the page are skipped by the total hits of every
+     * index, the hits in one index are paged by {@code search_after}, and the search stops once the page is filled,
+     * the rest indices are only counted in one request.
+     *
+     * @param indices the daily indices of the time range, from the oldest to the newest
+     */
+    private TraceBrief searchByPartition(final String[] indices,
+                                         final Query query,
+                                         final int limit,
+                                         final int from) throws IOException {
+        final TraceBrief traceBrief = new TraceBrief();
+        final int end = from + limit;
+        // the position of the first hit of the next index, in all hits of the time range
+        int position = 0;
+        int next = indices.length - 1;
+        while (next >= 0 && position < end) {
+            final int batchEnd = Math.max(-1, next - segmentQueryIndexConcurrency);
+            final int size = Math.min(end - position, MAX_FETCH_SIZE);
+            final List<CompletableFuture<SearchResponse>> responses = new ArrayList<>(next - batchEnd);
+            for (int i = next; i > batchEnd; i--) {
+                responses.add(getClient().searchAsync(
+                    new String[] {indices[i]}, partitionSearch(query, size, null)));
+            }
+
+            for (int i = 0; i < responses.size(); i++) {
+                final SearchHits hits = await(responses.get(i)).getHits();
+                final int skip = Math.max(0, from - position);
+                final int take = Math.min(hits.getTotal(), end - position);
+                List<SearchHit> page = hits.getHits();
+                int fetched = 0;
+                // the index is skipped if all its hits are before the page
+                while (skip < take && fetched < take && !page.isEmpty()) {
+                    for (int j = Math.max(0, skip - fetched); j < page.size() && fetched + j < take; j++) {
+                        traceBrief.getTraces().add(parseBasicTrace(page.get(j)));
+                    }
+                    fetched += page.size();
+                    if (fetched < take) {
+                        final List<Object> after = page.get(page.size() - 1).getSort();
+                        page = await(getClient().searchAsync(
+                            new String[] {indices[next - i]},
+                            partitionSearch(query, Math.min(take - fetched, MAX_FETCH_SIZE), after)
+                        )).getHits().getHits();
+                    }
+                }
+                position += hits.getTotal();
+            }
+            next = batchEnd;
         }
 
+        int total = position;
+        if (next >= 0) {
+            final String[] rest = Arrays.copyOfRange(indices, 0, next + 1);
+            total += getClient().search(
+                () -> rest, Search.builder().query(query).size(0).trackTotalHits(true).build()
+            ).getHits().getTotal();
+        }
+        traceBrief.setTotal(total);
         return traceBrief;
     }
 
+    private static Search partitionSearch(final Query query, final int size, final List<Object> after) {
+        // segment ID breaks the ties of start time, to make the search_after cursor unique
+        final SearchBuilder search = Search.builder()
+                                           .query(query)
+                                           .sort(SegmentRecord.START_TIME, Sort.Order.DESC)
+                                           .sort(SegmentRecord.SEGMENT_ID, Sort.Order.DESC)
+                                           .size(size);
+        if (after == null) {
+            search.trackTotalHits(true);
+        } else {
+            search.searchAfter(after);
+        }
+        return search.build();
+    }
+
+    private static SearchResponse await(final CompletableFuture<SearchResponse> response) throws IOException {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static BasicTrace parseBasicTrace(final SearchHit searchHit) {
+        BasicTrace basicTrace = new BasicTrace();
+
+        basicTrace.setSegmentId((String) searchHit.getSource().get(SegmentRecord.SEGMENT_ID));
+        basicTrace.setStart(String.valueOf(searchHit.getSource().get(SegmentRecord.START_TIME)));
+        basicTrace.getEndpointNames().add(
+            IDManager.EndpointID.analysisId(
+                (String) searchHit.getSource().get(SegmentRecord.ENDPOINT_ID)
+            ).getEndpointName());
+        basicTrace.setDuration(((Number) searchHit.getSource().get(SegmentRecord.LATENCY)).intValue());
+        basicTrace.setError(
+            BooleanUtils.valueToBoolean(
+                ((Number) searchHit.getSource().get(SegmentRecord.IS_ERROR)).intValue()
+            )
+        );
+        basicTrace.getTraceIds().add((String) searchHit.getSource().get(SegmentRecord.TRACE_ID));
+        return basicTrace;
+    }
+
     @Override
     public List<SegmentRecord> queryByTraceId(String traceId) throws IOException {
         final String index =
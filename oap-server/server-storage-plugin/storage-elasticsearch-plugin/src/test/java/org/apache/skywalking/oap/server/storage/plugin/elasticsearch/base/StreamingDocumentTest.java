@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.PercentileFunction;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.avg.AvgFunction;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.StreamingStorageBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StreamingDocumentTest {
+    /**
+     * The same inclusion as the codecs of the client.
+     */
+    private final ObjectMapper mapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    @Test
+    public void testSameAsMapWithoutNullColumns() throws Exception {
+        final Map<String, Object> dbMap = new HashMap<>();
+        dbMap.put("summation", 100L);
+        dbMap.put("value", 50L);
+        dbMap.put("count", 2L);
+        dbMap.put(Metrics.TIME_BUCKET, 202111101010L);
+        dbMap.put(Metrics.ENTITY_ID, "c2VydmljZQ==.1");
+
+        assertSameDocument(new AvgFunction.AvgStorageBuilder(), dbMap, null);
+    }
+
+    @Test
+    public void testSameAsMapWithComplexColumns() throws Exception {
+        final Map<String, Object> dbMap = new HashMap<>();
+        dbMap.put(PercentileFunction.DATASET, "0,3|100,2|500,1");
+        dbMap.put(PercentileFunction.RANKS, "50|99");
+        dbMap.put(PercentileFunction.VALUE, "50,0|99,500");
+        dbMap.put(Metrics.TIME_BUCKET, 202111101010L);
+        dbMap.put(Metrics.ENTITY_ID, "c2VydmljZQ==.1");
+
+        assertSameDocument(new PercentileFunction.PercentileFunctionBuilder(), dbMap, "meter_service_percentile");
+    }
+
+    private <T extends StorageData, B extends StorageHashMapBuilder<T> & StreamingStorageBuilder<T>> void assertSameDocument(
+        B builder, Map<String, Object> dbMap, String metricTable) throws Exception {
+        final T entity = builder.storage2Entity(dbMap);
+        final Map<String, Object> columns = builder.entity2Storage(entity);
+        if (metricTable != null) {
+            columns.put(IndexController.LogicIndicesRegister.METRIC_TABLE_NAME, metricTable);
+        }
+
+        Assert.assertEquals(
+            mapper.readTree(mapper.writeValueAsString(columns)),
+            mapper.readTree(mapper.writeValueAsString(new StreamingDocument<>(builder, entity, metricTable)))
+        );
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.skywalking.library.elasticsearch.requests.search.Search;
+import org.apache.skywalking.library.elasticsearch.response.search.SearchHit;
+import org.apache.skywalking.library.elasticsearch.response.search.SearchHits;
+import org.apache.skywalking.library.elasticsearch.response.search.SearchResponse;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.query.type.BasicTrace;
+import org.apache.skywalking.oap.server.core.query.type.QueryOrder;
+import org.apache.skywalking.oap.server.core.query.type.TraceBrief;
+import org.apache.skywalking.oap.server.core.query.type.TraceState;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TraceQueryEsDAOTest {
+    private static final long START_SECOND_TB = 20210101000000L;
+    private static final long END_SECOND_TB = 20210103235959L;
+
+    private final Map<String, List<SearchHit>> indices = new HashMap<>();
+    private final List<Search> searches = new ArrayList<>();
+    private ElasticSearchClient client;
+
+    @Before
+    public void prepare() {
+        // the segments start later in the newer index, and are sorted by start time desc in every index
+        indices.put("segment-20210101", hits(1000000, 5));
+        indices.put("segment-20210102", Collections.emptyList());
+        indices.put("segment-20210103", hits(3000000, 1500));
+
+        client = mock(ElasticSearchClient.class);
+        when(client.searchAsync(any(String[].class), any(Search.class))).thenAnswer(invocation -> {
+            final String[] names = invocation.getArgument(0);
+            final Search search = invocation.getArgument(1);
+            searches.add(search);
+            Assert.assertNull(search.getFrom());
+
+            final List<SearchHit> all = indices.get(names[0]);
+            final long after = search.getSearchAfter() == null
+                ? Long.MAX_VALUE : (Long) search.getSearchAfter().get(0);
+            final List<SearchHit> page = all.stream()
+                                            .filter(hit -> (Long) hit.getSort().get(0) < after)
+                                            .limit(search.getSize())
+                                            .collect(Collectors.toList());
+            return CompletableFuture.completedFuture(response(all.size(), page));
+        });
+        when(client.search(any(Supplier.class), any(Search.class))).thenAnswer(invocation -> {
+            final Supplier<String[]> names = invocation.getArgument(0);
+            final Search search = invocation.getArgument(1);
+            Assert.assertEquals(0, search.getSize().intValue());
+
+            final int total = Arrays.stream(names.get()).mapToInt(name -> indices.get(name).size()).sum();
+            return response(total, Collections.emptyList());
+        });
+    }
+
+    @Test
+    public void testPageInNewestIndex() throws Exception {
+        final TraceQueryEsDAO dao = new TraceQueryEsDAO(client, 200, 1);
+
+        final TraceBrief traceBrief = query(dao, 20, 10);
+
+        Assert.assertEquals(1505, traceBrief.getTotal());
+        assertStartTimes(traceBrief, 2999990, 20);
+        // the older indices are only counted
+        Assert.assertEquals(1, searches.size());
+        final ArgumentCaptor<Supplier<String[]>> counted = ArgumentCaptor.forClass(Supplier.class);
+        verify(client).search(counted.capture(), any(Search.class));
+        Assert.assertArrayEquals(
+            new String[] {"segment-20210101", "segment-20210102"}, counted.getValue().get());
+    }
+
+    @Test
+    public void testPageAcrossIndices() throws Exception {
+        final TraceQueryEsDAO dao = new TraceQueryEsDAO(client, 200, 1);
+
+        final TraceBrief traceBrief = query(dao, 400, 1200);
+
+        Assert.assertEquals(1505, traceBrief.getTotal());
+        Assert.assertEquals(305, traceBrief.getTraces().size());
+        assertStartTimes(traceBrief.getTraces().subList(0, 300), 2998800);
+        assertStartTimes(traceBrief.getTraces().subList(300, 305), 1000000);
+        // the newest index is continued by search_after
+        Assert.assertTrue(searches.stream().anyMatch(search -> search.getSearchAfter() != null));
+        verify(client, never()).search(any(Supplier.class), any(Search.class));
+    }
+
+    @Test
+    public void testPageOverAllIndices() throws Exception {
+        final TraceQueryEsDAO dao = new TraceQueryEsDAO(client, 200, 3);
+
+        final TraceBrief traceBrief = query(dao, 20, 1500);
+
+        Assert.assertEquals(1505, traceBrief.getTotal());
+        assertStartTimes(traceBrief, 1000000, 5);
+        // all indices are searched in one batch
+        Assert.assertEquals(3, searches.size());
+    }
+
+    @Test
+    public void testSearchAllIndicesInOneRequest() throws Exception {
+        final TraceQueryEsDAO dao = new TraceQueryEsDAO(client, 200);
+        when(client.search(any(Supplier.class), any(Search.class))).thenReturn(
+            response(1, hits(3000000, 1)));
+
+        final TraceBrief traceBrief = query(dao, 20, 0);
+
+        Assert.assertEquals(1, traceBrief.getTotal());
+        verify(client, never()).searchAsync(any(String[].class), any(Search.class));
+    }
+
+    private TraceBrief query(final TraceQueryEsDAO dao, final int limit, final int from) throws Exception {
+        return dao.queryBasicTraces(
+            START_SECOND_TB, END_SECOND_TB, 0, 0, null, null, null, null,
+            limit, from, TraceState.ALL, QueryOrder.BY_START_TIME, null
+        );
+    }
+
+    private static void assertStartTimes(final TraceBrief traceBrief, final long first, final int size) {
+        Assert.assertEquals(size, traceBrief.getTraces().size());
+        assertStartTimes(traceBrief.getTraces(), first);
+    }
+
+    private static void assertStartTimes(final List<BasicTrace> traces, final long first) {
+        for (int i = 0; i < traces.size(); i++) {
+            Assert.assertEquals(String.valueOf(first - i), traces.get(i).getStart());
+        }
+    }
+
+    private static List<SearchHit> hits(final long firstStartTime, final int size) {
+        final String endpointId = IDManager.EndpointID.buildId(IDManager.ServiceID.buildId("service", true), "/e");
+        final List<SearchHit> hits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final long startTime = firstStartTime - i;
+            final Map<String, Object> source = new HashMap<>();
+            source.put(SegmentRecord.SEGMENT_ID, "segment-" + startTime);
+            source.put(SegmentRecord.TRACE_ID, "trace-" + startTime);
+            source.put(SegmentRecord.START_TIME, startTime);
+            source.put(SegmentRecord.ENDPOINT_ID, endpointId);
+            source.put(SegmentRecord.LATENCY, 100);
+            source.put(SegmentRecord.IS_ERROR, 0);
+
+            final SearchHit hit = new SearchHit();
+            hit.setSource(source);
+            hit.setSort(Arrays.asList(startTime, "segment-" + startTime));
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    private static SearchResponse response(final int total, final List<SearchHit> hits) {
+        final SearchHits searchHits = new SearchHits();
+        searchHits.setTotal(total);
+        searchHits.setHits(hits);
+        final SearchResponse response = new SearchResponse();
+        response.setHits(searchHits);
+        return response;
+    }
+}
@@ -18,11 +18,16 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.iotdb;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.iotdb.rpc.IoTDBConnectionException;
 import org.apache.iotdb.rpc.StatementExecutionException;
@@ -32,6 +37,7 @@ import org.apache.iotdb.session.pool.SessionPool;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.write.record.Tablet;
 import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
 import org.apache.skywalking.oap.server.core.analysis.manual.log.LogRecord;
 import org.apache.skywalking.oap.server.core.browser.manual.errorlog.BrowserErrorLogRecord;
@@ -59,16 +65,26 @@ public class IoTDBClient implements Client, HealthCheckable {
     public static final String TIME = "Time";
     public static final String TIMESTAMP = "timestamp";
 
+    private static final int DEVICE_PATH_CACHE_SIZE = 100_000;
+
+    /**
+     * The device paths of the recently written rows, the metrics of the same entity are written repeatedly until
+     * the time bucket passes.
+     */
+    private final LoadingCache<DeviceKey, String> devicePathCache;
+
     public IoTDBClient(IoTDBStorageConfig config) {
         this.config = config;
         storageGroup = config.getStorageGroup();
+        devicePathCache = CacheBuilder.newBuilder()
+                .maximumSize(DEVICE_PATH_CACHE_SIZE)
+                .build(CacheLoader.from(this::buildDevicePath));
     }
 
     @Override
     public void connect() throws IoTDBConnectionException, StatementExecutionException {
         try {
-            final int sessionPoolSize = config.getSessionPoolSize() == 0 ?
-                    Runtime.getRuntime().availableProcessors() * 2 : config.getSessionPoolSize();
+            final int sessionPoolSize = config.getSessionPoolSize();
             log.info("SessionPool Size: {}", sessionPoolSize);
             sessionPool = new SessionPool(config.getHost(), config.getRpcPort(), config.getUsername(),
                     config.getPassword(), sessionPoolSize, false, false);
@@ -113,15 +129,8 @@ public class IoTDBClient implements Client, HealthCheckable {
             log.debug("Writing data to IoTDB: {}", request);
         }
 
-        StringBuilder devicePath = new StringBuilder();
-        devicePath.append(storageGroup).append(IoTDBClient.DOT).append(request.getModelName());
         try {
-            // make an index value as a layer name of the storage path
-            if (!request.getIndexes().isEmpty()) {
-                request.getIndexValues().forEach(value -> devicePath.append(IoTDBClient.DOT)
-                        .append(indexValue2LayerName(value)));
-            }
-            sessionPool.insertRecord(devicePath.toString(), request.getTime(),
+            sessionPool.insertRecord(devicePath(request), request.getTime(),
                     request.getMeasurements(), request.getMeasurementTypes(), request.getMeasurementValues());
             healthChecker.health();
         } catch (IoTDBConnectionException | StatementExecutionException e) {
@@ -150,14 +159,7 @@ public class IoTDBClient implements Client, HealthCheckable {
         List<List<Object>> valuesList = new ArrayList<>();
 
         requestList.forEach(request -> {
-            StringBuilder devicePath = new StringBuilder();
-            devicePath.append(storageGroup).append(IoTDBClient.DOT).append(request.getModelName());
-            // make an index value as a layer name of the storage path
-            if (!request.getIndexes().isEmpty()) {
-                request.getIndexValues().forEach(value -> devicePath.append(IoTDBClient.DOT)
-                        .append(indexValue2LayerName(value)));
-            }
-            devicePathList.add(devicePath.toString());
+            devicePathList.add(devicePath(request));
             timeList.add(request.getTime());
             timeseriesListList.add(request.getMeasurements());
             typesList.add(request.getMeasurementTypes());
@@ -173,6 +175,44 @@ public class IoTDBClient implements Client, HealthCheckable {
         }
     }
 
+    /**
+     * Write the tablets into IoTDB
+     *
+     * @param tablets the tablets keyed by device path
+     * @throws IOException IoTDBConnectionException or StatementExecutionException
+     */
+    public void write(Map<String, Tablet> tablets) throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("Writing tablets of {} devices to IoTDB", tablets.size());
+        }
+
+        try {
+            sessionPool.insertTablets(tablets);
+            healthChecker.health();
+        } catch (IoTDBConnectionException | StatementExecutionException e) {
+            healthChecker.unHealth(e);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Get the device path of the request, which is the model path followed by the layer names of the index values.
+     *
+     * @param request an IoTDBInsertRequest
+     * @return the device path
+     */
+    public String devicePath(IoTDBInsertRequest request) {
+        return devicePathCache.getUnchecked(new DeviceKey(request.getModelName(), request.getIndexValues()));
+    }
+
+    private String buildDevicePath(DeviceKey key) {
+        StringBuilder devicePath = new StringBuilder();
+        devicePath.append(storageGroup).append(IoTDBClient.DOT).append(key.modelName);
+        // make an index value as a layer name of the storage path
+        key.indexValues.forEach(value -> devicePath.append(IoTDBClient.DOT).append(indexValue2LayerName(value)));
+        return devicePath.toString();
+    }
+
     /**
      * Normal filter query for a list of data. querySQL must contain "align by device"
      *
@@ -338,4 +378,11 @@ public class IoTDBClient implements Client, HealthCheckable {
     public StringBuilder addModelPath(StringBuilder query, String modelName) {
         return query.append(storageGroup).append(IoTDBClient.DOT).append(modelName);
     }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class DeviceKey {
+        private final String modelName;
+        private final List<String> indexValues;
+    }
 }
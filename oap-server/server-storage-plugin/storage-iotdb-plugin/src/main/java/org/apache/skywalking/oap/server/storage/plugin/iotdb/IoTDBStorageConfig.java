@@ -33,4 +33,13 @@ public class IoTDBStorageConfig extends ModuleConfig {
     private int sessionPoolSize;
 
     private int fetchTaskLogMaxSize;
+
+    /**
+     * Write the batches as tablets grouped by device, in parallel on the sessions of the pool, instead of rows.
+     */
+    private boolean enableTabletWrite;
+
+    public int getSessionPoolSize() {
+        return sessionPoolSize == 0 ? Runtime.getRuntime().availableProcessors() * 2 : sessionPoolSize;
+    }
 }
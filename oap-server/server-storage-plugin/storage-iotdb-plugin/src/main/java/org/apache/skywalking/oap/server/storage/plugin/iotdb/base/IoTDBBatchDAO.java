@@ -22,18 +22,34 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.apache.skywalking.oap.server.storage.plugin.iotdb.IoTDBClient;
+import org.apache.skywalking.oap.server.storage.plugin.iotdb.IoTDBStorageConfig;
 
 @Slf4j
-@RequiredArgsConstructor
 public class IoTDBBatchDAO implements IBatchDAO {
+    private static final int TABLET_BATCH_ROWS = 1000;
+
     private final IoTDBClient client;
+    /**
+     * The tablet batches are written in parallel, each on its own session of the pool. It's null if the tablet write
+     * is disabled.
+     */
+    private final ExecutorService executorService;
+
+    public IoTDBBatchDAO(IoTDBClient client) {
+        this.client = client;
+        final IoTDBStorageConfig config = client.getConfig();
+        this.executorService = config.isEnableTabletWrite() ? Executors.newFixedThreadPool(
+            config.getSessionPoolSize(), new CustomThreadFactory("IoTDBTabletWriter")) : null;
+    }
 
     @Override
     public void insert(InsertRequest insertRequest) {
@@ -54,6 +70,9 @@ public class IoTDBBatchDAO implements IBatchDAO {
         }
         List<IoTDBInsertRequest> tempPrepareRequests = new ArrayList<>(prepareRequests.size());
         prepareRequests.forEach(prepareRequest -> tempPrepareRequests.add((IoTDBInsertRequest) prepareRequest));
+        if (executorService != null) {
+            return flushTablets(tempPrepareRequests);
+        }
         try {
             client.write(tempPrepareRequests);
         } catch (IOException e) {
@@ -61,4 +80,17 @@ public class IoTDBBatchDAO implements IBatchDAO {
         }
         return CompletableFuture.completedFuture(null);
     }
+
+    private CompletableFuture<Void> flushTablets(List<IoTDBInsertRequest> requests) {
+        final CompletableFuture<?>[] futures = IoTDBTablets.build(client, requests, TABLET_BATCH_ROWS).stream().map(
+            tablets -> CompletableFuture.runAsync(() -> {
+                try {
+                    client.write(tablets);
+                } catch (IOException e) {
+                    log.error(e.getMessage(), e);
+                }
+            }, executorService)
+        ).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures);
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.iotdb.base;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+import org.apache.skywalking.oap.server.storage.plugin.iotdb.IoTDBClient;
+
+/**
+ * IoTDBTablets groups the insert requests by device path and measurements, and builds a {@link Tablet} with primitive
+ * columns for each group. The tablets are split into batches of about {@code maxRowsPerBatch} rows, and a device only
+ * appears once in a batch, as the tablets of a batch are keyed by the device path.
+ */
+public class IoTDBTablets {
+    public static List<Map<String, Tablet>> build(IoTDBClient client, List<IoTDBInsertRequest> requests,
+                                                  int maxRowsPerBatch) {
+        final Map<Group, List<IoTDBInsertRequest>> groups = new LinkedHashMap<>();
+        for (final IoTDBInsertRequest request : requests) {
+            groups.computeIfAbsent(
+                new Group(client.devicePath(request), request.getMeasurements()), k -> new ArrayList<>()
+            ).add(request);
+        }
+
+        final List<Map<String, Tablet>> batches = new ArrayList<>();
+        Map<String, Tablet> batch = new HashMap<>();
+        int rows = 0;
+        for (final Map.Entry<Group, List<IoTDBInsertRequest>> entry : groups.entrySet()) {
+            final String devicePath = entry.getKey().devicePath;
+            if (rows >= maxRowsPerBatch || batch.containsKey(devicePath)) {
+                batches.add(batch);
+                batch = new HashMap<>();
+                rows = 0;
+            }
+            batch.put(devicePath, tablet(devicePath, entry.getValue()));
+            rows += entry.getValue().size();
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * Build the tablet of the requests sharing the same device path and measurements.
+     */
+    private static Tablet tablet(String devicePath, List<IoTDBInsertRequest> requests) {
+        final IoTDBInsertRequest first = requests.get(0);
+        final List<String> measurements = first.getMeasurements();
+        final List<TSDataType> types = first.getMeasurementTypes();
+        final List<MeasurementSchema> schemas = new ArrayList<>(measurements.size());
+        for (int i = 0; i < measurements.size(); i++) {
+            schemas.add(new MeasurementSchema(measurements.get(i), types.get(i)));
+        }
+
+        final Tablet tablet = new Tablet(devicePath, schemas, requests.size());
+        for (int row = 0; row < requests.size(); row++) {
+            final IoTDBInsertRequest request = requests.get(row);
+            tablet.timestamps[row] = request.getTime();
+            final List<Object> values = request.getMeasurementValues();
+            for (int column = 0; column < schemas.size(); column++) {
+                setValue(tablet.values[column], types.get(column), row, values.get(column));
+            }
+        }
+        tablet.rowSize = requests.size();
+        return tablet;
+    }
+
+    private static void setValue(Object column, TSDataType type, int row, Object value) {
+        switch (type) {
+            case INT32:
+                ((int[]) column)[row] = ((Number) value).intValue();
+                break;
+            case INT64:
+                ((long[]) column)[row] = ((Number) value).longValue();
+                break;
+            case FLOAT:
+                ((float[]) column)[row] = ((Number) value).floatValue();
+                break;
+            case DOUBLE:
+                ((double[]) column)[row] = ((Number) value).doubleValue();
+                break;
+            case BOOLEAN:
+                ((boolean[]) column)[row] = (Boolean) value;
+                break;
+            case TEXT:
+                ((Binary[]) column)[row] = Binary.valueOf(String.valueOf(value));
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported data type: " + type);
+        }
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class Group {
+        private final String devicePath;
+        private final List<String> measurements;
+    }
+}
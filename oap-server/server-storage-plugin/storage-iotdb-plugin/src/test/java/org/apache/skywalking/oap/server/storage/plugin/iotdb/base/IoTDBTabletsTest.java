@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.iotdb.base;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.skywalking.oap.server.storage.plugin.iotdb.IoTDBClient;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IoTDBTabletsTest {
+    private static final String STORAGE_GROUP = "root.skywalking";
+
+    private IoTDBClient client;
+
+    @Before
+    public void setUp() {
+        client = mock(IoTDBClient.class);
+        when(client.devicePath(any())).thenAnswer(invocation -> {
+            final IoTDBInsertRequest request = invocation.getArgument(0);
+            return STORAGE_GROUP + IoTDBClient.DOT + request.getModelName();
+        });
+    }
+
+    @Test
+    public void testGroupByDeviceAndMeasurements() {
+        final List<Map<String, Tablet>> batches = IoTDBTablets.build(client, Arrays.asList(
+            request("service_cpm", 1, "value", TSDataType.INT64, 10L),
+            request("endpoint_cpm", 2, "value", TSDataType.INT64, 20L),
+            request("service_cpm", 3, "value", TSDataType.INT64, 30L)
+        ), 100);
+
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals(2, batches.get(0).size());
+        final Tablet service = batches.get(0).get(STORAGE_GROUP + ".service_cpm");
+        Assert.assertEquals(STORAGE_GROUP + ".service_cpm", service.deviceId);
+        Assert.assertEquals(2, service.rowSize);
+        Assert.assertEquals(1, service.timestamps[0]);
+        Assert.assertEquals(3, service.timestamps[1]);
+        Assert.assertEquals(10L, ((long[]) service.values[0])[0]);
+        Assert.assertEquals(30L, ((long[]) service.values[0])[1]);
+        final Tablet endpoint = batches.get(0).get(STORAGE_GROUP + ".endpoint_cpm");
+        Assert.assertEquals(1, endpoint.rowSize);
+        Assert.assertEquals(20L, ((long[]) endpoint.values[0])[0]);
+    }
+
+    @Test
+    public void testSplitOnRepeatedDevice() {
+        final IoTDBInsertRequest withTwoMeasurements = request(
+            "service_cpm", 2, Arrays.asList("value", "total"), Arrays.asList(TSDataType.INT64, TSDataType.INT64),
+            Arrays.asList(20L, 40L)
+        );
+        final List<Map<String, Tablet>> batches = IoTDBTablets.build(client, Arrays.asList(
+            request("service_cpm", 1, "value", TSDataType.INT64, 10L),
+            withTwoMeasurements
+        ), 100);
+
+        // the same device with different measurements is in another tablet, which can't be in the same batch
+        Assert.assertEquals(2, batches.size());
+        final Tablet first = batches.get(0).get(STORAGE_GROUP + ".service_cpm");
+        Assert.assertEquals(1, first.getSchemas().size());
+        Assert.assertEquals(1, first.timestamps[0]);
+        final Tablet second = batches.get(1).get(STORAGE_GROUP + ".service_cpm");
+        Assert.assertEquals(2, second.getSchemas().size());
+        Assert.assertEquals("total", second.getSchemas().get(1).getMeasurementId());
+        Assert.assertEquals(2, second.timestamps[0]);
+        Assert.assertEquals(40L, ((long[]) second.values[1])[0]);
+    }
+
+    @Test
+    public void testSplitOnRowLimit() {
+        final List<Map<String, Tablet>> batches = IoTDBTablets.build(client, Arrays.asList(
+            request("service_cpm", 1, "value", TSDataType.INT64, 10L),
+            request("service_cpm", 2, "value", TSDataType.INT64, 20L),
+            request("endpoint_cpm", 1, "value", TSDataType.INT64, 30L),
+            request("instance_cpm", 1, "value", TSDataType.INT64, 40L)
+        ), 2);
+
+        // a tablet is never split, the batch is closed once it reaches the limit
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals(Collections.singleton(STORAGE_GROUP + ".service_cpm"), batches.get(0).keySet());
+        Assert.assertEquals(2, batches.get(0).get(STORAGE_GROUP + ".service_cpm").rowSize);
+        Assert.assertEquals(2, batches.get(1).size());
+        Assert.assertTrue(batches.get(1).containsKey(STORAGE_GROUP + ".endpoint_cpm"));
+        Assert.assertTrue(batches.get(1).containsKey(STORAGE_GROUP + ".instance_cpm"));
+    }
+
+    @Test
+    public void testFillPrimitiveColumns() {
+        final List<TSDataType> types = Arrays.asList(
+            TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT, TSDataType.DOUBLE, TSDataType.BOOLEAN,
+            TSDataType.TEXT
+        );
+        final List<String> measurements = Arrays.asList("int32", "int64", "float", "double", "boolean", "text");
+        final List<Map<String, Tablet>> batches = IoTDBTablets.build(client, Arrays.asList(
+            request("all_types", 1, measurements, types, Arrays.asList(1, 2L, 1.5f, 2.5d, true, "a")),
+            // the numbers are converted to the type of the column
+            request("all_types", 2, measurements, types, Arrays.asList(3L, 4, 5.5d, 6.5f, false, 7))
+        ), 100);
+
+        final Tablet tablet = batches.get(0).get(STORAGE_GROUP + ".all_types");
+        Assert.assertEquals(2, tablet.rowSize);
+        Assert.assertArrayEquals(new int[] {1, 3}, (int[]) tablet.values[0]);
+        Assert.assertArrayEquals(new long[] {2L, 4L}, (long[]) tablet.values[1]);
+        Assert.assertArrayEquals(new float[] {1.5f, 5.5f}, (float[]) tablet.values[2], 0);
+        Assert.assertArrayEquals(new double[] {2.5d, 6.5d}, (double[]) tablet.values[3], 0);
+        Assert.assertArrayEquals(new boolean[] {true, false}, (boolean[]) tablet.values[4]);
+        Assert.assertArrayEquals(
+            new Binary[] {Binary.valueOf("a"), Binary.valueOf("7")}, (Binary[]) tablet.values[5]);
+    }
+
+    private static IoTDBInsertRequest request(final String modelName, final long time, final String measurement,
+                                              final TSDataType type, final Object value) {
+        return request(modelName, time, Collections.singletonList(measurement), Collections.singletonList(type),
+                       Collections.singletonList(value)
+        );
+    }
+
+    private static IoTDBInsertRequest request(final String modelName, final long time,
+                                              final List<String> measurements, final List<TSDataType> types,
+                                              final List<Object> values) {
+        final IoTDBInsertRequest request = mock(IoTDBInsertRequest.class);
+        when(request.getModelName()).thenReturn(modelName);
+        when(request.getTime()).thenReturn(time);
+        when(request.getMeasurements()).thenReturn(measurements);
+        when(request.getMeasurementTypes()).thenReturn(types);
+        when(request.getMeasurementValues()).thenReturn(values);
+        return request;
+    }
+}
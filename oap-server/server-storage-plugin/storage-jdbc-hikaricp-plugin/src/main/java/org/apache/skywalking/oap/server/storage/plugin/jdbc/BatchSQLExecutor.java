@@ -29,11 +29,16 @@ import java.sql.SQLException;
 import java.util.List;
 
 /**
- * A Batch SQL executor.
+ * A Batch SQL executor. The upsert rows are written in the statements of multiple rows, and the other SQL are
+ * executed in the JDBC batch.
  */
 @Slf4j
 @RequiredArgsConstructor
 public class BatchSQLExecutor implements InsertRequest, UpdateRequest {
+    /**
+     * The limit of the parameters of a statement is 32767 in PostgreSQL, and 65535 in MySQL.
+     */
+    private static final int MAX_PARAMETERS_PER_STATEMENT = 30000;
 
     private final List<PrepareRequest> prepareRequests;
 
@@ -44,11 +49,46 @@ public class BatchSQLExecutor implements InsertRequest, UpdateRequest {
         if (prepareRequests.size() == 0) {
             return;
         }
-        String sql = prepareRequests.get(0).toString();
+        if (prepareRequests.get(0) instanceof UpsertSQLExecutor) {
+            invokeUpsert(connection, maxBatchSqlSize);
+            return;
+        }
+        invoke(connection, prepareRequests.get(0).toString(), prepareRequests, maxBatchSqlSize);
+    }
+
+    private void invokeUpsert(Connection connection, int maxBatchSqlSize) throws SQLException {
+        final UpsertTemplate template = ((UpsertSQLExecutor) prepareRequests.get(0)).getTemplate();
+        final int rowsPerStatement = Math.max(
+            1, Math.min(maxBatchSqlSize, MAX_PARAMETERS_PER_STATEMENT / template.getParamsPerRow()));
+        final int statements = rowsPerStatement > 1 ? prepareRequests.size() / rowsPerStatement : 0;
+        if (statements > 0) {
+            final String sql = template.getSQL(rowsPerStatement);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < statements; i++) {
+                    int offset = 0;
+                    for (int k = i * rowsPerStatement; k < (i + 1) * rowsPerStatement; k++) {
+                        offset = ((SQLExecutor) prepareRequests.get(k)).setParameters(preparedStatement, offset);
+                    }
+                    preparedStatement.addBatch();
+                }
+                executeBatch(preparedStatement, statements * rowsPerStatement, sql);
+            }
+        }
+        // The rest rows, less than a full statement, are in the batch of the single row statement.
+        final List<PrepareRequest> rest = prepareRequests.subList(statements * rowsPerStatement, prepareRequests.size());
+        if (!rest.isEmpty()) {
+            invoke(connection, template.getSQL(1), rest, maxBatchSqlSize);
+        }
+    }
+
+    private void invoke(Connection connection,
+                        String sql,
+                        List<PrepareRequest> requests,
+                        int maxBatchSqlSize) throws SQLException {
         try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
             int pendingCount = 0;
-            for (int k = 0; k < prepareRequests.size(); k++) {
-                SQLExecutor sqlExecutor = (SQLExecutor) prepareRequests.get(k);
+            for (int k = 0; k < requests.size(); k++) {
+                SQLExecutor sqlExecutor = (SQLExecutor) requests.get(k);
                 sqlExecutor.setParameters(preparedStatement);
                 preparedStatement.addBatch();
                 if (k > 0 && k % maxBatchSqlSize == 0) {
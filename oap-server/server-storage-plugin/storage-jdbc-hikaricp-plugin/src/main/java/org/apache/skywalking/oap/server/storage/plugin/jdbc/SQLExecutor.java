@@ -23,6 +23,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 import org.slf4j.Logger;
@@ -36,10 +37,16 @@ public class SQLExecutor implements InsertRequest, UpdateRequest {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SQLExecutor.class);
 
+    /**
+     * The table written by the SQL.
+     */
+    @Getter
+    private String table;
     private String sql;
     private List<Object> param;
 
-    public SQLExecutor(String sql, List<Object> param) {
+    public SQLExecutor(String table, String sql, List<Object> param) {
+        this.table = table;
         this.sql = sql;
         this.param = param;
     }
@@ -54,9 +61,19 @@ public class SQLExecutor implements InsertRequest, UpdateRequest {
     }
 
     public void setParameters(PreparedStatement preparedStatement) throws SQLException {
+        setParameters(preparedStatement, 0);
+    }
+
+    /**
+     * Set the parameters after the given number of the parameters already set, for the statements of multiple rows.
+     *
+     * @return the number of the parameters set, including the given ones.
+     */
+    public int setParameters(PreparedStatement preparedStatement, int offset) throws SQLException {
         for (int i = 0; i < param.size(); i++) {
-            preparedStatement.setObject(i + 1, param.get(i));
+            preparedStatement.setObject(offset + i + 1, param.get(i));
         }
+        return offset + param.size();
     }
 
     @Override
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The upsert statements of the databases, which insert the rows, or update them when the ids exist, in one round trip.
+ * The values of a row are in the order of the table columns, the id first.
+ */
+public enum UpsertDialect {
+    H2 {
+        @Override
+        protected String head(final String table) {
+            return "MERGE INTO " + table + " KEY (id) VALUES ";
+        }
+
+        @Override
+        protected String tail(final List<String> columns) {
+            return "";
+        }
+    },
+    MYSQL {
+        @Override
+        protected String head(final String table) {
+            return "INSERT INTO " + table + " VALUES ";
+        }
+
+        @Override
+        protected String tail(final List<String> columns) {
+            return columns.stream()
+                          .map(column -> column + " = VALUES(" + column + ")")
+                          .collect(Collectors.joining(", ", " ON DUPLICATE KEY UPDATE ", ""));
+        }
+    },
+    POSTGRESQL {
+        @Override
+        protected String head(final String table) {
+            return "INSERT INTO " + table + " VALUES ";
+        }
+
+        @Override
+        protected String tail(final List<String> columns) {
+            return columns.stream()
+                          .map(column -> column + " = EXCLUDED." + column)
+                          .collect(Collectors.joining(", ", " ON CONFLICT (id) DO UPDATE SET ", ""));
+        }
+    };
+
+    protected abstract String head(String table);
+
+    /**
+     * @param columns the physical columns except the id.
+     */
+    protected abstract String tail(List<String> columns);
+
+    /**
+     * @param columns the physical columns except the id.
+     */
+    public UpsertTemplate template(String table, List<String> columns) {
+        return new UpsertTemplate(table, head(table), tail(columns), columns.size() + 1);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+
+/**
+ * The upsert SQL of a table, with the given number of rows in one statement. The SQL is built once for each number of
+ * rows, which is the same for the full statements of a table.
+ */
+public class UpsertTemplate {
+    @Getter
+    private final String table;
+    private final String head;
+    private final String tail;
+    /**
+     * The number of the parameters of a row, the id included.
+     */
+    @Getter
+    private final int paramsPerRow;
+    private final String row;
+    private final Map<Integer, String> sqlOfRows = new ConcurrentHashMap<>();
+
+    UpsertTemplate(final String table, final String head, final String tail, final int paramsPerRow) {
+        this.table = table;
+        this.head = head;
+        this.tail = tail;
+        this.paramsPerRow = paramsPerRow;
+        final StringBuilder row = new StringBuilder("(");
+        for (int i = 0; i < paramsPerRow; i++) {
+            row.append(i == 0 ? "?" : ",?");
+        }
+        this.row = row.append(")").toString();
+    }
+
+    public String getSQL(int rows) {
+        return sqlOfRows.computeIfAbsent(rows, this::buildSQL);
+    }
+
+    private String buildSQL(int rows) {
+        final StringBuilder sql = new StringBuilder(head.length() + (row.length() + 1) * rows + tail.length());
+        sql.append(head);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(",");
+            }
+            sql.append(row);
+        }
+        return sql.append(tail).toString();
+    }
+}
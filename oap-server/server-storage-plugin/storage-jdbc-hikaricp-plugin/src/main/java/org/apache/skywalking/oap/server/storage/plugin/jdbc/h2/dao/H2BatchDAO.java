@@ -24,6 +24,9 @@ import java.util.List;
 import java.util.Properties;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -34,22 +37,40 @@ import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.BatchSQLExecutor;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 @Slf4j
 public class H2BatchDAO implements IBatchDAO {
     private JDBCHikariCPClient h2Client;
     private final DataCarrier<PrepareRequest> dataCarrier;
     private final int maxBatchSqlSize;
+    private final ModuleDefineHolder moduleDefineHolder;
+    /**
+     * The batches of the different tables are executed in parallel, each on its own connection of the pool.
+     */
+    private final ExecutorService executorService;
+    private final Map<String, HistogramMetrics> tableWriteLatency = new ConcurrentHashMap<>();
+    private MetricsCreator metricsCreator;
 
-    public H2BatchDAO(JDBCHikariCPClient h2Client, int maxBatchSqlSize, int asyncBatchPersistentPoolSize) {
+    public H2BatchDAO(ModuleDefineHolder moduleDefineHolder, JDBCHikariCPClient h2Client,
+                      int maxBatchSqlSize, int asyncBatchPersistentPoolSize) {
+        this.moduleDefineHolder = moduleDefineHolder;
         this.h2Client = h2Client;
         String name = "H2_ASYNCHRONOUS_BATCH_PERSISTENT";
         if (log.isDebugEnabled()) {
             log.debug("H2_ASYNCHRONOUS_BATCH_PERSISTENT poolSize: {}, maxBatchSqlSize:{}", asyncBatchPersistentPoolSize, maxBatchSqlSize);
         }
         this.maxBatchSqlSize = maxBatchSqlSize;
+        this.executorService = Executors.newFixedThreadPool(
+            asyncBatchPersistentPoolSize, new CustomThreadFactory("JDBCBatchPersistent"));
         this.dataCarrier = new DataCarrier<>(name, asyncBatchPersistentPoolSize, 10000);
         this.dataCarrier.consume(new H2BatchDAO.H2BatchConsumer(this), asyncBatchPersistentPoolSize, 20);
     }
@@ -64,24 +85,46 @@ public class H2BatchDAO implements IBatchDAO {
         }
         final Map<PrepareRequest, List<PrepareRequest>> batchRequestMap =
                 prepareRequests.stream().collect(Collectors.groupingBy(Function.identity()));
+        final CompletableFuture<?>[] futures = batchRequestMap.values().stream().map(
+            requests -> CompletableFuture.runAsync(() -> execute(requests), executorService)
+        ).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).whenComplete(($1, $2) -> {
+            if (log.isDebugEnabled()) {
+                log.debug("execute sql statements done, data size: {}, maxBatchSqlSize: {}", prepareRequests.size(), maxBatchSqlSize);
+            }
+        });
+    }
+
+    /**
+     * Execute the batch of the same SQL, which means the same table.
+     */
+    private void execute(List<PrepareRequest> requests) {
+        final String table = ((SQLExecutor) requests.get(0)).getTable();
+        final HistogramMetrics.Timer timer = getTableWriteLatency(table).createTimer();
         try (Connection connection = h2Client.getConnection()) {
-            batchRequestMap.forEach((key, requests) -> {
-                try {
-                    BatchSQLExecutor batchSQLExecutor =
-                            new BatchSQLExecutor(requests);
-                    batchSQLExecutor.invoke(connection, maxBatchSqlSize);
-                } catch (SQLException e) {
-                    // Just avoid one execution failure makes the rest of batch failure.
-                    log.error(e.getMessage(), e);
-                }
-            });
+            new BatchSQLExecutor(requests).invoke(connection, maxBatchSqlSize);
         } catch (SQLException | JDBCClientException e) {
-            log.warn("execute sql failed, discard data size: {}", prepareRequests.size(), e);
+            // Just avoid one execution failure makes the rest of batch failure.
+            log.warn("execute sql failed, table: {}, discard data size: {}", table, requests.size(), e);
+        } finally {
+            timer.close();
         }
-        if (log.isDebugEnabled()) {
-            log.debug("execute sql statements done, data size: {}, maxBatchSqlSize: {}", prepareRequests.size(), maxBatchSqlSize);
+    }
+
+    private HistogramMetrics getTableWriteLatency(String table) {
+        HistogramMetrics histogram = tableWriteLatency.get(table);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (metricsCreator == null) {
+            metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                               .provider()
+                                               .getService(MetricsCreator.class);
         }
-        return CompletableFuture.completedFuture(null);
+        return tableWriteLatency.computeIfAbsent(table, key -> metricsCreator.createHistogramMetric(
+            "jdbc_batch_write_latency", "Latency of the batch write of each table in JDBC storage",
+            new MetricsTag.Keys("table"), new MetricsTag.Values(table)
+        ));
     }
 
     @Override
@@ -104,7 +147,7 @@ public class H2BatchDAO implements IBatchDAO {
 
         @Override
         public void consume(List<PrepareRequest> prepareRequests) {
-            h2BatchDAO.flush(prepareRequests);
+            h2BatchDAO.flush(prepareRequests).join();
         }
 
         @Override
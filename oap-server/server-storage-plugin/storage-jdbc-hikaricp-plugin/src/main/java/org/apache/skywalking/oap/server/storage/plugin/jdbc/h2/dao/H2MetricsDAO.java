@@ -29,15 +29,19 @@ import org.apache.skywalking.oap.server.core.storage.StorageData;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.UpsertDialect;
 
 public class H2MetricsDAO extends H2SQLExecutor implements IMetricsDAO {
 
     private JDBCHikariCPClient h2Client;
     private StorageHashMapBuilder<Metrics> storageBuilder;
+    private UpsertDialect upsertDialect;
 
-    public H2MetricsDAO(JDBCHikariCPClient h2Client, StorageHashMapBuilder<Metrics> storageBuilder) {
+    public H2MetricsDAO(JDBCHikariCPClient h2Client, StorageHashMapBuilder<Metrics> storageBuilder,
+                        UpsertDialect upsertDialect) {
         this.h2Client = h2Client;
         this.storageBuilder = storageBuilder;
+        this.upsertDialect = upsertDialect;
     }
 
     @Override
@@ -51,13 +55,16 @@ public class H2MetricsDAO extends H2SQLExecutor implements IMetricsDAO {
         return result;
     }
 
+    /**
+     * The insert and the update are both the upsert, so they share the same multi-row statements of the table.
+     */
     @Override
     public SQLExecutor prepareBatchInsert(Model model, Metrics metrics) throws IOException {
-        return getInsertExecutor(model.getName(), metrics, storageBuilder);
+        return getUpsertExecutor(model.getName(), metrics, storageBuilder, upsertDialect);
     }
 
     @Override
     public SQLExecutor prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
-        return getUpdateExecutor(model.getName(), metrics, storageBuilder);
+        return getUpsertExecutor(model.getName(), metrics, storageBuilder, upsertDialect);
     }
 }
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
@@ -33,26 +34,34 @@ import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
 import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
-import org.apache.skywalking.oap.server.storage.plugin.jdbc.ArrayParamBuilder;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.UpsertDialect;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.UpsertSQLExecutor;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.UpsertTemplate;
 
 @Slf4j
 public class H2SQLExecutor {
+    /**
+     * The SQL of the tables are the same for all rows, so they are built once.
+     */
+    private static final Map<String, String> INSERT_SQL = new ConcurrentHashMap<>();
+    private static final Map<String, String> UPDATE_SQL = new ConcurrentHashMap<>();
+    private static final Map<String, UpsertTemplate> UPSERT_TEMPLATES = new ConcurrentHashMap<>();
+
     protected <T extends StorageData> List<StorageData> getByIDs(JDBCHikariCPClient h2Client,
                                                                  String modelName,
                                                                  String[] ids,
                                                                  StorageHashMapBuilder<T> storageBuilder) throws IOException {
-        /*
-         * Although H2 database or other database support createArrayOf and setArray operate,
-         * Mysql 5.1.44 driver doesn't.
-         */
-        String param = ArrayParamBuilder.build(ids);
+        final StringBuilder sql = new StringBuilder("SELECT * FROM ").append(modelName).append(" WHERE id in (");
+        for (int i = 0; i < ids.length; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
 
         try (Connection connection = h2Client.getConnection();
-             ResultSet rs = h2Client.executeQuery(
-                 connection, "SELECT * FROM " + modelName + " WHERE id in (" + param + ")")) {
+             ResultSet rs = h2Client.executeQuery(connection, sql.toString(), (Object[]) ids)) {
             List<StorageData> storageDataList = new ArrayList<>();
             StorageData storageData;
             do {
@@ -112,25 +121,69 @@ public class H2SQLExecutor {
                                                                     StorageHashMapBuilder<T> storageBuilder,
                                                                     int maxSizeOfArrayColumn) throws IOException {
         Map<String, Object> objectMap = storageBuilder.entity2Storage(metrics);
+        List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
+        String sql = INSERT_SQL.computeIfAbsent(
+            modelName + "/" + maxSizeOfArrayColumn, key -> buildInsertSQL(modelName, columns, maxSizeOfArrayColumn));
 
-        SQLBuilder sqlBuilder = new SQLBuilder("INSERT INTO " + modelName + " VALUES");
+        return new SQLExecutor(modelName, sql, insertParams(metrics.id(), objectMap, columns, maxSizeOfArrayColumn));
+    }
+
+    /**
+     * The upsert of the entity, which is the insert and the update in one statement.
+     */
+    protected <T extends StorageData> SQLExecutor getUpsertExecutor(String modelName, T metrics,
+                                                                    StorageHashMapBuilder<T> storageBuilder,
+                                                                    UpsertDialect dialect) throws IOException {
+        Map<String, Object> objectMap = storageBuilder.entity2Storage(metrics);
         List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
-        List<Object> param = new ArrayList<>();
-        sqlBuilder.append("(?,");
-        param.add(metrics.id());
-        for (int i = 0; i < columns.size(); i++) {
-            ModelColumn column = columns.get(i);
+        UpsertTemplate template = UPSERT_TEMPLATES.computeIfAbsent(
+            modelName, key -> dialect.template(modelName, physicalColumns(columns, 1)));
+
+        return new UpsertSQLExecutor(template, insertParams(metrics.id(), objectMap, columns, 1));
+    }
+
+    private String buildInsertSQL(String modelName, List<ModelColumn> columns, int maxSizeOfArrayColumn) {
+        SQLBuilder sqlBuilder = new SQLBuilder("INSERT INTO " + modelName + " VALUES");
+        sqlBuilder.append("(?");
+        int physicalColumnSize = physicalColumns(columns, maxSizeOfArrayColumn).size();
+        for (int i = 0; i < physicalColumnSize; i++) {
+            sqlBuilder.append(",?");
+        }
+        sqlBuilder.append(")");
+        return sqlBuilder.toString();
+    }
+
+    /**
+     * @return the physical columns in the order of the table, except the id.
+     */
+    private List<String> physicalColumns(List<ModelColumn> columns, int maxSizeOfArrayColumn) {
+        List<String> physicalColumns = new ArrayList<>(columns.size());
+        for (ModelColumn column : columns) {
+            String storageName = column.getColumnName().getStorageName();
             if (List.class.isAssignableFrom(column.getType())) {
                 for (int physicalColumnIdx = 0; physicalColumnIdx < maxSizeOfArrayColumn; physicalColumnIdx++) {
-                    sqlBuilder.append("?");
-                    param.add(objectMap.get(column.getColumnName().getName() + "_" + physicalColumnIdx));
-                    if (physicalColumnIdx != maxSizeOfArrayColumn - 1) {
-                        sqlBuilder.append(",");
-                    }
+                    physicalColumns.add(storageName + "_" + physicalColumnIdx);
                 }
             } else {
-                sqlBuilder.append("?");
+                physicalColumns.add(storageName);
+            }
+        }
+        return physicalColumns;
+    }
 
+    /**
+     * @return the values of the id and the physical columns in the order of the table.
+     */
+    private List<Object> insertParams(String id, Map<String, Object> objectMap, List<ModelColumn> columns,
+                                      int maxSizeOfArrayColumn) {
+        List<Object> param = new ArrayList<>(columns.size() + 1);
+        param.add(id);
+        for (ModelColumn column : columns) {
+            if (List.class.isAssignableFrom(column.getType())) {
+                for (int physicalColumnIdx = 0; physicalColumnIdx < maxSizeOfArrayColumn; physicalColumnIdx++) {
+                    param.add(objectMap.get(column.getColumnName().getName() + "_" + physicalColumnIdx));
+                }
+            } else {
                 Object value = objectMap.get(column.getColumnName().getName());
                 if (value instanceof StorageDataComplexObject) {
                     param.add(((StorageDataComplexObject) value).toStorageData());
@@ -138,30 +191,18 @@ public class H2SQLExecutor {
                     param.add(value);
                 }
             }
-
-            if (i != columns.size() - 1) {
-                sqlBuilder.append(",");
-            }
         }
-        sqlBuilder.append(")");
-
-        return new SQLExecutor(sqlBuilder.toString(), param);
+        return param;
     }
 
     protected <T extends StorageData> SQLExecutor getUpdateExecutor(String modelName, T metrics,
                                                                     StorageHashMapBuilder<T> storageBuilder) throws IOException {
         Map<String, Object> objectMap = storageBuilder.entity2Storage(metrics);
-
-        SQLBuilder sqlBuilder = new SQLBuilder("UPDATE " + modelName + " SET ");
         List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
-        List<Object> param = new ArrayList<>();
-        for (int i = 0; i < columns.size(); i++) {
-            ModelColumn column = columns.get(i);
-            sqlBuilder.append(column.getColumnName().getStorageName() + "= ?");
-            if (i != columns.size() - 1) {
-                sqlBuilder.append(",");
-            }
+        String sql = UPDATE_SQL.computeIfAbsent(modelName, key -> buildUpdateSQL(modelName, columns));
 
+        List<Object> param = new ArrayList<>(columns.size() + 1);
+        for (ModelColumn column : columns) {
             Object value = objectMap.get(column.getColumnName().getName());
             if (value instanceof StorageDataComplexObject) {
                 param.add(((StorageDataComplexObject) value).toStorageData());
@@ -169,9 +210,21 @@ public class H2SQLExecutor {
                 param.add(value);
             }
         }
-        sqlBuilder.append(" WHERE id = ?");
         param.add(metrics.id());
 
-        return new SQLExecutor(sqlBuilder.toString(), param);
+        return new SQLExecutor(modelName, sql, param);
+    }
+
+    private String buildUpdateSQL(String modelName, List<ModelColumn> columns) {
+        SQLBuilder sqlBuilder = new SQLBuilder("UPDATE " + modelName + " SET ");
+        for (int i = 0; i < columns.size(); i++) {
+            ModelColumn column = columns.get(i);
+            sqlBuilder.append(column.getColumnName().getStorageName() + "= ?");
+            if (i != columns.size() - 1) {
+                sqlBuilder.append(",");
+            }
+        }
+        sqlBuilder.append(" WHERE id = ?");
+        return sqlBuilder.toString();
     }
 }
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchSQLExecutorTest {
+    private Connection connection;
+    private UpsertTemplate template;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:batch_sql_executor_test");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE metrics_test (id VARCHAR(512) PRIMARY KEY, time_bucket BIGINT, total BIGINT)");
+        }
+        template = UpsertDialect.H2.template("metrics_test", Arrays.asList("time_bucket", "total"));
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void testUpsertInMultipleRowStatements() throws SQLException {
+        // 7 rows in the statements of 3 rows, and the rest row in the single row statement.
+        new BatchSQLExecutor(upserts(7, 1)).invoke(connection, 3);
+        assertTotals(7, 1);
+
+        // The existing rows are updated, and the new rows are inserted.
+        new BatchSQLExecutor(upserts(9, 2)).invoke(connection, 3);
+        assertTotals(9, 2);
+    }
+
+    @Test
+    public void testTemplate() {
+        Assert.assertEquals("MERGE INTO metrics_test KEY (id) VALUES (?,?,?),(?,?,?)", template.getSQL(2));
+        Assert.assertEquals(
+            "INSERT INTO metrics_test VALUES (?,?,?) ON DUPLICATE KEY UPDATE time_bucket = VALUES(time_bucket), total = VALUES(total)",
+            UpsertDialect.MYSQL.template("metrics_test", Arrays.asList("time_bucket", "total")).getSQL(1)
+        );
+        Assert.assertEquals(
+            "INSERT INTO metrics_test VALUES (?,?,?) ON CONFLICT (id) DO UPDATE SET time_bucket = EXCLUDED.time_bucket, total = EXCLUDED.total",
+            UpsertDialect.POSTGRESQL.template("metrics_test", Arrays.asList("time_bucket", "total")).getSQL(1)
+        );
+    }
+
+    private List<PrepareRequest> upserts(int rows, long total) {
+        List<PrepareRequest> requests = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            requests.add(new UpsertSQLExecutor(template, Arrays.asList("id_" + i, 202110171200L, total)));
+        }
+        return requests;
+    }
+
+    private void assertTotals(int rows, long total) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*), MIN(total), MAX(total) FROM metrics_test")) {
+            Assert.assertTrue(rs.next());
+            Assert.assertEquals(rows, rs.getInt(1));
+            Assert.assertEquals(total, rs.getLong(2));
+            Assert.assertEquals(total, rs.getLong(3));
+        }
+    }
+}